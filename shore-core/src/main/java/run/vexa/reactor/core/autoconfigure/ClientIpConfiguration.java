@@ -0,0 +1,42 @@
+package run.vexa.reactor.core.autoconfigure;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import run.vexa.reactor.core.properties.ClientIpProperties;
+import run.vexa.reactor.core.util.ReactiveAddrUtil;
+
+/**
+ * client ip configuration.
+ *
+ * @author youta
+ **/
+@AutoConfiguration
+@EnableConfigurationProperties(ClientIpProperties.class)
+public class ClientIpConfiguration {
+
+    /**
+     * Default constructor.
+     * This constructor is used for serialization and other reflective operations.
+     */
+    public ClientIpConfiguration() {
+        // This constructor is intentionally empty.
+        // Further initialization logic can be added here if needed in the future.
+    }
+
+    /**
+     * 启动时写入受信任的请求头，并预先解析本机地址，避免首个请求在事件循环线程上做 DNS 查询.
+     *
+     * @param properties the client ip properties
+     * @return the smart initializing singleton
+     */
+    @Bean
+    public SmartInitializingSingleton clientIpInitializer(ClientIpProperties properties) {
+        return () -> {
+            ReactiveAddrUtil.configureTrustedHeaders(properties.getTrustedHeaders());
+            ReactiveAddrUtil.getLocalAddr();
+        };
+    }
+
+}
@@ -2,15 +2,23 @@ package run.vexa.reactor.core.properties;
 
 import run.vexa.reactor.commons.annotation.RequestMethodEnum;
 import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.unit.DataSize;
+import run.vexa.reactor.core.util.ExcludePathMatcher;
 
+import java.time.Duration;
+import java.util.AbstractSet;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
@@ -43,25 +51,33 @@ public class AuthProperties {
      */
     @Setter
     private String cache = "caffeine";
-    private static final AntPathMatcher MATCHER = new AntPathMatcher();
 
+    /**
+     * 排除路径的修改版本，任一排除路径集合变化时递增.
+     */
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong patternsVersion = new AtomicLong();
+
+    /**
+     * 按请求方法预编译的排除路径，排除路径变化后在下次匹配时整体重建并原子替换.
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile CompiledPatterns compiledPatterns;
 
     /**
      * 排除路径.
      */
     @Getter
-    private final Set<String> excludePatterns = new HashSet<>();
+    private final Set<String> excludePatterns = new PatternSet(this::patternsChanged);
 
     /**
-     * 设置get排除路径.
-     * getExcludePatterns get排除路径
+     * get排除路径.
      */
-    @Setter
-    private Set<String> getExcludePatterns = new HashSet<>();
-    private Set<String> postExcludePatterns = new HashSet<>();
-    private Set<String> putExcludePatterns = new HashSet<>();
-    private Set<String> patchExcludePatterns = new HashSet<>();
-    private Set<String> deleteExcludePatterns = new HashSet<>();
+    private Set<String> getExcludePatterns = new PatternSet(this::patternsChanged);
+    private Set<String> postExcludePatterns = new PatternSet(this::patternsChanged);
+    private Set<String> putExcludePatterns = new PatternSet(this::patternsChanged);
+    private Set<String> patchExcludePatterns = new PatternSet(this::patternsChanged);
+    private Set<String> deleteExcludePatterns = new PatternSet(this::patternsChanged);
 
     /**
      * 设置登录路径.
@@ -76,6 +92,42 @@ public class AuthProperties {
     private String logoutPattern = "/logout";
     private final Long renewTimeSeconds = 3600L;
 
+    /**
+     * 登录请求体最大长度.
+     */
+    @Setter
+    private DataSize loginBodyMaxSize = DataSize.ofKilobytes(16);
+
+    /**
+     * 会话近端缓存.
+     */
+    private final NearCache nearCache = new NearCache();
+
+    /**
+     * 会话续期合并.
+     */
+    private final Renewal renewal = new Renewal();
+
+    /**
+     * 密码校验线程池.
+     */
+    private final PasswordHash passwordHash = new PasswordHash();
+
+    /**
+     * 请求体缓存.
+     */
+    private final BodyCache bodyCache = new BodyCache();
+
+    /**
+     * 无状态签名 token.
+     */
+    private final Stateless stateless = new Stateless();
+
+    /**
+     * 本地认证缓存.
+     */
+    private final LocalCache localCache = new LocalCache();
+
     private static final String[] ENDPOINTS = {
             "/actuator/**",
             "/v3/api-docs/**",
@@ -96,13 +148,26 @@ public class AuthProperties {
             "/favicon.ico"
     };
 
+    /**
+     * 设置get排除路径.
+     *
+     * @param getExcludePatterns get排除路径
+     */
+    public void setGetExcludePatterns(Set<String> getExcludePatterns) {
+        PatternSet patterns = new PatternSet(this::patternsChanged);
+        patterns.addAll(getExcludePatterns);
+        this.getExcludePatterns = patterns;
+        patternsChanged();
+    }
+
     /**
      * 设置post排除路径.
      *
      * @param postExcludePatterns post排除路径
      */
     public void setPostExcludePatterns(Set<String> postExcludePatterns) {
-        this.postExcludePatterns = Collections.unmodifiableSet(postExcludePatterns);
+        this.postExcludePatterns = Collections.unmodifiableSet(new HashSet<>(postExcludePatterns));
+        patternsChanged();
     }
 
     /**
@@ -111,7 +176,8 @@ public class AuthProperties {
      * @param putExcludePatterns put排除路径
      */
     public void setPutExcludePatterns(Set<String> putExcludePatterns) {
-        this.putExcludePatterns = Collections.unmodifiableSet(putExcludePatterns);
+        this.putExcludePatterns = Collections.unmodifiableSet(new HashSet<>(putExcludePatterns));
+        patternsChanged();
     }
 
     /**
@@ -120,7 +186,8 @@ public class AuthProperties {
      * @param patchExcludePatterns patch排除路径
      */
     public void setPatchExcludePatterns(Set<String> patchExcludePatterns) {
-        this.patchExcludePatterns = Collections.unmodifiableSet(patchExcludePatterns);
+        this.patchExcludePatterns = Collections.unmodifiableSet(new HashSet<>(patchExcludePatterns));
+        patternsChanged();
     }
 
     /**
@@ -129,7 +196,8 @@ public class AuthProperties {
      * @param deleteExcludePatterns delete排除路径
      */
     public void setDeleteExcludePatterns(Set<String> deleteExcludePatterns) {
-        this.deleteExcludePatterns = Collections.unmodifiableSet(deleteExcludePatterns);
+        this.deleteExcludePatterns = Collections.unmodifiableSet(new HashSet<>(deleteExcludePatterns));
+        patternsChanged();
     }
 
 
@@ -145,7 +213,7 @@ public class AuthProperties {
             return false;
         }
 
-        return excludePatterns.stream().anyMatch(pattern -> MATCHER.match(pattern, path));
+        return compiledPatterns().get(RequestMethodEnum.ALL).matches(path);
     }
 
     /**
@@ -156,14 +224,33 @@ public class AuthProperties {
      * @return 是否排除路径
      */
     public boolean exclude(RequestMethodEnum method, String path) {
-        return switch (method) {
-            case GET -> getGetExcludePatterns().stream().anyMatch(pattern -> MATCHER.match(pattern, path));
-            case POST -> getPostExcludePatterns().stream().anyMatch(pattern -> MATCHER.match(pattern, path));
-            case PUT -> getPutExcludePatterns().stream().anyMatch(pattern -> MATCHER.match(pattern, path));
-            case DELETE -> getDeleteExcludePatterns().stream().anyMatch(pattern -> MATCHER.match(pattern, path));
-            case PATCH -> getPatchExcludePatterns().stream().anyMatch(pattern -> MATCHER.match(pattern, path));
-            case ALL -> getExcludePatterns().stream().anyMatch(pattern -> MATCHER.match(pattern, path));
-        };
+        return compiledPatterns().get(method).matches(path);
+    }
+
+    /**
+     * 获取预编译的排除路径，排除路径变化后重建.
+     *
+     * @return 预编译的排除路径
+     */
+    private CompiledPatterns compiledPatterns() {
+        CompiledPatterns compiled = compiledPatterns;
+        if (compiled != null && compiled.version() == patternsVersion.get()) {
+            return compiled;
+        }
+        synchronized (patternsVersion) {
+            compiled = compiledPatterns;
+            long version = patternsVersion.get();
+            if (compiled == null || compiled.version() != version) {
+                // 先读版本再读集合，编译期间集合再次变化时版本不一致，下次匹配会重新编译
+                compiled = CompiledPatterns.compile(version, this);
+                compiledPatterns = compiled;
+            }
+            return compiled;
+        }
+    }
+
+    private void patternsChanged() {
+        patternsVersion.incrementAndGet();
     }
 
     /**
@@ -174,5 +261,315 @@ public class AuthProperties {
         Collections.addAll(excludePatterns, ENDPOINTS);
     }
 
+    /**
+     * 会话近端缓存配置
+     * <p>
+     * 默认关闭. 开启后认证命中本地缓存时不再访问认证缓存，代价是一个不一致窗口：
+     * 其他节点退出登录、挤下线或会话被删除后，本节点最长在 {@code ttl} 内仍接受该 token；
+     * Redis 模式下失效通知正常送达时窗口只有通知延迟. 条目不会晚于 token 过期.
+     */
+    @Getter
+    @Setter
+    public static class NearCache {
+
+        /**
+         * Default constructor.
+         * This constructor is used for serialization and other reflective operations.
+         */
+        public NearCache() {
+            // This constructor is intentionally empty.
+        }
+
+        /**
+         * 是否开启，默认关闭.
+         */
+        private boolean enabled;
+
+        /**
+         * 最大缓存会话数.
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * 最长缓存时间，也是会话在别处失效后本节点仍可能接受 token 的最长时间.
+         */
+        private Duration ttl = Duration.ofSeconds(30);
+    }
+
+    /**
+     * 会话续期合并配置
+     */
+    @Getter
+    @Setter
+    public static class Renewal {
+
+        /**
+         * Default constructor.
+         * This constructor is used for serialization and other reflective operations.
+         */
+        public Renewal() {
+            // This constructor is intentionally empty.
+        }
+
+        /**
+         * 是否合并续期，关闭后每次请求单独续期.
+         */
+        private boolean coalesce = true;
+
+        /**
+         * 批量续期的刷新周期.
+         */
+        private Duration flushInterval = Duration.ofSeconds(1);
+
+        /**
+         * 同一 token 两次续期的最小间隔.
+         */
+        private Duration minInterval = Duration.ofMinutes(1);
+
+        /**
+         * 记录最近续期 token 的最大个数.
+         */
+        private long maximumSize = 100_000;
+    }
+
+    /**
+     * 密码校验线程池配置
+     */
+    @Getter
+    @Setter
+    public static class PasswordHash {
+
+        /**
+         * Default constructor.
+         * This constructor is used for serialization and other reflective operations.
+         */
+        public PasswordHash() {
+            // This constructor is intentionally empty.
+        }
 
+        /**
+         * 线程数，默认为 CPU 核数.
+         */
+        private int poolSize = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * 等待队列长度，队列已满时立即拒绝登录请求.
+         */
+        private int queueCapacity = 256;
+    }
+
+    /**
+     * 本地认证缓存配置
+     */
+    @Getter
+    @Setter
+    public static class LocalCache {
+
+        /**
+         * Default constructor.
+         * This constructor is used for serialization and other reflective operations.
+         */
+        public LocalCache() {
+            // This constructor is intentionally empty.
+        }
+
+        /**
+         * token 与刷新 token 缓存的最大权重，每个条目权重为 1.
+         */
+        private long tokenMaximumWeight = 200_000;
+
+        /**
+         * 会话缓存的最大权重，每个会话权重为 1 + 角色数.
+         */
+        private long sessionMaximumWeight = 400_000;
+
+        /**
+         * 用户 token 列表缓存的最大权重，每个列表权重为其 token 数.
+         */
+        private long tokenListMaximumWeight = 200_000;
+
+        /**
+         * 是否记录命中率等统计，开启后导出到 Micrometer.
+         */
+        private boolean recordStats = true;
+    }
+
+    /**
+     * 无状态签名 token 配置
+     */
+    @Getter
+    @Setter
+    public static class Stateless {
+
+        /**
+         * Default constructor.
+         * This constructor is used for serialization and other reflective operations.
+         */
+        public Stateless() {
+            // This constructor is intentionally empty.
+        }
+
+        /**
+         * 是否签发签名 token，开启后认证不再查询会话缓存.
+         */
+        private boolean enabled = false;
+
+        /**
+         * HMAC 签名密钥，至少 32 字节.
+         */
+        private String secret;
+
+        /**
+         * 签发者.
+         */
+        private String issuer = "shore";
+
+        /**
+         * 校验过期时间时允许的时钟偏差.
+         */
+        private Duration clockSkew = Duration.ofSeconds(30);
+    }
+
+    /**
+     * 请求体缓存配置
+     */
+    @Getter
+    @Setter
+    public static class BodyCache {
+
+        /**
+         * Default constructor.
+         * This constructor is used for serialization and other reflective operations.
+         */
+        public BodyCache() {
+            // This constructor is intentionally empty.
+        }
+
+        /**
+         * 需要缓存请求体的路径(Ant 风格)，登录路径始终缓存.
+         */
+        private Set<String> paths = new HashSet<>();
+
+        /**
+         * 内存中缓存的最大字节数.
+         */
+        private DataSize maxSize = DataSize.ofKilobytes(256);
+
+        /**
+         * 超出最大字节数时的处理方式.
+         */
+        private Overflow overflow = Overflow.REJECT;
+
+        /**
+         * 请求体超限处理方式
+         */
+        public enum Overflow {
+
+            /**
+             * 返回 413.
+             */
+            REJECT,
+
+            /**
+             * 写入临时文件，重放时从文件读取.
+             */
+            SPILL
+        }
+    }
+
+    /**
+     * 按请求方法预编译的排除路径
+     *
+     * @param version  编译时的排除路径版本
+     * @param matchers 各请求方法的匹配器
+     */
+    private record CompiledPatterns(long version, Map<RequestMethodEnum, ExcludePathMatcher> matchers) {
+
+        private static CompiledPatterns compile(long version, AuthProperties properties) {
+            Map<RequestMethodEnum, ExcludePathMatcher> matchers = new EnumMap<>(RequestMethodEnum.class);
+            matchers.put(RequestMethodEnum.GET, ExcludePathMatcher.compile(properties.getGetExcludePatterns()));
+            matchers.put(RequestMethodEnum.POST, ExcludePathMatcher.compile(properties.getPostExcludePatterns()));
+            matchers.put(RequestMethodEnum.PUT, ExcludePathMatcher.compile(properties.getPutExcludePatterns()));
+            matchers.put(RequestMethodEnum.PATCH, ExcludePathMatcher.compile(properties.getPatchExcludePatterns()));
+            matchers.put(RequestMethodEnum.DELETE, ExcludePathMatcher.compile(properties.getDeleteExcludePatterns()));
+            matchers.put(RequestMethodEnum.ALL, ExcludePathMatcher.compile(properties.getExcludePatterns()));
+            return new CompiledPatterns(version, matchers);
+        }
+
+        private ExcludePathMatcher get(RequestMethodEnum method) {
+            return matchers.get(method);
+        }
+    }
+
+    /**
+     * 修改时通知重新编译的路径集合
+     */
+    private static final class PatternSet extends AbstractSet<String> {
+
+        private final Set<String> delegate = new HashSet<>();
+
+        private final Runnable onChange;
+
+        private PatternSet(Runnable onChange) {
+            this.onChange = onChange;
+        }
+
+        @Override
+        public boolean add(String pattern) {
+            boolean added = delegate.add(pattern);
+            if (added) {
+                onChange.run();
+            }
+            return added;
+        }
+
+        @Override
+        public boolean remove(Object pattern) {
+            boolean removed = delegate.remove(pattern);
+            if (removed) {
+                onChange.run();
+            }
+            return removed;
+        }
+
+        @Override
+        public void clear() {
+            if (!delegate.isEmpty()) {
+                delegate.clear();
+                onChange.run();
+            }
+        }
+
+        @Override
+        public boolean contains(Object pattern) {
+            return delegate.contains(pattern);
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            Iterator<String> iterator = delegate.iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public String next() {
+                    return iterator.next();
+                }
+
+                @Override
+                public void remove() {
+                    iterator.remove();
+                    onChange.run();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+    }
 }
@@ -0,0 +1,35 @@
+package run.vexa.reactor.core.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import run.vexa.reactor.core.util.ReactiveAddrUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * client ip properties.
+ *
+ * @author youta
+ **/
+@Getter
+@Setter
+@ConfigurationProperties("shore.client-ip")
+public class ClientIpProperties {
+
+    /**
+     * Default constructor.
+     * This constructor is used for serialization and other reflective operations.
+     */
+    public ClientIpProperties() {
+        // This constructor is intentionally empty.
+        // Further initialization logic can be added here if needed in the future.
+    }
+
+    /**
+     * 受信任的请求头，按顺序取第一个有效值；只配置实际代理会写入的头，避免客户端伪造.
+     */
+    private List<String> trustedHeaders = new ArrayList<>(ReactiveAddrUtil.DEFAULT_TRUSTED_HEADERS);
+
+}
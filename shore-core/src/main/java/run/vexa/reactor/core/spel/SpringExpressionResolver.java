@@ -60,21 +60,31 @@ public class SpringExpressionResolver implements ExpressionResolver {
             return null;
         }
         try {
-            value = wrapIfNecessary(value);
-            if (environment != null) {
-                value = environment.resolvePlaceholders(value);
-            }
-            Expression expression = this.expressionCache.get(value);
-            if (expression == null) {
-                expression = this.expressionParser.parseExpression(value, this.beanExpressionParserContext);
-                this.expressionCache.put(value, expression);
-            }
-            return expression.getValue(context, returnType);
+            return parseExpression(value).getValue(context, returnType);
         } catch (Throwable ex) {
             throw new ExpressionException("Expression parsing failed", ex);
         }
     }
 
+    /**
+     * Parse the value into a cached expression, so callers evaluating the same value repeatedly
+     * can keep the parsed form and skip the wrap/placeholder/lookup work on every call.
+     *
+     * @param value the value
+     * @return the expression, or {@code null} when the value is empty
+     */
+    public Expression parseExpression(String value) {
+        if (!StringUtils.hasLength(value)) {
+            return null;
+        }
+        value = wrapIfNecessary(value);
+        if (environment != null) {
+            value = environment.resolvePlaceholders(value);
+        }
+        return this.expressionCache.computeIfAbsent(value,
+                v -> this.expressionParser.parseExpression(v, this.beanExpressionParserContext));
+    }
+
     /**
      * Wrap if necessary string.
      *
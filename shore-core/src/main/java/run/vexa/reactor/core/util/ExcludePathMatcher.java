@@ -0,0 +1,145 @@
+package run.vexa.reactor.core.util;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import org.springframework.web.util.pattern.PatternParseException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 预编译的排除路径匹配器.
+ * <p>
+ * 不含通配符的路径放入哈希表直接命中；通配路径编译为 {@link PathPattern}，按首个路径段分桶，
+ * 查找时只匹配同一首段及首段为通配符的模式. {@link PathPatternParser} 不支持的写法
+ * (如中间位置的 {@code **})回退到 {@link AntPathMatcher}. 实例不可变，可被并发调用共享.
+ *
+ * @author youta
+ **/
+public final class ExcludePathMatcher {
+
+    /**
+     * 空匹配器.
+     */
+    public static final ExcludePathMatcher EMPTY = new ExcludePathMatcher(Set.of(), Map.of(), new Entry[0]);
+
+    private static final AntPathMatcher ANT_MATCHER = new AntPathMatcher();
+
+    private static final PathPatternParser PARSER = new PathPatternParser();
+
+    private final Set<String> literals;
+
+    private final Map<String, Entry[]> segmentEntries;
+
+    private final Entry[] genericEntries;
+
+    private ExcludePathMatcher(Set<String> literals, Map<String, Entry[]> segmentEntries, Entry[] genericEntries) {
+        this.literals = literals;
+        this.segmentEntries = segmentEntries;
+        this.genericEntries = genericEntries;
+    }
+
+    /**
+     * 编译排除路径.
+     *
+     * @param patterns Ant 风格的路径
+     * @return 匹配器
+     */
+    public static ExcludePathMatcher compile(Collection<String> patterns) {
+        if (patterns == null || patterns.isEmpty()) {
+            return EMPTY;
+        }
+        Set<String> literals = new HashSet<>();
+        Map<String, List<Entry>> segments = new HashMap<>();
+        List<Entry> generic = new ArrayList<>();
+        for (String pattern : patterns) {
+            if (!ANT_MATCHER.isPattern(pattern)) {
+                literals.add(pattern);
+                continue;
+            }
+            Entry entry = Entry.of(pattern);
+            String segment = firstSegment(pattern);
+            if (segment == null || ANT_MATCHER.isPattern(segment)) {
+                generic.add(entry);
+            } else {
+                segments.computeIfAbsent(segment, k -> new ArrayList<>()).add(entry);
+            }
+        }
+        Map<String, Entry[]> segmentEntries = new HashMap<>(segments.size() * 2);
+        segments.forEach((segment, entries) -> segmentEntries.put(segment, entries.toArray(Entry[]::new)));
+        return new ExcludePathMatcher(Set.copyOf(literals), Map.copyOf(segmentEntries), generic.toArray(Entry[]::new));
+    }
+
+    /**
+     * 是否匹配.
+     *
+     * @param path 请求路径
+     * @return 是否匹配
+     */
+    public boolean matches(String path) {
+        if (literals.contains(path)) {
+            return true;
+        }
+        String segment = firstSegment(path);
+        Entry[] entries = segment == null ? null : segmentEntries.get(segment);
+        if (entries == null && genericEntries.length == 0) {
+            return false;
+        }
+        PathContainer container = PathContainer.parsePath(path);
+        return matches(entries, path, container) || matches(genericEntries, path, container);
+    }
+
+    private static boolean matches(Entry[] entries, String path, PathContainer container) {
+        if (entries != null) {
+            for (Entry entry : entries) {
+                if (entry.matches(path, container)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 首个路径段，忽略开头的分隔符.
+     *
+     * @param path 路径
+     * @return 首个路径段，为空时返回 {@code null}
+     */
+    private static String firstSegment(String path) {
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        return end > start ? path.substring(start, end) : null;
+    }
+
+    /**
+     * 通配路径
+     *
+     * @param pattern    编译后的路径，无法编译时为 {@code null}
+     * @param antPattern 原始 Ant 路径
+     */
+    private record Entry(PathPattern pattern, String antPattern) {
+
+        private static Entry of(String antPattern) {
+            try {
+                return new Entry(PARSER.parse(antPattern), antPattern);
+            } catch (PatternParseException e) {
+                return new Entry(null, antPattern);
+            }
+        }
+
+        private boolean matches(String path, PathContainer container) {
+            return pattern != null ? pattern.matches(container) : ANT_MATCHER.match(antPattern, path);
+        }
+    }
+}
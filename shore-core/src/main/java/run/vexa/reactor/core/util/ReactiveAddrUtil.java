@@ -1,29 +1,49 @@
 package run.vexa.reactor.core.util;
 
-import cn.hutool.core.text.StrPool;
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
 
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
-import java.util.Map;
-import java.util.Objects;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 响应式获取ip地址.
+ * <p>
+ * 只读取受信任的请求头，转发链按字符扫描，仅为最终结果截取一次字符串；
+ * 本机地址只解析一次，避免在事件循环线程上做 DNS 查询.
  *
  * @author youta
  **/
 @Slf4j
 public final class ReactiveAddrUtil {
 
+    /**
+     * 解析出的客户端IP在 exchange 中的属性名，同一请求只解析一次.
+     */
+    public static final String REMOTE_ADDR_ATTRIBUTE = ReactiveAddrUtil.class.getName() + ".REMOTE_ADDR";
+
+    /**
+     * 默认受信任的请求头.
+     */
+    public static final List<String> DEFAULT_TRUSTED_HEADERS = List.of("X-Forwarded-For", "Proxy-Client-IP",
+            "WL-Proxy-Client-IP", "HTTP_CLIENT_IP", "HTTP_X_FORWARDED_FOR");
+
     private static final String UNKNOWN_STR = "unknown";
     private static final String LOCAL_IP = "127.0.0.1";
     private static final String LOCAL_IP_STR = "0:0:0:0:0:0:0:1";
-    private static final int IP_MAX_LENGTH = 15;
+
+    private static final AtomicBoolean TRUSTED_HEADERS_CONFIGURED = new AtomicBoolean();
+
+    private static volatile List<String> trustedHeaders = DEFAULT_TRUSTED_HEADERS;
+
+    private static volatile String localAddr;
 
     /**
      * Default constructor.
@@ -34,24 +54,63 @@ public final class ReactiveAddrUtil {
         // Further initialization logic can be added here if needed in the future.
     }
 
+    /**
+     * 配置受信任的请求头，按顺序取第一个有效值. 启动时由配置写入一次，之后不可更改：
+     * 再次配置相同的值无影响，配置不同的值抛出 {@link IllegalStateException}.
+     *
+     * @param headers 请求头
+     */
+    public static void configureTrustedHeaders(Collection<String> headers) {
+        List<String> configured = List.copyOf(headers);
+        if (!TRUSTED_HEADERS_CONFIGURED.compareAndSet(false, true) && !trustedHeaders.equals(configured)) {
+            throw new IllegalStateException("Trusted headers are already configured as " + trustedHeaders);
+        }
+        trustedHeaders = configured;
+    }
+
+    /**
+     * 恢复默认的受信任请求头，仅供测试使用.
+     */
+    static void resetTrustedHeaders() {
+        trustedHeaders = DEFAULT_TRUSTED_HEADERS;
+        TRUSTED_HEADERS_CONFIGURED.set(false);
+    }
+
+    /**
+     * 获取客户端IP地址，结果缓存在 exchange 属性中.
+     *
+     * @param exchange exchange
+     * @return ip
+     */
+    public static String getRemoteAddr(ServerWebExchange exchange) {
+        String ip = exchange.getAttribute(REMOTE_ADDR_ATTRIBUTE);
+        if (ip == null) {
+            ip = getRemoteAddr(exchange.getRequest());
+            if (ip != null) {
+                exchange.getAttributes().put(REMOTE_ADDR_ATTRIBUTE, ip);
+            }
+        }
+        return ip;
+    }
+
     /**
      * 获取客户端IP地址.
      *
      * @param request request
      * @return ip
      */
-    @SuppressFBWarnings("NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE")
     public static String getRemoteAddr(ServerHttpRequest request) {
-        Map<String, String> headers = request.getHeaders().toSingleValueMap();
-        String ip = getIpFromHeaders(headers);
-        if (ip == null) {
-            InetSocketAddress remoteAddress = request.getRemoteAddress();
-            ip = Objects.requireNonNull(remoteAddress).getAddress().getHostAddress();
-            if (LOCAL_IP.equals(ip) || LOCAL_IP_STR.equals(ip)) {
-                ip = getLocalAddr();
-            }
-        } else if (ip.length() > IP_MAX_LENGTH) {
-            ip = extractFirstNonEmptyIp(ip);
+        String ip = getIpFromHeaders(request.getHeaders());
+        if (ip != null) {
+            return extractFirstNonEmptyIp(ip);
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) {
+            return null;
+        }
+        ip = remoteAddress.getAddress().getHostAddress();
+        if (LOCAL_IP.equals(ip) || LOCAL_IP_STR.equals(ip)) {
+            ip = getLocalAddr();
         }
         return ip;
     }
@@ -62,16 +121,16 @@ public final class ReactiveAddrUtil {
      * @param headers headers
      * @return ip
      */
-    private static String getIpFromHeaders(Map<String, String> headers) {
-    String[] headerKeys = {"X-Forwarded-For", "Proxy-Client-IP", "WL-Proxy-Client-IP", "HTTP_CLIENT_IP", "HTTP_X_FORWARDED_FOR"};
-    for (String key : headerKeys) {
-        String ip = headers.get(key);
-        if (StringUtils.hasLength(ip) && !UNKNOWN_STR.equalsIgnoreCase(ip)) {
-            return ip;
+    private static String getIpFromHeaders(HttpHeaders headers) {
+        List<String> keys = trustedHeaders;
+        for (int i = 0, n = keys.size(); i < n; i++) {
+            String ip = headers.getFirst(keys.get(i));
+            if (StringUtils.hasLength(ip) && !UNKNOWN_STR.equalsIgnoreCase(ip)) {
+                return ip;
+            }
         }
+        return null;
     }
-    return null;
-}
 
     /**
      * extract first not empty ip.
@@ -80,23 +139,47 @@ public final class ReactiveAddrUtil {
      * @return ip
      */
     private static String extractFirstNonEmptyIp(String ip) {
-    String[] ips = ip.split(StrPool.COMMA);
-    for (String strIp : ips) {
-        String trimmedIp = strIp.trim();
-        if (StringUtils.hasLength(trimmedIp) && !UNKNOWN_STR.equalsIgnoreCase(trimmedIp)) {
-            return trimmedIp;
+        int length = ip.length();
+        int start = 0;
+        while (start < length) {
+            int end = ip.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            int from = start;
+            int to = end;
+            while (from < to && Character.isWhitespace(ip.charAt(from))) {
+                from++;
+            }
+            while (to > from && Character.isWhitespace(ip.charAt(to - 1))) {
+                to--;
+            }
+            boolean unknown = to - from == UNKNOWN_STR.length()
+                    && ip.regionMatches(true, from, UNKNOWN_STR, 0, UNKNOWN_STR.length());
+            if (to > from && !unknown) {
+                return from == 0 && to == length ? ip : ip.substring(from, to);
+            }
+            start = end + 1;
         }
+        return ip;
     }
-    return ip;
-}
 
 
     /**
-     * 获取本机的IP地址.
+     * 获取本机的IP地址，首次调用后缓存.
      *
      * @return ip
      */
     public static String getLocalAddr() {
+        String addr = localAddr;
+        if (addr == null) {
+            addr = resolveLocalAddr();
+            localAddr = addr;
+        }
+        return addr;
+    }
+
+    private static String resolveLocalAddr() {
         try {
             return InetAddress.getLocalHost().getHostAddress();
         } catch (UnknownHostException e) {
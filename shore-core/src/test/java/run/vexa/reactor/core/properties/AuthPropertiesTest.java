@@ -217,5 +217,18 @@ class AuthPropertiesTest {
         assertFalse(result, "Path should not be excluded because no patterns are set");
     }
 
-}
+    @Test
+    void testExcludeRebuildsWhenPatternsChange() {
+        assertFalse(authProperties.exclude(RequestMethodEnum.GET, "/anonymous/hello"));
+
+        authProperties.getGetExcludePatterns().add("/anonymous/**");
+        assertTrue(authProperties.exclude(RequestMethodEnum.GET, "/anonymous/hello"));
+
+        authProperties.getGetExcludePatterns().remove("/anonymous/**");
+        assertFalse(authProperties.exclude(RequestMethodEnum.GET, "/anonymous/hello"));
 
+        authProperties.getExcludePatterns().add("/anonymous");
+        assertTrue(authProperties.exclude(RequestMethodEnum.ALL, "/anonymous"));
+    }
+
+}
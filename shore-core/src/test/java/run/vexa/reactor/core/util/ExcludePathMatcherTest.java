@@ -0,0 +1,133 @@
+package run.vexa.reactor.core.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exclude path matcher unit test.
+ *
+ * @author youta
+ **/
+class ExcludePathMatcherTest {
+
+    private static final AntPathMatcher ANT_MATCHER = new AntPathMatcher();
+
+    @Test
+    void testLiteralPath() {
+        ExcludePathMatcher matcher = ExcludePathMatcher.compile(Set.of("/docs", "/favicon.ico"));
+
+        assertTrue(matcher.matches("/docs"));
+        assertTrue(matcher.matches("/favicon.ico"));
+        assertFalse(matcher.matches("/docs/index"));
+    }
+
+    @Test
+    void testWildcardPath() {
+        ExcludePathMatcher matcher = ExcludePathMatcher.compile(Set.of("/api/orders/**", "/api/items/*",
+                "/**/public", "/*.html", "/users/{id}"));
+
+        assertTrue(matcher.matches("/api/orders"));
+        assertTrue(matcher.matches("/api/orders/1/lines"));
+        assertTrue(matcher.matches("/api/items/1"));
+        assertFalse(matcher.matches("/api/items/1/detail"));
+        assertTrue(matcher.matches("/a/b/public"));
+        assertTrue(matcher.matches("/doc.html"));
+        assertTrue(matcher.matches("/users/42"));
+        assertFalse(matcher.matches("/api/other"));
+    }
+
+    @Test
+    void testPatternUnsupportedByPathPatternFallsBackToAnt() {
+        ExcludePathMatcher matcher = ExcludePathMatcher.compile(Set.of("/api/**/export"));
+
+        assertTrue(matcher.matches("/api/a/b/export"));
+        assertFalse(matcher.matches("/api/a/b/import"));
+    }
+
+    @Test
+    void testEmptyPatterns() {
+        assertSame(ExcludePathMatcher.EMPTY, ExcludePathMatcher.compile(Set.of()));
+        assertFalse(ExcludePathMatcher.EMPTY.matches("/any"));
+    }
+
+    /**
+     * Compares the compiled matcher with the previous stream-based {@link AntPathMatcher} scan over
+     * ~200 anonymous routes and asserts both implementations agree on every path.
+     */
+    @Test
+    void testCompiledMatcherAgainstStreamScan() {
+        Set<String> patterns = routePatterns();
+        List<String> paths = routePaths();
+        ExcludePathMatcher matcher = ExcludePathMatcher.compile(patterns);
+        for (String path : paths) {
+            assertEquals(scan(patterns, path), matcher.matches(path), path);
+        }
+    }
+
+    /**
+     * Before/after timing of the stream scan and the compiled matcher over the same routes. JMH is not part
+     * of this build, so this is a coarse wall-clock comparison that only prints ns/call and asserts nothing.
+     */
+    @Test
+    void testCompiledMatcherTimingAgainstStreamScan() {
+        Set<String> patterns = routePatterns();
+        List<String> paths = routePaths();
+        ExcludePathMatcher matcher = ExcludePathMatcher.compile(patterns);
+        int rounds = 200;
+        long scanNanos = time(() -> {
+            for (int r = 0; r < rounds; r++) {
+                for (String path : paths) {
+                    scan(patterns, path);
+                }
+            }
+        });
+        long compiledNanos = time(() -> {
+            for (int r = 0; r < rounds; r++) {
+                for (String path : paths) {
+                    matcher.matches(path);
+                }
+            }
+        });
+        long calls = (long) rounds * paths.size();
+        System.out.printf("exclude path: %d ns/call stream scan, %d ns/call compiled%n",
+                scanNanos / calls, compiledNanos / calls);
+    }
+
+    private static Set<String> routePatterns() {
+        Set<String> patterns = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            patterns.add("/api/module" + i + "/list");
+            patterns.add("/api/module" + i + "/detail/**");
+        }
+        return patterns;
+    }
+
+    private static List<String> routePaths() {
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            paths.add("/api/module" + i + "/list");
+            paths.add("/api/module" + i + "/detail/" + i);
+            paths.add("/api/module" + i + "/update");
+        }
+        return paths;
+    }
+
+    private static boolean scan(Set<String> patterns, String path) {
+        return patterns.stream().anyMatch(pattern -> ANT_MATCHER.match(pattern, path));
+    }
+
+    private static long time(Runnable task) {
+        task.run();
+        long start = System.nanoTime();
+        task.run();
+        return System.nanoTime() - start;
+    }
+
+}
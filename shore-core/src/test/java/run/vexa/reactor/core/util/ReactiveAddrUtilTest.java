@@ -1,15 +1,17 @@
 package run.vexa.reactor.core.util;
 
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,6 +22,10 @@ import static org.junit.jupiter.api.Assertions.*;
  **/
 class ReactiveAddrUtilTest {
 
+    @AfterEach
+    void resetTrustedHeaders() {
+        ReactiveAddrUtil.resetTrustedHeaders();
+    }
 
     @Test
     void testGetRemoteAddrFromXForwardedFor() {
@@ -125,8 +131,8 @@ class ReactiveAddrUtilTest {
 
     @Test
     void testGetIpFromHeadersWithValidIp() {
-        Map<String, String> headers = new HashMap<>();
-        headers.put("X-Forwarded-For", "192.168.1.1");
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Forwarded-For", "192.168.1.1");
 
         String result = ReflectionTestUtils.invokeMethod(ReactiveAddrUtil.class,
                 "getIpFromHeaders", headers);
@@ -136,8 +142,8 @@ class ReactiveAddrUtilTest {
 
     @Test
     void testGetIpFromHeadersWithUnknownIp() {
-        Map<String, String> headers = new HashMap<>();
-        headers.put("X-Forwarded-For", "unknown");
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Forwarded-For", "unknown");
 
         String result = ReflectionTestUtils.invokeMethod(ReactiveAddrUtil.class,
                 "getIpFromHeaders", headers);
@@ -146,9 +152,9 @@ class ReactiveAddrUtilTest {
 
     @Test
     void testGetIpFromHeadersFallbackToAnotherHeader() {
-        Map<String, String> headers = new HashMap<>();
-        headers.put("X-Forwarded-For", "unknown");
-        headers.put("Proxy-Client-IP", "172.16.0.5");
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Forwarded-For", "unknown");
+        headers.add("Proxy-Client-IP", "172.16.0.5");
 
         String result = ReflectionTestUtils.invokeMethod(ReactiveAddrUtil.class,
                 "getIpFromHeaders", headers);
@@ -157,8 +163,8 @@ class ReactiveAddrUtilTest {
 
     @Test
     void testGetIpFromHeadersWithEmptyIp() {
-        Map<String, String> headers = new HashMap<>();
-        headers.put("X-Forwarded-For", "");
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Forwarded-For", "");
 
         String result = ReflectionTestUtils.invokeMethod(ReactiveAddrUtil.class,
                 "getIpFromHeaders", headers);
@@ -167,11 +173,71 @@ class ReactiveAddrUtilTest {
 
     @Test
     void testGetIpFromHeadersWithNoIpHeaders() {
-        Map<String, String> headers = new HashMap<>();
+        HttpHeaders headers = new HttpHeaders();
 
         String result = ReflectionTestUtils.invokeMethod(ReactiveAddrUtil.class,
                 "getIpFromHeaders", headers);
         assertNull(result, "The method should return null when there are no IP headers");
     }
 
+    @Test
+    void testExtractFirstNonEmptyIpWithoutSpaces() {
+        String result = ReflectionTestUtils.invokeMethod(ReactiveAddrUtil.class,
+                "extractFirstNonEmptyIp", "1.1.1.1,2.2.2.2");
+        assertEquals("1.1.1.1", result);
+
+        result = ReflectionTestUtils.invokeMethod(ReactiveAddrUtil.class,
+                "extractFirstNonEmptyIp", " UNKNOWN ,2001:db8::1");
+        assertEquals("2001:db8::1", result);
+    }
+
+    @Test
+    void testGetRemoteAddrOnlyReadsTrustedHeaders() {
+        ReactiveAddrUtil.configureTrustedHeaders(List.of("X-Real-IP"));
+        ServerHttpRequest request = MockServerHttpRequest.get("/")
+                .header("X-Forwarded-For", "10.0.0.9")
+                .header("X-Real-IP", "10.0.0.7")
+                .build();
+
+        assertEquals("10.0.0.7", ReactiveAddrUtil.getRemoteAddr(request));
+    }
+
+    @Test
+    void testTrustedHeadersCannotBeChangedOnceConfigured() {
+        ReactiveAddrUtil.configureTrustedHeaders(List.of("X-Real-IP"));
+        ReactiveAddrUtil.configureTrustedHeaders(List.of("X-Real-IP"));
+
+        assertThrows(IllegalStateException.class,
+                () -> ReactiveAddrUtil.configureTrustedHeaders(List.of("X-Forwarded-For")));
+        ServerHttpRequest request = MockServerHttpRequest.get("/")
+                .header("X-Forwarded-For", "10.0.0.9")
+                .header("X-Real-IP", "10.0.0.7")
+                .build();
+        assertEquals("10.0.0.7", ReactiveAddrUtil.getRemoteAddr(request));
+    }
+
+    @Test
+    void testGetRemoteAddrIsCachedOnExchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/")
+                .header("X-Forwarded-For", "10.0.0.1, 10.0.0.2"));
+
+        String remoteAddr = ReactiveAddrUtil.getRemoteAddr(exchange);
+
+        assertEquals("10.0.0.1", remoteAddr);
+        assertSame(remoteAddr, exchange.getAttribute(ReactiveAddrUtil.REMOTE_ADDR_ATTRIBUTE));
+        assertSame(remoteAddr, ReactiveAddrUtil.getRemoteAddr(exchange));
+    }
+
+    @Test
+    void testGetRemoteAddrWithoutRemoteAddress() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/"));
+
+        assertNull(ReactiveAddrUtil.getRemoteAddr(exchange.getRequest()));
+    }
+
+    @Test
+    void testGetLocalAddrIsResolvedOnce() {
+        assertSame(ReactiveAddrUtil.getLocalAddr(), ReactiveAddrUtil.getLocalAddr());
+    }
+
 }
@@ -1,5 +1,7 @@
 package run.vexa.reactor.limit.annotation;
 
+import run.vexa.reactor.limit.enums.LimitAlgorithm;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -23,21 +25,21 @@ public @interface Limit {
     String key() default "";
 
     /**
-     * 时间
+     * 时间(并发模式下为排队的最长等待时间)
      *
      * @return long 超时时间
      */
     long expire() default 1;
 
     /**
-     * 单位(默认秒)
+     * 单位(默认秒)，须为不超过 {@link ChronoUnit#DAYS} 的固定时长单位
      *
      * @return ChronoUnit time unit
      */
     ChronoUnit unit() default ChronoUnit.SECONDS;
 
     /**
-     * 单位时间产生的令牌个数
+     * 单位时间产生的令牌个数(并发模式下为最大并发数)
      *
      * @return int 个数
      */
@@ -57,4 +59,18 @@ public @interface Limit {
      */
     boolean restrictUser() default false;
 
+    /**
+     * 限流算法(仅对支持按算法限流的提供者生效)
+     *
+     * @return LimitAlgorithm 限流算法
+     */
+    LimitAlgorithm algorithm() default LimitAlgorithm.TOKEN_BUCKET;
+
+    /**
+     * 并发模式下的等待队列长度，0 表示并发已满时立即拒绝
+     *
+     * @return int 等待队列长度
+     */
+    int queue() default 0;
+
 }
@@ -1,9 +1,10 @@
 package run.vexa.reactor.limit.aspect;
 
 import run.vexa.reactor.commons.enums.TimeUnitMessageKey;
-import run.vexa.reactor.commons.exception.ServerException;
 import run.vexa.reactor.limit.annotation.Limit;
+import run.vexa.reactor.limit.enums.LimitAlgorithm;
 import run.vexa.reactor.limit.provider.LimitProvider;
+import run.vexa.reactor.limit.support.LimitPlan;
 import run.vexa.reactor.limit.support.LimitSupport;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.Signature;
@@ -18,7 +19,6 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.lang.reflect.Method;
-import java.text.MessageFormat;
 import java.time.temporal.ChronoUnit;
 
 /**
@@ -32,6 +32,8 @@ public class LimitAspect {
 
     private final ObjectProvider<LimitProvider> provider;
 
+    private volatile LimitSupport limitSupport;
+
     /**
      * Default constructor.
      * This constructor is used for serialization and other reflective operations.a
@@ -61,16 +63,47 @@ public class LimitAspect {
         }
         Method method = methodSignature.getMethod();
         Object[] args = point.getArgs();
-        LimitSupport limitSupport = new LimitSupport(provider.getIfAvailable());
-        var msg = "Do not repeat the request, please wait for {0} {1} and try again";
-        msg = MessageFormat.format(msg, limit.expire(), getTimeUnitName(limit.unit()));
-        return limitSupport.exec(limit, method, args)
+        LimitSupport limitSupport = limitSupport();
+        LimitPlan plan = limitSupport.plan(limit, method);
+        if (Flux.class.isAssignableFrom(method.getReturnType())) {
+            // 流式结果在放行后逐个下发，保持背压，不在内存中汇总
+            if (plan.getAlgorithm() == LimitAlgorithm.CONCURRENCY) {
+                return limitSupport.concurrency(plan, args, Flux.defer(() -> fluxResult(point)));
+            }
+            return limitSupport.exec(plan, args)
+                    .filter(allowed -> allowed)
+                    .switchIfEmpty(Mono.error(plan::rejection))
+                    .flatMapMany(allowed -> fluxResult(point));
+        }
+        if (plan.getAlgorithm() == LimitAlgorithm.CONCURRENCY) {
+            return limitSupport.concurrency(plan, args, Mono.defer(() -> result(point)));
+        }
+        return limitSupport.exec(plan, args)
                 .filter(allowed -> allowed)
-                .switchIfEmpty(Mono.error(new ServerException(429, msg)))
+                .switchIfEmpty(Mono.error(plan::rejection))
                 .flatMap(allowed -> result(point));
 
     }
 
+    /**
+     * 获取限流支持，首次使用时创建，其中缓存了各方法的限流计划.
+     *
+     * @return the limit support
+     */
+    private LimitSupport limitSupport() {
+        LimitSupport support = this.limitSupport;
+        if (support == null) {
+            synchronized (this) {
+                support = this.limitSupport;
+                if (support == null) {
+                    support = new LimitSupport(provider.getIfAvailable(), this::getTimeUnitName);
+                    this.limitSupport = support;
+                }
+            }
+        }
+        return support;
+    }
+
     /**
      * Result mono.
      *
@@ -92,6 +125,24 @@ public class LimitAspect {
         }
     }
 
+    /**
+     * Result flux.
+     *
+     * @param point the point
+     * @return the flux
+     */
+    private static Flux<?> fluxResult(ProceedingJoinPoint point) {
+        try {
+            Object result = point.proceed();
+            if (result instanceof Flux<?> flux) {
+                return flux;
+            }
+            return result == null ? Flux.empty() : Flux.just(result);
+        } catch (Throwable throwable) {
+            return Flux.error(throwable);
+        }
+    }
+
 
     /**
      * The Message source.
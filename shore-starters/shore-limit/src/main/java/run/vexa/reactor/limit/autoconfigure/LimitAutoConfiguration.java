@@ -1,10 +1,20 @@
 package run.vexa.reactor.limit.autoconfigure;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import run.vexa.reactor.limit.aspect.LimitAspect;
+import run.vexa.reactor.limit.endpoint.LimitHotKeyEndpoint;
+import run.vexa.reactor.limit.properties.LimitProperties;
+import run.vexa.reactor.limit.provider.HybridLimitProvider;
 import run.vexa.reactor.limit.provider.LimitProvider;
+import run.vexa.reactor.limit.provider.LocalLimitProvider;
+import run.vexa.reactor.limit.provider.RedisScriptLimitProvider;
 import run.vexa.reactor.limit.provider.RedissonLimitProvider;
+import run.vexa.reactor.limit.support.HotKeySketch;
 import org.redisson.api.RedissonReactiveClient;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -15,6 +25,7 @@ import org.springframework.context.annotation.Configuration;
  * @author youta
  **/
 @Configuration
+@EnableConfigurationProperties(LimitProperties.class)
 public class LimitAutoConfiguration {
 
     /**
@@ -40,14 +51,134 @@ public class LimitAutoConfiguration {
     }
 
     /**
-     * Redisson limit provider.
-     *
-     * @param redissonReactiveClient the redisson reactive client
-     * @return the limit provider
+     * RedissonLimitProvider
      */
-    @Bean
-    public LimitProvider redissonLimitProvider(RedissonReactiveClient redissonReactiveClient) {
-        return new RedissonLimitProvider(redissonReactiveClient);
+    @Configuration
+    @ConditionalOnProperty(name = LimitProperties.PREFIX + ".provider", havingValue = "redisson", matchIfMissing = true)
+    static class RedissonLimitConfig {
+
+        /**
+         * Redisson limit provider.
+         *
+         * @param redissonReactiveClient the redisson reactive client
+         * @return the limit provider
+         */
+        @Bean
+        public LimitProvider redissonLimitProvider(RedissonReactiveClient redissonReactiveClient) {
+            return new RedissonLimitProvider(redissonReactiveClient);
+        }
+    }
+
+    /**
+     * LocalLimitProvider
+     */
+    @Configuration
+    @ConditionalOnProperty(name = LimitProperties.PREFIX + ".provider", havingValue = "local")
+    static class LocalLimitConfig {
+
+        /**
+         * Local limit provider.
+         *
+         * @param properties the limit properties
+         * @return the limit provider
+         */
+        @Bean
+        public LimitProvider localLimitProvider(LimitProperties properties) {
+            return new LocalLimitProvider(properties.getLocal().getMaximumSize());
+        }
+    }
+
+    /**
+     * RedisScriptLimitProvider
+     */
+    @Configuration
+    @ConditionalOnProperty(name = LimitProperties.PREFIX + ".provider", havingValue = "script")
+    static class RedisScriptLimitConfig {
+
+        /**
+         * Redis script limit provider.
+         *
+         * @param redissonReactiveClient the redisson reactive client
+         * @return the limit provider
+         */
+        @Bean
+        public LimitProvider redisScriptLimitProvider(RedissonReactiveClient redissonReactiveClient) {
+            return new RedisScriptLimitProvider(redissonReactiveClient);
+        }
+    }
+
+    /**
+     * HybridLimitProvider
+     */
+    @Configuration
+    @ConditionalOnProperty(name = LimitProperties.PREFIX + ".provider", havingValue = "hybrid")
+    static class HybridLimitConfig {
+
+        /**
+         * Hybrid limit provider.
+         *
+         * @param redissonReactiveClient the redisson reactive client
+         * @param properties             the limit properties
+         * @return the limit provider
+         */
+        @Bean
+        public LimitProvider hybridLimitProvider(RedissonReactiveClient redissonReactiveClient, LimitProperties properties) {
+            return new HybridLimitProvider(new RedissonLimitProvider(redissonReactiveClient), redissonReactiveClient,
+                    properties.getHybrid());
+        }
+    }
+
+    /**
+     * 限流监控
+     */
+    @Configuration
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnProperty(name = LimitProperties.PREFIX + ".metrics.enabled", havingValue = "true", matchIfMissing = true)
+    static class LimitMetricsConfig {
+
+        /**
+         * Metered limit provider post processor.
+         *
+         * @param registry the meter registry
+         * @param hotKeys  the hot key sketch
+         * @return the bean post processor
+         */
+        @Bean
+        public static MeteredLimitProviderPostProcessor meteredLimitProviderPostProcessor(
+                ObjectProvider<MeterRegistry> registry, ObjectProvider<HotKeySketch> hotKeys) {
+            return new MeteredLimitProviderPostProcessor(registry, hotKeys);
+        }
+
+        /**
+         * Limit hot key sketch.
+         *
+         * @param properties the limit properties
+         * @return the hot key sketch
+         */
+        @Bean
+        public HotKeySketch limitHotKeySketch(LimitProperties properties) {
+            return new HotKeySketch(properties.getMetrics().getHotKeys());
+        }
+
+        /**
+         * LimitHotKeyEndpoint
+         */
+        @Configuration
+        @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+        static class LimitEndpointConfig {
+
+            /**
+             * Limit hot key endpoint.
+             *
+             * @param hotKeys    the hot key sketch
+             * @param properties the limit properties
+             * @return the limit hot key endpoint
+             */
+            @Bean
+            public LimitHotKeyEndpoint limitHotKeyEndpoint(HotKeySketch hotKeys, LimitProperties properties) {
+                return new LimitHotKeyEndpoint(hotKeys, properties.getMetrics().getHotKeys());
+            }
+        }
     }
 
 }
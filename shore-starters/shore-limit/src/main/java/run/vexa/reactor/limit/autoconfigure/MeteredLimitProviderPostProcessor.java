@@ -0,0 +1,45 @@
+package run.vexa.reactor.limit.autoconfigure;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import run.vexa.reactor.limit.provider.LimitProvider;
+import run.vexa.reactor.limit.provider.MeteredLimitProvider;
+import run.vexa.reactor.limit.support.HotKeySketch;
+
+/**
+ * 为限流提供者包装监控
+ * <p>
+ * 容器中没有 {@link MeterRegistry} 时保持原样.
+ *
+ * @author youta
+ **/
+public class MeteredLimitProviderPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> registry;
+
+    private final ObjectProvider<HotKeySketch> hotKeys;
+
+    /**
+     * Instantiates a new Metered limit provider post processor.
+     *
+     * @param registry the meter registry
+     * @param hotKeys  热点 key 统计
+     */
+    public MeteredLimitProviderPostProcessor(ObjectProvider<MeterRegistry> registry,
+                                             ObjectProvider<HotKeySketch> hotKeys) {
+        this.registry = registry;
+        this.hotKeys = hotKeys;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof LimitProvider provider && !(bean instanceof MeteredLimitProvider)) {
+            MeterRegistry meterRegistry = registry.getIfAvailable();
+            if (meterRegistry != null) {
+                return new MeteredLimitProvider(provider, meterRegistry, hotKeys.getIfAvailable());
+            }
+        }
+        return bean;
+    }
+}
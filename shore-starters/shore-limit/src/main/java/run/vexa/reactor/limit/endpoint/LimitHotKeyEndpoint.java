@@ -0,0 +1,58 @@
+package run.vexa.reactor.limit.endpoint;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import run.vexa.reactor.limit.support.HotKeySketch;
+
+import java.util.List;
+
+/**
+ * 限流热点 key 端点
+ *
+ * @author youta
+ **/
+@Endpoint(id = "limits")
+public class LimitHotKeyEndpoint {
+
+    private final HotKeySketch hotKeys;
+
+    private final int size;
+
+    /**
+     * Instantiates a new Limit hot key endpoint.
+     *
+     * @param hotKeys 热点 key 统计
+     * @param size    返回的 key 个数
+     */
+    public LimitHotKeyEndpoint(HotKeySketch hotKeys, int size) {
+        this.hotKeys = hotKeys;
+        this.size = size;
+    }
+
+    /**
+     * 访问次数最多的限流 key.
+     *
+     * @return 热点 key
+     */
+    @ReadOperation
+    public HotKeysDescriptor hotKeys() {
+        return new HotKeysDescriptor(hotKeys.top(size));
+    }
+
+    /**
+     * 清空热点 key 统计.
+     */
+    @DeleteOperation
+    public void reset() {
+        hotKeys.reset();
+    }
+
+    /**
+     * 热点 key 描述
+     *
+     * @param hotKeys 按次数倒序排列的热点 key
+     */
+    public record HotKeysDescriptor(List<HotKeySketch.HotKey> hotKeys) {
+    }
+}
@@ -0,0 +1,53 @@
+package run.vexa.reactor.limit.enums;
+
+/**
+ * 限流算法
+ * <p>
+ * {@link run.vexa.reactor.limit.provider.RedisScriptLimitProvider} 支持全部算法，
+ * {@link run.vexa.reactor.limit.provider.LocalLimitProvider} 支持令牌桶与滑动窗口计数，
+ * 其余提供者忽略该参数，使用各自固有的算法.
+ *
+ * @author youta
+ **/
+public enum LimitAlgorithm {
+
+    /**
+     * 令牌桶，周期内匀速补充令牌，允许不超过 rate 的突发.
+     */
+    TOKEN_BUCKET("token_bucket"),
+
+    /**
+     * 固定窗口计数，窗口边界处可能出现两倍 rate 的突发.
+     */
+    FIXED_WINDOW("fixed_window"),
+
+    /**
+     * 滑动窗口日志，记录窗口内每次请求的时间，精确但内存占用与 rate 成正比.
+     */
+    SLIDING_LOG("sliding_log"),
+
+    /**
+     * 滑动窗口计数，以相邻两个固定窗口的计数加权估算，平滑且每个 key 只占常数内存.
+     */
+    SLIDING_WINDOW("sliding_window"),
+
+    /**
+     * 并发(舱壁)限制，限制同一 key 同时执行的个数，与限流提供者无关，仅在当前实例内生效.
+     */
+    CONCURRENCY("concurrency");
+
+    private final String code;
+
+    LimitAlgorithm(String code) {
+        this.code = code;
+    }
+
+    /**
+     * 算法编码，用于脚本参数与 key 后缀.
+     *
+     * @return 算法编码
+     */
+    public String getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,136 @@
+package run.vexa.reactor.limit.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 限流配置
+ *
+ * @author youta
+ **/
+@Setter
+@Getter
+@ConfigurationProperties(LimitProperties.PREFIX)
+public class LimitProperties {
+
+    /**
+     * Default constructor.
+     * This constructor is used for serialization and other reflective operations.
+     */
+    public LimitProperties() {
+        // This constructor is intentionally empty.
+        // Further initialization logic can be added here if needed in the future.
+    }
+
+    /**
+     * 配置前缀
+     */
+    public static final String PREFIX = "shore.limit";
+
+    /**
+     * 限流提供者类型(redisson, local, hybrid, script).
+     */
+    private String provider = "redisson";
+
+    /**
+     * 本地限流配置.
+     */
+    private final Local local = new Local();
+
+    /**
+     * 两级(本地租约 + redis)限流配置.
+     */
+    private final Hybrid hybrid = new Hybrid();
+
+    /**
+     * 限流监控配置.
+     */
+    private final Metrics metrics = new Metrics();
+
+    /**
+     * 本地限流配置
+     */
+    @Setter
+    @Getter
+    public static class Local {
+
+        /**
+         * Default constructor.
+         * This constructor is used for serialization and other reflective operations.
+         */
+        public Local() {
+            // This constructor is intentionally empty.
+        }
+
+        /**
+         * 最多保留的令牌桶(key)个数.
+         */
+        private long maximumSize = 10_000;
+    }
+
+    /**
+     * 两级限流配置
+     */
+    @Setter
+    @Getter
+    public static class Hybrid {
+
+        /**
+         * Default constructor.
+         * This constructor is used for serialization and other reflective operations.
+         */
+        public Hybrid() {
+            // This constructor is intentionally empty.
+        }
+
+        /**
+         * 每次从 redis 租借的令牌个数.
+         */
+        private long leaseSize = 50;
+
+        /**
+         * 速率(单位时间令牌数)低于该值时不走租约，直接使用 redisson 限流.
+         */
+        private int minRate = 100;
+
+        /**
+         * 闲置租约回收与令牌归还的周期.
+         */
+        private Duration reconcileInterval = Duration.ofSeconds(1);
+
+        /**
+         * 最多保留的租约(key)个数.
+         */
+        private long maximumSize = 10_000;
+    }
+
+    /**
+     * 限流监控配置
+     */
+    @Setter
+    @Getter
+    public static class Metrics {
+
+        /**
+         * Default constructor.
+         * This constructor is used for serialization and other reflective operations.
+         */
+        public Metrics() {
+            // This constructor is intentionally empty.
+        }
+
+        /**
+         * 是否为限流提供者记录 Micrometer 指标.
+         */
+        private boolean enabled = true;
+
+        /**
+         * 热点 key 统计最多跟踪的 key 个数，limits 端点按次数返回这些 key.
+         */
+        private int hotKeys = 100;
+    }
+
+}
@@ -0,0 +1,360 @@
+package run.vexa.reactor.limit.provider;
+
+import cn.hutool.core.util.StrUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RAtomicLongReactive;
+import org.redisson.api.RedissonReactiveClient;
+import org.springframework.beans.factory.DisposableBean;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.vexa.reactor.commons.exception.ServerException;
+import run.vexa.reactor.limit.properties.LimitProperties;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.UnsupportedTemporalTypeException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 本地预准入 + Redis 周期对账的两级限流提供者
+ * <p>
+ * 集群总配额按固定窗口记在 Redis 计数器中，每个节点一次从计数器租借 {@code leaseSize} 个令牌，
+ * 在本地内存中消费，直到租约用完或窗口结束才再次访问 Redis. 闲置或被淘汰的租约中未使用的令牌
+ * 会按 key 汇总后在下一个对账周期批量归还.
+ * <p>
+ * 租借本身是精确的(计数器不会超发)，误差只来自各节点在窗口结束时手中未用完的租约，即可能少放行
+ * 至多 {@code 节点数 * leaseSize} 个请求. 速率低于 {@code minRate} 的限流租约没有意义，
+ * 直接交给 {@link RedissonLimitProvider} 处理.
+ *
+ * @author youta
+ **/
+@Slf4j
+public class HybridLimitProvider implements LimitProvider, DisposableBean {
+
+    private static final String LEASE_SUFFIX = ":lease:";
+
+    private final RedissonLimitProvider delegate;
+
+    private final RedissonReactiveClient redissonReactiveClient;
+
+    private final long leaseSize;
+
+    private final int minRate;
+
+    private final long idleMillis;
+
+    private final LongSupplier clock;
+
+    private final Cache<String, LeaseHolder> holders;
+
+    /**
+     * 待归还的令牌，key 为窗口计数器名称.
+     */
+    private final Map<String, PendingReturn> pendingReturns = new ConcurrentHashMap<>();
+
+    private final Disposable reconciler;
+
+    /**
+     * Instantiates a new Hybrid limit provider.
+     *
+     * @param delegate               低速率限流使用的 redisson 限流提供者
+     * @param redissonReactiveClient the redisson reactive client
+     * @param hybrid                 两级限流配置
+     */
+    public HybridLimitProvider(RedissonLimitProvider delegate, RedissonReactiveClient redissonReactiveClient,
+                               LimitProperties.Hybrid hybrid) {
+        this(delegate, redissonReactiveClient, hybrid, System::currentTimeMillis);
+    }
+
+    /**
+     * Instantiates a new Hybrid limit provider.
+     *
+     * @param delegate               低速率限流使用的 redisson 限流提供者
+     * @param redissonReactiveClient the redisson reactive client
+     * @param hybrid                 两级限流配置
+     * @param clock                  毫秒时钟，各节点据此对齐窗口
+     */
+    HybridLimitProvider(RedissonLimitProvider delegate, RedissonReactiveClient redissonReactiveClient,
+                        LimitProperties.Hybrid hybrid, LongSupplier clock) {
+        this.delegate = delegate;
+        this.redissonReactiveClient = redissonReactiveClient;
+        this.leaseSize = hybrid.getLeaseSize();
+        this.minRate = hybrid.getMinRate();
+        this.idleMillis = hybrid.getReconcileInterval().toMillis();
+        this.clock = clock;
+        this.holders = Caffeine.newBuilder()
+                .maximumSize(hybrid.getMaximumSize())
+                .expireAfterAccess(hybrid.getReconcileInterval().multipliedBy(10))
+                .<String, LeaseHolder>removalListener((key, holder, cause) -> {
+                    if (holder != null && cause != RemovalCause.REPLACED) {
+                        holder.retire(clock.getAsLong());
+                    }
+                })
+                .build();
+        this.reconciler = Flux.interval(hybrid.getReconcileInterval())
+                .concatMap(tick -> reconcile()
+                        .onErrorResume(e -> {
+                            log.warn("Limit lease reconcile failed: {}", e.getLocalizedMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @Override
+    public Mono<Boolean> tryAcquire(String key, int rate, long expire, ChronoUnit unit) {
+        return Mono.defer(() -> {
+            if (StrUtil.isEmpty(key)) {
+                return Mono.error(new ServerException("Limit key is null or empty"));
+            }
+            if (rate < minRate) {
+                return delegate.tryAcquire(key, rate, expire, unit);
+            }
+            final long periodMillis;
+            try {
+                periodMillis = Duration.of(expire, unit).toMillis();
+            } catch (UnsupportedTemporalTypeException | ArithmeticException | NullPointerException e) {
+                return Mono.error(new ServerException("Unsupported TimeUnit", e));
+            }
+            if (periodMillis <= 0) {
+                return Mono.error(new ServerException("Unsupported TimeUnit"));
+            }
+            LeaseHolder holder = holders.get(key, LeaseHolder::new);
+            return acquire(holder, rate, periodMillis);
+        });
+    }
+
+    /**
+     * 从本地租约获取令牌，租约耗尽时向 Redis 续租.
+     *
+     * @param holder       租约持有者
+     * @param rate         窗口内的集群配额
+     * @param periodMillis 窗口长度
+     * @return 是否获取成功
+     */
+    private Mono<Boolean> acquire(LeaseHolder holder, int rate, long periodMillis) {
+        long now = clock.getAsLong();
+        long window = now / periodMillis;
+        Lease lease = holder.current.get();
+        if (lease != null && lease.window == window) {
+            if (lease.tryTake(now)) {
+                return Mono.just(true);
+            }
+            // 配额已耗尽的窗口内，每个对账周期最多重试一次，以便拿到其他节点归还的令牌
+            if (lease.last && now - lease.startedAt < idleMillis) {
+                return Mono.just(false);
+            }
+        }
+        return holder.renew(lease, () -> lease(holder.key, rate, periodMillis, window, now))
+                .then(Mono.defer(() -> acquire(holder, rate, periodMillis)));
+    }
+
+    /**
+     * 从 Redis 窗口计数器租借令牌，超出配额的部分立即归还.
+     *
+     * @param key          限流 key
+     * @param rate         窗口内的集群配额
+     * @param periodMillis 窗口长度
+     * @param window       窗口序号
+     * @param now          当前时间
+     * @return 租约
+     */
+    private Mono<Lease> lease(String key, int rate, long periodMillis, long window, long now) {
+        long size = Math.min(leaseSize, rate);
+        String counterName = counterName(key, window);
+        RAtomicLongReactive counter = redissonReactiveClient.getAtomicLong(counterName);
+        return counter.addAndGet(size)
+                .flatMap(total -> {
+                    long granted = Math.clamp(size - (total - rate), 0, size);
+                    Mono<?> giveBack = granted < size ? counter.addAndGet(granted - size) : Mono.empty();
+                    Mono<?> ttl = total == size ? counter.expire(Duration.ofMillis(periodMillis * 2)) : Mono.empty();
+                    return Mono.when(giveBack, ttl)
+                            .thenReturn(new Lease(counterName, window, periodMillis, granted, granted < size, now));
+                });
+    }
+
+    /**
+     * 收回闲置租约并批量归还未使用的令牌.
+     *
+     * @return 完成信号
+     */
+    Mono<Void> reconcile() {
+        long now = clock.getAsLong();
+        holders.asMap().values().forEach(holder -> holder.reclaimIdle(now));
+        return Flux.fromIterable(pendingReturns.keySet())
+                .flatMap(counterName -> {
+                    PendingReturn pending = pendingReturns.remove(counterName);
+                    // 窗口已结束的计数器即将过期，归还只会留下一个没有过期时间的负数 key
+                    if (pending == null || pending.window != now / pending.periodMillis) {
+                        return Mono.empty();
+                    }
+                    long unused = pending.unused.sum();
+                    return unused > 0
+                            ? redissonReactiveClient.getAtomicLong(counterName).addAndGet(-unused)
+                            : Mono.empty();
+                })
+                .then();
+    }
+
+    @Override
+    public void destroy() {
+        reconciler.dispose();
+    }
+
+    private static String counterName(String key, long window) {
+        return key + LEASE_SUFFIX + window;
+    }
+
+    /**
+     * 单个 key 的租约持有者
+     */
+    private final class LeaseHolder {
+
+        private final String key;
+
+        private final AtomicReference<Lease> current = new AtomicReference<>();
+
+        private final AtomicReference<Mono<Lease>> renewing = new AtomicReference<>();
+
+        private LeaseHolder(String key) {
+            this.key = key;
+        }
+
+        /**
+         * 续租，同一时刻只有一个续租请求发往 Redis，其余调用共享其结果.
+         *
+         * @param expected 发起续租时看到的租约
+         * @param fetch    租约获取
+         * @return 续租完成信号
+         */
+        private Mono<Void> renew(Lease expected, Supplier<Mono<Lease>> fetch) {
+            for (; ; ) {
+                if (current.get() != expected) {
+                    return Mono.empty();
+                }
+                Mono<Lease> inflight = renewing.get();
+                if (inflight != null) {
+                    return inflight.then();
+                }
+                Mono<Lease> created = Mono.defer(fetch)
+                        .doOnNext(lease -> {
+                            Lease old = current.getAndSet(lease);
+                            if (old != null) {
+                                old.retire(lease.startedAt);
+                            }
+                        })
+                        .doFinally(signal -> renewing.set(null))
+                        .cache();
+                if (renewing.compareAndSet(null, created)) {
+                    return created.then();
+                }
+            }
+        }
+
+        /**
+         * 闲置超过一个对账周期的租约交还给集群.
+         *
+         * @param now 当前时间
+         */
+        private void reclaimIdle(long now) {
+            Lease lease = current.get();
+            if (lease != null && now - lease.lastUsed >= idleMillis && current.compareAndSet(lease, null)) {
+                lease.retire(now);
+            }
+        }
+
+        /**
+         * 持有者被淘汰时交还租约.
+         *
+         * @param now 当前时间
+         */
+        private void retire(long now) {
+            Lease lease = current.getAndSet(null);
+            if (lease != null) {
+                lease.retire(now);
+            }
+        }
+    }
+
+    /**
+     * 从集群租借的一批令牌
+     */
+    private final class Lease {
+
+        private final String counterName;
+
+        private final long window;
+
+        private final long periodMillis;
+
+        private final long startedAt;
+
+        private final AtomicLong remaining;
+
+        /**
+         * 租借时集群配额已不足，本窗口内不再续租.
+         */
+        private final boolean last;
+
+        private volatile long lastUsed;
+
+        private Lease(String counterName, long window, long periodMillis, long granted, boolean last, long now) {
+            this.counterName = counterName;
+            this.window = window;
+            this.periodMillis = periodMillis;
+            this.startedAt = now;
+            this.remaining = new AtomicLong(granted);
+            this.last = last;
+            this.lastUsed = now;
+        }
+
+        private boolean tryTake(long now) {
+            for (; ; ) {
+                long left = remaining.get();
+                if (left <= 0) {
+                    return false;
+                }
+                if (remaining.compareAndSet(left, left - 1)) {
+                    lastUsed = now;
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * 作废租约，窗口仍然有效时把剩余令牌记入待归还.
+         *
+         * @param now 当前时间
+         */
+        private void retire(long now) {
+            long unused = remaining.getAndSet(0);
+            if (unused > 0 && now / periodMillis == window) {
+                pendingReturns.computeIfAbsent(counterName, k -> new PendingReturn(window, periodMillis))
+                        .unused.add(unused);
+            }
+        }
+    }
+
+    /**
+     * 某个窗口计数器待归还的令牌
+     *
+     * @param window       窗口序号
+     * @param periodMillis 窗口长度
+     * @param unused       未使用的令牌数
+     */
+    private record PendingReturn(long window, long periodMillis, LongAdder unused) {
+
+        private PendingReturn(long window, long periodMillis) {
+            this(window, periodMillis, new LongAdder());
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package run.vexa.reactor.limit.provider;
 
 import reactor.core.publisher.Mono;
+import run.vexa.reactor.limit.enums.LimitAlgorithm;
+import run.vexa.reactor.limit.support.LimitResult;
 
 import java.time.temporal.ChronoUnit;
 
@@ -22,4 +24,19 @@ public interface LimitProvider {
      */
     Mono<Boolean> tryAcquire(String key, int rate, long expire, ChronoUnit unit);
 
+    /**
+     * 按指定算法获取令牌，并返回剩余配额与重置时间.
+     * 默认忽略算法并委托给 {@link #tryAcquire(String, int, long, ChronoUnit)}，结果不含配额信息.
+     *
+     * @param key       资源Key
+     * @param rate      最多的访问限制次数
+     * @param expire    时间
+     * @param unit      单位
+     * @param algorithm 限流算法
+     * @return 限流结果
+     */
+    default Mono<LimitResult> acquire(String key, int rate, long expire, ChronoUnit unit, LimitAlgorithm algorithm) {
+        return tryAcquire(key, rate, expire, unit).map(LimitResult::of);
+    }
+
 }
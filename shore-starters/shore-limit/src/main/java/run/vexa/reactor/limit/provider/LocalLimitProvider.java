@@ -0,0 +1,168 @@
+package run.vexa.reactor.limit.provider;
+
+import cn.hutool.core.util.StrUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import reactor.core.publisher.Mono;
+import run.vexa.reactor.commons.exception.ServerException;
+import run.vexa.reactor.limit.enums.LimitAlgorithm;
+import run.vexa.reactor.limit.support.LimitResult;
+import run.vexa.reactor.limit.support.SlidingWindowCounter;
+import run.vexa.reactor.limit.support.TokenBucket;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.UnsupportedTemporalTypeException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * 本地限流提供者
+ * <p>
+ * 每个 key 对应一个 {@link TokenBucket}，保存在有界的 Caffeine 缓存中；
+ * 桶在闲置超过一个周期后即已补满，此时直接淘汰与保留等价，因此过期时间取桶自身的周期.
+ * {@link LimitAlgorithm#SLIDING_WINDOW} 使用 {@link SlidingWindowCounter}，闲置两个周期后两个窗口都已失效.
+ * 其余算法按令牌桶处理. 仅适用于单实例维度的限流，不依赖网络.
+ *
+ * @author youta
+ **/
+public class LocalLimitProvider implements LimitProvider {
+
+    private final Cache<String, TokenBucket> buckets;
+
+    private final Cache<String, SlidingWindowCounter> counters;
+
+    private final LongSupplier clock;
+
+    /**
+     * Instantiates a new Local limit provider.
+     *
+     * @param maximumSize 最多保留的令牌桶个数
+     */
+    public LocalLimitProvider(long maximumSize) {
+        this(maximumSize, monotonicMillis());
+    }
+
+    /**
+     * Instantiates a new Local limit provider.
+     *
+     * @param maximumSize 最多保留的令牌桶个数
+     * @param clock       毫秒时钟
+     */
+    LocalLimitProvider(long maximumSize, LongSupplier clock) {
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new PeriodExpiry<TokenBucket>(TokenBucket::getPeriodMillis))
+                .build();
+        this.counters = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new PeriodExpiry<SlidingWindowCounter>(counter -> 2 * counter.getPeriodMillis()))
+                .build();
+    }
+
+    @Override
+    public Mono<Boolean> tryAcquire(String key, int rate, long expire, ChronoUnit unit) {
+        return acquire(key, rate, expire, unit, LimitAlgorithm.TOKEN_BUCKET).map(LimitResult::allowed);
+    }
+
+    @Override
+    public Mono<LimitResult> acquire(String key, int rate, long expire, ChronoUnit unit, LimitAlgorithm algorithm) {
+        return Mono.defer(() -> {
+            if (StrUtil.isEmpty(key)) {
+                return Mono.error(new ServerException("Limit key is null or empty"));
+            }
+            final long periodMillis;
+            try {
+                periodMillis = Duration.of(expire, unit).toMillis();
+            } catch (UnsupportedTemporalTypeException | ArithmeticException | NullPointerException e) {
+                return Mono.error(new ServerException("Unsupported TimeUnit", e));
+            }
+            if (rate <= 0 || rate > TokenBucket.MAX_CAPACITY || periodMillis <= 0) {
+                return Mono.error(new ServerException("Unsupported limit rate: " + rate + "/" + expire + " " + unit));
+            }
+            long now = clock.getAsLong();
+            if (algorithm == LimitAlgorithm.SLIDING_WINDOW) {
+                return Mono.just(counter(key, rate, periodMillis, now).tryAcquire(now));
+            }
+            return Mono.just(LimitResult.of(bucket(key, rate, periodMillis, now).tryAcquire(1, now)));
+        });
+    }
+
+    /**
+     * 获取令牌桶，限流参数变化时替换旧桶.
+     *
+     * @param key          key
+     * @param rate         桶容量
+     * @param periodMillis 周期
+     * @param now          当前时间
+     * @return 令牌桶
+     */
+    private TokenBucket bucket(String key, int rate, long periodMillis, long now) {
+        TokenBucket bucket = buckets.get(key, k -> new TokenBucket(rate, periodMillis, now));
+        if (bucket.matches(rate, periodMillis)) {
+            return bucket;
+        }
+        TokenBucket fresh = new TokenBucket(rate, periodMillis, now);
+        return buckets.asMap().replace(key, bucket, fresh) ? fresh : bucket(key, rate, periodMillis, now);
+    }
+
+    /**
+     * 获取滑动窗口计数器，限流参数变化时替换旧计数器.
+     *
+     * @param key          key
+     * @param rate         周期内的配额
+     * @param periodMillis 周期
+     * @param now          当前时间
+     * @return 滑动窗口计数器
+     */
+    private SlidingWindowCounter counter(String key, int rate, long periodMillis, long now) {
+        SlidingWindowCounter counter = counters.get(key, k -> new SlidingWindowCounter(rate, periodMillis, now));
+        if (counter.matches(rate, periodMillis)) {
+            return counter;
+        }
+        SlidingWindowCounter fresh = new SlidingWindowCounter(rate, periodMillis, now);
+        return counters.asMap().replace(key, counter, fresh) ? fresh : counter(key, rate, periodMillis, now);
+    }
+
+    /**
+     * 以 provider 创建时刻为原点的单调毫秒时钟.
+     *
+     * @return 时钟
+     */
+    private static LongSupplier monotonicMillis() {
+        long origin = System.nanoTime();
+        return () -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - origin);
+    }
+
+    /**
+     * 按值自身周期计算的过期策略，读写都会重新计时.
+     *
+     * @param <V> 值类型
+     */
+    private static final class PeriodExpiry<V> implements Expiry<String, V> {
+
+        private final ToLongFunction<V> ttlMillis;
+
+        private PeriodExpiry(ToLongFunction<V> ttlMillis) {
+            this.ttlMillis = ttlMillis;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, V value, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(ttlMillis.applyAsLong(value));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, V value, long currentTime, long currentDuration) {
+            return TimeUnit.MILLISECONDS.toNanos(ttlMillis.applyAsLong(value));
+        }
+
+        @Override
+        public long expireAfterRead(String key, V value, long currentTime, long currentDuration) {
+            return TimeUnit.MILLISECONDS.toNanos(ttlMillis.applyAsLong(value));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package run.vexa.reactor.limit.provider;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+import run.vexa.reactor.limit.enums.LimitAlgorithm;
+import run.vexa.reactor.limit.support.HotKeySketch;
+import run.vexa.reactor.limit.support.LimitResult;
+import run.vexa.reactor.limit.support.LimitSupport;
+
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 带监控的限流提供者
+ * <p>
+ * 包装任意 {@link LimitProvider}，记录获取令牌的耗时与放行/拒绝/异常次数. 指标以限流名称
+ * (由 {@link LimitSupport} 写入 Reactor 上下文，默认为 {@code 类名.方法名})为标签，
+ * 不使用原始 key，避免标签基数失控；具体的热点 key 由 {@link HotKeySketch} 统计.
+ *
+ * @author youta
+ **/
+public class MeteredLimitProvider implements LimitProvider {
+
+    /**
+     * 获取令牌耗时.
+     */
+    public static final String ACQUIRE_TIMER = "shore.limit.acquire";
+
+    /**
+     * 限流判定次数.
+     */
+    public static final String REQUESTS_COUNTER = "shore.limit.requests";
+
+    /**
+     * 上下文中缺少限流名称时使用的名称.
+     */
+    public static final String UNNAMED = "unnamed";
+
+    private final LimitProvider delegate;
+
+    private final MeterRegistry registry;
+
+    private final HotKeySketch hotKeys;
+
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new Metered limit provider.
+     *
+     * @param delegate 被包装的限流提供者
+     * @param registry the meter registry
+     * @param hotKeys  热点 key 统计，为 {@code null} 时不统计
+     */
+    public MeteredLimitProvider(LimitProvider delegate, MeterRegistry registry, HotKeySketch hotKeys) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.hotKeys = hotKeys;
+    }
+
+    @Override
+    public Mono<Boolean> tryAcquire(String key, int rate, long expire, ChronoUnit unit) {
+        return instrument(key, () -> delegate.tryAcquire(key, rate, expire, unit), Boolean::booleanValue);
+    }
+
+    @Override
+    public Mono<LimitResult> acquire(String key, int rate, long expire, ChronoUnit unit, LimitAlgorithm algorithm) {
+        return instrument(key, () -> delegate.acquire(key, rate, expire, unit, algorithm), LimitResult::allowed);
+    }
+
+    /**
+     * 获取被包装的限流提供者.
+     *
+     * @return the delegate
+     */
+    public LimitProvider getDelegate() {
+        return delegate;
+    }
+
+    private <T> Mono<T> instrument(String key, Supplier<Mono<T>> acquire, Predicate<T> allowed) {
+        return Mono.deferContextual(context -> {
+            Meters limitMeters = meters.computeIfAbsent(context.getOrDefault(LimitSupport.LIMIT_NAME, UNNAMED),
+                    this::register);
+            if (hotKeys != null) {
+                hotKeys.offer(key);
+            }
+            long start = System.nanoTime();
+            return acquire.get()
+                    .doOnNext(value -> (allowed.test(value) ? limitMeters.allowed : limitMeters.rejected).increment())
+                    .doOnError(e -> limitMeters.errors.increment())
+                    .doFinally(signal -> limitMeters.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private Meters register(String name) {
+        return new Meters(
+                Timer.builder(ACQUIRE_TIMER)
+                        .description("Time spent acquiring a rate limit permit")
+                        .tag("name", name)
+                        .register(registry),
+                counter(name, "allowed"),
+                counter(name, "rejected"),
+                counter(name, "error"));
+    }
+
+    private Counter counter(String name, String result) {
+        return Counter.builder(REQUESTS_COUNTER)
+                .description("Rate limit decisions")
+                .tag("name", name)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * 单个限流名称的指标
+     *
+     * @param timer    获取令牌耗时
+     * @param allowed  放行次数
+     * @param rejected 拒绝次数
+     * @param errors   异常次数
+     */
+    private record Meters(Timer timer, Counter allowed, Counter rejected, Counter errors) {
+    }
+}
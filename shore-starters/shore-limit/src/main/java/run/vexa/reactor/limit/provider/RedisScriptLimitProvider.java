@@ -0,0 +1,136 @@
+package run.vexa.reactor.limit.provider;
+
+import cn.hutool.core.util.StrUtil;
+import org.redisson.api.RScript;
+import org.redisson.api.RScriptReactive;
+import org.redisson.api.RedissonReactiveClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+import reactor.core.publisher.Mono;
+import run.vexa.reactor.commons.exception.ServerException;
+import run.vexa.reactor.limit.enums.LimitAlgorithm;
+import run.vexa.reactor.limit.support.LimitResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.UnsupportedTemporalTypeException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 基于 Lua 脚本的 Redis 限流提供者
+ * <p>
+ * 整个限流算法在一个预加载的脚本中完成，每次请求只有一次 EVALSHA 往返；
+ * 支持令牌桶、固定窗口与滑动窗口日志三种算法，并返回剩余配额与重置时间.
+ * 脚本缓存因 Redis 重启或故障转移丢失(NOSCRIPT)时会重新加载并重试一次.
+ *
+ * @author youta
+ **/
+public class RedisScriptLimitProvider implements LimitProvider {
+
+    /**
+     * 限流脚本位置.
+     */
+    public static final String SCRIPT_LOCATION = "META-INF/scripts/shore-limit.lua";
+
+    private static final String NO_SCRIPT = "NOSCRIPT";
+
+    private final RScriptReactive script;
+
+    private final String source;
+
+    private final AtomicReference<Mono<String>> sha = new AtomicReference<>();
+
+    /**
+     * 滑动窗口日志的成员前缀与序号，保证同一毫秒内的请求各自记录.
+     */
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Instantiates a new Redis script limit provider.
+     *
+     * @param redissonReactiveClient the redisson reactive client
+     */
+    public RedisScriptLimitProvider(RedissonReactiveClient redissonReactiveClient) {
+        this.script = redissonReactiveClient.getScript(StringCodec.INSTANCE);
+        this.source = loadSource();
+    }
+
+    @Override
+    public Mono<Boolean> tryAcquire(String key, int rate, long expire, ChronoUnit unit) {
+        return acquire(key, rate, expire, unit, LimitAlgorithm.TOKEN_BUCKET).map(LimitResult::allowed);
+    }
+
+    @Override
+    public Mono<LimitResult> acquire(String key, int rate, long expire, ChronoUnit unit, LimitAlgorithm algorithm) {
+        return Mono.defer(() -> {
+            if (StrUtil.isEmpty(key)) {
+                return Mono.error(new ServerException("Limit key is null or empty"));
+            }
+            final long periodMillis;
+            try {
+                periodMillis = Duration.of(expire, unit).toMillis();
+            } catch (UnsupportedTemporalTypeException | ArithmeticException | NullPointerException e) {
+                return Mono.error(new ServerException("Unsupported TimeUnit", e));
+            }
+            if (rate <= 0 || periodMillis <= 0) {
+                return Mono.error(new ServerException("Unsupported limit rate: " + rate + "/" + expire + " " + unit));
+            }
+            List<Object> keys = List.of(key + ":" + algorithm.getCode());
+            String member = algorithm == LimitAlgorithm.SLIDING_LOG ? instanceId + ":" + sequence.incrementAndGet() : "";
+            Object[] args = {algorithm.getCode(), String.valueOf(rate), String.valueOf(periodMillis), member};
+            return eval(keys, args)
+                    .onErrorResume(RedisScriptLimitProvider::isNoScript, e -> {
+                        sha.set(null);
+                        return eval(keys, args);
+                    })
+                    .map(reply -> new LimitResult(reply.get(0) == 1L, rate, reply.get(1), reply.get(2)));
+        });
+    }
+
+    private Mono<List<Long>> eval(List<Object> keys, Object[] args) {
+        return sha().flatMap(digest -> script.evalSha(RScript.Mode.READ_WRITE, digest, RScript.ReturnType.LIST,
+                keys, args));
+    }
+
+    /**
+     * 脚本摘要，首次使用时加载，并发调用共享同一次加载.
+     *
+     * @return 脚本摘要
+     */
+    private Mono<String> sha() {
+        for (; ; ) {
+            Mono<String> loaded = sha.get();
+            if (loaded != null) {
+                return loaded;
+            }
+            Mono<String> loading = Mono.defer(() -> script.scriptLoad(source))
+                    .doOnError(e -> sha.set(null))
+                    .cache();
+            if (sha.compareAndSet(null, loading)) {
+                return loading;
+            }
+        }
+    }
+
+    private static boolean isNoScript(Throwable e) {
+        return e.getMessage() != null && e.getMessage().contains(NO_SCRIPT);
+    }
+
+    private static String loadSource() {
+        try {
+            return StreamUtils.copyToString(new ClassPathResource(SCRIPT_LOCATION).getInputStream(),
+                    StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load limit script " + SCRIPT_LOCATION, e);
+        }
+    }
+}
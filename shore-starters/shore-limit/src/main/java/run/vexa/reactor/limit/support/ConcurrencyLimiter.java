@@ -0,0 +1,205 @@
+package run.vexa.reactor.limit.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 并发(舱壁)限流器
+ * <p>
+ * 按 key 限制同时执行的 {@link Mono}/{@link Flux} 个数：订阅时获取许可，完成、出错或取消时释放.
+ * 许可用尽时可在有界队列中等待，队列已满或等待超时则拒绝. 许可只在当前实例内有效.
+ * 舱壁以弱引用缓存，仍有执行中或排队的请求时由许可持有引用，闲置后自然回收.
+ *
+ * @author youta
+ **/
+public class ConcurrencyLimiter {
+
+    private final Cache<String, Bulkhead> bulkheads = Caffeine.newBuilder()
+            .weakValues()
+            .build();
+
+    /**
+     * Default constructor.
+     * This constructor is used for serialization and other reflective operations.
+     */
+    public ConcurrencyLimiter() {
+        // This constructor is intentionally empty.
+    }
+
+    /**
+     * 在许可内执行 Mono.
+     *
+     * @param key           key
+     * @param maxConcurrent 最大并发数
+     * @param queueCapacity 等待队列长度，0 表示不等待
+     * @param maxWait       最长等待时间
+     * @param source        被限流的 Mono
+     * @param rejection     拒绝时的异常
+     * @param <T>           元素类型
+     * @return 限流后的 Mono
+     */
+    public <T> Mono<T> execute(String key, int maxConcurrent, int queueCapacity, Duration maxWait,
+                               Mono<T> source, Supplier<? extends Throwable> rejection) {
+        return Mono.usingWhen(acquire(key, maxConcurrent, queueCapacity, maxWait, rejection),
+                permit -> source,
+                Permit::release);
+    }
+
+    /**
+     * 在许可内执行 Flux，许可一直持有到 Flux 结束.
+     *
+     * @param key           key
+     * @param maxConcurrent 最大并发数
+     * @param queueCapacity 等待队列长度，0 表示不等待
+     * @param maxWait       最长等待时间
+     * @param source        被限流的 Flux
+     * @param rejection     拒绝时的异常
+     * @param <T>           元素类型
+     * @return 限流后的 Flux
+     */
+    public <T> Flux<T> execute(String key, int maxConcurrent, int queueCapacity, Duration maxWait,
+                               Flux<T> source, Supplier<? extends Throwable> rejection) {
+        return Flux.usingWhen(acquire(key, maxConcurrent, queueCapacity, maxWait, rejection),
+                permit -> source,
+                Permit::release);
+    }
+
+    /**
+     * 当前执行中的个数，用于监控与测试.
+     *
+     * @param key key
+     * @return 执行中的个数
+     */
+    public int inFlight(String key) {
+        Bulkhead bulkhead = bulkheads.getIfPresent(key);
+        return bulkhead == null ? 0 : bulkhead.inFlight();
+    }
+
+    private Mono<Permit> acquire(String key, int maxConcurrent, int queueCapacity, Duration maxWait,
+                                 Supplier<? extends Throwable> rejection) {
+        return Mono.defer(() -> {
+            Bulkhead bulkhead = bulkheads.get(key, k -> new Bulkhead(maxConcurrent, queueCapacity));
+            return bulkhead.acquire(maxWait, rejection);
+        });
+    }
+
+    /**
+     * 单个 key 的舱壁
+     */
+    private static final class Bulkhead {
+
+        private final int maxConcurrent;
+
+        private final int queueCapacity;
+
+        private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+
+        private int inFlight;
+
+        private Bulkhead(int maxConcurrent, int queueCapacity) {
+            this.maxConcurrent = maxConcurrent;
+            this.queueCapacity = queueCapacity;
+        }
+
+        private Mono<Permit> acquire(Duration maxWait, Supplier<? extends Throwable> rejection) {
+            Waiter waiter;
+            synchronized (this) {
+                if (inFlight < maxConcurrent) {
+                    inFlight++;
+                    return Mono.just(new Permit(this));
+                }
+                if (waiters.size() >= queueCapacity) {
+                    return Mono.error(rejection);
+                }
+                waiter = new Waiter();
+                waiters.addLast(waiter);
+            }
+            return waiter.sink.asMono()
+                    .doOnCancel(() -> cancel(waiter))
+                    .timeout(maxWait)
+                    .onErrorMap(TimeoutException.class, e -> rejection.get());
+        }
+
+        /**
+         * 排队中的请求取消或超时：仍在队列中则移出，已被分配许可则立即归还.
+         *
+         * @param waiter 等待者
+         */
+        private void cancel(Waiter waiter) {
+            Permit granted;
+            synchronized (this) {
+                if (waiters.remove(waiter)) {
+                    return;
+                }
+                granted = waiter.permit;
+            }
+            if (granted != null) {
+                granted.release().subscribe();
+            }
+        }
+
+        /**
+         * 归还许可，有等待者时直接转交.
+         */
+        private void release() {
+            Waiter next;
+            synchronized (this) {
+                next = waiters.pollFirst();
+                if (next == null) {
+                    inFlight--;
+                    return;
+                }
+                next.permit = new Permit(this);
+            }
+            next.sink.tryEmitValue(next.permit);
+        }
+
+        private synchronized int inFlight() {
+            return inFlight;
+        }
+    }
+
+    /**
+     * 排队中的请求
+     */
+    private static final class Waiter {
+
+        private final Sinks.One<Permit> sink = Sinks.one();
+
+        /**
+         * 转交给该等待者的许可，在舱壁锁内赋值.
+         */
+        private Permit permit;
+    }
+
+    /**
+     * 许可，重复释放无副作用
+     */
+    private static final class Permit {
+
+        private final Bulkhead bulkhead;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        private Mono<Void> release() {
+            return Mono.fromRunnable(() -> {
+                if (released.compareAndSet(false, true)) {
+                    bulkhead.release();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package run.vexa.reactor.limit.support;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 热点 key 统计
+ * <p>
+ * Space-Saving 算法：最多跟踪 {@code capacity} 个 key，命中已跟踪的 key 只做一次计数；
+ * 新 key 在已满时替换计数最小的 key，并继承其计数作为误差上界. 真实频次超过
+ * {@code 总次数 / capacity} 的 key 一定会出现在结果中，内存占用与 key 的总数无关.
+ * <p>
+ * 计数按 Stream-Summary 组织：相同计数的 key 挂在同一个桶上，桶按计数升序链接，
+ * 计数加一与淘汰最小值都是 O(1). 容量足够大时按 key 的 hash 分段加锁，
+ * 每段独立统计，{@link #offer(String)} 不再竞争同一把锁.
+ *
+ * @author youta
+ **/
+public final class HotKeySketch {
+
+    /**
+     * 每段至少跟踪的 key 个数，容量较小时只用一段以保持精度.
+     */
+    private static final int MIN_STRIPE_CAPACITY = 16;
+
+    private final Stripe[] stripes;
+
+    private final int mask;
+
+    /**
+     * Instantiates a new Hot key sketch.
+     *
+     * @param capacity 最多跟踪的 key 个数
+     */
+    public HotKeySketch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Hot key sketch capacity must be positive");
+        }
+        int stripeCount = stripeCount(capacity);
+        this.stripes = new Stripe[stripeCount];
+        this.mask = stripeCount - 1;
+        int base = capacity / stripeCount;
+        int remainder = capacity % stripeCount;
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(base + (i < remainder ? 1 : 0));
+        }
+    }
+
+    private static int stripeCount(int capacity) {
+        int byCapacity = Math.max(1, capacity / MIN_STRIPE_CAPACITY);
+        int byProcessors = Runtime.getRuntime().availableProcessors();
+        return Integer.highestOneBit(Math.min(byCapacity, byProcessors));
+    }
+
+    /**
+     * 记录一次访问.
+     *
+     * @param key key
+     */
+    public void offer(String key) {
+        stripeOf(key).offer(key);
+    }
+
+    /**
+     * 访问次数最多的 key.
+     *
+     * @param limit 返回个数
+     * @return 按次数倒序排列的 key
+     */
+    public List<HotKey> top(int limit) {
+        List<HotKey> hotKeys = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            stripe.collect(hotKeys);
+        }
+        hotKeys.sort(Comparator.comparingLong(HotKey::count).reversed());
+        return hotKeys.size() > limit ? List.copyOf(hotKeys.subList(0, limit)) : hotKeys;
+    }
+
+    /**
+     * 清空统计.
+     */
+    public void reset() {
+        for (Stripe stripe : stripes) {
+            stripe.reset();
+        }
+    }
+
+    private Stripe stripeOf(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    /**
+     * 热点 key
+     *
+     * @param key   key
+     * @param count 估计的访问次数(不低于真实次数)
+     * @param error 估计值的误差上界
+     */
+    public record HotKey(String key, long count, long error) {
+    }
+
+    /**
+     * 一段独立的 Stream-Summary.
+     */
+    private static final class Stripe {
+
+        private final int capacity;
+
+        private final Map<String, Entry> entries;
+
+        /**
+         * 计数最小的桶.
+         */
+        private Bucket min;
+
+        private Stripe(int capacity) {
+            this.capacity = capacity;
+            this.entries = HashMap.newHashMap(capacity);
+        }
+
+        private synchronized void offer(String key) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                increment(entry);
+                return;
+            }
+            if (entries.size() < capacity) {
+                entry = new Entry(key, 0);
+                entries.put(key, entry);
+                if (min == null || min.count != 1) {
+                    Bucket bucket = new Bucket(1);
+                    bucket.next = min;
+                    if (min != null) {
+                        min.prev = bucket;
+                    }
+                    min = bucket;
+                }
+                min.add(entry);
+                return;
+            }
+            // 复用计数最小的项，误差为被替换 key 的计数
+            Entry victim = min.head;
+            entries.remove(victim.key);
+            victim.key = key;
+            victim.error = min.count;
+            entries.put(key, victim);
+            increment(victim);
+        }
+
+        private void increment(Entry entry) {
+            Bucket bucket = entry.bucket;
+            long count = bucket.count + 1;
+            Bucket next = bucket.next;
+            if (next == null || next.count != count) {
+                next = new Bucket(count);
+                next.prev = bucket;
+                next.next = bucket.next;
+                if (bucket.next != null) {
+                    bucket.next.prev = next;
+                }
+                bucket.next = next;
+            }
+            bucket.remove(entry);
+            next.add(entry);
+            if (bucket.head == null) {
+                unlink(bucket);
+            }
+        }
+
+        private void unlink(Bucket bucket) {
+            if (bucket.prev != null) {
+                bucket.prev.next = bucket.next;
+            } else {
+                min = bucket.next;
+            }
+            if (bucket.next != null) {
+                bucket.next.prev = bucket.prev;
+            }
+        }
+
+        private synchronized void collect(List<HotKey> hotKeys) {
+            for (Entry entry : entries.values()) {
+                hotKeys.add(new HotKey(entry.key, entry.bucket.count, entry.error));
+            }
+        }
+
+        private synchronized void reset() {
+            entries.clear();
+            min = null;
+        }
+    }
+
+    /**
+     * 计数相同的 key 组成的桶
+     */
+    private static final class Bucket {
+
+        private final long count;
+
+        private Bucket prev;
+
+        private Bucket next;
+
+        private Entry head;
+
+        private Bucket(long count) {
+            this.count = count;
+        }
+
+        private void add(Entry entry) {
+            entry.bucket = this;
+            entry.prev = null;
+            entry.next = head;
+            if (head != null) {
+                head.prev = entry;
+            }
+            head = entry;
+        }
+
+        private void remove(Entry entry) {
+            if (entry.prev != null) {
+                entry.prev.next = entry.next;
+            } else {
+                head = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.prev = entry.prev;
+            }
+            entry.prev = null;
+            entry.next = null;
+        }
+    }
+
+    /**
+     * 计数项
+     */
+    private static final class Entry {
+
+        private String key;
+
+        private long error;
+
+        private Bucket bucket;
+
+        private Entry prev;
+
+        private Entry next;
+
+        private Entry(String key, long error) {
+            this.key = key;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package run.vexa.reactor.limit.support;
+
+import lombok.Getter;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionException;
+import run.vexa.reactor.commons.exception.ServerException;
+import run.vexa.reactor.core.spel.EvaluationContextFactory;
+import run.vexa.reactor.core.spel.SpringExpressionResolver;
+import run.vexa.reactor.limit.annotation.Limit;
+import run.vexa.reactor.limit.enums.LimitAlgorithm;
+
+import java.lang.reflect.Method;
+import java.text.MessageFormat;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Function;
+
+/**
+ * 限流执行计划
+ * <p>
+ * 由 {@link Limit} 注解与目标方法编译而来，每个方法只编译一次：key 表达式预先解析，
+ * 不含变量的 key 直接作为字面量使用，429 提示信息预先渲染，IP / 用户维度在编译时确定.
+ * 计划本身不可变，可被并发调用共享.
+ *
+ * @author youta
+ **/
+@Getter
+public final class LimitPlan {
+
+    /**
+     * 限流提示信息模板.
+     */
+    public static final String MESSAGE_TEMPLATE = "Do not repeat the request, please wait for {0} {1} and try again";
+
+    /**
+     * 并发模式限流提示信息，并发已满且排队超时或队列已满时使用.
+     */
+    public static final String CONCURRENCY_MESSAGE = "Too many concurrent requests, please try again later";
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final Method method;
+
+    /**
+     * 限流名称({@code 类名.方法名})，用作监控标签.
+     */
+    private final String name;
+
+    /**
+     * 解析后的 key 表达式，key 为字面量时为 {@code null}.
+     */
+    private final Expression keyExpression;
+
+    /**
+     * 字面量 key，key 需要按参数计算时为 {@code null}.
+     */
+    private final String literalKey;
+
+    private final int rate;
+
+    private final long expire;
+
+    private final ChronoUnit unit;
+
+    private final LimitAlgorithm algorithm;
+
+    /**
+     * 并发模式下的等待队列长度.
+     */
+    private final int queue;
+
+    /**
+     * 并发模式下的最长等待时间.
+     */
+    private final Duration maxWait;
+
+    private final KeyStrategy keyStrategy;
+
+    private final String message;
+
+    private LimitPlan(Method method, Expression keyExpression, String literalKey, Limit limit, Duration window,
+                      String message) {
+        this.method = method;
+        this.name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        this.keyExpression = keyExpression;
+        this.literalKey = literalKey;
+        this.rate = limit.rate();
+        this.expire = limit.expire();
+        this.unit = limit.unit();
+        this.algorithm = limit.algorithm();
+        this.queue = limit.queue();
+        this.maxWait = algorithm == LimitAlgorithm.CONCURRENCY ? window : null;
+        this.keyStrategy = KeyStrategy.of(limit);
+        this.message = message;
+    }
+
+    /**
+     * 编译限流计划.
+     *
+     * @param limit        限流注解
+     * @param method       目标方法
+     * @param resolver     SpEL表达式解析器
+     * @param timeUnitName 时间单位显示名称
+     * @return 限流计划
+     * @throws IllegalArgumentException 时间单位不支持或 {@code expire} 换算为毫秒后溢出
+     */
+    public static LimitPlan compile(Limit limit, Method method, SpringExpressionResolver resolver,
+                                    Function<ChronoUnit, String> timeUnitName) {
+        Duration window = window(limit, method);
+        String message = limit.algorithm() == LimitAlgorithm.CONCURRENCY ? CONCURRENCY_MESSAGE
+                : MessageFormat.format(MESSAGE_TEMPLATE, limit.expire(), timeUnitName.apply(limit.unit()));
+        Expression expression = resolver.parseExpression(limit.key());
+        String literalKey = null;
+        if (expression == null) {
+            literalKey = "";
+        } else if (!limit.key().contains("#")) {
+            // 不引用参数的 key 每次求值结果相同，求值一次后作为字面量
+            literalKey = expression.getValue(String.class);
+            expression = null;
+        }
+        return new LimitPlan(method, expression, literalKey, limit, window, message);
+    }
+
+    /**
+     * 将 {@code expire} 与 {@code unit} 换算为时长，提供者按毫秒计算窗口，换算须在毫秒范围内.
+     */
+    private static Duration window(Limit limit, Method method) {
+        try {
+            Duration window = Duration.of(limit.expire(), limit.unit());
+            window.toMillis();
+            return window;
+        } catch (DateTimeException | ArithmeticException ex) {
+            throw new IllegalArgumentException("Unsupported @Limit window " + limit.expire() + " " + limit.unit()
+                    + " on " + method.getDeclaringClass().getName() + "." + method.getName()
+                    + ", use a unit up to DAYS whose length fits in milliseconds", ex);
+        }
+    }
+
+    /**
+     * 按本次调用参数计算 key.
+     *
+     * @param args 方法参数
+     * @return key
+     */
+    public String key(Object[] args) {
+        if (keyExpression == null) {
+            return literalKey;
+        }
+        try {
+            return keyExpression.getValue(EvaluationContextFactory.INSTANCE.eval(method, args), String.class);
+        } catch (Throwable ex) {
+            throw new ExpressionException("Expression parsing failed", ex);
+        }
+    }
+
+    /**
+     * 限流拒绝异常，仅在被拒绝时创建.
+     *
+     * @return 429 异常
+     */
+    public ServerException rejection() {
+        return new ServerException(TOO_MANY_REQUESTS, message);
+    }
+
+    /**
+     * key 维度
+     */
+    public enum KeyStrategy {
+
+        /**
+         * 仅使用 key.
+         */
+        NONE(false, false),
+
+        /**
+         * key + IP.
+         */
+        IP(true, false),
+
+        /**
+         * key + 用户.
+         */
+        USER(false, true),
+
+        /**
+         * key + IP + 用户.
+         */
+        IP_AND_USER(true, true);
+
+        private final boolean ip;
+
+        private final boolean user;
+
+        KeyStrategy(boolean ip, boolean user) {
+            this.ip = ip;
+            this.user = user;
+        }
+
+        /**
+         * 是否追加 IP.
+         *
+         * @return 是否追加 IP
+         */
+        public boolean ip() {
+            return ip;
+        }
+
+        /**
+         * 是否追加用户.
+         *
+         * @return 是否追加用户
+         */
+        public boolean user() {
+            return user;
+        }
+
+        /**
+         * 根据注解确定 key 维度.
+         *
+         * @param limit 限流注解
+         * @return key 维度
+         */
+        public static KeyStrategy of(Limit limit) {
+            if (limit.restrictIp()) {
+                return limit.restrictUser() ? IP_AND_USER : IP;
+            }
+            return limit.restrictUser() ? USER : NONE;
+        }
+    }
+}
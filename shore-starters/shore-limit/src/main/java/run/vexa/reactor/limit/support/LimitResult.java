@@ -0,0 +1,36 @@
+package run.vexa.reactor.limit.support;
+
+/**
+ * 限流结果
+ *
+ * @param allowed     是否放行
+ * @param limit       周期内的配额
+ * @param remaining   剩余配额，未知时为 -1
+ * @param resetMillis 放行时为配额完全恢复所需的毫秒数，拒绝时为下一次可放行所需的毫秒数，未知时为 -1
+ * @author youta
+ **/
+public record LimitResult(boolean allowed, long limit, long remaining, long resetMillis) {
+
+    private static final LimitResult ALLOWED = new LimitResult(true, -1, -1, -1);
+
+    private static final LimitResult REJECTED = new LimitResult(false, -1, -1, -1);
+
+    /**
+     * 不含配额信息的结果.
+     *
+     * @param allowed 是否放行
+     * @return 限流结果
+     */
+    public static LimitResult of(boolean allowed) {
+        return allowed ? ALLOWED : REJECTED;
+    }
+
+    /**
+     * 是否包含剩余配额信息.
+     *
+     * @return 是否包含剩余配额信息
+     */
+    public boolean hasQuota() {
+        return remaining >= 0;
+    }
+}
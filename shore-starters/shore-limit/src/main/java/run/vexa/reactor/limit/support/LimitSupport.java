@@ -1,16 +1,22 @@
 package run.vexa.reactor.limit.support;
 
+import run.vexa.reactor.commons.enums.TimeUnitMessageKey;
 import run.vexa.reactor.core.context.ReactiveContextHolder;
 import run.vexa.reactor.core.spel.SpringExpressionResolver;
 import run.vexa.reactor.core.util.ReactiveAddrUtil;
 import run.vexa.reactor.limit.annotation.Limit;
 import run.vexa.reactor.limit.provider.LimitProvider;
 import run.vexa.reactor.security.context.UserContextHolder;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.lang.reflect.Method;
 import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * 限流支持
@@ -19,14 +25,45 @@ import java.time.temporal.ChronoUnit;
  **/
 public class LimitSupport {
 
+    /**
+     * 周期内的配额响应头.
+     */
+    public static final String RATE_LIMIT_LIMIT = "RateLimit-Limit";
+
+    /**
+     * 剩余配额响应头.
+     */
+    public static final String RATE_LIMIT_REMAINING = "RateLimit-Remaining";
+
+    /**
+     * 重置时间(秒)响应头.
+     */
+    public static final String RATE_LIMIT_RESET = "RateLimit-Reset";
+
+    /**
+     * Reactor 上下文中限流名称的 key，供 {@link run.vexa.reactor.limit.provider.MeteredLimitProvider} 打标签.
+     */
+    public static final String LIMIT_NAME = LimitSupport.class.getName() + ".NAME";
+
     /**
      * SpEL表达式解析器
      */
     private final SpringExpressionResolver resolver = new SpringExpressionResolver();
 
+    /**
+     * 按方法缓存的限流计划.
+     */
+    private final Map<Method, LimitPlan> plans = new ConcurrentHashMap<>();
 
     private final LimitProvider limitProvider;
 
+    /**
+     * 并发模式使用的本地舱壁.
+     */
+    private final ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter();
+
+    private final Function<ChronoUnit, String> timeUnitName;
+
     /**
      * Default constructor.
      * This constructor is used for serialization and other reflective operations.
@@ -34,7 +71,33 @@ public class LimitSupport {
      * @param limitProvider the limit provider
      */
     public LimitSupport(LimitProvider limitProvider) {
+        this(limitProvider, TimeUnitMessageKey::getKey);
+    }
+
+    /**
+     * Instantiates a new Limit support.
+     *
+     * @param limitProvider the limit provider
+     * @param timeUnitName  时间单位显示名称
+     */
+    public LimitSupport(LimitProvider limitProvider, Function<ChronoUnit, String> timeUnitName) {
         this.limitProvider = limitProvider;
+        this.timeUnitName = timeUnitName;
+    }
+
+    /**
+     * 获取方法的限流计划，首次调用时编译.
+     *
+     * @param limit  the limit
+     * @param method the method
+     * @return the limit plan
+     */
+    public LimitPlan plan(Limit limit, Method method) {
+        LimitPlan plan = plans.get(method);
+        if (plan != null) {
+            return plan;
+        }
+        return plans.computeIfAbsent(method, m -> LimitPlan.compile(limit, m, resolver, timeUnitName));
     }
 
     /**
@@ -46,30 +109,117 @@ public class LimitSupport {
      * @return the boolean
      */
     public Mono<Boolean> exec(Limit limit, Method method, Object[] args) {
+        return exec(plan(limit, method), args);
+    }
+
+    /**
+     * Exec boolean.
+     *
+     * @param plan the limit plan
+     * @param args the args
+     * @return the boolean
+     */
+    public Mono<Boolean> exec(LimitPlan plan, Object[] args) {
+        return acquire(plan, args).map(LimitResult::allowed);
+    }
+
+    /**
+     * 获取令牌，提供者返回配额信息时写入 {@code RateLimit-*} 响应头.
+     *
+     * @param plan the limit plan
+     * @param args the args
+     * @return the limit result
+     */
+    public Mono<LimitResult> acquire(LimitPlan plan, Object[] args) {
+        return ReactiveContextHolder.getExchange()
+                .flatMap(exchange -> key(plan, args, exchange)
+                        .flatMap(key -> acquire(plan, key, exchange)));
+    }
+
+    /**
+     * 在并发许可内执行，许可用尽且无法排队时以 429 拒绝.
+     *
+     * @param plan   the limit plan
+     * @param args   the args
+     * @param source 被限流的调用，需延迟到获得许可后才执行
+     * @param <T>    元素类型
+     * @return 限流后的 Mono
+     */
+    public <T> Mono<T> concurrency(LimitPlan plan, Object[] args, Mono<T> source) {
+        return ReactiveContextHolder.getExchange()
+                .flatMap(exchange -> key(plan, args, exchange))
+                .switchIfEmpty(Mono.error(plan::rejection))
+                .flatMap(key -> concurrencyLimiter.execute(key, plan.getRate(), plan.getQueue(), plan.getMaxWait(),
+                        source, plan::rejection));
+    }
+
+    /**
+     * 在并发许可内执行 Flux，许可一直持有到 Flux 结束.
+     *
+     * @param plan   the limit plan
+     * @param args   the args
+     * @param source 被限流的调用，需延迟到获得许可后才执行
+     * @param <T>    元素类型
+     * @return 限流后的 Flux
+     */
+    public <T> Flux<T> concurrency(LimitPlan plan, Object[] args, Flux<T> source) {
         return ReactiveContextHolder.getExchange()
-                .map(ServerWebExchange::getRequest)
-                .flatMap(request -> {
-                    String key = limit.key();
-                    int rate = limit.rate();
-                    long expire = limit.expire();
-                    ChronoUnit rateIntervalUnit = limit.unit();
-                    String spELKey = resolver.evaluate(key, method, args);
-                    String realIP = null;
-                    if (limit.restrictIp()) {
-                        realIP = ReactiveAddrUtil.getRemoteAddr(request);
-                    }
-                    if (realIP != null) {
-                        spELKey = spELKey + "#" + realIP;
-                    }
-                    if (limit.restrictUser()) {
-                        String finalSpELKey = spELKey;
-                        return UserContextHolder.userIdDefault()
-                                .defaultIfEmpty("0")
-                                .map(userId -> finalSpELKey + "#" + userId)
-                                .flatMap(userIdKey -> limitProvider.tryAcquire(userIdKey, rate, expire, rateIntervalUnit));
-                    }
-                    return limitProvider.tryAcquire(spELKey, rate, expire, rateIntervalUnit);
-                });
+                .flatMap(exchange -> key(plan, args, exchange))
+                .switchIfEmpty(Mono.error(plan::rejection))
+                .flatMapMany(key -> concurrencyLimiter.execute(key, plan.getRate(), plan.getQueue(),
+                        plan.getMaxWait(), source, plan::rejection));
+    }
+
+    /**
+     * 按计划的 key 维度计算本次调用的 key.
+     *
+     * @param plan     the limit plan
+     * @param args     the args
+     * @param exchange the exchange
+     * @return the key
+     */
+    private Mono<String> key(LimitPlan plan, Object[] args, ServerWebExchange exchange) {
+        LimitPlan.KeyStrategy strategy = plan.getKeyStrategy();
+        String key = plan.key(args);
+        if (strategy.ip()) {
+            String realIP = ReactiveAddrUtil.getRemoteAddr(exchange);
+            if (realIP != null) {
+                key = key + "#" + realIP;
+            }
+        }
+        if (strategy.user()) {
+            String finalKey = key;
+            return UserContextHolder.userIdDefault()
+                    .defaultIfEmpty("0")
+                    .map(userId -> finalKey + "#" + userId);
+        }
+        return Mono.just(key);
+    }
+
+    private Mono<LimitResult> acquire(LimitPlan plan, String key, ServerWebExchange exchange) {
+        return limitProvider.acquire(key, plan.getRate(), plan.getExpire(), plan.getUnit(), plan.getAlgorithm())
+                .doOnNext(result -> writeHeaders(exchange, result))
+                .contextWrite(context -> context.put(LIMIT_NAME, plan.getName()));
+    }
+
+    /**
+     * 写入限流响应头.
+     *
+     * @param exchange the exchange
+     * @param result   the limit result
+     */
+    private static void writeHeaders(ServerWebExchange exchange, LimitResult result) {
+        if (!result.hasQuota()) {
+            return;
+        }
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        String reset = String.valueOf((result.resetMillis() + 999) / 1000);
+        headers.set(RATE_LIMIT_LIMIT, String.valueOf(result.limit()));
+        headers.set(RATE_LIMIT_REMAINING, String.valueOf(result.remaining()));
+        headers.set(RATE_LIMIT_RESET, reset);
+        if (!result.allowed()) {
+            headers.set(HttpHeaders.RETRY_AFTER, reset);
+        }
     }
 
 }
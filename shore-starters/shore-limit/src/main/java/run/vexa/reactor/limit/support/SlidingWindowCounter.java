@@ -0,0 +1,105 @@
+package run.vexa.reactor.limit.support;
+
+/**
+ * 滑动窗口计数器
+ * <p>
+ * 只保存当前与上一个固定窗口的计数，按当前窗口已经过的比例对上一个窗口的计数加权，
+ * 估算最近一个周期内的请求数：{@code previous * (period - elapsed) / period + current}.
+ * 每个 key 占用常数内存，且不会像固定窗口那样在窗口边界处放行两倍配额.
+ *
+ * @author youta
+ **/
+public final class SlidingWindowCounter {
+
+    private final int limit;
+
+    private final long periodMillis;
+
+    private long window;
+
+    private long current;
+
+    private long previous;
+
+    /**
+     * Instantiates a new Sliding window counter.
+     *
+     * @param limit        周期内的配额
+     * @param periodMillis 周期(毫秒)
+     * @param now          当前时间(毫秒)
+     */
+    public SlidingWindowCounter(int limit, long periodMillis, long now) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Sliding window limit must be positive");
+        }
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Sliding window period must be positive");
+        }
+        this.limit = limit;
+        this.periodMillis = periodMillis;
+        this.window = now / periodMillis;
+    }
+
+    /**
+     * 尝试计入一次请求.
+     * <p>
+     * 调用方在进入同步块之前读取时间，持有上一个窗口时间的线程可能晚于已进入新窗口的线程到达；
+     * 这类请求按当前窗口的起点计算，窗口只会前进，不会被回退或清零.
+     *
+     * @param now 当前时间(毫秒)
+     * @return 限流结果
+     */
+    public synchronized LimitResult tryAcquire(long now) {
+        now = Math.max(now, window * periodMillis);
+        long index = now / periodMillis;
+        if (index != window) {
+            previous = index == window + 1 ? current : 0;
+            current = 0;
+            window = index;
+        }
+        long elapsed = now - index * periodMillis;
+        double estimated = (double) previous * (periodMillis - elapsed) / periodMillis + current;
+        if (estimated + 1 > limit) {
+            return new LimitResult(false, limit, 0, retryAfter(elapsed));
+        }
+        current++;
+        return new LimitResult(true, limit, (long) (limit - estimated - 1), 2 * periodMillis - elapsed);
+    }
+
+    /**
+     * 距离下一次可以放行的毫秒数.
+     *
+     * @param elapsed 当前窗口已经过的时间
+     * @return 毫秒数
+     */
+    private long retryAfter(long elapsed) {
+        if (current < limit) {
+            // 当前窗口内，上一个窗口的权重衰减到足以放行一次请求的时刻
+            double until = periodMillis - (double) (limit - 1 - current) * periodMillis / previous;
+            return Math.max(1, (long) Math.ceil(until - elapsed));
+        }
+        // 当前窗口已满，需等到下一个窗口中本窗口的权重衰减
+        double until = periodMillis - (double) (limit - 1) * periodMillis / current;
+        return periodMillis - elapsed + Math.max(0, (long) Math.ceil(until));
+    }
+
+    /**
+     * 计数器参数是否与给定参数一致.
+     *
+     * @param limit        周期内的配额
+     * @param periodMillis 周期(毫秒)
+     * @return 是否一致
+     */
+    public boolean matches(int limit, long periodMillis) {
+        return this.limit == limit && this.periodMillis == periodMillis;
+    }
+
+    /**
+     * 获取周期(毫秒).
+     *
+     * @return 周期
+     */
+    public long getPeriodMillis() {
+        return periodMillis;
+    }
+}
@@ -0,0 +1,123 @@
+package run.vexa.reactor.limit.support;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶
+ * <p>
+ * 状态被压缩在一个 {@code long} 中：高 42 位为上次补充令牌的时间戳(毫秒)，低 22 位为剩余令牌数，
+ * 补充与扣减通过一次 CAS 完成.
+ *
+ * @author youta
+ **/
+public final class TokenBucket {
+
+    /**
+     * 令牌数占用的位数
+     */
+    private static final int TOKEN_BITS = 22;
+
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+
+    /**
+     * 单个令牌桶允许的最大容量
+     */
+    public static final int MAX_CAPACITY = (int) TOKEN_MASK;
+
+    private final AtomicLong state;
+
+    private final int capacity;
+
+    private final long periodMillis;
+
+    /**
+     * Instantiates a new Token bucket.
+     *
+     * @param capacity     桶容量(单位时间产生的令牌个数)
+     * @param periodMillis 产生 capacity 个令牌所需的时间(毫秒)
+     * @param now          当前时间(毫秒)
+     */
+    public TokenBucket(int capacity, long periodMillis, long now) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Token bucket capacity must be between 1 and " + MAX_CAPACITY);
+        }
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Token bucket period must be positive");
+        }
+        this.capacity = capacity;
+        this.periodMillis = periodMillis;
+        this.state = new AtomicLong(pack(now, capacity));
+    }
+
+    /**
+     * 尝试获取令牌.
+     *
+     * @param permits 令牌个数
+     * @param now     当前时间(毫秒)
+     * @return 是否获取成功
+     */
+    public boolean tryAcquire(int permits, long now) {
+        for (; ; ) {
+            long current = state.get();
+            long last = current >>> TOKEN_BITS;
+            long tokens = current & TOKEN_MASK;
+            long elapsed = now - last;
+            if (elapsed >= periodMillis) {
+                tokens = capacity;
+                last = now;
+            } else if (elapsed > 0) {
+                long refill = elapsed * capacity / periodMillis;
+                if (refill > 0) {
+                    if (tokens + refill >= capacity) {
+                        tokens = capacity;
+                        last = now;
+                    } else {
+                        tokens += refill;
+                        last += refill * periodMillis / capacity;
+                    }
+                }
+            }
+            if (tokens < permits) {
+                return false;
+            }
+            if (state.compareAndSet(current, pack(last, tokens - permits))) {
+                return true;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * 当前剩余令牌数(不触发补充).
+     *
+     * @return 剩余令牌数
+     */
+    public long available() {
+        return state.get() & TOKEN_MASK;
+    }
+
+    /**
+     * 桶参数是否与给定参数一致.
+     *
+     * @param capacity     桶容量
+     * @param periodMillis 周期(毫秒)
+     * @return 是否一致
+     */
+    public boolean matches(int capacity, long periodMillis) {
+        return this.capacity == capacity && this.periodMillis == periodMillis;
+    }
+
+    /**
+     * 获取周期(毫秒).
+     *
+     * @return 周期
+     */
+    public long getPeriodMillis() {
+        return periodMillis;
+    }
+
+    private static long pack(long timestamp, long tokens) {
+        return (timestamp << TOKEN_BITS) | tokens;
+    }
+
+}
@@ -0,0 +1,101 @@
+-- 单次往返的限流脚本
+-- KEYS[1] 限流 key
+-- ARGV[1] 算法: token_bucket | fixed_window | sliding_log | sliding_window
+-- ARGV[2] 周期内的配额
+-- ARGV[3] 周期(毫秒)
+-- ARGV[4] 本次请求的唯一标识(sliding_log 使用)
+-- 返回 {是否放行(1/0), 剩余配额, 重置时间(毫秒)}
+local key = KEYS[1]
+local algorithm = ARGV[1]
+local rate = tonumber(ARGV[2])
+local period = tonumber(ARGV[3])
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+if algorithm == 'token_bucket' then
+    local bucket = redis.call('HMGET', key, 'tokens', 'ts')
+    local tokens = tonumber(bucket[1])
+    local ts = tonumber(bucket[2])
+    if tokens == nil or ts == nil then
+        tokens = rate
+    else
+        tokens = math.min(rate, tokens + math.max(0, now - ts) * rate / period)
+    end
+    local allowed = 0
+    if tokens >= 1 then
+        tokens = tokens - 1
+        allowed = 1
+    end
+    redis.call('HSET', key, 'tokens', tokens, 'ts', now)
+    redis.call('PEXPIRE', key, period)
+    local reset
+    if allowed == 1 then
+        reset = math.ceil((rate - tokens) * period / rate)
+    else
+        reset = math.ceil((1 - tokens) * period / rate)
+    end
+    return {allowed, math.floor(tokens), reset}
+end
+
+if algorithm == 'fixed_window' then
+    local count = redis.call('INCR', key)
+    local ttl = redis.call('PTTL', key)
+    if ttl < 0 then
+        redis.call('PEXPIRE', key, period)
+        ttl = period
+    end
+    if count > rate then
+        return {0, 0, ttl}
+    end
+    return {1, rate - count, ttl}
+end
+
+if algorithm == 'sliding_log' then
+    redis.call('ZREMRANGEBYSCORE', key, '-inf', now - period)
+    local count = redis.call('ZCARD', key)
+    local allowed = 0
+    if count < rate then
+        redis.call('ZADD', key, now, ARGV[4])
+        count = count + 1
+        allowed = 1
+    end
+    redis.call('PEXPIRE', key, period)
+    if allowed == 1 then
+        return {1, rate - count, period}
+    end
+    local oldest = redis.call('ZRANGE', key, 0, 0, 'WITHSCORES')
+    return {0, 0, tonumber(oldest[2]) + period - now}
+end
+
+if algorithm == 'sliding_window' then
+    local window = math.floor(now / period)
+    local counter = redis.call('HMGET', key, 'w', 'c', 'p')
+    local w = tonumber(counter[1])
+    local current = tonumber(counter[2]) or 0
+    local previous = tonumber(counter[3]) or 0
+    if w ~= window then
+        if w == window - 1 then
+            previous = current
+        else
+            previous = 0
+        end
+        current = 0
+    end
+    local elapsed = now - window * period
+    local estimated = previous * (period - elapsed) / period + current
+    if estimated + 1 > rate then
+        local reset
+        if current < rate then
+            reset = math.max(1, math.ceil(period - (rate - 1 - current) * period / previous - elapsed))
+        else
+            reset = period - elapsed + math.max(0, math.ceil(period - (rate - 1) * period / current))
+        end
+        return {0, 0, reset}
+    end
+    current = current + 1
+    redis.call('HSET', key, 'w', window, 'c', current, 'p', previous)
+    redis.call('PEXPIRE', key, period * 2)
+    return {1, math.floor(rate - estimated - 1), 2 * period - elapsed}
+end
+
+return redis.error_reply('Unsupported limit algorithm: ' .. tostring(algorithm))
@@ -16,11 +16,12 @@ import run.vexa.reactor.commons.enums.TimeUnitMessageKey;
 import run.vexa.reactor.commons.exception.ServerException;
 import run.vexa.reactor.core.context.ReactiveContextHolder;
 import run.vexa.reactor.limit.annotation.Limit;
+import run.vexa.reactor.limit.enums.LimitAlgorithm;
 import run.vexa.reactor.limit.provider.LimitProvider;
 
 import java.lang.reflect.Method;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -33,7 +34,7 @@ class LimitAspectTest {
 
     @BeforeEach
     void setUp() {
-        limitProvider = Mockito.mock(LimitProvider.class);
+        limitProvider = Mockito.mock(LimitProvider.class, Mockito.CALLS_REAL_METHODS);
         @SuppressWarnings("unchecked")
         ObjectProvider<LimitProvider> provider = (ObjectProvider<LimitProvider>) Mockito.mock(ObjectProvider.class);
         when(provider.getIfAvailable()).thenReturn(limitProvider);
@@ -77,6 +78,16 @@ class LimitAspectTest {
             public boolean restrictUser() {
                 return false;
             }
+
+            @Override
+            public LimitAlgorithm algorithm() {
+                return LimitAlgorithm.TOKEN_BUCKET;
+            }
+
+            @Override
+            public int queue() {
+                return 0;
+            }
         };
     }
 
@@ -141,7 +152,7 @@ class LimitAspectTest {
     }
 
     @Test
-    void handlerReturnsCollectionWhenMethodProducesFlux() throws Throwable {
+    void handlerStreamsFluxWithoutCollecting() throws Throwable {
         when(limitProvider.tryAcquire(org.mockito.ArgumentMatchers.anyString(), org.mockito.ArgumentMatchers.anyInt(), org.mockito.ArgumentMatchers.anyLong(), any(ChronoUnit.class)))
                 .thenReturn(Mono.just(true));
 
@@ -155,12 +166,67 @@ class LimitAspectTest {
         when(pjp.proceed()).thenReturn(svc.stream());
 
         MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/flux").build());
-        Mono<?> result = ((Mono<?>) aspect.handler(pjp, limit()))
+        Flux<?> result = ((Flux<?>) aspect.handler(pjp, limit()))
+                .contextWrite(ctx -> ctx.put(ReactiveContextHolder.CONTEXT_KEY, exchange));
+
+        StepVerifier.create(result.cast(String.class))
+                .expectNext("alpha", "beta")
+                .verifyComplete();
+    }
+
+    @Test
+    void handlerRejectsFluxBeforeInvokingMethod() throws Throwable {
+        when(limitProvider.tryAcquire(org.mockito.ArgumentMatchers.anyString(), org.mockito.ArgumentMatchers.anyInt(), org.mockito.ArgumentMatchers.anyLong(), any(ChronoUnit.class)))
+                .thenReturn(Mono.just(false));
+
+        Method method = DemoService.class.getMethod("stream");
+        org.aspectj.lang.ProceedingJoinPoint pjp = Mockito.mock(org.aspectj.lang.ProceedingJoinPoint.class);
+        org.aspectj.lang.reflect.MethodSignature sig = Mockito.mock(org.aspectj.lang.reflect.MethodSignature.class);
+        when(sig.getMethod()).thenReturn(method);
+        when(pjp.getSignature()).thenReturn(sig);
+        when(pjp.getArgs()).thenReturn(new Object[]{});
+
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/flux").build());
+        Flux<?> result = ((Flux<?>) aspect.handler(pjp, limit()))
+                .contextWrite(ctx -> ctx.put(ReactiveContextHolder.CONTEXT_KEY, exchange));
+
+        StepVerifier.create(result)
+                .expectError(ServerException.class)
+                .verify();
+        Mockito.verify(pjp, Mockito.never()).proceed();
+    }
+
+    /**
+     * A million 1 KiB elements (about 1 GiB in total) only fit in a default test heap when
+     * they are streamed. The upstream demand is also checked to stay bounded.
+     */
+    @Test
+    void handlerStreamsMillionElementsWithBoundedDemand() throws Throwable {
+        when(limitProvider.tryAcquire(org.mockito.ArgumentMatchers.anyString(), org.mockito.ArgumentMatchers.anyInt(), org.mockito.ArgumentMatchers.anyLong(), any(ChronoUnit.class)))
+                .thenReturn(Mono.just(true));
+
+        int elements = 1_000_000;
+        AtomicLong maxRequest = new AtomicLong();
+        Flux<byte[]> source = Flux.range(0, elements)
+                .doOnRequest(n -> maxRequest.accumulateAndGet(n, Math::max))
+                .map(i -> new byte[1024]);
+
+        Method method = DemoService.class.getMethod("stream");
+        org.aspectj.lang.ProceedingJoinPoint pjp = Mockito.mock(org.aspectj.lang.ProceedingJoinPoint.class);
+        org.aspectj.lang.reflect.MethodSignature sig = Mockito.mock(org.aspectj.lang.reflect.MethodSignature.class);
+        when(sig.getMethod()).thenReturn(method);
+        when(pjp.getSignature()).thenReturn(sig);
+        when(pjp.getArgs()).thenReturn(new Object[]{});
+        when(pjp.proceed()).thenReturn(source);
+
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/ndjson").build());
+        Flux<?> result = ((Flux<?>) aspect.handler(pjp, limit()))
                 .contextWrite(ctx -> ctx.put(ReactiveContextHolder.CONTEXT_KEY, exchange));
 
-        StepVerifier.create(result.cast(List.class))
-                .expectNext(List.of("alpha", "beta"))
+        StepVerifier.create(result.limitRate(256).count())
+                .expectNext((long) elements)
                 .verifyComplete();
+        org.junit.jupiter.api.Assertions.assertTrue(maxRequest.get() <= 256, "upstream demand should stay bounded");
     }
 
     @Test
@@ -7,8 +7,14 @@ import org.springframework.context.MessageSource;
 import org.springframework.context.support.StaticMessageSource;
 import org.springframework.util.Assert;
 import run.vexa.reactor.limit.aspect.LimitAspect;
+import run.vexa.reactor.limit.endpoint.LimitHotKeyEndpoint;
 import run.vexa.reactor.limit.provider.LimitProvider;
+import run.vexa.reactor.limit.provider.LocalLimitProvider;
+import run.vexa.reactor.limit.provider.MeteredLimitProvider;
+import run.vexa.reactor.limit.provider.RedisScriptLimitProvider;
 import run.vexa.reactor.limit.provider.RedissonLimitProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.redisson.api.RedissonReactiveClient;
 
 import static org.mockito.Mockito.mock;
@@ -28,6 +34,40 @@ class LimitAutoConfigurationTest {
             Assert.isTrue(context.getBean(LimitProvider.class) instanceof RedissonLimitProvider, "LimitProvider should be RedissonLimitProvider");
         });
     }
-}
 
+    @Test
+    void localProviderIsSelectedByProperty() {
+        contextRunner.withPropertyValues("shore.limit.provider=local", "shore.limit.local.maximum-size=128")
+                .run(context -> {
+                    Assert.notNull(context.getBean(LimitAspect.class), "LimitAspect should be created");
+                    Assert.isTrue(context.getBean(LimitProvider.class) instanceof LocalLimitProvider, "LimitProvider should be LocalLimitProvider");
+                });
+    }
+
+    @Test
+    void scriptProviderIsSelectedByProperty() {
+        contextRunner.withPropertyValues("shore.limit.provider=script")
+                .run(context -> Assert.isTrue(context.getBean(LimitProvider.class) instanceof RedisScriptLimitProvider,
+                        "LimitProvider should be RedisScriptLimitProvider"));
+    }
+
+    @Test
+    void providerIsInstrumentedWhenMeterRegistryPresent() {
+        contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .run(context -> {
+                    LimitProvider provider = context.getBean(LimitProvider.class);
+                    Assert.isTrue(provider instanceof MeteredLimitProvider, "LimitProvider should be instrumented");
+                    Assert.isTrue(((MeteredLimitProvider) provider).getDelegate() instanceof RedissonLimitProvider,
+                            "delegate should be RedissonLimitProvider");
+                    Assert.notNull(context.getBean(LimitHotKeyEndpoint.class), "LimitHotKeyEndpoint should be created");
+                });
+    }
 
+    @Test
+    void metricsCanBeDisabled() {
+        contextRunner.withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withPropertyValues("shore.limit.metrics.enabled=false")
+                .run(context -> Assert.isTrue(context.getBean(LimitProvider.class) instanceof RedissonLimitProvider,
+                        "LimitProvider should not be instrumented"));
+    }
+}
@@ -0,0 +1,136 @@
+package run.vexa.reactor.limit.provider;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.redisson.api.RAtomicLongReactive;
+import org.redisson.api.RedissonReactiveClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import run.vexa.reactor.commons.exception.ServerException;
+import run.vexa.reactor.limit.properties.LimitProperties;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Uses an in-memory stand-in for the Redis counters so the accuracy / round-trip tradeoff
+ * of the lease scheme can be measured without a Redis server.
+ */
+class HybridLimitProviderTest {
+
+    private final Map<String, AtomicLong> store = new ConcurrentHashMap<>();
+    private final AtomicLong roundTrips = new AtomicLong();
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final List<HybridLimitProvider> providers = new ArrayList<>();
+
+    private RedissonReactiveClient client;
+    private RedissonLimitProvider delegate;
+
+    @BeforeEach
+    void setUp() {
+        client = Mockito.mock(RedissonReactiveClient.class);
+        delegate = Mockito.mock(RedissonLimitProvider.class);
+        when(client.getAtomicLong(anyString())).thenAnswer(invocation -> counter(invocation.getArgument(0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        providers.forEach(HybridLimitProvider::destroy);
+    }
+
+    private RAtomicLongReactive counter(String name) {
+        RAtomicLongReactive counter = Mockito.mock(RAtomicLongReactive.class);
+        when(counter.addAndGet(anyLong())).thenAnswer(invocation -> Mono.fromSupplier(() -> {
+            roundTrips.incrementAndGet();
+            return store.computeIfAbsent(name, k -> new AtomicLong()).addAndGet(invocation.getArgument(0));
+        }));
+        when(counter.expire(any(Duration.class))).thenAnswer(invocation -> Mono.fromSupplier(() -> {
+            roundTrips.incrementAndGet();
+            return true;
+        }));
+        return counter;
+    }
+
+    private HybridLimitProvider node(long leaseSize) {
+        return node(leaseSize, Duration.ofHours(1));
+    }
+
+    private HybridLimitProvider node(long leaseSize, Duration reconcileInterval) {
+        LimitProperties.Hybrid hybrid = new LimitProperties.Hybrid();
+        hybrid.setLeaseSize(leaseSize);
+        hybrid.setMinRate(10);
+        hybrid.setReconcileInterval(reconcileInterval);
+        HybridLimitProvider provider = new HybridLimitProvider(delegate, client, hybrid, clock::get);
+        providers.add(provider);
+        return provider;
+    }
+
+    @Test
+    void tryAcquireThrowsWhenKeyEmpty() {
+        StepVerifier.create(node(10).tryAcquire("", 100, 1, ChronoUnit.SECONDS))
+                .expectError(ServerException.class)
+                .verify();
+    }
+
+    @Test
+    void lowRateLimitsAreDelegated() {
+        when(delegate.tryAcquire("k", 5, 1, ChronoUnit.SECONDS)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(node(10).tryAcquire("k", 5, 1, ChronoUnit.SECONDS))
+                .expectNext(true)
+                .verifyComplete();
+        verify(delegate).tryAcquire("k", 5, 1, ChronoUnit.SECONDS);
+        assertThat(roundTrips.get()).isZero();
+    }
+
+    @Test
+    void clusterNeverExceedsQuotaAndSavesRoundTrips() {
+        int rate = 1000;
+        int requests = 10_000;
+        List<HybridLimitProvider> nodes = List.of(node(50), node(50), node(50), node(50));
+
+        long granted = 0;
+        for (int i = 0; i < requests; i++) {
+            if (Boolean.TRUE.equals(nodes.get(i % nodes.size()).tryAcquire("k", rate, 1, ChronoUnit.SECONDS).block())) {
+                granted++;
+            }
+        }
+
+        assertThat(granted).as("granted across the cluster").isLessThanOrEqualTo(rate).isEqualTo(rate);
+        assertThat(roundTrips.get()).as("redis round trips").isPositive().isLessThan(requests / 50);
+    }
+
+    @Test
+    void idleLeasesAreReturnedOnReconcile() {
+        HybridLimitProvider first = node(50, Duration.ofMinutes(1));
+        HybridLimitProvider second = node(50, Duration.ofMinutes(1));
+
+        StepVerifier.create(first.tryAcquire("k", 60, 1, ChronoUnit.HOURS)).expectNext(true).verifyComplete();
+        for (int i = 0; i < 10; i++) {
+            StepVerifier.create(second.tryAcquire("k", 60, 1, ChronoUnit.HOURS)).expectNext(true).verifyComplete();
+        }
+        StepVerifier.create(second.tryAcquire("k", 60, 1, ChronoUnit.HOURS)).expectNext(false).verifyComplete();
+        assertThat(store.values().iterator().next().get()).isEqualTo(60);
+
+        // the first node stays idle for a whole reconcile interval and hands its 49 unused permits back
+        clock.addAndGet(Duration.ofMinutes(1).toMillis());
+        StepVerifier.create(first.reconcile()).verifyComplete();
+        assertThat(store.values().iterator().next().get()).isEqualTo(11);
+
+        StepVerifier.create(second.tryAcquire("k", 60, 1, ChronoUnit.HOURS)).expectNext(true).verifyComplete();
+    }
+}
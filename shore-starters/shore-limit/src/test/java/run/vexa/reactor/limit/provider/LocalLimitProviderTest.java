@@ -0,0 +1,90 @@
+package run.vexa.reactor.limit.provider;
+
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+import run.vexa.reactor.commons.exception.ServerException;
+import run.vexa.reactor.limit.enums.LimitAlgorithm;
+import run.vexa.reactor.limit.support.LimitResult;
+
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+class LocalLimitProviderTest {
+
+    @Test
+    void tryAcquireThrowsWhenKeyEmpty() {
+        LocalLimitProvider provider = new LocalLimitProvider(16);
+
+        StepVerifier.create(provider.tryAcquire("", 1, 1, ChronoUnit.SECONDS))
+                .expectError(ServerException.class)
+                .verify();
+    }
+
+    @Test
+    void tryAcquireThrowsWhenUnitUnsupported() {
+        LocalLimitProvider provider = new LocalLimitProvider(16);
+
+        StepVerifier.create(provider.tryAcquire("k", 1, 1, ChronoUnit.MONTHS))
+                .expectError(ServerException.class)
+                .verify();
+    }
+
+    @Test
+    void tryAcquireRejectsWhenBucketExhaustedAndRefills() {
+        AtomicLong clock = new AtomicLong();
+        LocalLimitProvider provider = new LocalLimitProvider(16, clock::get);
+
+        StepVerifier.create(provider.tryAcquire("k", 2, 1, ChronoUnit.SECONDS)).expectNext(true).verifyComplete();
+        StepVerifier.create(provider.tryAcquire("k", 2, 1, ChronoUnit.SECONDS)).expectNext(true).verifyComplete();
+        StepVerifier.create(provider.tryAcquire("k", 2, 1, ChronoUnit.SECONDS)).expectNext(false).verifyComplete();
+
+        clock.set(500);
+        StepVerifier.create(provider.tryAcquire("k", 2, 1, ChronoUnit.SECONDS)).expectNext(true).verifyComplete();
+        StepVerifier.create(provider.tryAcquire("k", 2, 1, ChronoUnit.SECONDS)).expectNext(false).verifyComplete();
+    }
+
+    @Test
+    void tryAcquireKeepsKeysIndependent() {
+        AtomicLong clock = new AtomicLong();
+        LocalLimitProvider provider = new LocalLimitProvider(16, clock::get);
+
+        StepVerifier.create(provider.tryAcquire("a", 1, 1, ChronoUnit.SECONDS)).expectNext(true).verifyComplete();
+        StepVerifier.create(provider.tryAcquire("a", 1, 1, ChronoUnit.SECONDS)).expectNext(false).verifyComplete();
+        StepVerifier.create(provider.tryAcquire("b", 1, 1, ChronoUnit.SECONDS)).expectNext(true).verifyComplete();
+    }
+
+    @Test
+    void tryAcquireReplacesBucketWhenRateChanges() {
+        AtomicLong clock = new AtomicLong();
+        LocalLimitProvider provider = new LocalLimitProvider(16, clock::get);
+
+        StepVerifier.create(provider.tryAcquire("k", 1, 1, ChronoUnit.SECONDS)).expectNext(true).verifyComplete();
+        StepVerifier.create(provider.tryAcquire("k", 1, 1, ChronoUnit.SECONDS)).expectNext(false).verifyComplete();
+        StepVerifier.create(provider.tryAcquire("k", 5, 1, ChronoUnit.SECONDS)).expectNext(true).verifyComplete();
+    }
+
+    @Test
+    void slidingWindowSmoothsWindowEdge() {
+        AtomicLong clock = new AtomicLong(900);
+        LocalLimitProvider provider = new LocalLimitProvider(16, clock::get);
+
+        StepVerifier.create(provider.acquire("k", 2, 1, ChronoUnit.SECONDS, LimitAlgorithm.SLIDING_WINDOW))
+                .expectNextMatches(result -> result.allowed() && result.remaining() == 1)
+                .verifyComplete();
+        StepVerifier.create(provider.acquire("k", 2, 1, ChronoUnit.SECONDS, LimitAlgorithm.SLIDING_WINDOW))
+                .expectNextMatches(result -> result.allowed() && result.remaining() == 0)
+                .verifyComplete();
+
+        clock.set(1000);
+        StepVerifier.create(provider.acquire("k", 2, 1, ChronoUnit.SECONDS, LimitAlgorithm.SLIDING_WINDOW))
+                .expectNextMatches(result -> !result.allowed())
+                .verifyComplete();
+        // the token bucket for the same key is independent
+        StepVerifier.create(provider.tryAcquire("k", 2, 1, ChronoUnit.SECONDS)).expectNext(true).verifyComplete();
+
+        clock.set(1500);
+        StepVerifier.create(provider.acquire("k", 2, 1, ChronoUnit.SECONDS, LimitAlgorithm.SLIDING_WINDOW))
+                .expectNextMatches(LimitResult::allowed)
+                .verifyComplete();
+    }
+}
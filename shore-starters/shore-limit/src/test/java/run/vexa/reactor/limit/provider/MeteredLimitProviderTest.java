@@ -0,0 +1,67 @@
+package run.vexa.reactor.limit.provider;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import run.vexa.reactor.limit.enums.LimitAlgorithm;
+import run.vexa.reactor.limit.support.HotKeySketch;
+import run.vexa.reactor.limit.support.LimitResult;
+import run.vexa.reactor.limit.support.LimitSupport;
+
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class MeteredLimitProviderTest {
+
+    private SimpleMeterRegistry registry;
+    private HotKeySketch hotKeys;
+    private LimitProvider delegate;
+    private MeteredLimitProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        hotKeys = new HotKeySketch(16);
+        delegate = Mockito.mock(LimitProvider.class);
+        provider = new MeteredLimitProvider(delegate, registry, hotKeys);
+    }
+
+    private double count(String name, String result) {
+        return registry.get(MeteredLimitProvider.REQUESTS_COUNTER).tag("name", name).tag("result", result).counter().count();
+    }
+
+    @Test
+    void recordsDecisionsTaggedByLimitName() {
+        when(delegate.acquire("user#1", 5, 1, ChronoUnit.SECONDS, LimitAlgorithm.FIXED_WINDOW))
+                .thenReturn(Mono.just(new LimitResult(true, 5, 4, 1000)), Mono.just(new LimitResult(false, 5, 0, 1000)));
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(provider.acquire("user#1", 5, 1, ChronoUnit.SECONDS, LimitAlgorithm.FIXED_WINDOW)
+                            .contextWrite(context -> context.put(LimitSupport.LIMIT_NAME, "Api.login")))
+                    .expectNextCount(1)
+                    .verifyComplete();
+        }
+
+        assertThat(count("Api.login", "allowed")).isEqualTo(1);
+        assertThat(count("Api.login", "rejected")).isEqualTo(1);
+        assertThat(registry.get(MeteredLimitProvider.ACQUIRE_TIMER).tag("name", "Api.login").timer().count()).isEqualTo(2);
+        assertThat(hotKeys.top(1)).containsExactly(new HotKeySketch.HotKey("user#1", 2, 0));
+    }
+
+    @Test
+    void countsErrorsAndFallsBackToUnnamed() {
+        when(delegate.tryAcquire("k", 1, 1, ChronoUnit.SECONDS)).thenReturn(Mono.error(new IllegalStateException("down")));
+
+        StepVerifier.create(provider.tryAcquire("k", 1, 1, ChronoUnit.SECONDS))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        assertThat(count(MeteredLimitProvider.UNNAMED, "error")).isEqualTo(1);
+        assertThat(registry.find(MeteredLimitProvider.REQUESTS_COUNTER).tag("name", "k").counter()).isNull();
+    }
+}
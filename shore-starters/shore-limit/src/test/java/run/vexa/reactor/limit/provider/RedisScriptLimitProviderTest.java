@@ -0,0 +1,103 @@
+package run.vexa.reactor.limit.provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.redisson.api.RScript;
+import org.redisson.api.RScriptReactive;
+import org.redisson.api.RedissonReactiveClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.Codec;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import run.vexa.reactor.commons.exception.ServerException;
+import run.vexa.reactor.limit.enums.LimitAlgorithm;
+
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedisScriptLimitProviderTest {
+
+    private RScriptReactive script;
+    private RedisScriptLimitProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        RedissonReactiveClient client = Mockito.mock(RedissonReactiveClient.class);
+        script = Mockito.mock(RScriptReactive.class);
+        when(client.getScript(any(Codec.class))).thenReturn(script);
+        when(script.scriptLoad(anyString())).thenReturn(Mono.just("sha1"));
+        provider = new RedisScriptLimitProvider(client);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void reply(Mono<?> result) {
+        when(script.evalSha(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.LIST), any(List.class),
+                any(Object[].class))).thenReturn((Mono<Object>) result);
+    }
+
+    @Test
+    void tryAcquireThrowsWhenKeyEmpty() {
+        StepVerifier.create(provider.tryAcquire("", 1, 1, ChronoUnit.SECONDS))
+                .expectError(ServerException.class)
+                .verify();
+    }
+
+    @Test
+    void acquireRejectsInvalidRate() {
+        StepVerifier.create(provider.acquire("k", 0, 1, ChronoUnit.SECONDS, LimitAlgorithm.FIXED_WINDOW))
+                .expectError(ServerException.class)
+                .verify();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void acquireReturnsQuotaFromSingleEvalSha() {
+        reply(Mono.just(List.of(1L, 4L, 800L)));
+
+        StepVerifier.create(provider.acquire("k", 5, 1, ChronoUnit.SECONDS, LimitAlgorithm.SLIDING_LOG))
+                .expectNextMatches(result -> result.allowed() && result.limit() == 5
+                        && result.remaining() == 4 && result.resetMillis() == 800)
+                .verifyComplete();
+        StepVerifier.create(provider.tryAcquire("k", 5, 1, ChronoUnit.SECONDS))
+                .expectNext(true)
+                .verifyComplete();
+
+        verify(script, times(1)).scriptLoad(anyString());
+        verify(script).evalSha(eq(RScript.Mode.READ_WRITE), eq("sha1"), eq(RScript.ReturnType.LIST),
+                eq(List.of("k:sliding_log")), any(Object[].class));
+        verify(script).evalSha(eq(RScript.Mode.READ_WRITE), eq("sha1"), eq(RScript.ReturnType.LIST),
+                eq(List.of("k:token_bucket")), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void acquireReloadsScriptOnNoScript() {
+        when(script.evalSha(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.LIST), any(List.class),
+                any(Object[].class)))
+                .thenReturn(Mono.error(new RedisException("NOSCRIPT No matching script. Please use EVAL.")))
+                .thenReturn((Mono<Object>) (Mono<?>) Mono.just(List.of(0L, 0L, 1500L)));
+
+        StepVerifier.create(provider.acquire("k", 5, 1, ChronoUnit.SECONDS, LimitAlgorithm.FIXED_WINDOW))
+                .expectNextMatches(result -> !result.allowed() && result.remaining() == 0 && result.resetMillis() == 1500)
+                .verifyComplete();
+        verify(script, times(2)).scriptLoad(anyString());
+    }
+
+    @Test
+    void acquirePropagatesOtherErrors() {
+        reply(Mono.error(new RedisException("READONLY")));
+
+        StepVerifier.create(provider.acquire("k", 5, 1, ChronoUnit.SECONDS, LimitAlgorithm.TOKEN_BUCKET))
+                .expectError(RedisException.class)
+                .verify();
+        verify(script, times(1)).scriptLoad(anyString());
+    }
+}
@@ -0,0 +1,106 @@
+package run.vexa.reactor.limit.support;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import run.vexa.reactor.commons.exception.ServerException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimiterTest {
+
+    private final ConcurrencyLimiter limiter = new ConcurrencyLimiter();
+
+    private static ServerException rejection() {
+        return new ServerException(429, "busy");
+    }
+
+    private <T> Mono<T> limited(Mono<T> source, int queue, Duration maxWait) {
+        return limiter.execute("k", 1, queue, maxWait, source, ConcurrencyLimiterTest::rejection);
+    }
+
+    @Test
+    void rejectsWhenFullAndNoQueue() {
+        Sinks.One<String> slow = Sinks.one();
+        Disposable running = limited(slow.asMono(), 0, Duration.ZERO).subscribe();
+        assertThat(limiter.inFlight("k")).isEqualTo(1);
+
+        StepVerifier.create(limited(Mono.just("second"), 0, Duration.ZERO))
+                .expectError(ServerException.class)
+                .verify();
+
+        slow.tryEmitValue("first");
+        assertThat(limiter.inFlight("k")).isZero();
+        StepVerifier.create(limited(Mono.just("third"), 0, Duration.ZERO))
+                .expectNext("third")
+                .verifyComplete();
+        running.dispose();
+    }
+
+    @Test
+    void queuedCallRunsOnlyAfterPermitIsReleased() {
+        Sinks.One<String> slow = Sinks.one();
+        limited(slow.asMono(), 1, Duration.ofSeconds(5)).subscribe();
+
+        AtomicBoolean started = new AtomicBoolean();
+        AtomicReference<String> result = new AtomicReference<>();
+        limited(Mono.fromCallable(() -> {
+            started.set(true);
+            return "queued";
+        }), 1, Duration.ofSeconds(5)).subscribe(result::set);
+        assertThat(started).isFalse();
+
+        StepVerifier.create(limited(Mono.just("overflow"), 1, Duration.ofSeconds(5)))
+                .expectError(ServerException.class)
+                .verify();
+
+        slow.tryEmitValue("first");
+        assertThat(started).isTrue();
+        assertThat(result.get()).isEqualTo("queued");
+        assertThat(limiter.inFlight("k")).isZero();
+    }
+
+    @Test
+    void cancelReleasesPermit() {
+        Disposable running = limited(Mono.never(), 0, Duration.ZERO).subscribe();
+        assertThat(limiter.inFlight("k")).isEqualTo(1);
+
+        running.dispose();
+
+        assertThat(limiter.inFlight("k")).isZero();
+    }
+
+    @Test
+    void waitTimeoutRejectsAndDoesNotLeakPermit() {
+        Sinks.One<String> slow = Sinks.one();
+        limited(slow.asMono(), 1, Duration.ofSeconds(5)).subscribe();
+
+        StepVerifier.create(limited(Mono.just("late"), 1, Duration.ofMillis(50)))
+                .expectError(ServerException.class)
+                .verify(Duration.ofSeconds(5));
+
+        slow.tryEmitValue("first");
+        assertThat(limiter.inFlight("k")).isZero();
+    }
+
+    @Test
+    void fluxHoldsPermitUntilTerminated() {
+        Sinks.Many<Integer> items = Sinks.many().unicast().onBackpressureBuffer();
+        Flux<Integer> flux = limiter.execute("k", 1, 0, Duration.ZERO, items.asFlux(),
+                ConcurrencyLimiterTest::rejection);
+        flux.subscribe();
+        items.tryEmitNext(1);
+        assertThat(limiter.inFlight("k")).isEqualTo(1);
+
+        items.tryEmitComplete();
+
+        assertThat(limiter.inFlight("k")).isZero();
+    }
+}
@@ -0,0 +1,108 @@
+package run.vexa.reactor.limit.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HotKeySketchTest {
+
+    @Test
+    void constructorRejectsNonPositiveCapacity() {
+        assertThatThrownBy(() -> new HotKeySketch(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void countsTrackedKeysExactly() {
+        HotKeySketch sketch = new HotKeySketch(4);
+        for (int i = 0; i < 3; i++) {
+            sketch.offer("a");
+        }
+        sketch.offer("b");
+
+        assertThat(sketch.top(10)).containsExactly(new HotKeySketch.HotKey("a", 3, 0), new HotKeySketch.HotKey("b", 1, 0));
+    }
+
+    @Test
+    void heavyHittersSurviveManyColdKeys() {
+        HotKeySketch sketch = new HotKeySketch(8);
+        for (int i = 0; i < 10_000; i++) {
+            sketch.offer("hot");
+            sketch.offer("cold-" + i);
+            if (i % 2 == 0) {
+                sketch.offer("warm");
+            }
+        }
+
+        List<HotKeySketch.HotKey> top = sketch.top(2);
+        assertThat(top).extracting(HotKeySketch.HotKey::key).containsExactly("hot", "warm");
+        assertThat(top.get(0).count()).isGreaterThanOrEqualTo(10_000);
+        assertThat(sketch.top(100)).hasSize(8);
+    }
+
+    @Test
+    void evictedCountIsCarriedAsError() {
+        HotKeySketch sketch = new HotKeySketch(2);
+        sketch.offer("a");
+        sketch.offer("a");
+        sketch.offer("b");
+
+        sketch.offer("c");
+
+        assertThat(sketch.top(10)).containsExactlyInAnyOrder(new HotKeySketch.HotKey("a", 2, 0),
+                new HotKeySketch.HotKey("c", 2, 1));
+    }
+
+    @Test
+    void concurrentOffersCountEveryTrackedHit() throws Exception {
+        HotKeySketch sketch = new HotKeySketch(1024);
+        int threads = 8;
+        int perThread = 20_000;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                int id = t;
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < perThread; i++) {
+                        sketch.offer("hot-" + i % 4);
+                        sketch.offer("cold-" + id + "-" + i);
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        }
+
+        List<HotKeySketch.HotKey> top = sketch.top(4);
+        assertThat(top).extracting(HotKeySketch.HotKey::key)
+                .containsExactlyInAnyOrder("hot-0", "hot-1", "hot-2", "hot-3");
+        assertThat(top).allSatisfy(hotKey ->
+                assertThat(hotKey.count()).isGreaterThanOrEqualTo((long) threads * perThread / 4));
+        assertThat(sketch.top(Integer.MAX_VALUE)).hasSizeLessThanOrEqualTo(1024);
+    }
+
+    @Test
+    void resetClearsEntries() {
+        HotKeySketch sketch = new HotKeySketch(4);
+        sketch.offer("a");
+
+        sketch.reset();
+
+        assertThat(sketch.top(10)).isEmpty();
+    }
+}
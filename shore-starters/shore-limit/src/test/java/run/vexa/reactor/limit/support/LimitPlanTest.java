@@ -0,0 +1,190 @@
+package run.vexa.reactor.limit.support;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import run.vexa.reactor.commons.exception.ServerException;
+import run.vexa.reactor.core.spel.SpringExpressionResolver;
+import run.vexa.reactor.limit.annotation.Limit;
+import run.vexa.reactor.limit.enums.LimitAlgorithm;
+import run.vexa.reactor.limit.provider.LimitProvider;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LimitPlanTest {
+
+    static class SampleClass {
+        String sample(String id) {
+            return id;
+        }
+    }
+
+    private static Limit limit(String key, boolean restrictIp, boolean restrictUser) {
+        return limit(key, restrictIp, restrictUser, 5, ChronoUnit.MINUTES, LimitAlgorithm.TOKEN_BUCKET);
+    }
+
+    private static Limit limit(String key, boolean restrictIp, boolean restrictUser, long expire, ChronoUnit unit,
+                               LimitAlgorithm algorithm) {
+        return new Limit() {
+            @Override
+            public Class<Limit> annotationType() {
+                return Limit.class;
+            }
+
+            @Override
+            public String key() {
+                return key;
+            }
+
+            @Override
+            public long expire() {
+                return expire;
+            }
+
+            @Override
+            public ChronoUnit unit() {
+                return unit;
+            }
+
+            @Override
+            public int rate() {
+                return 10;
+            }
+
+            @Override
+            public boolean restrictIp() {
+                return restrictIp;
+            }
+
+            @Override
+            public boolean restrictUser() {
+                return restrictUser;
+            }
+
+            @Override
+            public LimitAlgorithm algorithm() {
+                return algorithm;
+            }
+
+            @Override
+            public int queue() {
+                return 0;
+            }
+        };
+    }
+
+    private static Method sampleMethod() throws NoSuchMethodException {
+        return SampleClass.class.getDeclaredMethod("sample", String.class);
+    }
+
+    @Test
+    void planIsCompiledOncePerMethod() throws Exception {
+        LimitSupport support = new LimitSupport(Mockito.mock(LimitProvider.class));
+        Method method = sampleMethod();
+        Limit limit = limit("#p0", false, false);
+
+        LimitPlan plan = support.plan(limit, method);
+
+        assertThat(support.plan(limit, method)).isSameAs(plan);
+        assertThat(plan.getRate()).isEqualTo(10);
+        assertThat(plan.getExpire()).isEqualTo(5);
+        assertThat(plan.getUnit()).isEqualTo(ChronoUnit.MINUTES);
+    }
+
+    @Test
+    void keyIsEvaluatedAgainstEachCallsArguments() throws Exception {
+        LimitPlan plan = LimitPlan.compile(limit("'order:' + #p0", false, false), sampleMethod(),
+                new SpringExpressionResolver(), ChronoUnit::toString);
+
+        assertThat(plan.key(new Object[]{"a"})).isEqualTo("order:a");
+        assertThat(plan.key(new Object[]{"b"})).isEqualTo("order:b");
+    }
+
+    @Test
+    void keyWithoutVariablesIsUsedAsLiteral() throws Exception {
+        LimitPlan plan = LimitPlan.compile(limit("static-key", false, false), sampleMethod(),
+                new SpringExpressionResolver(), ChronoUnit::toString);
+
+        assertThat(plan.getKeyExpression()).isNull();
+        assertThat(plan.key(new Object[]{"a"})).isEqualTo("static-key");
+    }
+
+    @Test
+    void messageAndKeyStrategyArePrecomputed() throws Exception {
+        LimitPlan plan = LimitPlan.compile(limit("#p0", true, true), sampleMethod(),
+                new SpringExpressionResolver(), unit -> "minutes");
+
+        assertThat(plan.getKeyStrategy()).isEqualTo(LimitPlan.KeyStrategy.IP_AND_USER);
+        ServerException rejection = plan.rejection();
+        assertThat(rejection.getErrorCode()).isEqualTo(429);
+        assertThat(rejection.getMessage()).isEqualTo("Do not repeat the request, please wait for 5 minutes and try again");
+        assertThat(LimitPlan.KeyStrategy.of(limit("#p0", true, false))).isEqualTo(LimitPlan.KeyStrategy.IP);
+        assertThat(LimitPlan.KeyStrategy.of(limit("#p0", false, true))).isEqualTo(LimitPlan.KeyStrategy.USER);
+        assertThat(LimitPlan.KeyStrategy.of(limit("#p0", false, false))).isEqualTo(LimitPlan.KeyStrategy.NONE);
+    }
+
+    @Test
+    void concurrencyPlanUsesWindowAsMaxWaitAndItsOwnMessage() throws Exception {
+        LimitPlan plan = LimitPlan.compile(limit("#p0", false, false, 3, ChronoUnit.SECONDS, LimitAlgorithm.CONCURRENCY),
+                sampleMethod(), new SpringExpressionResolver(), unit -> "seconds");
+
+        assertThat(plan.getMaxWait()).isEqualTo(Duration.ofSeconds(3));
+        assertThat(plan.rejection().getErrorCode()).isEqualTo(429);
+        assertThat(plan.rejection().getMessage()).isEqualTo(LimitPlan.CONCURRENCY_MESSAGE);
+    }
+
+    @Test
+    void unsupportedWindowIsRejectedWhenCompiled() throws Exception {
+        Method method = sampleMethod();
+        SpringExpressionResolver resolver = new SpringExpressionResolver();
+
+        assertThatThrownBy(() -> LimitPlan.compile(limit("#p0", false, false, 1, ChronoUnit.FOREVER,
+                LimitAlgorithm.CONCURRENCY), method, resolver, ChronoUnit::toString))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Forever")
+                .hasMessageContaining("SampleClass.sample");
+        assertThatThrownBy(() -> LimitPlan.compile(limit("#p0", false, false, Long.MAX_VALUE, ChronoUnit.SECONDS,
+                LimitAlgorithm.TOKEN_BUCKET), method, resolver, ChronoUnit::toString))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasCauseInstanceOf(ArithmeticException.class);
+    }
+
+    /**
+     * Compares the per-call allocation of compiling the limit on every call (the previous behaviour)
+     * with reusing the cached plan.
+     */
+    @Test
+    void cachedPlanAllocatesLessPerCallThanCompilingEachTime() throws Exception {
+        Method method = sampleMethod();
+        Limit limit = limit("'order:' + #p0", true, false);
+        LimitSupport support = new LimitSupport(Mockito.mock(LimitProvider.class));
+        Object[] args = {"42"};
+        int iterations = 20_000;
+
+        long compileBytes = allocated(() -> {
+            for (int i = 0; i < iterations; i++) {
+                LimitPlan.compile(limit, method, new SpringExpressionResolver(), ChronoUnit::toString).key(args);
+            }
+        });
+        long cachedBytes = allocated(() -> {
+            for (int i = 0; i < iterations; i++) {
+                support.plan(limit, method).key(args);
+            }
+        });
+
+        assertThat(cachedBytes).isLessThan(compileBytes);
+    }
+
+    private static long allocated(Runnable task) {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        task.run();
+        long before = bean.getCurrentThreadAllocatedBytes();
+        task.run();
+        return bean.getCurrentThreadAllocatedBytes() - before;
+    }
+}
@@ -3,6 +3,7 @@ package run.vexa.reactor.limit.support;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
 import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
 import org.springframework.mock.web.server.MockServerWebExchange;
 import org.springframework.security.core.context.SecurityContext;
@@ -13,6 +14,7 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 import run.vexa.reactor.core.context.ReactiveContextHolder;
 import run.vexa.reactor.limit.annotation.Limit;
+import run.vexa.reactor.limit.enums.LimitAlgorithm;
 import run.vexa.reactor.limit.provider.LimitProvider;
 import run.vexa.reactor.security.domain.CurrentUser;
 import run.vexa.reactor.security.domain.TokenAuthentication;
@@ -21,8 +23,11 @@ import java.lang.reflect.Method;
 import java.net.InetSocketAddress;
 import java.time.temporal.ChronoUnit;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.when;
 
 class LimitSupportTest {
@@ -33,7 +38,7 @@ class LimitSupportTest {
 
     @BeforeEach
     void setUp() throws Exception {
-        this.limitProvider = Mockito.mock(LimitProvider.class);
+        this.limitProvider = Mockito.mock(LimitProvider.class, Mockito.CALLS_REAL_METHODS);
         this.limitSupport = new LimitSupport(limitProvider);
         this.sampleMethod = SampleClass.class.getDeclaredMethod("sample", String.class);
     }
@@ -80,6 +85,16 @@ class LimitSupportTest {
             public boolean restrictUser() {
                 return restrictUser;
             }
+
+            @Override
+            public LimitAlgorithm algorithm() {
+                return LimitAlgorithm.TOKEN_BUCKET;
+            }
+
+            @Override
+            public int queue() {
+                return 0;
+            }
         };
     }
 
@@ -155,6 +170,34 @@ class LimitSupportTest {
                 .expectNext(true)
                 .verifyComplete();
     }
-}
 
+    @Test
+    void execWritesRateLimitHeadersWhenProviderReportsQuota() {
+        doReturn(Mono.just(new LimitResult(false, 1, 0, 1500))).when(limitProvider)
+                .acquire(any(), eq(1), eq(1L), eq(ChronoUnit.SECONDS), eq(LimitAlgorithm.TOKEN_BUCKET));
+
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/test").build());
+        StepVerifier.create(execWithContext(limit(false, false), exchange, "k5"))
+                .expectNext(false)
+                .verifyComplete();
 
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        assertEquals("1", headers.getFirst(LimitSupport.RATE_LIMIT_LIMIT));
+        assertEquals("0", headers.getFirst(LimitSupport.RATE_LIMIT_REMAINING));
+        assertEquals("2", headers.getFirst(LimitSupport.RATE_LIMIT_RESET));
+        assertEquals("2", headers.getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void execOmitsHeadersWhenProviderHasNoQuotaInfo() {
+        when(limitProvider.tryAcquire(any(), eq(1), eq(1L), eq(ChronoUnit.SECONDS)))
+                .thenReturn(Mono.just(true));
+
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/test").build());
+        StepVerifier.create(execWithContext(limit(false, false), exchange, "k6"))
+                .expectNext(true)
+                .verifyComplete();
+
+        assertNull(exchange.getResponse().getHeaders().getFirst(LimitSupport.RATE_LIMIT_REMAINING));
+    }
+}
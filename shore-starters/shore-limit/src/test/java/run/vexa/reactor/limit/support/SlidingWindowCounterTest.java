@@ -0,0 +1,124 @@
+package run.vexa.reactor.limit.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SlidingWindowCounterTest {
+
+    @Test
+    void constructorRejectsInvalidArguments() {
+        assertThatThrownBy(() -> new SlidingWindowCounter(0, 1000, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SlidingWindowCounter(1, 0, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void reportsRemainingPermits() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(10, 1000, 0);
+
+        LimitResult first = counter.tryAcquire(100);
+
+        assertThat(first.allowed()).isTrue();
+        assertThat(first.limit()).isEqualTo(10);
+        assertThat(first.remaining()).isEqualTo(9);
+        assertThat(first.resetMillis()).isEqualTo(1900);
+    }
+
+    @Test
+    void previousWindowIsWeightedSoWindowEdgeAdmitsNoBurst() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(10, 1000, 0);
+        for (int i = 0; i < 10; i++) {
+            assertThat(counter.tryAcquire(900).allowed()).isTrue();
+        }
+        LimitResult rejected = counter.tryAcquire(900);
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.resetMillis()).isEqualTo(200);
+
+        // a fixed window would admit another 10 here
+        assertThat(counter.tryAcquire(1000).allowed()).isFalse();
+
+        // 10% of the previous window has slid out: 10 * 0.9 + 0 leaves room for exactly one
+        assertThat(counter.tryAcquire(1100).allowed()).isTrue();
+        rejected = counter.tryAcquire(1100);
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.resetMillis()).isEqualTo(100);
+
+        assertThat(counter.tryAcquire(1200).allowed()).isTrue();
+    }
+
+    @Test
+    void windowsOlderThanPreviousAreForgotten() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(1, 1000, 0);
+        assertThat(counter.tryAcquire(0).allowed()).isTrue();
+        assertThat(counter.tryAcquire(999).allowed()).isFalse();
+
+        assertThat(counter.tryAcquire(2000).allowed()).isTrue();
+    }
+
+    @Test
+    void staleTimestampFromPreviousWindowDoesNotResetCounter() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(10, 1000, 0);
+        for (int i = 0; i < 10; i++) {
+            assertThat(counter.tryAcquire(950).allowed()).isTrue();
+        }
+        assertThat(counter.tryAcquire(1000).allowed()).isFalse();
+
+        // a caller that read the clock before the window moved arrives late
+        assertThat(counter.tryAcquire(999).allowed()).isFalse();
+        assertThat(counter.tryAcquire(1000).allowed()).isFalse();
+    }
+
+    @Test
+    void concurrentCallersAcrossWindowBoundaryStayWithinLimit() throws Exception {
+        int limit = 100;
+        SlidingWindowCounter counter = new SlidingWindowCounter(limit, 1000, 0);
+        int threads = 8;
+        int perThread = 500;
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < perThread; i++) {
+                        // alternate between timestamps just before and just after the window edge
+                        long now = (i + offset) % 2 == 0 ? 990 + i % 10 : 1000 + i % 10;
+                        if (counter.tryAcquire(now).allowed()) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        // previous weight is at least 0.99 for every timestamp used, so at most one extra permit
+        assertThat(allowed.get()).isLessThanOrEqualTo(limit + 1);
+    }
+
+    @Test
+    void matchesParameters() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(5, 1000, 0);
+
+        assertThat(counter.matches(5, 1000)).isTrue();
+        assertThat(counter.matches(6, 1000)).isFalse();
+        assertThat(counter.matches(5, 2000)).isFalse();
+    }
+}
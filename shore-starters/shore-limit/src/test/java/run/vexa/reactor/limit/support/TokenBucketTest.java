@@ -0,0 +1,64 @@
+package run.vexa.reactor.limit.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketTest {
+
+    @Test
+    void refillIsProportionalToElapsedTime() {
+        TokenBucket bucket = new TokenBucket(10, 1000, 0);
+        for (int i = 0; i < 10; i++) {
+            assertThat(bucket.tryAcquire(1, 0)).isTrue();
+        }
+        assertThat(bucket.tryAcquire(1, 0)).isFalse();
+        assertThat(bucket.tryAcquire(1, 99)).isFalse();
+        assertThat(bucket.tryAcquire(1, 100)).isTrue();
+        assertThat(bucket.tryAcquire(1, 150)).isFalse();
+        assertThat(bucket.tryAcquire(1, 200)).isTrue();
+    }
+
+    @Test
+    void refillNeverExceedsCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 1000, 0);
+        assertThat(bucket.tryAcquire(3, 0)).isTrue();
+        assertThat(bucket.tryAcquire(3, 10_000)).isTrue();
+        assertThat(bucket.available()).isZero();
+    }
+
+    @Test
+    void rejectsInvalidCapacity() {
+        assertThatThrownBy(() -> new TokenBucket(0, 1000, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucket(TokenBucket.MAX_CAPACITY + 1, 1000, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void concurrentAcquireNeverOverGrants() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1000, 60_000, 0);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch latch = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 500; i++) {
+                    if (bucket.tryAcquire(1, 0)) {
+                        granted.incrementAndGet();
+                    }
+                }
+                latch.countDown();
+            });
+        }
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+        assertThat(granted.get()).isEqualTo(1000);
+    }
+}
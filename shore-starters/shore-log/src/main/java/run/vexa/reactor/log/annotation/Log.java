@@ -29,6 +29,34 @@ public @interface Log {
      */
     boolean enable() default true;
 
+    /**
+     * 返回 {@code Flux} 时日志中保留的首尾元素个数，元素原样透传，不收集整个流.
+     *
+     * @return 首尾各保留的元素个数
+     */
+    int fluxSample() default 3;
+
+    /**
+     * 采样率，取值 0 到 1，在序列化之前决定是否记录.
+     *
+     * @return 采样率
+     */
+    double sampleRate() default 1.0;
+
+    /**
+     * 每秒最多记录的调用数，按方法计算，小于等于 0 时不限制.
+     *
+     * @return 每秒最多记录的调用数
+     */
+    int maxPerSecond() default 0;
+
+    /**
+     * 出错的调用是否总是记录，不受采样率与每秒上限限制.
+     *
+     * @return 是否总是记录
+     */
+    boolean alwaysLogErrors() default true;
+
     /**
      * Excludes a parameter from the logged message, see {@link Log}.
      */
@@ -1,13 +1,13 @@
 package run.vexa.reactor.log.aspect;
 
 import cn.hutool.core.util.StrUtil;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.annotation.Order;
@@ -15,28 +15,39 @@ import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.context.ContextView;
 import reactor.util.function.Tuple2;
 import run.vexa.reactor.core.context.ReactiveContextHolder;
+import run.vexa.reactor.core.util.ReactiveAddrUtil;
 import run.vexa.reactor.log.annotation.Log;
+import run.vexa.reactor.log.handler.LogDomain;
+import run.vexa.reactor.log.service.ApiLogDispatcher;
+import run.vexa.reactor.log.service.ApiLogEvent;
+import run.vexa.reactor.log.service.ApiLogRecorder;
+import run.vexa.reactor.log.service.ApiLogService;
 
+import java.lang.reflect.Method;
 import java.util.function.Function;
 
-import static lombok.AccessLevel.PACKAGE;
-
-
 /**
  * Api log aspect.
+ * <p>
+ * 配置了 {@link ApiLogDispatcher} 时只在请求线程上采集日志快照并交给分发器，序列化与输出由后台线程完成；
+ * 否则在请求线程上序列化并通过 SLF4J 输出.
  *
  * @author youta
  **/
 @Aspect
 @Slf4j
 @Order(1)
-@RequiredArgsConstructor(access = PACKAGE)
 public class ApiLogAspect {
 
     private final JoinPointSerialise joinPointSerialise;
     private final Function<Class<?>, Logger> loggerGetter;
+    private final @Nullable ApiLogDispatcher dispatcher;
+    private volatile @Nullable ApiLogRecorder recorder;
+    private final LogSampler sampler = new LogSampler();
 
     /**
      * Default constructor.
@@ -45,10 +56,49 @@ public class ApiLogAspect {
      * @param joinPointSerialise the join point serialise
      */
     public ApiLogAspect(JoinPointSerialise joinPointSerialise) {
-        this(joinPointSerialise, LoggerFactory::getLogger);
+        this(joinPointSerialise, (ApiLogDispatcher) null);
+    }
+
+    /**
+     * Instantiates a new Api log aspect.
+     *
+     * @param joinPointSerialise the join point serialise
+     * @param dispatcher         the async log dispatcher, {@code null} to log on the calling thread
+     */
+    public ApiLogAspect(JoinPointSerialise joinPointSerialise, @Nullable ApiLogDispatcher dispatcher) {
+        this(joinPointSerialise, LoggerFactory::getLogger, dispatcher);
+    }
+
+    ApiLogAspect(JoinPointSerialise joinPointSerialise, Function<Class<?>, Logger> loggerGetter) {
+        this(joinPointSerialise, loggerGetter, null);
+    }
+
+    ApiLogAspect(JoinPointSerialise joinPointSerialise, Function<Class<?>, Logger> loggerGetter,
+                 @Nullable ApiLogDispatcher dispatcher) {
+        this.joinPointSerialise = joinPointSerialise;
+        this.loggerGetter = loggerGetter;
+        this.dispatcher = dispatcher;
     }
 
 
+    /**
+     * 设置指标记录器，为 {@code null} 时不记录指标.
+     *
+     * @param recorder 指标记录器
+     */
+    public void setRecorder(@Nullable ApiLogRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * 采样与限流，用于导出未记录的调用数.
+     *
+     * @return 采样与限流
+     */
+    public LogSampler getSampler() {
+        return sampler;
+    }
+
     /**
      * 处理日志
      *
@@ -62,34 +112,35 @@ public class ApiLogAspect {
     public Object handler(ProceedingJoinPoint joinPoint, Log log) throws Throwable {
         Object result = null;
         Throwable ex = null;
-        Mono<?> monoResult = null;
+        Object monoResult = null;
+        ApiLogRecorder currentRecorder = this.recorder;
+        long start = currentRecorder == null ? 0L : System.nanoTime();
         try {
             result = joinPoint.proceed();
         } catch (Throwable e) {
             ex = e;
             throw e;
         } finally {
-            long start = System.currentTimeMillis();
             if (result instanceof Mono<?> monoResultTemp) {
-                monoResult = logMonoResult(joinPoint, ReactiveContextHolder.getExchange()
-                        .map(ServerWebExchange::getRequest)
-                        .zipWith(monoResultTemp), log, null);
+                monoResult = timed(logMonoResult(joinPoint, ReactiveContextHolder.getExchange()
+                        .zipWith(monoResultTemp), log, null), joinPoint, currentRecorder);
 
             } else if (result instanceof Flux<?> fluxResult) {
-                monoResult = logMonoResult(joinPoint, ReactiveContextHolder.getExchange()
-                        .map(ServerWebExchange::getRequest)
-                        .zipWith(fluxResult.collectList()), log, null);
+                monoResult = timed(logFluxResult(joinPoint, fluxResult, log), joinPoint, currentRecorder);
             } else {
+                Method method = currentRecorder == null ? null : methodOf(joinPoint);
+                if (method != null) {
+                    currentRecorder.recordLatency(method, ex == null ? ApiLogRecorder.SUCCESS : ApiLogRecorder.ERROR,
+                            System.nanoTime() - start);
+                }
                 Mono<Object> mono;
                 if (ex != null) {
                     mono = Mono.error(ex);
                     monoResult = logMonoResult(joinPoint, ReactiveContextHolder.getExchange()
-                            .map(ServerWebExchange::getRequest)
                             .zipWith(mono), log, ex);
                 } else {
                     mono = Mono.justOrEmpty(result);
                     monoResult = logMonoResult(joinPoint, ReactiveContextHolder.getExchange()
-                            .map(ServerWebExchange::getRequest)
                             .zipWith(mono), log, ex);
                 }
             }
@@ -107,25 +158,52 @@ public class ApiLogAspect {
      * @return 返回值
      */
     private Mono<?> logMonoResult(ProceedingJoinPoint joinPoint,
-                                  Mono<? extends Tuple2<ServerHttpRequest, Object>> zipData,
+                                  Mono<? extends Tuple2<ServerWebExchange, Object>> zipData,
                                   Log apiLog, Throwable ex) {
         Signature signature = joinPoint.getSignature();
         String logContent = StrUtil.trimToNull(apiLog.value());
-        if (ex != null) {
-            var serialisedJoinPoint = joinPointSerialise.serialise(joinPoint, logContent,
-                    null, ex, null);
+        if (dispatcher != null && signature instanceof MethodSignature methodSignature) {
+            if (ex != null && sampled(joinPoint, apiLog, true)) {
+                dispatch(joinPoint, methodSignature, apiLog, logContent, null, ex, null);
+            }
+            return zipData
+                    .doOnEach(signal -> {
+                        if (ex == null && signal.isOnError() && sampled(joinPoint, apiLog, true)) {
+                            dispatch(joinPoint, methodSignature, apiLog, logContent,
+                                    exchangeOf(signal.getContextView()), signal.getThrowable(), null);
+                        }
+                    })
+                    .map(data -> {
+                        var obj = data.getT2();
+                        if (sampled(joinPoint, apiLog, ex != null)) {
+                            dispatch(joinPoint, methodSignature, apiLog, logContent, data.getT1(), ex, obj);
+                        }
+                        return obj;
+                    });
+        }
+        if (ex != null && sampled(joinPoint, apiLog, true)) {
+            var serialisedJoinPoint = serialise(joinPoint, logContent, null, ex, null);
             var declaringType = signature.getDeclaringType();
             var logger = loggerGetter.apply(declaringType);
             logger.error(serialisedJoinPoint);
         }
         return zipData
+                .doOnEach(signal -> {
+                    // 方法返回的 Mono 出错，同步抛出的异常已在上面记录
+                    if (ex == null && signal.isOnError() && signature instanceof MethodSignature
+                            && sampled(joinPoint, apiLog, true)) {
+                        var serialisedJoinPoint = serialise(joinPoint, logContent,
+                                exchangeOf(signal.getContextView()), signal.getThrowable(), null);
+                        loggerGetter.apply(signature.getDeclaringType()).error(serialisedJoinPoint);
+                    }
+                })
                 .map(data -> {
-                    var request = data.getT1();
+                    var exchange = data.getT1();
                     var obj = data.getT2();
-                    if (!(signature instanceof MethodSignature)) {
+                    if (!(signature instanceof MethodSignature) || !sampled(joinPoint, apiLog, ex != null)) {
                         return obj;
                     }
-                    var serialisedJoinPoint = joinPointSerialise.serialise(joinPoint, logContent, request, ex, obj);
+                    var serialisedJoinPoint = serialise(joinPoint, logContent, exchange, ex, obj);
                     var declaringType = signature.getDeclaringType();
                     var logger = loggerGetter.apply(declaringType);
                     logger.info(serialisedJoinPoint);
@@ -133,4 +211,181 @@ public class ApiLogAspect {
                 });
     }
 
+    /**
+     * 记录流式返回值的日志
+     * <p>
+     * 元素原样透传，只统计个数、估算字节数与首尾元素；完成、出错或取消时记录一条日志，结果为 {@link FluxLogResult}.
+     *
+     * @param joinPoint 切点
+     * @param flux      返回值
+     * @param apiLog    注解
+     * @return 返回值
+     */
+    private Flux<?> logFluxResult(ProceedingJoinPoint joinPoint, Flux<?> flux, Log apiLog) {
+        return Flux.deferContextual(context -> {
+            ServerWebExchange exchange = exchangeOf(context);
+            FluxLogSummary summary = new FluxLogSummary(apiLog.fluxSample());
+            Throwable[] error = new Throwable[1];
+            return flux.doOnNext(summary::onNext)
+                    .doOnError(e -> error[0] = e)
+                    .doFinally(signal -> logFluxSummary(joinPoint, apiLog, exchange, error[0], summary.result(signal)));
+        });
+    }
+
+    /**
+     * 输出流式返回值的日志
+     *
+     * @param joinPoint 切点
+     * @param apiLog    注解
+     * @param exchange  请求上下文
+     * @param ex        异常
+     * @param result    日志摘要
+     */
+    private void logFluxSummary(ProceedingJoinPoint joinPoint, Log apiLog, @Nullable ServerWebExchange exchange,
+                                @Nullable Throwable ex, FluxLogResult result) {
+        Signature signature = joinPoint.getSignature();
+        if (!(signature instanceof MethodSignature methodSignature)
+                || !sampler.shouldLog(methodSignature.getMethod(), apiLog, ex != null)) {
+            return;
+        }
+        String logContent = StrUtil.trimToNull(apiLog.value());
+        if (dispatcher != null) {
+            dispatch(joinPoint, methodSignature, apiLog, logContent, exchange, ex, result);
+            return;
+        }
+        var serialisedJoinPoint = serialise(joinPoint, logContent, exchange, ex, result);
+        var logger = loggerGetter.apply(signature.getDeclaringType());
+        if (ex != null) {
+            logger.error(serialisedJoinPoint);
+        } else {
+            logger.info(serialisedJoinPoint);
+        }
+    }
+
+    /**
+     * 记录从订阅到结束的耗时，未启用指标时原样返回.
+     *
+     * @param mono      返回值
+     * @param joinPoint 切点
+     * @param recorder  指标记录器
+     * @param <T>       元素类型
+     * @return 返回值
+     */
+    private <T> Mono<T> timed(Mono<T> mono, ProceedingJoinPoint joinPoint, @Nullable ApiLogRecorder recorder) {
+        Method method = recorder == null ? null : methodOf(joinPoint);
+        if (method == null) {
+            return mono;
+        }
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return mono.doFinally(signal -> recorder.recordLatency(method, outcome(signal), System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * 记录从订阅到结束的耗时，未启用指标时原样返回.
+     *
+     * @param flux      返回值
+     * @param joinPoint 切点
+     * @param recorder  指标记录器
+     * @param <T>       元素类型
+     * @return 返回值
+     */
+    private <T> Flux<T> timed(Flux<T> flux, ProceedingJoinPoint joinPoint, @Nullable ApiLogRecorder recorder) {
+        Method method = recorder == null ? null : methodOf(joinPoint);
+        if (method == null) {
+            return flux;
+        }
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return flux.doFinally(signal -> recorder.recordLatency(method, outcome(signal), System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * 同步序列化日志，启用指标时顺带记录本次写出的参数与返回值大小，不再单独序列化.
+     * 异步时由分发器在后台线程记录.
+     *
+     * @param joinPoint  切点
+     * @param logContent 日志内容
+     * @param exchange   请求
+     * @param ex         异常
+     * @param result     返回值
+     * @return 日志
+     */
+    private String serialise(ProceedingJoinPoint joinPoint, @Nullable String logContent,
+                             @Nullable ServerWebExchange exchange, @Nullable Throwable ex, @Nullable Object result) {
+        ApiLogRecorder currentRecorder = this.recorder;
+        Method method = currentRecorder == null ? null : methodOf(joinPoint);
+        if (method == null) {
+            return joinPointSerialise.serialise(joinPoint, logContent, exchange, ex, result);
+        }
+        var payloadSize = new JoinPointSerialise.PayloadSize();
+        String serialised = joinPointSerialise.serialise(joinPoint, logContent, exchange, ex, result, payloadSize);
+        long resultSize = result instanceof FluxLogResult fluxLogResult ? fluxLogResult.bytes() : payloadSize.result();
+        currentRecorder.recordPayloadSize(method, payloadSize.parameters(), resultSize);
+        return serialised;
+    }
+
+    /**
+     * 在采集与序列化之前决定是否记录本次调用.
+     *
+     * @param joinPoint 切点
+     * @param apiLog    注解
+     * @param error     本次调用是否出错
+     * @return 是否记录
+     */
+    private boolean sampled(ProceedingJoinPoint joinPoint, Log apiLog, boolean error) {
+        Method method = methodOf(joinPoint);
+        return method == null || sampler.shouldLog(method, apiLog, error);
+    }
+
+    private static @Nullable ServerWebExchange exchangeOf(ContextView context) {
+        return context.hasKey(ReactiveContextHolder.CONTEXT_KEY) ? context.get(ReactiveContextHolder.CONTEXT_KEY) : null;
+    }
+
+    private static @Nullable Method methodOf(ProceedingJoinPoint joinPoint) {
+        return joinPoint.getSignature() instanceof MethodSignature methodSignature ? methodSignature.getMethod() : null;
+    }
+
+    private static String outcome(SignalType signal) {
+        return switch (signal) {
+            case ON_COMPLETE -> ApiLogRecorder.SUCCESS;
+            case ON_ERROR -> ApiLogRecorder.ERROR;
+            default -> ApiLogRecorder.CANCEL;
+        };
+    }
+
+    /**
+     * 采集日志快照并交给分发器，参数与返回值只保存引用，不在请求线程上序列化.
+     * 请求相关字段只取不可变的值，不持有请求本身；滞留的日志数受队列容量限制.
+     *
+     * @param joinPoint       切点
+     * @param methodSignature 方法签名
+     * @param apiLog          注解
+     * @param logContent      日志内容
+     * @param exchange        请求上下文
+     * @param ex              异常
+     * @param result          返回值
+     */
+    private void dispatch(ProceedingJoinPoint joinPoint, MethodSignature methodSignature, Log apiLog,
+                          @Nullable String logContent, @Nullable ServerWebExchange exchange,
+                          @Nullable Throwable ex, @Nullable Object result) {
+        LogDomain.LogDomainBuilder builder = LogDomain.builder()
+                .logContent(logContent)
+                .traceId(ApiLogService.currentTraceId())
+                .operationParam(joinPointSerialise.parameters(joinPoint))
+                .result(result)
+                .ex(ex);
+        if (exchange != null) {
+            ServerHttpRequest request = exchange.getRequest();
+            builder.requestMethod(request.getMethod().name())
+                    .requestUri(request.getPath().value())
+                    .requestId(request.getId())
+                    .ip(ReactiveAddrUtil.getRemoteAddr(exchange))
+                    .queryParams(request.getQueryParams().isEmpty() ? null : request.getQueryParams());
+        }
+        dispatcher.offer(new ApiLogEvent(builder.build(), methodSignature, apiLog));
+    }
+
 }
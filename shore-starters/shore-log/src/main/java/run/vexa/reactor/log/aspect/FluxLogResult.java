@@ -0,0 +1,30 @@
+package run.vexa.reactor.log.aspect;
+
+import java.util.List;
+
+/**
+ * 流式返回值的日志摘要
+ * <p>
+ * 代替完整的元素列表写入日志，大小与流的长度无关.
+ *
+ * @param signal         结束信号：{@code onComplete}、{@code onError} 或 {@code cancel}
+ * @param count          已发出的元素个数
+ * @param bytes          已发出元素的估算字节数，只统计字符串、字节数组、{@code ByteBuffer} 与 {@code DataBuffer}，
+ *                       含其他类型的元素时为 {@code -1}
+ * @param first          前 N 个元素，缓冲区类元素以 {@link BufferSample} 代替
+ * @param last           前 N 个之后的最后 N 个元素，缓冲区类元素以 {@link BufferSample} 代替
+ * @param durationMillis 从订阅到结束的耗时(毫秒)
+ * @author youta
+ */
+public record FluxLogResult(String signal, long count, long bytes, List<Object> first, List<Object> last,
+                            long durationMillis) {
+
+    /**
+     * 缓冲区类元素的占位，只记录类型与大小，不持有缓冲区本身.
+     *
+     * @param type  元素类型
+     * @param bytes 可读字节数
+     */
+    public record BufferSample(String type, long bytes) {
+    }
+}
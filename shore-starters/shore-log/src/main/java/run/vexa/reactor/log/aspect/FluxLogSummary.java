@@ -0,0 +1,117 @@
+package run.vexa.reactor.log.aspect;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.SignalType;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 流式返回值的日志统计
+ * <p>
+ * 每次订阅创建一个实例，元素原样透传，只保留计数、估算字节数与首尾各 N 个元素的引用.
+ * {@link DataBuffer}、{@link ByteBuffer} 与字节数组在下游写出后可能被释放或复用，日志在流结束时才序列化，
+ * 因此这类元素只记录类型与大小({@link FluxLogResult.BufferSample})，不保留引用.
+ * 出现无法廉价估算大小的元素后字节数记为 {@value #UNKNOWN_SIZE}，不再累加.
+ * Reactive Streams 保证 {@code onNext} 串行调用，因此无需同步.
+ *
+ * @author youta
+ **/
+final class FluxLogSummary {
+
+    /**
+     * 字节数未知.
+     */
+    static final long UNKNOWN_SIZE = -1;
+
+    private final int sampleSize;
+
+    private final long startNanos = System.nanoTime();
+
+    private final List<Object> first;
+
+    private final ArrayDeque<Object> last;
+
+    private long count;
+
+    private long bytes;
+
+    /**
+     * Instantiates a new Flux log summary.
+     *
+     * @param sampleSize 首尾各保留的元素个数
+     */
+    FluxLogSummary(int sampleSize) {
+        this.sampleSize = Math.max(0, sampleSize);
+        this.first = new ArrayList<>(this.sampleSize);
+        this.last = new ArrayDeque<>(this.sampleSize);
+    }
+
+    /**
+     * 记录一个元素.
+     *
+     * @param element 元素
+     */
+    void onNext(Object element) {
+        count++;
+        if (bytes != UNKNOWN_SIZE) {
+            long size = estimateSize(element);
+            bytes = size == UNKNOWN_SIZE ? UNKNOWN_SIZE : bytes + size;
+        }
+        if (sampleSize == 0) {
+            return;
+        }
+        Object sample = sample(element);
+        if (first.size() < sampleSize) {
+            first.add(sample);
+            return;
+        }
+        if (last.size() == sampleSize) {
+            last.pollFirst();
+        }
+        last.addLast(sample);
+    }
+
+    /**
+     * 生成日志摘要.
+     *
+     * @param signal 结束信号
+     * @return 日志摘要
+     */
+    FluxLogResult result(SignalType signal) {
+        long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        return new FluxLogResult(signal.toString(), count, bytes, List.copyOf(first), List.copyOf(last), duration);
+    }
+
+    private static Object sample(Object element) {
+        if (element instanceof byte[] array) {
+            return new FluxLogResult.BufferSample("byte[]", array.length);
+        }
+        if (element instanceof ByteBuffer buffer) {
+            return new FluxLogResult.BufferSample(buffer.getClass().getSimpleName(), buffer.remaining());
+        }
+        if (element instanceof DataBuffer buffer) {
+            return new FluxLogResult.BufferSample(buffer.getClass().getSimpleName(), buffer.readableByteCount());
+        }
+        return element;
+    }
+
+    private static long estimateSize(Object element) {
+        if (element instanceof CharSequence text) {
+            return JoinPointSerialise.utf8Length(text, 0, text.length());
+        }
+        if (element instanceof byte[] array) {
+            return array.length;
+        }
+        if (element instanceof ByteBuffer buffer) {
+            return buffer.remaining();
+        }
+        if (element instanceof DataBuffer buffer) {
+            return buffer.readableByteCount();
+        }
+        return UNKNOWN_SIZE;
+    }
+}
@@ -1,35 +1,68 @@
 package run.vexa.reactor.log.aspect;
 
-import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
 import tools.jackson.databind.SerializationFeature;
 import tools.jackson.databind.json.JsonMapper;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.jspecify.annotations.Nullable;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
 import run.vexa.reactor.core.util.ReactiveAddrUtil;
 import run.vexa.reactor.log.annotation.Log;
 
-import java.lang.annotation.Annotation;
+import java.io.Writer;
 import java.lang.reflect.Method;
-import java.util.*;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Stream;
 
 /**
  * Serialises a join point.
+ * <p>
+ * Method-level information is compiled once per {@link Method} into an immutable descriptor; argument values,
+ * request URI, remote address and query parameters are captured per call. Output is written into a
+ * per-thread buffer that is reused across calls.
  *
  * @author rained
  */
 public final class JoinPointSerialise {
 
+    // ANSI escape codes for colored output
+    private static final String RESET = "\033[0m";        // reset color
+    private static final String CYAN = "\033[36m";        // cyan
+    private static final String YELLOW = "\033[33m";     // yellow
+    private static final String GREEN = "\033[32m";      // green
+    private static final String RED = "\033[31m";        // red
+    private static final String MAGENTA = "\033[35m";    // magenta
+
+    private static final String HEADER = CYAN + "\n===== Log Entry Start =====\n" + RESET;
+    private static final String FOOTER = CYAN + "===== Log Entry End =====" + RESET;
+    private static final String CONTENT_LABEL = YELLOW + "Logged Content    : " + RESET;
+    private static final String METHOD_LABEL = YELLOW + "Method            : " + RESET;
+    private static final String URI_LABEL = YELLOW + "Request URI       : " + RESET;
+    private static final String IP_LABEL = YELLOW + "Request Real IP   : " + RESET;
+    private static final String PARAMETERS_LABEL = GREEN + "Parameters        : " + RESET + "\n";
+    private static final String QUERY_LABEL = GREEN + "Query Parameters  : " + RESET;
+    private static final String EXCEPTION_LABEL = RED + "Exception         : " + RESET;
+    private static final String RESULT_LABEL = MAGENTA + "Result            : " + RESET;
+
+    /**
+     * Buffers larger than this are not kept for reuse.
+     */
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
     /**
-     * The cache of logged methods.
+     * The descriptors of logged methods.
      */
-    private static final Map<UniqueMethodSignature, LoggedMethod> CACHE = new ConcurrentHashMap<>();
-    private static final ObjectMapper MAPPER = JsonMapper.builder()
+    private static final Map<Method, LoggedMethodDescriptor> DESCRIPTORS = new ConcurrentHashMap<>();
+    private static final ObjectWriter WRITER = JsonMapper.builder()
             .enable(SerializationFeature.INDENT_OUTPUT)
-            .build();
+            .build()
+            .writer();
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
 
     /**
      * Default constructor.
@@ -40,6 +73,41 @@ public final class JoinPointSerialise {
         // Further initialization logic can be added here if needed in the future.
     }
 
+    /**
+     * Serialises the given join point.
+     *
+     * @param joinPoint The join point to serialise.
+     * @param logContent The content of the log.
+     * @param exchange The exchange, its resolved remote address is cached on the exchange.
+     * @param ex The exception.
+     * @param result The result.
+     * @return The serialised join point.
+     */
+    public String serialise(JoinPoint joinPoint, String logContent, ServerWebExchange exchange,
+                            Throwable ex, Object result) {
+        return serialise(joinPoint, logContent, exchange, ex, result, null);
+    }
+
+    /**
+     * Serialises the given join point and reports how much JSON was written for the parameters and the result.
+     *
+     * @param joinPoint The join point to serialise.
+     * @param logContent The content of the log.
+     * @param exchange The exchange, its resolved remote address is cached on the exchange.
+     * @param ex The exception.
+     * @param result The result.
+     * @param payloadSize Receives the sizes, or {@code null} to skip measuring.
+     * @return The serialised join point.
+     */
+    public String serialise(JoinPoint joinPoint, String logContent, ServerWebExchange exchange,
+                            Throwable ex, Object result, @Nullable PayloadSize payloadSize) {
+        if (exchange == null) {
+            return render(joinPoint, logContent, null, null, ex, result, payloadSize);
+        }
+        return render(joinPoint, logContent, exchange.getRequest(), ReactiveAddrUtil.getRemoteAddr(exchange),
+                ex, result, payloadSize);
+    }
+
     /**
      * Serialises the given join point.
      *
@@ -49,122 +117,159 @@ public final class JoinPointSerialise {
      * @param ex The exception.
      * @param result The result.
      * @return The serialised join point.
+     * @deprecated use {@link #serialise(JoinPoint, String, ServerWebExchange, Throwable, Object)},
+     * which resolves the remote address once per exchange.
      */
+    @Deprecated(since = "4.0.6")
     public String serialise(JoinPoint joinPoint, String logContent, ServerHttpRequest serverHttpRequest,
                             Throwable ex, Object result) {
+        String remoteAddr = serverHttpRequest == null ? null : ReactiveAddrUtil.getRemoteAddr(serverHttpRequest);
+        return render(joinPoint, logContent, serverHttpRequest, remoteAddr, ex, result, null);
+    }
 
-        // ANSI escape codes for colored output
-        final String reset = "\033[0m";        // reset color
-        final String cyan = "\033[36m";        // cyan
-        final String yellow = "\033[33m";     // yellow
-        final String green = "\033[32m";      // green
-        final String red = "\033[31m";        // red
-        final String magenta = "\033[35m";    // magenta
+    private String render(JoinPoint joinPoint, String logContent, ServerHttpRequest serverHttpRequest,
+                          String remoteAddr, Throwable ex, Object result, @Nullable PayloadSize payloadSize) {
+        var descriptor = getDescriptor((MethodSignature) joinPoint.getSignature());
+        var loggedMethod = snapshot(descriptor, joinPoint.getArgs(), logContent, serverHttpRequest, remoteAddr);
+        StringBuilder output = BUFFER.get();
+        output.setLength(0);
+        try {
+            write(output, descriptor, loggedMethod, serverHttpRequest != null, ex, result, payloadSize);
+            return output.toString();
+        } finally {
+            if (output.capacity() > MAX_RETAINED_BUFFER) {
+                BUFFER.remove();
+            }
+        }
+    }
 
-        // 构建基础信息
-        var loggedMethod = getLoggedMethod(joinPoint, logContent, serverHttpRequest);
-        StringBuilder output = new StringBuilder();
+    /**
+     * Collects the logged parameters of the given join point without serialising them.
+     *
+     * @param joinPoint The join point.
+     * @return The parameter names mapped to their values, excluding {@link Log.Exclude} parameters.
+     */
+    public Map<String, Object> parameters(JoinPoint joinPoint) {
+        var descriptor = getDescriptor((MethodSignature) joinPoint.getSignature());
+        return buildParameterMap(descriptor, joinPoint.getArgs());
+    }
 
+    /**
+     * Measures the JSON size of the given value as it would appear in the log, without keeping the output.
+     *
+     * @param value The value.
+     * @return The UTF-8 size in bytes, or {@code -1} if the value cannot be serialised.
+     */
+    public long serialisedSize(Object value) {
+        var counter = new CountingWriter();
+        try {
+            WRITER.writeValue(counter, value);
+            return counter.count;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private void write(StringBuilder output, LoggedMethodDescriptor descriptor, LoggedMethod loggedMethod,
+                       boolean hasRequest, Throwable ex, Object result, @Nullable PayloadSize payloadSize) {
         // log entry header
-        output.append(cyan).append("\n===== Log Entry Start =====\n").append(reset);
+        output.append(HEADER);
 
         // logged method
-        output.append(yellow).append("Logged Content    : ").append(reset)
-                .append(loggedMethod.logContent()).append("\n")
-                .append(yellow).append("Method            : ").append(reset)
-                .append(loggedMethod.className()).append("#").append(loggedMethod.methodName()).append("\n");
+        output.append(CONTENT_LABEL).append(loggedMethod.logContent()).append("\n")
+                .append(descriptor.methodLine());
 
-        if (serverHttpRequest != null) {
-            output.append(yellow).append("Request URI       : ").append(reset)
-                    .append(loggedMethod.requestUri()).append("\n")
-                    .append(yellow).append("Request Real IP   : ").append(reset)
-                    .append(loggedMethod.remoteAddr()).append("\n");
+        if (hasRequest) {
+            output.append(URI_LABEL).append(loggedMethod.requestUri()).append("\n")
+                    .append(IP_LABEL).append(loggedMethod.remoteAddr()).append("\n");
         }
 
         // parameters
-        if (loggedMethod.params() != null && !loggedMethod.params().isEmpty()) {
-            output.append(green).append("Parameters        : ").append(reset).append("\n");
-
-            // iterate over the parameters
-            for (Map.Entry<String, Object> entry : loggedMethod.params().entrySet()) {
-                String key = entry.getKey();
-                Object value = entry.getValue();
-
-                // format value as JSON
-                String formattedValue = formatAsJson(value);
-
-                // print key and value
-                output.append("  ").append(yellow).append(key).append(reset)
-                        .append(" = ").append(magenta).append(formattedValue).append(reset).append("\n");
+        var params = loggedMethod.params();
+        long parameterSize = 0;
+        if (!params.isEmpty()) {
+            output.append(PARAMETERS_LABEL);
+            for (int i = 0, n = descriptor.parameterCount(); i < n; i++) {
+                var name = descriptor.parameterName(i);
+                if (params.containsKey(name)) {
+                    output.append(descriptor.parameterPrefix(i));
+                    long size = writeJson(output, params.get(name));
+                    parameterSize = size < 0 || parameterSize < 0 ? -1 : parameterSize + size;
+                    output.append(RESET).append("\n");
+                }
             }
         }
 
         // query parameters
         if (!loggedMethod.queryParamMap().isEmpty()) {
-            output.append(green).append("Query Parameters  : ").append(reset)
-                    .append(loggedMethod.queryParamMap()).append("\n");
+            output.append(QUERY_LABEL).append(loggedMethod.queryParamMap()).append("\n");
         }
 
         // exception or result
+        long resultSize = -1;
         if (ex != null) {
-            output.append(red).append("Exception         : ").append(reset)
-                    .append(ex.getMessage()).append("\n");
+            output.append(EXCEPTION_LABEL).append(ex.getMessage()).append("\n");
         } else if (result != null) {
-            output.append(magenta).append("Result            : ").append(reset)
-                    .append(formatAsJson(result)).append("\n");
+            output.append(RESULT_LABEL);
+            resultSize = writeJson(output, result);
+            output.append("\n");
+        }
+        if (payloadSize != null) {
+            payloadSize.set(parameterSize, resultSize);
         }
 
         // log entry footer
-        output.append(cyan).append("===== Log Entry End =====").append(reset);
-        return output.toString();
+        output.append(FOOTER);
     }
 
-
-    // format object as JSON
-    private String formatAsJson(Object object) {
+    // write object as JSON straight into the buffer, returning the UTF-8 size of what was written or -1 on failure
+    private long writeJson(StringBuilder output, Object object) {
+        int mark = output.length();
         try {
-            return MAPPER.writeValueAsString(object);
+            WRITER.writeValue(new StringBuilderWriter(output), object);
+            return utf8Length(output, mark, output.length());
         } catch (Exception e) {
-            return "Error serializing result: " + e.getMessage();
+            output.setLength(mark);
+            output.append("Error serializing result: ").append(e.getMessage());
+            return -1;
         }
     }
 
-
     /**
-     * Gets the logged method for the given join point.
+     * Gets the descriptor of the method behind the given signature, compiling it on first use.
      *
-     * @param joinPoint The join point.
-     * @return The logged method.
+     * @param methodSignature The method signature.
+     * @return The descriptor.
      */
-    private LoggedMethod getLoggedMethod(JoinPoint joinPoint, String logContent, ServerHttpRequest serverHttpRequest) {
-        var methodSignature = (MethodSignature) joinPoint.getSignature();
-        Object[] args = joinPoint.getArgs();
-        var uniqueMethodSignature = new UniqueMethodSignature(methodSignature);
-        return CACHE.computeIfAbsent(uniqueMethodSignature, key ->
-                this.buildLoggedMethod(key, logContent, serverHttpRequest, args));
+    private LoggedMethodDescriptor getDescriptor(MethodSignature methodSignature) {
+        var method = methodSignature.getMethod();
+        var descriptor = DESCRIPTORS.get(method);
+        if (descriptor != null) {
+            return descriptor;
+        }
+        return DESCRIPTORS.computeIfAbsent(method, key ->
+                LoggedMethodDescriptor.of(methodSignature, METHOD_LABEL, YELLOW, MAGENTA, RESET));
     }
 
     /**
-     * Builds a logged method for the given unique method signature.
+     * Captures the values of a single call.
      *
-     * @param uniqueMethodSignature The unique method signature.
-     * @param request               The request.
+     * @param descriptor The method descriptor.
+     * @param args       The arguments.
+     * @param logContent The content of the log.
+     * @param request    The request.
+     * @param remoteAddr The resolved remote address of the request.
      * @return The logged method.
      */
-    private LoggedMethod buildLoggedMethod(UniqueMethodSignature uniqueMethodSignature,
-                                           String logContent, ServerHttpRequest request, Object[] args) {
-        var methodSignature = uniqueMethodSignature.getMethodSignature();
-        var method = methodSignature.getMethod();
-        var className = method.getDeclaringClass().getName();
-        var methodName = method.getName();
-        var parameterNames = methodSignature.getParameterNames();
-        var includedParameterIndexes = getIncludedParameterIndexes(method);
-        Map<String, Object> parameterMap = this.buildParameterMap(parameterNames, args, includedParameterIndexes);
+    private LoggedMethod snapshot(LoggedMethodDescriptor descriptor, Object[] args,
+                                  String logContent, ServerHttpRequest request, String remoteAddr) {
+        var className = descriptor.className();
+        var methodName = descriptor.methodName();
+        Map<String, Object> parameterMap = this.buildParameterMap(descriptor, args);
         if (request == null) {
             return new LoggedMethod(logContent, "", className, methodName, parameterMap, "", Map.of());
         }
         var uri = request.getPath().value();
-        String remoteAddr = ReactiveAddrUtil.getRemoteAddr(request);
         Map<String, Object> queryParamMap = Map.of();
         MultiValueMap<String, String> queryParams = request.getQueryParams();
         if (!queryParams.isEmpty()) {
@@ -176,23 +281,22 @@ public final class JoinPointSerialise {
     /**
      * Builds a parameter map.
      *
-     * @param parameterNames The parameter names.
+     * @param descriptor      The method descriptor.
      * @param parameterValues The parameter values.
-     * @param includedIndexes The indexes of the parameters that should be included in the log.
      * @return The parameter map.
      */
-    private Map<String, Object> buildParameterMap(String[] parameterNames, Object[] parameterValues, Set<Integer> includedIndexes) {
-        Map<String, Object> paramMap = new HashMap<>();
-
-        if (parameterNames != null && parameterValues != null && includedIndexes != null) {
-            int length = Math.min(parameterNames.length, parameterValues.length);
-            for (int i = 0; i < length; i++) {
-                if (includedIndexes.contains(i)) {
-                    paramMap.put(parameterNames[i], parameterValues[i]);
-                }
+    private Map<String, Object> buildParameterMap(LoggedMethodDescriptor descriptor, Object[] parameterValues) {
+        int count = descriptor.parameterCount();
+        if (parameterValues == null || count == 0) {
+            return Map.of();
+        }
+        Map<String, Object> paramMap = new LinkedHashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            int index = descriptor.parameterIndex(i);
+            if (index < parameterValues.length) {
+                paramMap.put(descriptor.parameterName(i), parameterValues[index]);
             }
         }
-
         return paramMap;
     }
 
@@ -215,23 +319,145 @@ public final class JoinPointSerialise {
     }
 
     /**
-     * Gets the indexes of the parameters of the given method that should be included in the log.
+     * {@link Writer} appending to a {@link StringBuilder}, so that JSON is not copied through an intermediate string.
+     */
+    private static final class StringBuilderWriter extends Writer {
+
+        private final StringBuilder builder;
+
+        private StringBuilderWriter(StringBuilder builder) {
+            this.builder = builder;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            builder.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(int c) {
+            builder.append((char) c);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            builder.append(str, off, off + len);
+        }
+
+        @Override
+        public Writer append(CharSequence csq) {
+            builder.append(csq);
+            return this;
+        }
+
+        @Override
+        public void flush() {
+            // nothing buffered
+        }
+
+        @Override
+        public void close() {
+            // the builder stays open for the caller
+        }
+    }
+
+    /**
+     * Sizes of the parameter and result JSON written by one {@code serialise} call, {@code -1} when unknown.
+     */
+    public static final class PayloadSize {
+
+        private long parameters = -1;
+
+        private long result = -1;
+
+        /**
+         * Default constructor.
+         * This constructor is used for serialization and other reflective operations.
+         */
+        public PayloadSize() {
+            // This constructor is intentionally empty.
+        }
+
+        /**
+         * Total size of the logged parameters.
+         *
+         * @return The UTF-8 size in bytes, or {@code -1} if unknown.
+         */
+        public long parameters() {
+            return parameters;
+        }
+
+        /**
+         * Size of the logged result.
+         *
+         * @return The UTF-8 size in bytes, or {@code -1} if there is no result or it could not be serialised.
+         */
+        public long result() {
+            return result;
+        }
+
+        void set(long parameters, long result) {
+            this.parameters = parameters;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Counts the UTF-8 bytes of the given characters without encoding them.
+     * Each half of a surrogate pair counts two bytes, so a pair counts four.
      *
-     * @param method The method.
-     * @return The indexes of the parameters that should be included in the log.
-     */
-    private Set<Integer> getIncludedParameterIndexes(Method method) {
-        var parameterAnnotations = method.getParameterAnnotations();
-        var includedParameterIndexes = new HashSet<Integer>();
-        for (int i = 0, n = parameterAnnotations.length; i < n; i++) {
-            var annotations = parameterAnnotations[i];
-            var log = Stream.of(annotations)
-                    .map(Annotation::annotationType)
-                    .noneMatch(Log.Exclude.class::equals);
-            if (log) {
-                includedParameterIndexes.add(i);
+     * @param text  The characters.
+     * @param start The first index, inclusive.
+     * @param end   The last index, exclusive.
+     * @return The UTF-8 size in bytes.
+     */
+    static long utf8Length(CharSequence text, int start, int end) {
+        long bytes = 0;
+        for (int i = start; i < end; i++) {
+            bytes += utf8Length(text.charAt(i));
+        }
+        return bytes;
+    }
+
+    private static int utf8Length(char c) {
+        if (c < 0x80) {
+            return 1;
+        }
+        return c < 0x800 || Character.isSurrogate(c) ? 2 : 3;
+    }
+
+    /**
+     * {@link Writer} that only counts the UTF-8 bytes of the characters written to it.
+     */
+    private static final class CountingWriter extends Writer {
+
+        private long count;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                count += utf8Length(cbuf[i]);
             }
         }
-        return includedParameterIndexes;
+
+        @Override
+        public void write(int c) {
+            count += utf8Length((char) c);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            count += utf8Length(str, off, off + len);
+        }
+
+        @Override
+        public void flush() {
+            // nothing buffered
+        }
+
+        @Override
+        public void close() {
+            // nothing to release
+        }
     }
 }
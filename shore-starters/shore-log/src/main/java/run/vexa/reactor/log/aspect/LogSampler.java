@@ -0,0 +1,123 @@
+package run.vexa.reactor.log.aspect;
+
+import run.vexa.reactor.log.annotation.Log;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code @Log} 采样与限流
+ * <p>
+ * 在采集与序列化之前决定是否记录本次调用：先按 {@link Log#sampleRate()} 随机采样，再按
+ * {@link Log#maxPerSecond()} 以每个方法一个令牌桶限流；{@link Log#alwaysLogErrors()} 为 {@code true}
+ * 时出错的调用不受两者限制. 两项均为默认值时不查找令牌桶.
+ *
+ * @author youta
+ **/
+public final class LogSampler {
+
+    private static final long ONE_SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<Method, RateLimiter> limiters = new ConcurrentHashMap<>();
+
+    private final LongAdder sampledOut = new LongAdder();
+
+    private final LongAdder rateLimited = new LongAdder();
+
+    /**
+     * Default constructor.
+     * This constructor is used for serialization and other reflective operations.
+     */
+    public LogSampler() {
+        // This constructor is intentionally empty.
+    }
+
+    /**
+     * 是否记录本次调用.
+     *
+     * @param method 方法
+     * @param log    日志注解
+     * @param error  本次调用是否出错
+     * @return 是否记录
+     */
+    public boolean shouldLog(Method method, Log log, boolean error) {
+        if (error && log.alwaysLogErrors()) {
+            return true;
+        }
+        double sampleRate = log.sampleRate();
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            sampledOut.increment();
+            return false;
+        }
+        int maxPerSecond = log.maxPerSecond();
+        if (maxPerSecond > 0 && !limiter(method, maxPerSecond).tryAcquire()) {
+            rateLimited.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 因采样未记录的调用数.
+     *
+     * @return 调用数
+     */
+    public long sampledOutCount() {
+        return sampledOut.sum();
+    }
+
+    /**
+     * 因超出每秒上限未记录的调用数.
+     *
+     * @return 调用数
+     */
+    public long rateLimitedCount() {
+        return rateLimited.sum();
+    }
+
+    private RateLimiter limiter(Method method, int maxPerSecond) {
+        RateLimiter limiter = limiters.get(method);
+        if (limiter != null) {
+            return limiter;
+        }
+        return limiters.computeIfAbsent(method, key -> new RateLimiter(maxPerSecond));
+    }
+
+    /**
+     * 无锁令牌桶(GCRA)
+     * <p>
+     * 只保存下一个令牌的理论到达时刻，容量为一秒的令牌数.
+     */
+    private static final class RateLimiter {
+
+        private final long intervalNanos;
+
+        private final long burstNanos;
+
+        private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+
+        private RateLimiter(int maxPerSecond) {
+            this.intervalNanos = ONE_SECOND_NANOS / maxPerSecond;
+            this.burstNanos = ONE_SECOND_NANOS;
+        }
+
+        private boolean tryAcquire() {
+            while (true) {
+                long now = System.nanoTime();
+                long arrival = theoreticalArrival.get();
+                long next = Math.max(arrival - now, 0) + now + intervalNanos;
+                if (next - now > burstNanos) {
+                    return false;
+                }
+                if (theoreticalArrival.compareAndSet(arrival, next)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -4,16 +4,16 @@ import java.util.Map;
 
 /**
  * A logged method.
- * This class is used to store information about a method that is being logged.
- * It is used to cache the method signature and the method being logged.
+ * This class is used to store the values of a single logged call.
+ * It is created per call and never cached; method-level information lives in {@link LoggedMethodDescriptor}.
  *
  * @param logContent    The content of the log.
  * @param requestUri    The request URI of the method being logged.
  * @param className     The class name of the method being logged.
  * @param methodName    The name of the method being logged.
- * @param params        The names of the parameters of the method being logged.
- * @param remoteAddr    The remote address of the method being logged.
- * @param queryParamMap The indexes of the parameters of the method being logged that should be included in the log.
+ * @param params        The logged parameter names mapped to their values.
+ * @param remoteAddr    The remote address of the request.
+ * @param queryParamMap The query parameters of the request.
  * @author rained
  */
 public record LoggedMethod(String logContent, String requestUri, String className, String methodName,
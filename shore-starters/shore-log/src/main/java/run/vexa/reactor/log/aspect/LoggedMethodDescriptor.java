@@ -0,0 +1,152 @@
+package run.vexa.reactor.log.aspect;
+
+import org.aspectj.lang.reflect.MethodSignature;
+import run.vexa.reactor.log.annotation.Log;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * 被记录方法的不可变描述
+ * <p>
+ * 每个方法只创建一次，只包含与调用无关的信息：类名、方法名、需要记录的参数下标与参数名，
+ * 以及预先拼好的方法行和参数行前缀. 参数值、请求等每次调用的数据见 {@link LoggedMethod}.
+ *
+ * @author youta
+ **/
+final class LoggedMethodDescriptor {
+
+    private final String className;
+
+    private final String methodName;
+
+    private final int[] parameterIndexes;
+
+    private final String[] parameterNames;
+
+    private final String methodLine;
+
+    private final String[] parameterPrefixes;
+
+    private LoggedMethodDescriptor(String className, String methodName, int[] parameterIndexes,
+                                   String[] parameterNames, String methodLine, String[] parameterPrefixes) {
+        this.className = className;
+        this.methodName = methodName;
+        this.parameterIndexes = parameterIndexes;
+        this.parameterNames = parameterNames;
+        this.methodLine = methodLine;
+        this.parameterPrefixes = parameterPrefixes;
+    }
+
+    /**
+     * 根据方法签名创建描述，跳过 {@link Log.Exclude} 标注的参数.
+     *
+     * @param methodSignature 方法签名
+     * @param label           方法行标签
+     * @param parameterKey    参数名颜色
+     * @param parameterValue  参数值颜色
+     * @param reset           颜色重置
+     * @return 方法描述
+     */
+    static LoggedMethodDescriptor of(MethodSignature methodSignature, String label,
+                                     String parameterKey, String parameterValue, String reset) {
+        Method method = methodSignature.getMethod();
+        String className = method.getDeclaringClass().getName();
+        String methodName = method.getName();
+        String[] names = methodSignature.getParameterNames();
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        int length = names == null ? 0 : Math.min(names.length, parameterAnnotations.length);
+        int[] indexes = new int[length];
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (!isExcluded(parameterAnnotations[i])) {
+                indexes[count++] = i;
+            }
+        }
+        indexes = Arrays.copyOf(indexes, count);
+        String[] includedNames = new String[count];
+        String[] prefixes = new String[count];
+        for (int i = 0; i < count; i++) {
+            includedNames[i] = names[indexes[i]];
+            prefixes[i] = "  " + parameterKey + includedNames[i] + reset + " = " + parameterValue;
+        }
+        String methodLine = label + className + "#" + methodName + "\n";
+        return new LoggedMethodDescriptor(className, methodName, indexes, includedNames, methodLine, prefixes);
+    }
+
+    private static boolean isExcluded(Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation.annotationType() == Log.Exclude.class) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 类名.
+     *
+     * @return 类名
+     */
+    String className() {
+        return className;
+    }
+
+    /**
+     * 方法名.
+     *
+     * @return 方法名
+     */
+    String methodName() {
+        return methodName;
+    }
+
+    /**
+     * 需要记录的参数个数.
+     *
+     * @return 参数个数
+     */
+    int parameterCount() {
+        return parameterIndexes.length;
+    }
+
+    /**
+     * 第 {@code i} 个需要记录的参数在方法参数中的下标.
+     *
+     * @param i 序号
+     * @return 参数下标
+     */
+    int parameterIndex(int i) {
+        return parameterIndexes[i];
+    }
+
+    /**
+     * 第 {@code i} 个需要记录的参数名.
+     *
+     * @param i 序号
+     * @return 参数名
+     */
+    String parameterName(int i) {
+        return parameterNames[i];
+    }
+
+    /**
+     * 第 {@code i} 个需要记录的参数行前缀，含缩进、参数名与颜色.
+     *
+     * @param i 序号
+     * @return 参数行前缀
+     */
+    String parameterPrefix(int i) {
+        return parameterPrefixes[i];
+    }
+
+    /**
+     * 方法行，含标签与换行.
+     *
+     * @return 方法行
+     */
+    String methodLine() {
+        return methodLine;
+    }
+}
@@ -1,13 +1,23 @@
 package run.vexa.reactor.log.autoconfigure;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import run.vexa.reactor.log.aspect.ApiLogAspect;
 import run.vexa.reactor.log.aspect.JoinPointSerialise;
 import run.vexa.reactor.log.handler.LogHandler;
+import run.vexa.reactor.log.properties.LoggingProperties;
+import run.vexa.reactor.log.service.ApiLogDispatcher;
+import run.vexa.reactor.log.service.ApiLogDispatcherMetrics;
+import run.vexa.reactor.log.service.ApiLogMetrics;
 import run.vexa.reactor.log.service.ApiLogService;
+import run.vexa.reactor.log.service.LogSamplerMetrics;
 
 /**
  * 日志自动配置
@@ -15,6 +25,7 @@ import run.vexa.reactor.log.service.ApiLogService;
  * @author youta
  **/
 @Configuration
+@EnableConfigurationProperties(LoggingProperties.class)
 public class LogAutoConfigure {
 
     /**
@@ -41,11 +52,13 @@ public class LogAutoConfigure {
      * 日志切面
      *
      * @param joinPointSerialise 切点序列化
+     * @param dispatcherProvider 异步日志分发器，未启用时同步输出
      * @return 日志切面
      */
     @Bean
-    public ApiLogAspect logAspect(JoinPointSerialise joinPointSerialise) {
-        return new ApiLogAspect(joinPointSerialise);
+    public ApiLogAspect logAspect(JoinPointSerialise joinPointSerialise,
+                                  ObjectProvider<ApiLogDispatcher> dispatcherProvider) {
+        return new ApiLogAspect(joinPointSerialise, dispatcherProvider.getIfAvailable());
     }
 
     /**
@@ -58,4 +71,64 @@ public class LogAutoConfigure {
     public ApiLogService apiLogService(ObjectProvider<LogHandler> logHandlersProvider) {
         return new ApiLogService(logHandlersProvider);
     }
+
+    /**
+     * 异步日志分发器
+     *
+     * @param apiLogService 日志服务
+     * @param properties    日志配置
+     * @return 异步日志分发器
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(value = LoggingProperties.PREFIX + ".async.enabled", havingValue = "true")
+    public ApiLogDispatcher apiLogDispatcher(ApiLogService apiLogService, LoggingProperties properties) {
+        return new ApiLogDispatcher(apiLogService, properties.getAsync());
+    }
+
+    /**
+     * 日志指标
+     */
+    @Configuration
+    @ConditionalOnClass(MeterBinder.class)
+    static class ApiLogMetricsConfig {
+
+        /**
+         * 异步日志指标
+         *
+         * @param apiLogDispatcher 异步日志分发器
+         * @return ApiLogDispatcherMetrics
+         */
+        @Bean
+        @ConditionalOnBean(ApiLogDispatcher.class)
+        public ApiLogDispatcherMetrics apiLogDispatcherMetrics(ApiLogDispatcher apiLogDispatcher) {
+            return new ApiLogDispatcherMetrics(apiLogDispatcher);
+        }
+
+        /**
+         * 采样指标
+         *
+         * @param apiLogAspect 日志切面
+         * @return LogSamplerMetrics
+         */
+        @Bean
+        public LogSamplerMetrics logSamplerMetrics(ApiLogAspect apiLogAspect) {
+            return new LogSamplerMetrics(apiLogAspect.getSampler());
+        }
+
+        /**
+         * {@code @Log} 方法指标
+         *
+         * @param joinPointSerialise 切点序列化
+         * @param apiLogAspect       日志切面
+         * @param dispatcherProvider 异步日志分发器
+         * @return ApiLogMetrics
+         */
+        @Bean
+        @ConditionalOnProperty(value = LoggingProperties.PREFIX + ".metrics.enabled", havingValue = "true")
+        public ApiLogMetrics apiLogMetrics(JoinPointSerialise joinPointSerialise, ApiLogAspect apiLogAspect,
+                                           ObjectProvider<ApiLogDispatcher> dispatcherProvider) {
+            return new ApiLogMetrics(joinPointSerialise, apiLogAspect, dispatcherProvider.getIfAvailable());
+        }
+    }
 }
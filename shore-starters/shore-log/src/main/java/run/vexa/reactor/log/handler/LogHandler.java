@@ -2,8 +2,11 @@ package run.vexa.reactor.log.handler;
 
 import run.vexa.reactor.log.annotation.Log;
 import org.aspectj.lang.reflect.MethodSignature;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
  * 日志处理器.
  *
@@ -28,4 +31,17 @@ public interface LogHandler {
      */
     Mono<Boolean> handler(LogDomain logDomain);
 
+    /**
+     * 批量处理日志，默认逐条调用 {@link #handler(LogDomain)}.
+     * 需要批量写入的实现(如数据库、消息队列)可覆盖此方法.
+     *
+     * @param logDomains 日志实体
+     * @return 全部处理成功时为 {@code true}
+     */
+    default Mono<Boolean> handleBatch(List<LogDomain> logDomains) {
+        return Flux.fromIterable(logDomains)
+                .concatMap(this::handler)
+                .all(Boolean::booleanValue);
+    }
+
 }
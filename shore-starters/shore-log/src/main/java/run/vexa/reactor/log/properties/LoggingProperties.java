@@ -4,6 +4,8 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 /**
  * 日志配置
  *
@@ -30,4 +32,103 @@ public class LoggingProperties {
     private Boolean enabled = true;
     private Boolean console = true;
 
+    /**
+     * 异步日志配置
+     */
+    private Async async = new Async();
+
+    /**
+     * 指标配置
+     */
+    private Metrics metrics = new Metrics();
+
+    /**
+     * 指标配置
+     * <p>
+     * 开启且存在 Micrometer 时，记录 {@code @Log} 方法的耗时与参数、返回值序列化后的大小.
+     */
+    @Setter
+    @Getter
+    public static class Metrics {
+
+        /**
+         * Default constructor.
+         * This constructor is used for serialization and other reflective operations.
+         */
+        public Metrics() {
+            // This constructor is intentionally empty.
+        }
+
+        /**
+         * 是否记录指标.
+         */
+        private Boolean enabled = false;
+    }
+
+    /**
+     * 异步日志配置
+     * <p>
+     * 切面只在请求线程上采集日志快照并放入有界队列，由后台线程批量交给 {@code LogHandler}.
+     * 开启后日志只经由 {@code LogHandler} 输出，不再以声明类的 logger 输出 {@code JoinPointSerialise} 格式的日志，
+     * 因此默认关闭.
+     */
+    @Setter
+    @Getter
+    public static class Async {
+
+        /**
+         * Default constructor.
+         * This constructor is used for serialization and other reflective operations.
+         */
+        public Async() {
+            // This constructor is intentionally empty.
+        }
+
+        /**
+         * 是否启用异步日志，关闭时在请求线程上同步输出.
+         */
+        private Boolean enabled = false;
+
+        /**
+         * 队列容量，向上取整为 2 的幂. 排队的日志持有参数与返回值的引用，容量即为最多滞留的调用数.
+         */
+        private Integer capacity = 1024;
+
+        /**
+         * 单批交给日志处理器的最大条数.
+         */
+        private Integer batchSize = 256;
+
+        /**
+         * 队列未满一批时后台线程的等待间隔.
+         */
+        private Duration flushInterval = Duration.ofMillis(200);
+
+        /**
+         * 队列满时的处理方式.
+         */
+        private Overflow overflow = Overflow.DROP;
+
+        /**
+         * {@link Overflow#BLOCK} 时的最长等待时间，超时后丢弃.
+         */
+        private Duration blockTimeout = Duration.ofMillis(100);
+
+        /**
+         * 队列满时的处理方式
+         */
+        public enum Overflow {
+
+            /**
+             * 直接丢弃并计数.
+             */
+            DROP,
+
+            /**
+             * 等待后台线程腾出空间，最长 {@code block-timeout}. 会阻塞调用线程，不适合事件循环线程.
+             */
+            BLOCK
+        }
+    }
+
 }
@@ -0,0 +1,220 @@
+package run.vexa.reactor.log.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import run.vexa.reactor.log.handler.LogDomain;
+import run.vexa.reactor.log.properties.LoggingProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步日志分发器
+ * <p>
+ * 请求线程只把日志快照写入有界无锁队列；后台线程每次最多取出 {@code batch-size} 条，整批交给
+ * {@link ApiLogService}. 队列满时按 {@code overflow} 丢弃或短暂等待，请求延迟不随日志量增长.
+ *
+ * @author youta
+ **/
+@Slf4j
+public class ApiLogDispatcher implements InitializingBean, DisposableBean {
+
+    /**
+     * 参数与返回值大小的采样间隔，每 N 条日志序列化计算一条.
+     */
+    public static final int PAYLOAD_SAMPLE_INTERVAL = 8;
+
+    private static final long BLOCK_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);
+
+    private final LogRingBuffer<ApiLogEvent> buffer;
+
+    private final ApiLogService apiLogService;
+
+    private final int batchSize;
+
+    private final long flushIntervalNanos;
+
+    private final LoggingProperties.Async.Overflow overflow;
+
+    private final long blockTimeoutNanos;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder dispatched = new LongAdder();
+
+    private volatile boolean running;
+
+    private volatile @Nullable Thread worker;
+
+    private volatile @Nullable ApiLogRecorder recorder;
+
+    /**
+     * 只在后台线程上读写.
+     */
+    private long payloadSequence;
+
+    /**
+     * Instantiates a new Api log dispatcher.
+     *
+     * @param apiLogService the api log service
+     * @param properties    the async properties
+     */
+    public ApiLogDispatcher(ApiLogService apiLogService, LoggingProperties.Async properties) {
+        this.apiLogService = apiLogService;
+        this.buffer = new LogRingBuffer<>(properties.getCapacity());
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        this.flushIntervalNanos = properties.getFlushInterval().toNanos();
+        this.overflow = properties.getOverflow();
+        this.blockTimeoutNanos = properties.getBlockTimeout().toNanos();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        running = true;
+        Thread thread = new Thread(this::run, "shore-log-dispatcher");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(SHUTDOWN_TIMEOUT.toMillis());
+        }
+    }
+
+    /**
+     * 设置指标记录器，参数与返回值大小在后台线程上按 {@link #PAYLOAD_SAMPLE_INTERVAL} 抽样计算.
+     *
+     * @param recorder 指标记录器
+     */
+    public void setRecorder(@Nullable ApiLogRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * 提交日志.
+     *
+     * @param event 日志
+     * @return 是否进入队列，未进入时已计入丢弃数
+     */
+    public boolean offer(ApiLogEvent event) {
+        if (buffer.offer(event)) {
+            if (buffer.size() >= batchSize) {
+                wakeUp();
+            }
+            return true;
+        }
+        if (overflow == LoggingProperties.Async.Overflow.BLOCK && running) {
+            long deadline = System.nanoTime() + blockTimeoutNanos;
+            do {
+                wakeUp();
+                LockSupport.parkNanos(BLOCK_BACKOFF_NANOS);
+                if (buffer.offer(event)) {
+                    return true;
+                }
+            } while (System.nanoTime() - deadline < 0);
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * 队列中等待处理的日志数.
+     *
+     * @return 日志数
+     */
+    public int queueSize() {
+        return buffer.size();
+    }
+
+    /**
+     * 队列容量.
+     *
+     * @return 容量
+     */
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * 因队列已满丢弃的日志数.
+     *
+     * @return 丢弃数
+     */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 已交给日志处理器的日志数.
+     *
+     * @return 日志数
+     */
+    public long dispatchedCount() {
+        return dispatched.sum();
+    }
+
+    private void wakeUp() {
+        Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void run() {
+        List<ApiLogEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            if (buffer.drain(batch::add, batchSize) == 0) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+                continue;
+            }
+            dispatch(batch);
+        }
+        while (buffer.drain(batch::add, batchSize) > 0) {
+            dispatch(batch);
+        }
+    }
+
+    private void dispatch(List<ApiLogEvent> batch) {
+        try {
+            recordPayloads(batch);
+        } catch (RuntimeException e) {
+            log.warn("Failed to record payload sizes of {} api logs", batch.size(), e);
+        }
+        try {
+            apiLogService.log(batch);
+        } catch (RuntimeException e) {
+            log.error("Failed to dispatch {} api logs", batch.size(), e);
+        }
+        dispatched.add(batch.size());
+        batch.clear();
+    }
+
+    private void recordPayloads(List<ApiLogEvent> batch) {
+        ApiLogRecorder currentRecorder = this.recorder;
+        if (currentRecorder == null) {
+            return;
+        }
+        for (ApiLogEvent event : batch) {
+            if (payloadSequence++ % PAYLOAD_SAMPLE_INTERVAL != 0) {
+                continue;
+            }
+            LogDomain logDomain = event.logDomain();
+            currentRecorder.recordPayload(event.methodSignature().getMethod(),
+                    logDomain.getOperationParam(), logDomain.getResult());
+        }
+    }
+}
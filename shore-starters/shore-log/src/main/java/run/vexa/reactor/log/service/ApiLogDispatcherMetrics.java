@@ -0,0 +1,63 @@
+package run.vexa.reactor.log.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 异步日志指标
+ * <p>
+ * 记录队列长度、队列容量、丢弃数与已分发数.
+ *
+ * @author youta
+ **/
+public class ApiLogDispatcherMetrics implements MeterBinder {
+
+    /**
+     * 队列长度.
+     */
+    public static final String QUEUE_GAUGE = "shore.log.queue";
+
+    /**
+     * 队列容量.
+     */
+    public static final String CAPACITY_GAUGE = "shore.log.queue.capacity";
+
+    /**
+     * 丢弃数.
+     */
+    public static final String DROPPED_COUNTER = "shore.log.dropped";
+
+    /**
+     * 已分发数.
+     */
+    public static final String DISPATCHED_COUNTER = "shore.log.dispatched";
+
+    private final ApiLogDispatcher dispatcher;
+
+    /**
+     * Instantiates a new Api log dispatcher metrics.
+     *
+     * @param dispatcher the api log dispatcher
+     */
+    public ApiLogDispatcherMetrics(ApiLogDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(QUEUE_GAUGE, dispatcher, ApiLogDispatcher::queueSize)
+                .description("Api logs waiting to be dispatched")
+                .register(registry);
+        Gauge.builder(CAPACITY_GAUGE, dispatcher, ApiLogDispatcher::capacity)
+                .description("Capacity of the api log queue")
+                .register(registry);
+        FunctionCounter.builder(DROPPED_COUNTER, dispatcher, ApiLogDispatcher::droppedCount)
+                .description("Api logs dropped because the queue was full")
+                .register(registry);
+        FunctionCounter.builder(DISPATCHED_COUNTER, dispatcher, ApiLogDispatcher::dispatchedCount)
+                .description("Api logs handed to log handlers")
+                .register(registry);
+    }
+}
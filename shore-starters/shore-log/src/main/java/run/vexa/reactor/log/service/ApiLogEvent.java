@@ -0,0 +1,19 @@
+package run.vexa.reactor.log.service;
+
+import org.aspectj.lang.reflect.MethodSignature;
+import run.vexa.reactor.log.annotation.Log;
+import run.vexa.reactor.log.handler.LogDomain;
+
+/**
+ * 等待异步处理的日志
+ * <p>
+ * 请求相关字段在请求线程上复制，参数与返回值只保存引用，直到交给日志处理器为止；
+ * 调用方在方法返回后修改这些对象会反映到日志中. 滞留的日志数不超过队列容量.
+ *
+ * @param logDomain       在请求线程上采集的日志快照
+ * @param methodSignature 切点
+ * @param log             日志注解
+ * @author youta
+ */
+public record ApiLogEvent(LogDomain logDomain, MethodSignature methodSignature, Log log) {
+}
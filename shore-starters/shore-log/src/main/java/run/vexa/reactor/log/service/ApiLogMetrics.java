@@ -0,0 +1,197 @@
+package run.vexa.reactor.log.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.jspecify.annotations.Nullable;
+import run.vexa.reactor.log.aspect.ApiLogAspect;
+import run.vexa.reactor.log.aspect.FluxLogResult;
+import run.vexa.reactor.log.aspect.JoinPointSerialise;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code @Log} 方法指标
+ * <p>
+ * 按类名、方法名与结果记录耗时，按类名与方法名记录参数与返回值在日志中的 JSON 字节数(UTF-8). 每个方法的
+ * 计量器只创建一次. 同步输出时大小取自输出日志时的序列化，不再单独序列化；异步日志开启时，
+ * 由后台线程按 {@link ApiLogDispatcher} 的采样间隔抽样序列化计算.
+ *
+ * @author youta
+ **/
+public class ApiLogMetrics implements MeterBinder {
+
+    /**
+     * 耗时.
+     */
+    public static final String LATENCY_TIMER = "shore.log.latency";
+
+    /**
+     * 参数大小.
+     */
+    public static final String PARAMETER_SUMMARY = "shore.log.parameter.size";
+
+    /**
+     * 返回值大小.
+     */
+    public static final String RESULT_SUMMARY = "shore.log.result.size";
+
+    private final JoinPointSerialise joinPointSerialise;
+
+    private final ApiLogAspect apiLogAspect;
+
+    private final @Nullable ApiLogDispatcher dispatcher;
+
+    /**
+     * Instantiates a new Api log metrics.
+     *
+     * @param joinPointSerialise the join point serialise, used to measure payload sizes
+     * @param apiLogAspect       the api log aspect
+     * @param dispatcher         the async log dispatcher, if enabled
+     */
+    public ApiLogMetrics(JoinPointSerialise joinPointSerialise, ApiLogAspect apiLogAspect,
+                         @Nullable ApiLogDispatcher dispatcher) {
+        this.joinPointSerialise = joinPointSerialise;
+        this.apiLogAspect = apiLogAspect;
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        ApiLogRecorder recorder = new MicrometerRecorder(registry, joinPointSerialise);
+        apiLogAspect.setRecorder(recorder);
+        if (dispatcher != null) {
+            dispatcher.setRecorder(recorder);
+        }
+    }
+
+    /**
+     * 基于 Micrometer 的记录器
+     */
+    private static final class MicrometerRecorder implements ApiLogRecorder {
+
+        private final MeterRegistry registry;
+
+        private final JoinPointSerialise joinPointSerialise;
+
+        private final Map<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+
+        private MicrometerRecorder(MeterRegistry registry, JoinPointSerialise joinPointSerialise) {
+            this.registry = registry;
+            this.joinPointSerialise = joinPointSerialise;
+        }
+
+        @Override
+        public void recordLatency(Method method, String outcome, long nanos) {
+            MethodMeters methodMeters = meters(method);
+            Timer timer = switch (outcome) {
+                case SUCCESS -> methodMeters.success;
+                case ERROR -> methodMeters.error;
+                default -> methodMeters.cancel;
+            };
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void recordPayload(Method method, @Nullable Object parameters, @Nullable Object result) {
+            MethodMeters methodMeters = meters(method);
+            if (parameters != null) {
+                record(methodMeters.parameterSize, parameterSize(parameters));
+            }
+            if (result instanceof FluxLogResult fluxLogResult) {
+                record(methodMeters.resultSize, fluxLogResult.bytes());
+            } else if (result != null) {
+                record(methodMeters.resultSize, joinPointSerialise.serialisedSize(result));
+            }
+        }
+
+        // sum of the parameter values, matching what the synchronous log writes
+        private long parameterSize(Object parameters) {
+            if (!(parameters instanceof Map<?, ?> map)) {
+                return joinPointSerialise.serialisedSize(parameters);
+            }
+            long total = 0;
+            for (Object value : map.values()) {
+                long size = joinPointSerialise.serialisedSize(value);
+                if (size < 0) {
+                    return -1;
+                }
+                total += size;
+            }
+            return total;
+        }
+
+        @Override
+        public void recordPayloadSize(Method method, long parameterSize, long resultSize) {
+            MethodMeters methodMeters = meters(method);
+            record(methodMeters.parameterSize, parameterSize);
+            record(methodMeters.resultSize, resultSize);
+        }
+
+        private static void record(DistributionSummary summary, long size) {
+            if (size >= 0) {
+                summary.record(size);
+            }
+        }
+
+        private MethodMeters meters(Method method) {
+            MethodMeters methodMeters = meters.get(method);
+            if (methodMeters != null) {
+                return methodMeters;
+            }
+            return meters.computeIfAbsent(method, key -> new MethodMeters(registry, key));
+        }
+    }
+
+    /**
+     * 单个方法的计量器
+     */
+    private static final class MethodMeters {
+
+        private final Timer success;
+
+        private final Timer error;
+
+        private final Timer cancel;
+
+        private final DistributionSummary parameterSize;
+
+        private final DistributionSummary resultSize;
+
+        private MethodMeters(MeterRegistry registry, Method method) {
+            String className = method.getDeclaringClass().getName();
+            String methodName = method.getName();
+            this.success = timer(registry, className, methodName, ApiLogRecorder.SUCCESS);
+            this.error = timer(registry, className, methodName, ApiLogRecorder.ERROR);
+            this.cancel = timer(registry, className, methodName, ApiLogRecorder.CANCEL);
+            this.parameterSize = summary(registry, PARAMETER_SUMMARY, "JSON size of logged parameters",
+                    className, methodName);
+            this.resultSize = summary(registry, RESULT_SUMMARY, "JSON size of logged results",
+                    className, methodName);
+        }
+
+        private static Timer timer(MeterRegistry registry, String className, String methodName, String outcome) {
+            return Timer.builder(LATENCY_TIMER)
+                    .description("Time from subscription to termination of a @Log method")
+                    .tag("class", className)
+                    .tag("method", methodName)
+                    .tag("outcome", outcome)
+                    .register(registry);
+        }
+
+        private static DistributionSummary summary(MeterRegistry registry, String name, String description,
+                                                   String className, String methodName) {
+            return DistributionSummary.builder(name)
+                    .description(description)
+                    .baseUnit(BaseUnits.BYTES)
+                    .tag("class", className)
+                    .tag("method", methodName)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package run.vexa.reactor.log.service;
+
+import org.jspecify.annotations.Nullable;
+
+import java.lang.reflect.Method;
+
+/**
+ * {@code @Log} 方法的指标记录器
+ * <p>
+ * 未启用指标时切面与分发器不持有记录器，不产生任何开销.
+ *
+ * @author youta
+ **/
+public interface ApiLogRecorder {
+
+    /**
+     * 成功.
+     */
+    String SUCCESS = "success";
+
+    /**
+     * 出错.
+     */
+    String ERROR = "error";
+
+    /**
+     * 取消.
+     */
+    String CANCEL = "cancel";
+
+    /**
+     * 记录从订阅到结束(同步方法为调用本身)的耗时.
+     *
+     * @param method  方法
+     * @param outcome 结果：{@link #SUCCESS}、{@link #ERROR} 或 {@link #CANCEL}
+     * @param nanos   耗时(纳秒)
+     */
+    void recordLatency(Method method, String outcome, long nanos);
+
+    /**
+     * 序列化参数与返回值并记录其大小，用于尚未序列化过的日志.
+     *
+     * @param method     方法
+     * @param parameters 参数
+     * @param result     返回值，为 {@code null} 时不记录
+     */
+    void recordPayload(Method method, @Nullable Object parameters, @Nullable Object result);
+
+    /**
+     * 记录输出日志时已经得到的参数与返回值大小.
+     *
+     * @param method        方法
+     * @param parameterSize 参数大小，小于 0 时不记录
+     * @param resultSize    返回值大小，小于 0 时不记录
+     */
+    void recordPayloadSize(Method method, long parameterSize, long resultSize);
+}
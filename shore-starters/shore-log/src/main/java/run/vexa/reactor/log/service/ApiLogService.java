@@ -11,6 +11,9 @@ import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 
 /**
  * Api log service.
@@ -46,6 +49,25 @@ public class ApiLogService {
                 .forEach(handler -> logHandler(logDomain, handler));
     }
 
+    /**
+     * 批量处理日志，每个日志处理器只收到一次它接受的日志.
+     *
+     * @param events 日志
+     */
+    public void log(List<ApiLogEvent> events) {
+        logHandlersProvider.orderedStream().forEach(handler -> {
+            List<LogDomain> accepted = new ArrayList<>(events.size());
+            for (ApiLogEvent event : events) {
+                if (handler.accept(event.methodSignature(), event.log())) {
+                    accepted.add(event.logDomain());
+                }
+            }
+            if (!accepted.isEmpty()) {
+                logHandler(accepted, handler);
+            }
+        });
+    }
+
     /**
      * 处理日志
      *
@@ -54,8 +76,9 @@ public class ApiLogService {
      */
     private void logHandler(LogDomain logDomain, LogHandler handler) {
         try {
-            String traceId = this.getTraceId();
-            logDomain.setTraceId(traceId);
+            if (logDomain.getTraceId() == null) {
+                logDomain.setTraceId(currentTraceId());
+            }
             handler.handler(logDomain).subscribe();
         } catch (Exception e) {
             log.error(e.getLocalizedMessage(), e);
@@ -63,11 +86,26 @@ public class ApiLogService {
     }
 
     /**
-     * 获取traceId
+     * 批量处理日志
+     *
+     * @param logDomains 日志内容
+     * @param handler    日志处理器
+     */
+    private void logHandler(List<LogDomain> logDomains, LogHandler handler) {
+        try {
+            handler.handleBatch(logDomains)
+                    .subscribe(null, e -> log.error(e.getLocalizedMessage(), e));
+        } catch (Exception e) {
+            log.error(e.getLocalizedMessage(), e);
+        }
+    }
+
+    /**
+     * 获取当前线程的traceId，异步处理时需在请求线程上调用
      *
      * @return traceId
      */
-    private String getTraceId() {
+    public static String currentTraceId() {
         Span span = Span.current();
         String traceId = "";
         if (span != null) {
@@ -0,0 +1,111 @@
+package run.vexa.reactor.log.service;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 有界无锁环形队列(多生产者、单消费者)
+ * <p>
+ * 生产者通过 CAS 争用写入位置，队列满时立即返回 {@code false}；只允许一个线程调用 {@link #poll()}
+ * 与 {@link #drain(Consumer, int)}.
+ *
+ * @param <E> 元素类型
+ * @author youta
+ **/
+final class LogRingBuffer<E> {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final AtomicReferenceArray<E> slots;
+
+    private final int mask;
+
+    private final AtomicLong producerIndex = new AtomicLong();
+
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    /**
+     * Instantiates a new Log ring buffer.
+     *
+     * @param capacity 容量，向上取整为 2 的幂
+     */
+    LogRingBuffer(int capacity) {
+        int size = capacity <= 1 ? 1 : Integer.highestOneBit(Math.min(capacity, MAX_CAPACITY) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * 写入元素.
+     *
+     * @param element 元素
+     * @return 队列已满时返回 {@code false}
+     */
+    boolean offer(E element) {
+        long producer;
+        do {
+            producer = producerIndex.get();
+            if (producer - consumerIndex.get() >= slots.length()) {
+                return false;
+            }
+        } while (!producerIndex.compareAndSet(producer, producer + 1));
+        slots.lazySet((int) producer & mask, element);
+        return true;
+    }
+
+    /**
+     * 取出一个元素，仅限消费线程调用.
+     *
+     * @return 元素，队列为空或生产者尚未写完时为 {@code null}
+     */
+    @Nullable E poll() {
+        long consumer = consumerIndex.get();
+        int index = (int) consumer & mask;
+        E element = slots.get(index);
+        if (element == null) {
+            return null;
+        }
+        slots.lazySet(index, null);
+        consumerIndex.lazySet(consumer + 1);
+        return element;
+    }
+
+    /**
+     * 最多取出 {@code limit} 个元素，仅限消费线程调用.
+     *
+     * @param consumer 元素消费者
+     * @param limit    最大个数
+     * @return 取出的个数
+     */
+    int drain(Consumer<E> consumer, int limit) {
+        int count = 0;
+        E element;
+        while (count < limit && (element = poll()) != null) {
+            consumer.accept(element);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 当前元素个数(近似值).
+     *
+     * @return 元素个数
+     */
+    int size() {
+        long size = producerIndex.get() - consumerIndex.get();
+        return (int) Math.clamp(size, 0, slots.length());
+    }
+
+    /**
+     * 容量.
+     *
+     * @return 容量
+     */
+    int capacity() {
+        return slots.length();
+    }
+}
@@ -0,0 +1,44 @@
+package run.vexa.reactor.log.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import run.vexa.reactor.log.aspect.LogSampler;
+
+/**
+ * {@code @Log} 采样指标
+ * <p>
+ * 以 {@code reason} 标签区分因采样与因超出每秒上限而未记录的调用数.
+ *
+ * @author youta
+ **/
+public class LogSamplerMetrics implements MeterBinder {
+
+    /**
+     * 未记录的调用数.
+     */
+    public static final String SAMPLED_OUT_COUNTER = "shore.log.sampled.out";
+
+    private final LogSampler sampler;
+
+    /**
+     * Instantiates a new Log sampler metrics.
+     *
+     * @param sampler the log sampler
+     */
+    public LogSamplerMetrics(LogSampler sampler) {
+        this.sampler = sampler;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(SAMPLED_OUT_COUNTER, sampler, LogSampler::sampledOutCount)
+                .description("@Log invocations skipped by the sample rate")
+                .tag("reason", "sampled")
+                .register(registry);
+        FunctionCounter.builder(SAMPLED_OUT_COUNTER, sampler, LogSampler::rateLimitedCount)
+                .description("@Log invocations skipped by the per-method rate limit")
+                .tag("reason", "rate-limited")
+                .register(registry);
+    }
+}
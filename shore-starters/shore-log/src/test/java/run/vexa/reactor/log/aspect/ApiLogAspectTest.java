@@ -12,14 +12,26 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 import run.vexa.reactor.core.context.ReactiveContextHolder;
+import run.vexa.reactor.core.util.ReactiveAddrUtil;
 import run.vexa.reactor.log.annotation.Log;
+import run.vexa.reactor.log.service.ApiLogDispatcher;
+import run.vexa.reactor.log.service.ApiLogEvent;
+import run.vexa.reactor.log.service.ApiLogRecorder;
 
 import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Mockito.*;
 
 class ApiLogAspectTest {
@@ -27,7 +39,7 @@ class ApiLogAspectTest {
     @Test
     void handlerShouldLogMonoResult() throws Throwable {
         JoinPointSerialise serialiser = mock(JoinPointSerialise.class);
-        when(serialiser.serialise(any(), any(), any(), any(), any())).thenReturn("serialised");
+        when(serialiser.serialise(any(), any(), nullable(ServerWebExchange.class), any(), any())).thenReturn("serialised");
         Logger logger = mock(Logger.class);
         Function<Class<?>, Logger> loggerGetter = clazz -> logger;
         ApiLogAspect aspect = new ApiLogAspect(serialiser, loggerGetter);
@@ -63,7 +75,7 @@ class ApiLogAspectTest {
     @Test
     void handlerShouldLogErrorsAndRethrow() throws Throwable {
         JoinPointSerialise serialiser = mock(JoinPointSerialise.class);
-        when(serialiser.serialise(any(), any(), any(), any(), any())).thenReturn("error-log");
+        when(serialiser.serialise(any(), any(), nullable(ServerWebExchange.class), any(), any())).thenReturn("error-log");
         Logger logger = mock(Logger.class);
         ApiLogAspect aspect = new ApiLogAspect(serialiser, clazz -> logger);
 
@@ -84,9 +96,9 @@ class ApiLogAspectTest {
     }
 
     @Test
-    void handlerShouldLogFluxResult() throws Throwable {
+    void handlerShouldStreamFluxAndLogSummary() throws Throwable {
         JoinPointSerialise serialiser = mock(JoinPointSerialise.class);
-        when(serialiser.serialise(any(), any(), any(), any(), any())).thenReturn("flux-log");
+        when(serialiser.serialise(any(), any(), nullable(ServerWebExchange.class), any(), any())).thenReturn("flux-log");
         Logger logger = mock(Logger.class);
         ApiLogAspect aspect = new ApiLogAspect(serialiser, clazz -> logger);
 
@@ -97,29 +109,60 @@ class ApiLogAspectTest {
         when(signature.getMethod()).thenReturn(method);
         when(joinPoint.getSignature()).thenReturn(signature);
         when(joinPoint.getArgs()).thenReturn(new Object[]{"value"});
-        when(joinPoint.proceed()).thenReturn(Flux.just("value-1", "value-2"));
+        when(joinPoint.proceed()).thenReturn(Flux.just("value-1", "value-2", "value-3", "value-4"));
 
         Log logAnnotation = method.getAnnotation(Log.class);
 
         Object result = aspect.handler(joinPoint, logAnnotation);
-        assertThat(result).isInstanceOf(Mono.class);
+        assertThat(result).isInstanceOf(Flux.class);
 
         MockServerHttpRequest request = MockServerHttpRequest.get("/flux").build();
         ServerWebExchange exchange = MockServerWebExchange.from(request);
 
-        StepVerifier.create(((Mono<?>) result)
+        StepVerifier.create(((Flux<?>) result)
                         .contextWrite(context -> context.put(ReactiveContextHolder.CONTEXT_KEY, exchange)))
-                .expectNextMatches(value -> value instanceof java.util.List<?> list
-                        && list.containsAll(java.util.List.of("value-1", "value-2")))
+                .expectNext("value-1", "value-2", "value-3", "value-4")
+                .verifyComplete();
+
+        verify(logger).info("flux-log");
+        verify(serialiser).serialise(eq(joinPoint), eq("flux"), eq(exchange), isNull(),
+                argThat((FluxLogResult summary) -> summary.count() == 4
+                        && summary.bytes() == 28
+                        && "onComplete".equals(summary.signal())
+                        && summary.first().equals(List.of("value-1"))
+                        && summary.last().equals(List.of("value-4"))));
+    }
+
+    @Test
+    void handlerShouldLogFluxCancellationOnce() throws Throwable {
+        JoinPointSerialise serialiser = mock(JoinPointSerialise.class);
+        when(serialiser.serialise(any(), any(), nullable(ServerWebExchange.class), any(), any())).thenReturn("flux-log");
+        Logger logger = mock(Logger.class);
+        ApiLogAspect aspect = new ApiLogAspect(serialiser, clazz -> logger);
+
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        Method method = SampleService.class.getDeclaredMethod("flux", String.class);
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getDeclaringType()).thenReturn(SampleService.class);
+        when(signature.getMethod()).thenReturn(method);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.proceed()).thenReturn(Flux.range(0, Integer.MAX_VALUE));
+
+        Object result = aspect.handler(joinPoint, method.getAnnotation(Log.class));
+
+        StepVerifier.create(((Flux<?>) result).take(5))
+                .expectNextCount(5)
                 .verifyComplete();
 
         verify(logger).info("flux-log");
+        verify(serialiser).serialise(eq(joinPoint), eq("flux"), isNull(ServerWebExchange.class), isNull(),
+                argThat((FluxLogResult summary) -> summary.count() == 5 && "cancel".equals(summary.signal())));
     }
 
     @Test
     void handlerShouldLogSynchronousValue() throws Throwable {
         JoinPointSerialise serialiser = mock(JoinPointSerialise.class);
-        when(serialiser.serialise(any(), any(), any(), any(), any())).thenReturn("sync-log");
+        when(serialiser.serialise(any(), any(), nullable(ServerWebExchange.class), any(), any())).thenReturn("sync-log");
         Logger logger = mock(Logger.class);
         ApiLogAspect aspect = new ApiLogAspect(serialiser, clazz -> logger);
 
@@ -149,13 +192,181 @@ class ApiLogAspectTest {
         verify(logger).info("sync-log");
     }
 
+    @Test
+    void handlerShouldHandOffSnapshotToDispatcher() throws Throwable {
+        JoinPointSerialise serialiser = mock(JoinPointSerialise.class);
+        when(serialiser.parameters(any())).thenReturn(Map.of("value", "value"));
+        Logger logger = mock(Logger.class);
+        ApiLogDispatcher dispatcher = mock(ApiLogDispatcher.class);
+        ApiLogAspect aspect = new ApiLogAspect(serialiser, clazz -> logger, dispatcher);
+
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        Method method = SampleService.class.getDeclaredMethod("mono", String.class);
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getDeclaringType()).thenReturn(SampleService.class);
+        when(signature.getMethod()).thenReturn(method);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.proceed()).thenReturn(Mono.just("ok"));
+
+        Log logAnnotation = method.getAnnotation(Log.class);
+
+        Object result = aspect.handler(joinPoint, logAnnotation);
+
+        MockServerHttpRequest request = MockServerHttpRequest.get("/async?page=1")
+                .remoteAddress(new InetSocketAddress("10.0.0.9", 8080))
+                .build();
+        ServerWebExchange exchange = MockServerWebExchange.from(request);
+
+        StepVerifier.create(((Mono<?>) result)
+                        .contextWrite(context -> context.put(ReactiveContextHolder.CONTEXT_KEY, exchange)))
+                .expectNext("ok")
+                .verifyComplete();
+
+        verify(dispatcher).offer(argThat((ApiLogEvent event) -> "mono".equals(event.logDomain().getLogContent())
+                && "/async".equals(event.logDomain().getRequestUri())
+                && "GET".equals(event.logDomain().getRequestMethod())
+                && "ok".equals(event.logDomain().getResult())
+                && "10.0.0.9".equals(event.logDomain().getIp())
+                && event.log() == logAnnotation));
+        assertThat((String) exchange.getAttribute(ReactiveAddrUtil.REMOTE_ADDR_ATTRIBUTE)).isEqualTo("10.0.0.9");
+        verify(serialiser, never()).serialise(any(), any(), nullable(ServerWebExchange.class), any(), any());
+        verifyNoInteractions(logger);
+    }
+
+    @Test
+    void handlerShouldRecordLatencyAndPayloadWhenRecorderIsSet() throws Throwable {
+        JoinPointSerialise serialiser = mock(JoinPointSerialise.class);
+        when(serialiser.serialise(any(), any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            JoinPointSerialise.PayloadSize payloadSize = invocation.getArgument(5);
+            payloadSize.set(7, 4);
+            return "serialised";
+        });
+        Logger logger = mock(Logger.class);
+        ApiLogRecorder recorder = mock(ApiLogRecorder.class);
+        ApiLogAspect aspect = new ApiLogAspect(serialiser, clazz -> logger);
+        aspect.setRecorder(recorder);
+
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        Method method = SampleService.class.getDeclaredMethod("mono", String.class);
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getDeclaringType()).thenReturn(SampleService.class);
+        when(signature.getMethod()).thenReturn(method);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.proceed()).thenReturn(Mono.just("ok"));
+
+        Object result = aspect.handler(joinPoint, method.getAnnotation(Log.class));
+
+        MockServerHttpRequest request = MockServerHttpRequest.get("/timed").build();
+        ServerWebExchange exchange = MockServerWebExchange.from(request);
+
+        StepVerifier.create(((Mono<?>) result)
+                        .contextWrite(context -> context.put(ReactiveContextHolder.CONTEXT_KEY, exchange)))
+                .expectNext("ok")
+                .verifyComplete();
+
+        verify(recorder).recordLatency(eq(method), eq(ApiLogRecorder.SUCCESS), anyLong());
+        verify(recorder).recordPayloadSize(method, 7, 4);
+        verify(recorder, never()).recordPayload(any(), any(), any());
+        verify(serialiser, never()).serialisedSize(any());
+        verify(logger).info("serialised");
+    }
+
+    @Test
+    void handlerShouldSkipSerialisationWhenSampledOut() throws Throwable {
+        JoinPointSerialise serialiser = mock(JoinPointSerialise.class);
+        Logger logger = mock(Logger.class);
+        ApiLogAspect aspect = new ApiLogAspect(serialiser, clazz -> logger);
+
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        Method method = SampleService.class.getDeclaredMethod("sampled", String.class);
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getDeclaringType()).thenReturn(SampleService.class);
+        when(signature.getMethod()).thenReturn(method);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.proceed()).thenReturn(Mono.just("ok"));
+
+        Object result = aspect.handler(joinPoint, method.getAnnotation(Log.class));
+
+        MockServerHttpRequest request = MockServerHttpRequest.get("/sampled").build();
+        ServerWebExchange exchange = MockServerWebExchange.from(request);
+
+        StepVerifier.create(((Mono<?>) result)
+                        .contextWrite(context -> context.put(ReactiveContextHolder.CONTEXT_KEY, exchange)))
+                .expectNext("ok")
+                .verifyComplete();
+
+        verifyNoInteractions(serialiser, logger);
+        assertThat(aspect.getSampler().sampledOutCount()).isEqualTo(1);
+    }
+
+    @Test
+    void handlerShouldLogMonoErrorsEvenWhenSampledOut() throws Throwable {
+        JoinPointSerialise serialiser = mock(JoinPointSerialise.class);
+        when(serialiser.serialise(any(), any(), any(), any(), any())).thenReturn("error-log");
+        Logger logger = mock(Logger.class);
+        ApiLogAspect aspect = new ApiLogAspect(serialiser, clazz -> logger);
+
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        Method method = SampleService.class.getDeclaredMethod("sampled", String.class);
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getDeclaringType()).thenReturn(SampleService.class);
+        when(signature.getMethod()).thenReturn(method);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        IllegalStateException failure = new IllegalStateException("async boom");
+        when(joinPoint.proceed()).thenReturn(Mono.error(failure));
+
+        Object result = aspect.handler(joinPoint, method.getAnnotation(Log.class));
+
+        MockServerHttpRequest request = MockServerHttpRequest.get("/failed").build();
+        ServerWebExchange exchange = MockServerWebExchange.from(request);
+
+        StepVerifier.create(((Mono<?>) result)
+                        .contextWrite(context -> context.put(ReactiveContextHolder.CONTEXT_KEY, exchange)))
+                .verifyErrorMessage("async boom");
+
+        verify(serialiser).serialise(eq(joinPoint), eq("sampled"), eq(exchange), eq(failure), isNull());
+        verify(logger).error("error-log");
+        verify(logger, never()).info(any(String.class));
+    }
+
+    @Test
+    void handlerShouldDispatchMonoErrors() throws Throwable {
+        JoinPointSerialise serialiser = mock(JoinPointSerialise.class);
+        Logger logger = mock(Logger.class);
+        ApiLogDispatcher dispatcher = mock(ApiLogDispatcher.class);
+        ApiLogAspect aspect = new ApiLogAspect(serialiser, clazz -> logger, dispatcher);
+
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        Method method = SampleService.class.getDeclaredMethod("mono", String.class);
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getDeclaringType()).thenReturn(SampleService.class);
+        when(signature.getMethod()).thenReturn(method);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        IllegalStateException failure = new IllegalStateException("async boom");
+        when(joinPoint.proceed()).thenReturn(Mono.error(failure));
+
+        Object result = aspect.handler(joinPoint, method.getAnnotation(Log.class));
+
+        MockServerHttpRequest request = MockServerHttpRequest.get("/failed").build();
+        ServerWebExchange exchange = MockServerWebExchange.from(request);
+
+        StepVerifier.create(((Mono<?>) result)
+                        .contextWrite(context -> context.put(ReactiveContextHolder.CONTEXT_KEY, exchange)))
+                .verifyErrorMessage("async boom");
+
+        verify(dispatcher).offer(argThat((ApiLogEvent event) -> event.logDomain().getEx() == failure
+                && "/failed".equals(event.logDomain().getRequestUri())
+                && event.logDomain().getResult() == null));
+        verifyNoInteractions(logger);
+    }
+
     private static final class SampleService {
         @Log("mono")
         private Mono<String> mono(String value) {
             return Mono.just(value);
         }
 
-        @Log("flux")
+        @Log(value = "flux", fluxSample = 1)
         private Flux<String> flux(String value) {
             return Flux.just(value + "-1", value + "-2");
         }
@@ -164,5 +375,10 @@ class ApiLogAspectTest {
         private String sync(String value) {
             return value + "-result";
         }
+
+        @Log(value = "sampled", sampleRate = 0)
+        private Mono<String> sampled(String value) {
+            return Mono.just(value);
+        }
     }
 }
@@ -0,0 +1,74 @@
+package run.vexa.reactor.log.aspect;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+import reactor.test.StepVerifier;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FluxLogSummaryTest {
+
+    @Test
+    void shouldSumSizesOfTextAndBinaryElements() {
+        FluxLogSummary summary = new FluxLogSummary(1);
+        summary.onNext("abc");
+        summary.onNext(new byte[4]);
+        summary.onNext(ByteBuffer.allocate(5));
+
+        FluxLogResult result = summary.result(SignalType.ON_COMPLETE);
+
+        assertThat(result.count()).isEqualTo(3);
+        assertThat(result.bytes()).isEqualTo(12);
+        assertThat(result.first()).containsExactly("abc");
+        assertThat(result.last()).containsExactly(new FluxLogResult.BufferSample("HeapByteBuffer", 5));
+    }
+
+    @Test
+    void shouldNotRetainDataBuffersReleasedDownstream() {
+        NettyDataBufferFactory factory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+        List<NettyDataBuffer> buffers = Stream.of("ab", "cde", "fghi")
+                .map(text -> factory.allocateBuffer(text.length()).write(text.getBytes(StandardCharsets.UTF_8)))
+                .toList();
+        FluxLogSummary summary = new FluxLogSummary(1);
+
+        StepVerifier.create(Flux.fromIterable(buffers)
+                        .doOnNext(summary::onNext)
+                        .doOnNext(DataBufferUtils::release))
+                .expectNextCount(3)
+                .verifyComplete();
+
+        assertThat(buffers).allSatisfy(buffer -> assertThat(buffer.getNativeBuffer().refCnt()).isZero());
+        FluxLogResult result = summary.result(SignalType.ON_COMPLETE);
+        assertThat(result.bytes()).isEqualTo(9);
+        assertThat(result.first()).containsExactly(new FluxLogResult.BufferSample("NettyDataBuffer", 2));
+        assertThat(result.last()).containsExactly(new FluxLogResult.BufferSample("NettyDataBuffer", 4));
+        assertThat(JsonMapper.builder().build().writeValueAsString(result))
+                .contains("{\"type\":\"NettyDataBuffer\",\"bytes\":4}");
+    }
+
+    @Test
+    void shouldReportUnknownSizeOnceAnElementCannotBeEstimated() {
+        FluxLogSummary summary = new FluxLogSummary(0);
+        summary.onNext("abc");
+        summary.onNext(Map.of("id", 1));
+        summary.onNext("def");
+
+        FluxLogResult result = summary.result(SignalType.ON_COMPLETE);
+
+        assertThat(result.count()).isEqualTo(3);
+        assertThat(result.bytes()).isEqualTo(FluxLogSummary.UNKNOWN_SIZE);
+        assertThat(result.first()).isEqualTo(List.of());
+    }
+}
@@ -7,8 +7,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
 import org.springframework.mock.web.server.MockServerWebExchange;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import run.vexa.reactor.core.util.ReactiveAddrUtil;
 
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -39,15 +42,41 @@ class JoinPointSerialiseTest {
 
         MockServerHttpRequest request = MockServerHttpRequest.get("/test")
                 .queryParam("foo", "bar")
-                .remoteAddress(new java.net.InetSocketAddress("127.0.0.1", 8080))
+                .remoteAddress(new java.net.InetSocketAddress("10.0.0.8", 8080))
                 .build();
-        ServerHttpRequest serverHttpRequest = MockServerWebExchange.from(request).getRequest();
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
 
-        String output = serialiser.serialise(joinPoint, "Log content", serverHttpRequest, null, Map.of("result", 1));
+        String output = serialiser.serialise(joinPoint, "Log content", exchange, null, Map.of("result", 1));
         assertThat(output.replace("\033", ""))
                 .contains("SampleController#handle")
-                .contains("foo");
+                .contains("foo")
+                .contains("10.0.0.8");
         assertThat(output).doesNotContain("secret");
+        assertThat((String) exchange.getAttribute(ReactiveAddrUtil.REMOTE_ADDR_ATTRIBUTE)).isEqualTo("10.0.0.8");
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void deprecatedRequestOverloadShouldStillResolveRemoteAddress() throws Exception {
+        Method method = SampleController.class.getDeclaredMethod("handleLegacy", String.class);
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(method);
+        when(signature.getParameterNames()).thenReturn(new String[]{"visible"});
+        when(signature.getDeclaringType()).thenReturn(SampleController.class);
+        when(signature.getName()).thenReturn("handleLegacy");
+
+        JoinPoint joinPoint = mock(JoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getArgs()).thenReturn(new Object[]{"public"});
+
+        ServerHttpRequest request = MockServerHttpRequest.get("/legacy")
+                .remoteAddress(new java.net.InetSocketAddress("10.0.0.7", 8080))
+                .build();
+
+        String output = serialiser.serialise(joinPoint, "Log content", request, null, null);
+        assertThat(output.replace("\033", ""))
+                .contains("/legacy")
+                .contains("10.0.0.7");
     }
 
     @Test
@@ -63,7 +92,7 @@ class JoinPointSerialiseTest {
         when(joinPoint.getSignature()).thenReturn(signature);
         when(joinPoint.getArgs()).thenReturn(new Object[]{"secret", "public"});
 
-        String output = serialiser.serialise(joinPoint, "Log content", null,
+        String output = serialiser.serialise(joinPoint, "Log content", (ServerWebExchange) null,
                 new IllegalArgumentException("invalid"), null);
 
         assertThat(output)
@@ -71,12 +100,70 @@ class JoinPointSerialiseTest {
                 .contains("SampleController#handle");
     }
 
+    @Test
+    void serialiseShouldCaptureValuesOfEachCall() throws Exception {
+        Method method = SampleController.class.getDeclaredMethod("handleWithRequest", String.class, String.class);
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(method);
+        when(signature.getParameterNames()).thenReturn(new String[]{"hidden", "visible"});
+
+        JoinPoint first = mock(JoinPoint.class);
+        when(first.getSignature()).thenReturn(signature);
+        when(first.getArgs()).thenReturn(new Object[]{"secret", "first-value"});
+        JoinPoint second = mock(JoinPoint.class);
+        when(second.getSignature()).thenReturn(signature);
+        when(second.getArgs()).thenReturn(new Object[]{"secret", "second-value"});
+
+        ServerWebExchange firstExchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/first").queryParam("page", "1").build());
+        ServerWebExchange secondExchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/second").queryParam("page", "2").build());
+
+        serialiser.serialise(first, "Log content", firstExchange, null, null);
+        String output = serialiser.serialise(second, "Log content", secondExchange, null, null);
+
+        assertThat(output)
+                .contains("second-value", "/second", "page=2")
+                .doesNotContain("first-value", "/first", "page=1", "secret");
+        assertThat(serialiser.parameters(second)).containsExactly(Map.entry("visible", "second-value"));
+    }
+
+    @Test
+    void serialiseShouldReportSizesOfWrittenJson() throws Exception {
+        Method method = SampleController.class.getDeclaredMethod("handleWithRequest", String.class, String.class);
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(method);
+        when(signature.getParameterNames()).thenReturn(new String[]{"hidden", "visible"});
+
+        JoinPoint joinPoint = mock(JoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        Map<String, Object> visible = Map.of("key", "value");
+        when(joinPoint.getArgs()).thenReturn(new Object[]{"secret", visible});
+        Map<String, Object> result = Map.of("result", 1);
+
+        var payloadSize = new JoinPointSerialise.PayloadSize();
+        serialiser.serialise(joinPoint, "Log content", null, null, result, payloadSize);
+
+        assertThat(payloadSize.parameters()).isEqualTo(serialiser.serialisedSize(visible)).isPositive();
+        assertThat(payloadSize.result()).isEqualTo(serialiser.serialisedSize(result)).isPositive();
+        assertThat(serialiser.serialisedSize("名称")).isEqualTo("\"名称\"".getBytes(StandardCharsets.UTF_8).length);
+
+        serialiser.serialise(joinPoint, "Log content", null, new IllegalStateException("failed"), null, payloadSize);
+
+        assertThat(payloadSize.result()).isEqualTo(-1);
+    }
+
     private static final class SampleController {
         @SuppressWarnings("unused")
         public void handleWithRequest(@run.vexa.reactor.log.annotation.Log.Exclude String hidden, String visible) {
             // no-op
         }
 
+        @SuppressWarnings("unused")
+        public void handleLegacy(String visible) {
+            // no-op
+        }
+
         @SuppressWarnings("unused")
         public void handleWithoutRequest(@run.vexa.reactor.log.annotation.Log.Exclude String hidden, String visible) {
             // no-op
@@ -0,0 +1,75 @@
+package run.vexa.reactor.log.aspect;
+
+import org.junit.jupiter.api.Test;
+import run.vexa.reactor.log.annotation.Log;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogSamplerTest {
+
+    @Test
+    void shouldLogEverythingByDefault() throws Exception {
+        LogSampler sampler = new LogSampler();
+        Method method = SampleService.class.getDeclaredMethod("all");
+        Log log = method.getAnnotation(Log.class);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(sampler.shouldLog(method, log, false)).isTrue();
+        }
+        assertThat(sampler.sampledOutCount()).isZero();
+        assertThat(sampler.rateLimitedCount()).isZero();
+    }
+
+    @Test
+    void shouldSampleOutSuccessesButKeepErrors() throws Exception {
+        LogSampler sampler = new LogSampler();
+        Method method = SampleService.class.getDeclaredMethod("none");
+        Log log = method.getAnnotation(Log.class);
+
+        assertThat(sampler.shouldLog(method, log, false)).isFalse();
+        assertThat(sampler.shouldLog(method, log, true)).isTrue();
+        assertThat(sampler.sampledOutCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCapLogsPerSecondPerMethod() throws Exception {
+        LogSampler sampler = new LogSampler();
+        Method limited = SampleService.class.getDeclaredMethod("limited");
+        Method other = SampleService.class.getDeclaredMethod("otherLimited");
+        Log log = limited.getAnnotation(Log.class);
+
+        assertThat(sampler.shouldLog(limited, log, false)).isTrue();
+        assertThat(sampler.shouldLog(limited, log, false)).isTrue();
+        assertThat(sampler.shouldLog(limited, log, false)).isFalse();
+        assertThat(sampler.shouldLog(other, other.getAnnotation(Log.class), false)).isTrue();
+        assertThat(sampler.rateLimitedCount()).isEqualTo(1);
+    }
+
+    private static final class SampleService {
+        @Log("all")
+        @SuppressWarnings("unused")
+        private void all() {
+            // no-op
+        }
+
+        @Log(value = "none", sampleRate = 0)
+        @SuppressWarnings("unused")
+        private void none() {
+            // no-op
+        }
+
+        @Log(value = "limited", maxPerSecond = 2)
+        @SuppressWarnings("unused")
+        private void limited() {
+            // no-op
+        }
+
+        @Log(value = "other", maxPerSecond = 2)
+        @SuppressWarnings("unused")
+        private void otherLimited() {
+            // no-op
+        }
+    }
+}
@@ -1,29 +0,0 @@
-package run.vexa.reactor.log.aspect;
-
-import org.aspectj.lang.reflect.MethodSignature;
-import org.junit.jupiter.api.Test;
-
-import java.lang.reflect.Method;
-
-import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
-
-class UniqueMethodSignatureTest {
-
-    @Test
-    void shouldUseUnderlyingMethodForEquality() throws Exception {
-        Method method = Object.class.getDeclaredMethod("toString");
-        MethodSignature signature = mock(MethodSignature.class);
-        when(signature.getMethod()).thenReturn(method);
-
-        UniqueMethodSignature signature1 = new UniqueMethodSignature(signature);
-        UniqueMethodSignature signature2 = new UniqueMethodSignature(signature);
-
-        assertThat(signature1)
-                .isEqualTo(signature2)
-                .hasSameHashCodeAs(signature2);
-        assertThat(signature1.getMethodSignature()).isSameAs(signature);
-    }
-
-}
@@ -7,6 +7,8 @@ import run.vexa.reactor.log.aspect.ApiLogAspect;
 import run.vexa.reactor.log.aspect.JoinPointSerialise;
 import run.vexa.reactor.log.handler.LogHandler;
 import run.vexa.reactor.log.handler.SimpleLogHandler;
+import run.vexa.reactor.log.properties.LoggingProperties;
+import run.vexa.reactor.log.service.ApiLogDispatcher;
 import run.vexa.reactor.log.service.ApiLogService;
 
 import java.util.Collections;
@@ -14,6 +16,7 @@ import java.util.List;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
 class LogAutoConfigureTest {
 
@@ -24,12 +27,17 @@ class LogAutoConfigureTest {
         JoinPointSerialise serialise = configure.joinPointSerialise();
         assertThat(serialise).isNotNull();
 
-        ApiLogAspect aspect = configure.logAspect(serialise);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<ApiLogDispatcher> dispatcherProvider = mock(ObjectProvider.class);
+        ApiLogAspect aspect = configure.logAspect(serialise, dispatcherProvider);
         assertThat(aspect).isNotNull();
 
         ObjectProvider<LogHandler> provider = new StaticObjectProvider(Collections.emptyList());
         ApiLogService service = configure.apiLogService(provider);
         assertThat(service).isNotNull();
+
+        ApiLogDispatcher dispatcher = configure.apiLogDispatcher(service, new LoggingProperties());
+        assertThat(dispatcher.capacity()).isEqualTo(1024);
     }
 
     @Test
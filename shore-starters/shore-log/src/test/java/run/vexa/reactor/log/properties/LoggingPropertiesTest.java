@@ -12,6 +12,8 @@ class LoggingPropertiesTest {
 
         assertThat(properties.getEnabled()).isTrue();
         assertThat(properties.getConsole()).isTrue();
+        assertThat(properties.getAsync().getEnabled()).isFalse();
+        assertThat(properties.getAsync().getOverflow()).isEqualTo(LoggingProperties.Async.Overflow.DROP);
     }
 
     @Test
@@ -0,0 +1,157 @@
+package run.vexa.reactor.log.service;
+
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.publisher.Mono;
+import run.vexa.reactor.log.annotation.Log;
+import run.vexa.reactor.log.handler.LogDomain;
+import run.vexa.reactor.log.handler.LogHandler;
+import run.vexa.reactor.log.properties.LoggingProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ApiLogDispatcherTest {
+
+    @Test
+    void shouldDispatchQueuedLogsInBatches() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        LoggingProperties.Async properties = new LoggingProperties.Async();
+        properties.setBatchSize(2);
+        properties.setFlushInterval(Duration.ofMillis(10));
+        ApiLogDispatcher dispatcher = new ApiLogDispatcher(new ApiLogService(provider(handler)), properties);
+        dispatcher.afterPropertiesSet();
+        try {
+            for (int i = 0; i < 5; i++) {
+                assertThat(dispatcher.offer(event("req-" + i))).isTrue();
+            }
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (dispatcher.dispatchedCount() < 5 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(dispatcher.dispatchedCount()).isEqualTo(5);
+            assertThat(handler.batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(2));
+            assertThat(handler.batches.stream().flatMap(List::stream).map(LogDomain::getRequestId))
+                    .containsExactly("req-0", "req-1", "req-2", "req-3", "req-4");
+            assertThat(dispatcher.queueSize()).isZero();
+        } finally {
+            dispatcher.destroy();
+        }
+    }
+
+    @Test
+    void shouldDropWhenQueueIsFull() {
+        LoggingProperties.Async properties = new LoggingProperties.Async();
+        properties.setCapacity(3);
+        ApiLogDispatcher dispatcher = new ApiLogDispatcher(new ApiLogService(provider()), properties);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(dispatcher.offer(event("req-" + i))).isTrue();
+        }
+
+        assertThat(dispatcher.capacity()).isEqualTo(4);
+        assertThat(dispatcher.offer(event("overflow"))).isFalse();
+        assertThat(dispatcher.droppedCount()).isEqualTo(1);
+        assertThat(dispatcher.queueSize()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldDrainRemainingLogsOnShutdown() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        LoggingProperties.Async properties = new LoggingProperties.Async();
+        properties.setFlushInterval(Duration.ofMinutes(1));
+        ApiLogDispatcher dispatcher = new ApiLogDispatcher(new ApiLogService(provider(handler)), properties);
+        dispatcher.afterPropertiesSet();
+
+        dispatcher.offer(event("req-0"));
+        dispatcher.destroy();
+
+        assertThat(dispatcher.dispatchedCount()).isEqualTo(1);
+        assertThat(handler.batches.stream().flatMap(List::stream).map(LogDomain::getRequestId))
+                .containsExactly("req-0");
+    }
+
+    @Test
+    void shouldSamplePayloadSizesOnBackgroundThread() throws Exception {
+        ApiLogRecorder recorder = mock(ApiLogRecorder.class);
+        LoggingProperties.Async properties = new LoggingProperties.Async();
+        properties.setFlushInterval(Duration.ofMinutes(1));
+        ApiLogDispatcher dispatcher = new ApiLogDispatcher(new ApiLogService(provider()), properties);
+        dispatcher.setRecorder(recorder);
+        dispatcher.afterPropertiesSet();
+
+        int events = ApiLogDispatcher.PAYLOAD_SAMPLE_INTERVAL * 2;
+        for (int i = 0; i < events; i++) {
+            dispatcher.offer(event("req-" + i));
+        }
+        dispatcher.destroy();
+
+        assertThat(dispatcher.dispatchedCount()).isEqualTo(events);
+        verify(recorder, times(2)).recordPayload(any(), any(), any());
+    }
+
+    private static ApiLogEvent event(String requestId) {
+        return new ApiLogEvent(LogDomain.builder().requestId(requestId).build(),
+                mock(MethodSignature.class), mock(Log.class));
+    }
+
+    private static ObjectProvider<LogHandler> provider(LogHandler... handlers) {
+        return new ObjectProvider<>() {
+            @Override
+            public LogHandler getObject(Object... args) {
+                return handlers[0];
+            }
+
+            @Override
+            public LogHandler getIfAvailable() {
+                return handlers.length == 0 ? null : handlers[0];
+            }
+
+            @Override
+            public LogHandler getIfUnique() {
+                return handlers.length == 1 ? handlers[0] : null;
+            }
+
+            @Override
+            public Stream<LogHandler> stream() {
+                return Stream.of(handlers);
+            }
+
+            @Override
+            public Stream<LogHandler> orderedStream() {
+                return Stream.of(handlers);
+            }
+        };
+    }
+
+    private static final class RecordingHandler implements LogHandler {
+
+        private final List<List<LogDomain>> batches = new CopyOnWriteArrayList<>();
+
+        @Override
+        public boolean accept(MethodSignature methodSignature, Log log) {
+            return true;
+        }
+
+        @Override
+        public Mono<Boolean> handler(LogDomain logDomain) {
+            return handleBatch(List.of(logDomain));
+        }
+
+        @Override
+        public Mono<Boolean> handleBatch(List<LogDomain> logDomains) {
+            batches.add(List.copyOf(logDomains));
+            return Mono.just(true);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package run.vexa.reactor.log.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import run.vexa.reactor.log.aspect.ApiLogAspect;
+import run.vexa.reactor.log.aspect.FluxLogResult;
+import run.vexa.reactor.log.aspect.JoinPointSerialise;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ApiLogMetricsTest {
+
+    @Test
+    void shouldInstallRecorderThatRecordsPerMethodMeters() throws Exception {
+        JoinPointSerialise serialise = new JoinPointSerialise();
+        ApiLogAspect aspect = mock(ApiLogAspect.class);
+        ApiLogDispatcher dispatcher = mock(ApiLogDispatcher.class);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        new ApiLogMetrics(serialise, aspect, dispatcher).bindTo(registry);
+
+        ArgumentCaptor<ApiLogRecorder> captor = ArgumentCaptor.forClass(ApiLogRecorder.class);
+        verify(aspect).setRecorder(captor.capture());
+        verify(dispatcher).setRecorder(captor.getValue());
+        ApiLogRecorder recorder = captor.getValue();
+
+        Method method = SampleService.class.getDeclaredMethod("sample");
+        recorder.recordLatency(method, ApiLogRecorder.SUCCESS, TimeUnit.MILLISECONDS.toNanos(5));
+        recorder.recordPayload(method, Map.of("id", 1), "名称");
+        recorder.recordPayload(method, null, new FluxLogResult("onComplete", 2, 40, List.of(), List.of(), 1));
+        recorder.recordPayloadSize(method, 12, -1);
+
+        Timer timer = registry.get(ApiLogMetrics.LATENCY_TIMER)
+                .tags("class", SampleService.class.getName(), "method", "sample", "outcome", ApiLogRecorder.SUCCESS)
+                .timer();
+        assertThat(timer.count()).isEqualTo(1);
+        DistributionSummary parameterSize = registry.get(ApiLogMetrics.PARAMETER_SUMMARY)
+                .tags("method", "sample").summary();
+        assertThat(parameterSize.count()).isEqualTo(2);
+        assertThat(parameterSize.totalAmount()).isEqualTo("1".length() + 12);
+        DistributionSummary resultSize = registry.get(ApiLogMetrics.RESULT_SUMMARY)
+                .tags("method", "sample").summary();
+        assertThat(resultSize.count()).isEqualTo(2);
+        assertThat(resultSize.totalAmount()).isEqualTo("\"名称\"".getBytes(StandardCharsets.UTF_8).length + 40);
+    }
+
+    private static final class SampleService {
+        @SuppressWarnings("unused")
+        private void sample() {
+            // no-op
+        }
+    }
+}
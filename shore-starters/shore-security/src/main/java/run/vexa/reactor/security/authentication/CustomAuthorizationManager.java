@@ -14,6 +14,8 @@ import run.vexa.reactor.core.properties.AuthProperties;
 import run.vexa.reactor.security.domain.RoleEnum;
 
 import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 
 /**
@@ -24,6 +26,15 @@ import java.util.Arrays;
 @Component
 public class CustomAuthorizationManager implements ReactiveAuthorizationManager<AuthorizationContext> {
 
+    /**
+     * 需要的权限，启动时计算一次.
+     */
+    private static final Set<String> NEED_AUTHORITIES = Arrays.stream(RoleEnum.values())
+            .map(RoleEnum::name)
+            .collect(Collectors.toUnmodifiableSet());
+
+    private static final Mono<AuthorizationResult> GRANTED = Mono.just(new AuthorizationDecision(true));
+
     private final AuthProperties properties;
 
     /**
@@ -43,17 +54,14 @@ public class CustomAuthorizationManager implements ReactiveAuthorizationManager<
         var requestPath = exchange.getRequest().getURI().getPath();
         var httpMethod = exchange.getRequest().getMethod();
         if (authenticated(httpMethod, requestPath)) {
-            return Mono.just(new AuthorizationDecision(true));
+            return GRANTED;
         }
 
-        var needAuthorityList = Arrays.stream(RoleEnum.values())
-                .map(RoleEnum::name)
-                .toList();
         return authentication
                 .filter(Authentication::isAuthenticated)
                 .flatMapIterable(Authentication::getAuthorities)
                 .map(GrantedAuthority::getAuthority)
-                .any(needAuthorityList::contains)
+                .any(NEED_AUTHORITIES::contains)
                 .<AuthorizationResult>map(AuthorizationDecision::new)
                 .defaultIfEmpty(new AuthorizationDecision(false));
     }
@@ -0,0 +1,161 @@
+package run.vexa.reactor.security.authentication;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.web.server.PayloadTooLargeException;
+import org.springframework.web.server.ServerWebInputException;
+import run.vexa.reactor.security.domain.LoginRequest;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.async.ByteArrayFeeder;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.util.TokenBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 登录请求体增量解析器
+ * <p>
+ * 基于 Jackson 非阻塞解析器，请求体分块到达时逐块喂入并立即解析，不拼接整个请求体.
+ * 堆内存块直接使用其底层数组，堆外内存块复制到一个可复用的块缓冲区. 解析器在喂入下一块前
+ * 已消费完当前块，调用方可在 {@link #feed(DataBuffer)} 返回后立即释放该块.
+ * 解析出的 token 暂存于 {@link TokenBuffer}，顶层对象结束后交由 {@link ObjectMapper} 绑定为 {@link LoginRequest}，
+ * 字段映射与类型转换与普通反序列化一致. 每个请求一个实例，非线程安全.
+ *
+ * @author youta
+ **/
+final class LoginBodyParser implements AutoCloseable {
+
+    private static final int SCRATCH_SIZE = 8 * 1024;
+
+    private final ObjectMapper objectMapper;
+
+    private final JsonParser parser;
+
+    private final ByteArrayFeeder feeder;
+
+    private final long maxSize;
+
+    private final TokenBuffer tokens;
+
+    private LoginRequest request;
+
+    private byte[] scratch;
+
+    private long size;
+
+    private int depth;
+
+    private boolean completed;
+
+    /**
+     * Instantiates a new Login body parser.
+     *
+     * @param objectMapper the object mapper
+     * @param maxSize      请求体最大字节数
+     */
+    LoginBodyParser(ObjectMapper objectMapper, long maxSize) {
+        this.objectMapper = objectMapper;
+        this.parser = objectMapper.createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.nonBlockingInputFeeder();
+        this.tokens = TokenBuffer.forBuffering(parser, parser.objectReadContext());
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 喂入一块请求体并解析.
+     *
+     * @param buffer 请求体块，由调用方释放
+     * @return 顶层对象是否已解析完成
+     */
+    boolean feed(DataBuffer buffer) {
+        if (completed) {
+            return true;
+        }
+        size += buffer.readableByteCount();
+        if (size > maxSize) {
+            throw new PayloadTooLargeException(new IllegalStateException("Login body exceeds " + maxSize + " bytes"));
+        }
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext() && !completed) {
+                feed(iterator.next());
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * 请求体结束.
+     *
+     * @return 登录请求
+     */
+    LoginRequest finish() {
+        if (size == 0) {
+            throw new ServerWebInputException("No body in request");
+        }
+        if (!completed) {
+            feeder.endOfInput();
+            parse();
+        }
+        if (!completed) {
+            throw new ServerWebInputException("Incomplete login body");
+        }
+        return request();
+    }
+
+    /**
+     * 已解析的登录请求，仅在 {@link #feed(DataBuffer)} 返回 {@code true} 后可用.
+     *
+     * @return 登录请求
+     */
+    LoginRequest request() {
+        if (!completed) {
+            throw new IllegalStateException("Login body not completed");
+        }
+        if (request == null) {
+            request = objectMapper.readValue(tokens.asParser(), LoginRequest.class);
+        }
+        return request;
+    }
+
+    @Override
+    public void close() {
+        tokens.close();
+        parser.close();
+    }
+
+    private void feed(ByteBuffer chunk) {
+        if (chunk.hasArray()) {
+            int start = chunk.arrayOffset() + chunk.position();
+            feeder.feedInput(chunk.array(), start, start + chunk.remaining());
+            parse();
+            return;
+        }
+        while (chunk.hasRemaining() && !completed) {
+            if (scratch == null) {
+                scratch = new byte[SCRATCH_SIZE];
+            }
+            int length = Math.min(scratch.length, chunk.remaining());
+            chunk.get(scratch, 0, length);
+            feeder.feedInput(scratch, 0, length);
+            parse();
+        }
+    }
+
+    /**
+     * 将当前已喂入的全部 token 写入缓冲.
+     */
+    private void parse() {
+        JsonToken token;
+        while (!completed && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (token.isStructStart()) {
+                if (depth == 0 && token != JsonToken.START_OBJECT) {
+                    throw new ServerWebInputException("Login body must be a JSON object");
+                }
+                depth++;
+            } else if (token.isStructEnd()) {
+                completed = --depth == 0;
+            }
+            tokens.copyCurrentEvent(parser);
+        }
+    }
+}
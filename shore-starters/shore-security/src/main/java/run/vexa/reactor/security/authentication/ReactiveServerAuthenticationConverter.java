@@ -3,15 +3,15 @@ package run.vexa.reactor.security.authentication;
 import tools.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NullMarked;
-import org.jspecify.annotations.Nullable;
-import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.web.server.authentication.ServerAuthenticationConverter;
 import org.springframework.stereotype.Component;
+import org.springframework.web.server.PayloadTooLargeException;
 import org.springframework.web.server.ServerWebExchange;
-import org.springframework.web.server.ServerWebInputException;
 import reactor.core.publisher.Mono;
 import run.vexa.reactor.commons.exception.ServerException;
+import run.vexa.reactor.core.properties.AuthProperties;
 import run.vexa.reactor.security.domain.LoginRequest;
 import run.vexa.reactor.security.grant.AuthenticationGrantManager;
 import tools.jackson.core.JacksonException;
@@ -21,6 +21,8 @@ import static run.vexa.reactor.commons.enums.CommonExceptionEnum.LOGIN_BODY_PARS
 
 /**
  * PostLoginAuthConverter is a class that represents the converter of post login authentication.
+ * <p>
+ * 请求体按块增量解析，每块解析后立即释放，超过 {@code shore.security.login-body-max-size} 时拒绝.
  *
  * @author youta
  **/
@@ -30,6 +32,7 @@ public class ReactiveServerAuthenticationConverter implements ServerAuthenticati
 
     private final ObjectMapper objectMapper;
     private final AuthenticationGrantManager authenticationGrantManager;
+    private final AuthProperties properties;
 
     /**
      * Default constructor.
@@ -37,41 +40,52 @@ public class ReactiveServerAuthenticationConverter implements ServerAuthenticati
      *
      * @param objectMapper               the object mapper
      * @param authenticationGrantManager the authentication grant manager
+     * @param properties                 the auth properties
      */
-    public ReactiveServerAuthenticationConverter(ObjectMapper objectMapper, AuthenticationGrantManager authenticationGrantManager) {
+    public ReactiveServerAuthenticationConverter(ObjectMapper objectMapper, AuthenticationGrantManager authenticationGrantManager,
+                                                 AuthProperties properties) {
         this.objectMapper = objectMapper;
         this.authenticationGrantManager = authenticationGrantManager;
+        this.properties = properties;
     }
 
     @Override
     @NullMarked
     public Mono<Authentication> convert(ServerWebExchange exchange) {
-        // 读取请求体
-        return exchange
-                .getRequest()
-                .getBody()
-                .next()
-                .switchIfEmpty(Mono.error(new ServerWebInputException("No body in request")))
+        long maxSize = properties.getLoginBodyMaxSize().toBytes();
+        if (exchange.getRequest().getHeaders().getContentLength() > maxSize) {
+            return Mono.error(new PayloadTooLargeException(new IllegalStateException("Login body exceeds " + maxSize + " bytes")));
+        }
+        return Mono.using(() -> new LoginBodyParser(objectMapper, maxSize),
+                        parser -> exchange.getRequest()
+                                .getBody()
+                                .<LoginRequest>handle((buffer, sink) -> {
+                                    try {
+                                        if (parser.feed(buffer)) {
+                                            sink.next(parser.request());
+                                        }
+                                    } finally {
+                                        DataBufferUtils.release(buffer);
+                                    }
+                                })
+                                .next()
+                                .switchIfEmpty(Mono.fromSupplier(parser::finish)),
+                        LoginBodyParser::close)
+                .onErrorMap(JacksonException.class, e -> {
+                    log.error("LoginRequest parse error", e);
+                    return new ServerException(LOGIN_BODY_PARSE_ERROR);
+                })
                 .flatMap(this::getTokenAuthentication);
     }
 
     /**
      * 获取token认证
      *
-     * @param body {@link DataBuffer}
+     * @param loginRequest {@link LoginRequest}
      * @return {@link Authentication}
      */
     @NullMarked
-    private Mono<Authentication> getTokenAuthentication(@Nullable DataBuffer body) {
-        if (body == null) {
-            return Mono.error(new ServerException(LOGIN_BODY_PARSE_ERROR));
-        }
-        try {
-            var loginRequest = objectMapper.readValue(body.asInputStream(), LoginRequest.class);
-            return this.authenticationGrantManager.grant(loginRequest.getType(), client -> client.authentication(loginRequest));
-        } catch (JacksonException e) {
-            log.error("LoginRequest parse error", e);
-            return Mono.error(new ServerException(LOGIN_BODY_PARSE_ERROR));
-        }
+    private Mono<Authentication> getTokenAuthentication(LoginRequest loginRequest) {
+        return this.authenticationGrantManager.grant(loginRequest.getType(), client -> client.authentication(loginRequest));
     }
 }
@@ -1,6 +1,8 @@
 package run.vexa.reactor.security.authentication;
 
 import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextImpl;
@@ -13,12 +15,13 @@ import run.vexa.reactor.commons.enums.CommonExceptionEnum;
 import run.vexa.reactor.commons.exception.ServerException;
 import run.vexa.reactor.core.properties.AuthProperties;
 import run.vexa.reactor.security.cache.AuthenticationCache;
+import run.vexa.reactor.security.cache.SessionNearCache;
+import run.vexa.reactor.security.cache.TokenDenylist;
 import run.vexa.reactor.security.constants.TokenConstants;
+import run.vexa.reactor.security.crypto.SignedTokenCodec;
 import run.vexa.reactor.security.domain.CurrentUser;
 import run.vexa.reactor.security.domain.TokenAuthentication;
 
-import java.time.Duration;
-
 
 /**
  * TokenServerSecurityContextRepository is a class that represents the token server security context repository.
@@ -32,6 +35,9 @@ public class TokenServerSecurityContextRepository implements ServerSecurityConte
     private final AuthenticationCache<CurrentUser> authenticationCache;
     private final AuthenticationManager authenticationManager;
     private final AuthProperties properties;
+    private final @Nullable SessionNearCache nearCache;
+    private final @Nullable SignedTokenCodec tokenCodec;
+    private final @Nullable TokenDenylist denylist;
 
     /**
      * Default constructor.
@@ -40,13 +46,22 @@ public class TokenServerSecurityContextRepository implements ServerSecurityConte
      * @param authenticationCache   the authentication cache
      * @param authenticationManager the authentication manager
      * @param properties            the properties
+     * @param nearCacheProvider     the session near cache provider
+     * @param tokenCodecProvider    the signed token codec provider
+     * @param denylistProvider      the token denylist provider
      */
     public TokenServerSecurityContextRepository(AuthenticationCache<CurrentUser> authenticationCache,
                                                 AuthenticationManager authenticationManager,
-                                                AuthProperties properties) {
+                                                AuthProperties properties,
+                                                ObjectProvider<SessionNearCache> nearCacheProvider,
+                                                ObjectProvider<SignedTokenCodec> tokenCodecProvider,
+                                                ObjectProvider<TokenDenylist> denylistProvider) {
         this.authenticationCache = authenticationCache;
         this.authenticationManager = authenticationManager;
         this.properties = properties;
+        this.nearCache = nearCacheProvider.getIfAvailable();
+        this.tokenCodec = tokenCodecProvider.getIfAvailable();
+        this.denylist = denylistProvider.getIfAvailable();
     }
 
     @Override
@@ -59,24 +74,50 @@ public class TokenServerSecurityContextRepository implements ServerSecurityConte
         return Mono.justOrEmpty(exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION))
                 .filter(authHeader -> authHeader.startsWith(Constants.TOKEN_TYPE))
                 .map(authHeader -> authHeader.substring(Constants.TOKEN_TYPE.length()))
-                .flatMap(token -> this.authenticationCache.token(TokenConstants.token(token))
-                        .switchIfEmpty(Mono.error(new ServerException(CommonExceptionEnum.UNAUTHORIZED)))
-                        .flatMap(user -> {
-                            var tokenKey = TokenConstants.token(token);
-                            var sessionKey = TokenConstants.session(token);
-                            return this.authenticationCache.getExpire(sessionKey)
-                                    .switchIfEmpty(Mono.error(new ServerException(CommonExceptionEnum.UNAUTHORIZED)))
-                                    .map(Duration::getSeconds)
-                                    .filter(expire -> expire >= 0)
-                                    .switchIfEmpty(Mono.error(new ServerException(CommonExceptionEnum.UNAUTHORIZED)))
-                                    .doOnNext(expire -> this.authenticationCache.renew(tokenKey, expire, properties.getRenewTimeSeconds()))
-                                    .flatMap(expire -> this.authenticationCache.user(TokenConstants.session(token))
-                                            .doOnNext(u -> log.trace("Found user: {}", user))
-                                            .switchIfEmpty(Mono.error(new ServerException(CommonExceptionEnum.UNAUTHORIZED)))
-                                            .map(u -> new TokenAuthentication(u, null,
-                                                    u.getAuthorities()))
-                                            .flatMap(authenticationManager::authenticate)
-                                            .map(SecurityContextImpl::new));
+                .flatMap(token -> {
+                    if (tokenCodec != null && SignedTokenCodec.isSignedToken(token)) {
+                        return this.verify(tokenCodec, token);
+                    }
+                    SecurityContext cached = nearCache == null ? null : nearCache.get(token);
+                    return cached != null ? Mono.just(cached) : this.resolve(token);
+                });
+    }
+
+    /**
+     * 本地校验签名 token，只查询撤销名单，不访问认证缓存.
+     *
+     * @param codec the signed token codec
+     * @param token token
+     * @return 安全上下文
+     */
+    private Mono<SecurityContext> verify(SignedTokenCodec codec, String token) {
+        SignedTokenCodec.VerifiedToken verified = codec.verify(token);
+        if (verified == null || denylist != null && denylist.isRevoked(verified.id())) {
+            return Mono.error(new ServerException(CommonExceptionEnum.UNAUTHORIZED));
+        }
+        CurrentUser user = verified.user();
+        return authenticationManager.authenticate(new TokenAuthentication(user, null, user.getAuthorities()))
+                .map(SecurityContextImpl::new);
+    }
+
+    /**
+     * 从认证缓存解析会话，成功后放入近端缓存.
+     *
+     * @param token token
+     * @return 安全上下文
+     */
+    private Mono<SecurityContext> resolve(String token) {
+        return this.authenticationCache.session(TokenConstants.token(token), TokenConstants.session(token),
+                        properties.getRenewTimeSeconds())
+                .switchIfEmpty(Mono.error(new ServerException(CommonExceptionEnum.UNAUTHORIZED)))
+                .doOnNext(session -> log.trace("Found user: {}", session.username()))
+                .flatMap(session -> authenticationManager.authenticate(new TokenAuthentication(session.user(), null,
+                                session.user().getAuthorities()))
+                        .<SecurityContext>map(SecurityContextImpl::new)
+                        .doOnNext(context -> {
+                            if (nearCache != null) {
+                                nearCache.put(token, context, session.tokenExpire());
+                            }
                         }));
     }
 
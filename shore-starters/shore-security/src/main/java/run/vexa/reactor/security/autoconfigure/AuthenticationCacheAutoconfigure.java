@@ -1,5 +1,7 @@
 package run.vexa.reactor.security.autoconfigure;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -11,7 +13,11 @@ import run.vexa.reactor.core.properties.AuthProperties;
 import run.vexa.reactor.redis.util.ReactiveRedisUtil;
 import run.vexa.reactor.security.cache.AuthenticationCache;
 import run.vexa.reactor.security.cache.CaffeineAuthenticationCache;
+import run.vexa.reactor.security.cache.CaffeineAuthenticationCacheMetrics;
 import run.vexa.reactor.security.cache.RedisAuthenticationCache;
+import run.vexa.reactor.security.cache.RedisSessionNearCache;
+import run.vexa.reactor.security.cache.SessionNearCache;
+import run.vexa.reactor.security.cache.SessionRenewalCoalescer;
 import run.vexa.reactor.security.domain.CurrentUser;
 
 /**
@@ -47,14 +53,50 @@ public class AuthenticationCacheAutoconfigure {
          *
          * @param reactiveRedisUtil           utility for reactive Redis operations
          * @param reactiveStringRedisTemplate template for reactive Redis string operations
+         * @param renewalCoalescer            the session renewal coalescer
          * @return an instance of AuthenticationCache using Redis
          */
         @Bean
         @ConditionalOnClass(ReactiveRedisUtil.class)
         public AuthenticationCache<CurrentUser> redisAuthenticationCache(
                 ReactiveRedisUtil reactiveRedisUtil,
-                ReactiveStringRedisTemplate reactiveStringRedisTemplate) {
-            return new RedisAuthenticationCache<>(reactiveRedisUtil, reactiveStringRedisTemplate);
+                ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+                ObjectProvider<SessionRenewalCoalescer> renewalCoalescer) {
+            return new RedisAuthenticationCache<>(reactiveRedisUtil, reactiveStringRedisTemplate,
+                    renewalCoalescer.getIfAvailable());
+        }
+
+        /**
+         * Creates a coalescer that renews touched tokens as one batch of PEXPIREAT commands.
+         *
+         * @param properties                  the auth properties
+         * @param reactiveStringRedisTemplate template for reactive Redis string operations
+         * @return the session renewal coalescer
+         */
+        @Bean
+        @ConditionalOnProperty(name = "shore.security.renewal.coalesce", havingValue = "true", matchIfMissing = true)
+        public SessionRenewalCoalescer sessionRenewalCoalescer(AuthProperties properties,
+                                                               ReactiveStringRedisTemplate reactiveStringRedisTemplate) {
+            AuthProperties.Renewal renewal = properties.getRenewal();
+            return new SessionRenewalCoalescer(renewal.getFlushInterval(), renewal.getMinInterval(),
+                    renewal.getMaximumSize(),
+                    deadlines -> RedisAuthenticationCache.expireAt(reactiveStringRedisTemplate, deadlines));
+        }
+
+        /**
+         * Creates a session near cache invalidated across nodes through Redis pub/sub.
+         * Opt-in with {@code shore.security.near-cache.enabled=true}.
+         *
+         * @param properties                  the auth properties
+         * @param reactiveStringRedisTemplate template for reactive Redis string operations
+         * @return the session near cache
+         */
+        @Bean
+        @ConditionalOnProperty(name = "shore.security.near-cache.enabled", havingValue = "true")
+        public SessionNearCache redisSessionNearCache(AuthProperties properties,
+                                                      ReactiveStringRedisTemplate reactiveStringRedisTemplate) {
+            AuthProperties.NearCache nearCache = properties.getNearCache();
+            return new RedisSessionNearCache(nearCache.getMaximumSize(), nearCache.getTtl(), reactiveStringRedisTemplate);
         }
     }
 
@@ -66,12 +108,48 @@ public class AuthenticationCacheAutoconfigure {
     static class CaffeineCacheConfig {
 
         /**
-         * Default constructor.
-         * This constructor is used for serialization and other reflective operations.
+         * Creates a Caffeine-based implementation of AuthenticationCache.
+         *
+         * @param properties the auth properties
+         * @return an instance of AuthenticationCache using Caffeine
          */
         @Bean
-        public AuthenticationCache<CurrentUser> caffeineAuthenticationCache() {
-            return new CaffeineAuthenticationCache();
+        public CaffeineAuthenticationCache caffeineAuthenticationCache(AuthProperties properties) {
+            return new CaffeineAuthenticationCache(properties.getLocalCache());
+        }
+
+        /**
+         * Creates a session near cache invalidated on this node only.
+         * Opt-in with {@code shore.security.near-cache.enabled=true}.
+         *
+         * @param properties the auth properties
+         * @return the session near cache
+         */
+        @Bean
+        @ConditionalOnProperty(name = "shore.security.near-cache.enabled", havingValue = "true")
+        public SessionNearCache caffeineSessionNearCache(AuthProperties properties) {
+            AuthProperties.NearCache nearCache = properties.getNearCache();
+            return new SessionNearCache(nearCache.getMaximumSize(), nearCache.getTtl());
+        }
+
+        /**
+         * 本地认证缓存指标
+         */
+        @Configuration
+        @ConditionalOnClass(MeterBinder.class)
+        static class CaffeineCacheMetricsConfig {
+
+            /**
+             * Exports the Caffeine authentication cache statistics to Micrometer.
+             *
+             * @param caffeineAuthenticationCache the caffeine authentication cache
+             * @return the cache metrics binder
+             */
+            @Bean
+            public CaffeineAuthenticationCacheMetrics caffeineAuthenticationCacheMetrics(
+                    CaffeineAuthenticationCache caffeineAuthenticationCache) {
+                return new CaffeineAuthenticationCacheMetrics(caffeineAuthenticationCache);
+            }
         }
     }
 
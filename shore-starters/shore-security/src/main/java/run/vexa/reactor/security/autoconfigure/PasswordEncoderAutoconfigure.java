@@ -1,6 +1,11 @@
 package run.vexa.reactor.security.autoconfigure;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
+import run.vexa.reactor.core.properties.AuthProperties;
+import run.vexa.reactor.security.crypto.PasswordHashExecutor;
+import run.vexa.reactor.security.crypto.PasswordHashMetrics;
 import run.vexa.reactor.security.filter.CacheBodyGlobalFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.factory.PasswordEncoderFactories;
@@ -30,14 +35,46 @@ public class PasswordEncoderAutoconfigure {
         return PasswordEncoderFactories.createDelegatingPasswordEncoder();
     }
 
+    /**
+     * 密码校验线程池
+     *
+     * @param properties the auth properties
+     * @return PasswordHashExecutor
+     */
+    @Bean
+    public PasswordHashExecutor passwordHashExecutor(AuthProperties properties) {
+        AuthProperties.PasswordHash passwordHash = properties.getPasswordHash();
+        return new PasswordHashExecutor(passwordHash.getPoolSize(), passwordHash.getQueueCapacity());
+    }
+
     /**
      * 缓存body过滤器
      *
+     * @param properties the auth properties
      * @return CacheBodyGlobalFilter
      */
     @Bean
-    public CacheBodyGlobalFilter cacheBodyGlobalFilter() {
-        return new CacheBodyGlobalFilter();
+    public CacheBodyGlobalFilter cacheBodyGlobalFilter(AuthProperties properties) {
+        return new CacheBodyGlobalFilter(properties);
+    }
+
+    /**
+     * 密码校验指标
+     */
+    @Configuration
+    @ConditionalOnClass(MeterBinder.class)
+    static class PasswordHashMetricsConfig {
+
+        /**
+         * 密码校验指标
+         *
+         * @param passwordHashExecutor the password hash executor
+         * @return PasswordHashMetrics
+         */
+        @Bean
+        public PasswordHashMetrics passwordHashMetrics(PasswordHashExecutor passwordHashExecutor) {
+            return new PasswordHashMetrics(passwordHashExecutor);
+        }
     }
 
 }
@@ -12,7 +12,8 @@ import run.vexa.reactor.security.domain.*;
  **/
 @Configuration
 @RegisterReflectionForBinding({LoginRequest.class, CurrentUser.class, TokenAuthentication.class, TokenInfo.class, RoleInfo.class})
-@Import({WebSecurityAutoconfigure.class, AuthenticationCacheAutoconfigure.class, PasswordEncoderAutoconfigure.class})
+@Import({WebSecurityAutoconfigure.class, AuthenticationCacheAutoconfigure.class, PasswordEncoderAutoconfigure.class,
+        SignedTokenAutoconfigure.class})
 public class SecurityConfiguration {
 
     /**
@@ -0,0 +1,86 @@
+package run.vexa.reactor.security.autoconfigure;
+
+import io.jsonwebtoken.Jwts;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import run.vexa.reactor.core.properties.AuthProperties;
+import run.vexa.reactor.redis.util.ReactiveRedisUtil;
+import run.vexa.reactor.security.cache.RedisTokenDenylist;
+import run.vexa.reactor.security.cache.TokenDenylist;
+import run.vexa.reactor.security.crypto.SignedTokenCodec;
+
+/**
+ * SignedTokenAutoconfigure is a class that configures stateless signed tokens.
+ *
+ * @author youta
+ * @see SignedTokenCodec
+ */
+@Configuration
+@ConditionalOnClass(Jwts.class)
+@ConditionalOnProperty(name = "shore.security.stateless.enabled", havingValue = "true")
+public class SignedTokenAutoconfigure {
+
+    /**
+     * Default constructor.
+     * This constructor is used for serialization and other reflective operations.
+     */
+    protected SignedTokenAutoconfigure() {
+        // This constructor is intentionally empty.
+    }
+
+    /**
+     * 签名 token 编解码
+     *
+     * @param properties the auth properties
+     * @return SignedTokenCodec
+     */
+    @Bean
+    public SignedTokenCodec signedTokenCodec(AuthProperties properties) {
+        AuthProperties.Stateless stateless = properties.getStateless();
+        return new SignedTokenCodec(stateless.getSecret(), stateless.getIssuer(), stateless.getClockSkew());
+    }
+
+    /**
+     * RedisTokenDenylist
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "shore.security.cache", havingValue = "redis")
+    @ConditionalOnClass(ReactiveRedisUtil.class)
+    @Profile("!test")
+    static class RedisDenylistConfig {
+
+        /**
+         * Creates a denylist synchronized across nodes through Redis.
+         *
+         * @param reactiveStringRedisTemplate template for reactive Redis string operations
+         * @return the token denylist
+         */
+        @Bean
+        public TokenDenylist redisTokenDenylist(ReactiveStringRedisTemplate reactiveStringRedisTemplate) {
+            return new RedisTokenDenylist(reactiveStringRedisTemplate);
+        }
+    }
+
+    /**
+     * CaffeineTokenDenylist
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "shore.security.cache", havingValue = "caffeine", matchIfMissing = true)
+    static class CaffeineDenylistConfig {
+
+        /**
+         * Creates a denylist effective on this node only.
+         *
+         * @return the token denylist
+         */
+        @Bean
+        public TokenDenylist caffeineTokenDenylist() {
+            return new TokenDenylist();
+        }
+    }
+
+}
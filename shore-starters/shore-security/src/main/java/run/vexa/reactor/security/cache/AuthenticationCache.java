@@ -3,10 +3,13 @@ package run.vexa.reactor.security.cache;
 
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
+import run.vexa.reactor.security.constants.TokenConstants;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -107,6 +110,57 @@ public interface AuthenticationCache<T> {
      */
     Mono<Boolean> renew(@Nullable String tokenKey, long expire);
 
+    /**
+     * resolve the session of a token: token owner, remaining session and token time and user, renewing the token.
+     *
+     * @param tokenKey   the token key
+     * @param sessionKey the session key
+     * @param renewTime  the renewal time in seconds
+     * @return the session, empty when the token or session is missing or expired
+     */
+    default Mono<CachedSession<T>> session(String tokenKey, String sessionKey, long renewTime) {
+        return this.token(tokenKey)
+                .flatMap(username -> Mono.zip(this.getExpire(sessionKey), this.getExpire(tokenKey))
+                        .filter(expires -> !expires.getT1().isNegative())
+                        .doOnNext(expires -> this.renew(tokenKey, expires.getT1().getSeconds(), renewTime))
+                        .flatMap(expires -> this.user(sessionKey)
+                                .map(user -> new CachedSession<>(username, expires.getT1(), expires.getT2(), user))));
+    }
+
+    /**
+     * record a login: add the token to the user's tokens, evict the oldest tokens beyond
+     * {@link LoginSession#maxSessions()} together with their sessions, and store the token, refresh token and session.
+     * This default is not atomic; implementations should override it.
+     *
+     * @param session the login session
+     * @return the evicted tokens, empty when the session could not be stored
+     */
+    default Mono<List<String>> login(LoginSession<T> session) {
+        String listKey = TokenConstants.tokenList(session.username());
+        return this.getTokenList(listKey)
+                .defaultIfEmpty(List.of())
+                .flatMap(current -> {
+                    List<String> tokens = new ArrayList<>(current);
+                    tokens.add(session.token());
+                    int overflow = Math.max(0, tokens.size() - session.maxSessions());
+                    List<String> evicted = List.copyOf(tokens.subList(0, overflow));
+                    List<String> kept = new ArrayList<>(tokens.subList(overflow, tokens.size()));
+                    Mono<Boolean> user = session.user() == null ? Mono.just(true)
+                            : this.token(TokenConstants.token(session.token()), session.username(), session.expire())
+                            .filter(Boolean.TRUE::equals)
+                            .flatMap(x -> this.user(TokenConstants.session(session.token()), session.user(), session.refreshExpire()));
+                    return Flux.fromIterable(evicted)
+                            .concatMap(token -> this.delete(TokenConstants.token(token))
+                                    .then(this.delete(TokenConstants.session(token))))
+                            .then(this.tokenList(listKey, kept, session.refreshExpire()))
+                            .then(this.refreshToken(TokenConstants.refresh(session.refreshToken()), session.username(), session.refreshExpire()))
+                            .filter(Boolean.TRUE::equals)
+                            .flatMap(x -> user)
+                            .filter(Boolean.TRUE::equals)
+                            .map(x -> evicted);
+                });
+    }
+
     /**
      * Renew the token
      *
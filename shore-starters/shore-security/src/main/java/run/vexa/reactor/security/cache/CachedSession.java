@@ -0,0 +1,16 @@
+package run.vexa.reactor.security.cache;
+
+import java.time.Duration;
+
+/**
+ * 一次查询得到的会话信息
+ *
+ * @param username    令牌所属用户名
+ * @param expire      会话剩余时间
+ * @param tokenExpire 令牌剩余时间(本次续期前)
+ * @param user        会话中的用户信息
+ * @param <T>         用户信息类型
+ * @author youta
+ */
+public record CachedSession<T>(String username, Duration expire, Duration tokenExpire, T user) {
+}
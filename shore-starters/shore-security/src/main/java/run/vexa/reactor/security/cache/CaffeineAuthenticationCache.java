@@ -2,56 +2,95 @@ package run.vexa.reactor.security.cache;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 import org.springframework.util.CollectionUtils;
 import reactor.core.publisher.Mono;
+import run.vexa.reactor.core.properties.AuthProperties;
+import run.vexa.reactor.security.constants.TokenConstants;
 import run.vexa.reactor.security.domain.CurrentUser;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * authentication cache
+ * <p>
+ * 每个条目按写入时传入的有效期过期；三个缓存按权重限制大小(token 为 1，token 列表为 token 数，
+ * 会话为 1 + 角色数)，上限通过 {@code shore.security.local-cache.*} 配置.
  *
  * @author rained
  */
 @NullMarked
 public class CaffeineAuthenticationCache implements AuthenticationCache<CurrentUser> {
 
-    private final Cache<String, String> tokenCache;
-    private final Cache<String, List<String>> tokenListCache;
-    private final Cache<String, CurrentUser> userCache;
+    /**
+     * 不存在的 key 的剩余时间，与 Redis TTL 的约定一致.
+     */
+    private static final Duration MISSING = Duration.ofSeconds(-2);
+
+    private final Cache<String, Entry<String>> tokenCache;
+    private final Cache<String, Entry<List<String>>> tokenListCache;
+    private final Cache<String, Entry<CurrentUser>> userCache;
 
     /**
-     * Creates a Caffeine-based implementation of AuthenticationCache.
+     * Creates a Caffeine-based implementation of AuthenticationCache with default bounds.
      */
     public CaffeineAuthenticationCache() {
-        this.userCache = Caffeine.newBuilder()
-                .expireAfterWrite(1, TimeUnit.HOURS)
-                .initialCapacity(100)
-                .maximumSize(1000)
+        this(new AuthProperties.LocalCache());
+    }
+
+    /**
+     * Creates a Caffeine-based implementation of AuthenticationCache.
+     *
+     * @param properties the local cache properties
+     */
+    public CaffeineAuthenticationCache(AuthProperties.LocalCache properties) {
+        this.tokenCache = this.<String>builder(properties)
+                .maximumWeight(properties.getTokenMaximumWeight())
+                .weigher((String key, Entry<String> entry) -> 1)
                 .build();
-        this.tokenCache = Caffeine.newBuilder()
-                .expireAfterWrite(1, TimeUnit.HOURS)
-                .initialCapacity(100)
-                .maximumSize(1000)
+        this.tokenListCache = this.<List<String>>builder(properties)
+                .maximumWeight(properties.getTokenListMaximumWeight())
+                .weigher((String key, Entry<List<String>> entry) -> Math.max(1, entry.value().size()))
                 .build();
-        this.tokenListCache = Caffeine.newBuilder()
-                .expireAfterWrite(1, TimeUnit.HOURS)
-                .initialCapacity(100)
-                .maximumSize(1000)
+        this.userCache = this.<CurrentUser>builder(properties)
+                .maximumWeight(properties.getSessionMaximumWeight())
+                .weigher((String key, Entry<CurrentUser> entry) -> 1 + sizeOf(entry.value().getRoleInfos()))
                 .build();
     }
 
+    private <V> Caffeine<String, Entry<V>> builder(AuthProperties.LocalCache properties) {
+        Caffeine<String, Entry<V>> builder = Caffeine.newBuilder()
+                .initialCapacity(100)
+                .expireAfter(new EntryExpiry<V>());
+        return properties.isRecordStats() ? builder.recordStats() : builder;
+    }
+
+    private static int sizeOf(@Nullable List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+
+    /**
+     * 按名称返回内部缓存，用于导出指标.
+     *
+     * @return 缓存名称到缓存的映射
+     */
+    public Map<String, Cache<String, ?>> caches() {
+        return Map.of("token", tokenCache, "token-list", tokenListCache, "session", userCache);
+    }
+
     @Override
     public Mono<Boolean> token(@Nullable String key, @Nullable String username, long expire) {
         if (key == null || username == null) {
             return Mono.just(false);
         }
-        return Mono.fromRunnable(() -> tokenCache.put(key, username))
+        return Mono.fromRunnable(() -> tokenCache.put(key, Entry.of(username, expire)))
                 .thenReturn(true);
     }
 
@@ -60,8 +99,8 @@ public class CaffeineAuthenticationCache implements AuthenticationCache<CurrentU
         if (key == null) {
             return Mono.just(Collections.emptyList());
         }
-        List<String> tokens = tokenListCache.getIfPresent(key);
-        return tokens != null ? Mono.just(tokens) : Mono.just(Collections.emptyList());
+        Entry<List<String>> tokens = tokenListCache.getIfPresent(key);
+        return tokens != null ? Mono.just(new ArrayList<>(tokens.value())) : Mono.just(Collections.emptyList());
     }
 
     @Override
@@ -71,15 +110,24 @@ public class CaffeineAuthenticationCache implements AuthenticationCache<CurrentU
         }
         return Mono.fromRunnable(() -> {
                     if (!CollectionUtils.isEmpty(tokens)) {
-                        tokenListCache.put(key, tokens);
+                        tokenListCache.put(key, Entry.of(List.copyOf(tokens), expire));
                     }
                 })
                 .thenReturn(true);
     }
 
+    /**
+     * 返回条目的剩余时间，依次查找会话、token 与 token 列表，不存在时为 -2 秒.
+     */
     @Override
     public Mono<Duration> getExpire(@Nullable String key) {
-        return Mono.just(Duration.ofSeconds(3600));
+        if (key == null) {
+            return Mono.just(MISSING);
+        }
+        return Mono.just(remaining(userCache, key)
+                .or(() -> remaining(tokenCache, key))
+                .or(() -> remaining(tokenListCache, key))
+                .orElse(MISSING));
     }
 
     @Override
@@ -87,7 +135,7 @@ public class CaffeineAuthenticationCache implements AuthenticationCache<CurrentU
         if (key == null) {
             return Mono.just(false);
         }
-        return Mono.fromRunnable(() -> userCache.put(key, currentUser))
+        return Mono.fromRunnable(() -> userCache.put(key, Entry.of(currentUser, expire)))
                 .thenReturn(true);
     }
 
@@ -96,7 +144,7 @@ public class CaffeineAuthenticationCache implements AuthenticationCache<CurrentU
         if (key == null) {
             return Mono.empty();
         }
-        return Mono.justOrEmpty(tokenCache.getIfPresent(key));
+        return Mono.justOrEmpty(valueOf(tokenCache.getIfPresent(key)));
     }
 
     @Override
@@ -104,7 +152,7 @@ public class CaffeineAuthenticationCache implements AuthenticationCache<CurrentU
         if (key == null) {
             return Mono.empty();
         }
-        return Mono.justOrEmpty(userCache.getIfPresent(key));
+        return Mono.justOrEmpty(valueOf(userCache.getIfPresent(key)));
     }
 
     @Override
@@ -124,8 +172,114 @@ public class CaffeineAuthenticationCache implements AuthenticationCache<CurrentU
         }).thenReturn(1L);
     }
 
+    /**
+     * 用户 token 列表按签发顺序保存，增加与淘汰在同一个 {@code compute} 中原子完成.
+     */
+    @Override
+    public Mono<List<String>> login(LoginSession<CurrentUser> session) {
+        return Mono.fromCallable(() -> {
+            List<String> evicted = new ArrayList<>();
+            tokenListCache.asMap().compute(TokenConstants.tokenSet(session.username()), (key, current) -> {
+                List<String> tokens = current == null ? new ArrayList<>() : new ArrayList<>(current.value());
+                tokens.add(session.token());
+                int overflow = tokens.size() - session.maxSessions();
+                if (overflow > 0) {
+                    List<String> oldest = tokens.subList(0, overflow);
+                    evicted.addAll(oldest);
+                    oldest.clear();
+                }
+                return Entry.of(List.copyOf(tokens), session.refreshExpire());
+            });
+            for (String token : evicted) {
+                tokenCache.invalidate(TokenConstants.token(token));
+                userCache.invalidate(TokenConstants.session(token));
+            }
+            tokenCache.put(TokenConstants.refresh(session.refreshToken()), Entry.of(session.username(), session.refreshExpire()));
+            CurrentUser user = session.user();
+            if (user != null) {
+                tokenCache.put(TokenConstants.token(session.token()), Entry.of(session.username(), session.expire()));
+                userCache.put(TokenConstants.session(session.token()), Entry.of(user, session.refreshExpire()));
+            }
+            return evicted;
+        });
+    }
+
+    /**
+     * 在剩余时间上延长 token 的有效期.
+     */
     @Override
     public Mono<Boolean> renew(@Nullable String tokenKey, long expire) {
-        return Mono.just(true);
+        if (tokenKey == null) {
+            return Mono.just(false);
+        }
+        return Mono.fromCallable(() -> extend(tokenKey, expire));
+    }
+
+    /**
+     * 本地续期只是修改条目的过期时刻，直接在调用线程完成.
+     * 与 Redis 实现一致：在 token 剩余时间上延长续期时间，续期时间不超过会话剩余时间.
+     */
+    @Override
+    public void renew(String tokenKey, long expire, long renewTime) {
+        long renewExpire = expire - renewTime > 0 ? renewTime : expire;
+        if (renewExpire > 0) {
+            extend(tokenKey, renewExpire);
+        }
+    }
+
+    private boolean extend(String tokenKey, long seconds) {
+        return tokenCache.policy().expireVariably()
+                .flatMap(policy -> policy.getExpiresAfter(tokenKey)
+                        .map(remaining -> {
+                            policy.setExpiresAfter(tokenKey, remaining.plusSeconds(seconds));
+                            return true;
+                        }))
+                .orElse(false);
+    }
+
+    private static <V> Optional<Duration> remaining(Cache<String, V> cache, String key) {
+        return cache.policy().expireVariably()
+                .flatMap(policy -> policy.getExpiresAfter(key));
+    }
+
+    private static <V> @Nullable V valueOf(@Nullable Entry<V> entry) {
+        return entry == null ? null : entry.value();
+    }
+
+    /**
+     * 缓存条目
+     *
+     * @param value       值
+     * @param expireNanos 存活时间
+     * @param <V>         值类型
+     */
+    private record Entry<V>(V value, long expireNanos) {
+
+        private static <V> Entry<V> of(V value, long expireSeconds) {
+            return new Entry<>(value, Duration.ofSeconds(Math.max(0, expireSeconds)).toNanos());
+        }
+    }
+
+    /**
+     * 按写入时的有效期过期，读取不延长.
+     *
+     * @param <V> 值类型
+     */
+    private static final class EntryExpiry<V> implements Expiry<String, Entry<V>> {
+
+        @Override
+        public long expireAfterCreate(String key, Entry<V> value, long currentTime) {
+            return value.expireNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry<V> value, long currentTime, long currentDuration) {
+            return value.expireNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry<V> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,38 @@
+package run.vexa.reactor.security.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * 本地认证缓存指标
+ * <p>
+ * 以 {@code cache=shore.security.<名称>} 标签导出 token、token 列表与会话缓存的大小、命中、未命中与淘汰统计.
+ * 统计需开启 {@code shore.security.local-cache.record-stats}.
+ *
+ * @author youta
+ **/
+public class CaffeineAuthenticationCacheMetrics implements MeterBinder {
+
+    /**
+     * 缓存名称前缀.
+     */
+    public static final String CACHE_NAME_PREFIX = "shore.security.";
+
+    private final CaffeineAuthenticationCache authenticationCache;
+
+    /**
+     * Instantiates a new Caffeine authentication cache metrics.
+     *
+     * @param authenticationCache the caffeine authentication cache
+     */
+    public CaffeineAuthenticationCacheMetrics(CaffeineAuthenticationCache authenticationCache) {
+        this.authenticationCache = authenticationCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        authenticationCache.caches().forEach((name, cache) ->
+                CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME_PREFIX + name));
+    }
+}
@@ -0,0 +1,27 @@
+package run.vexa.reactor.security.cache;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * 一次登录需要写入的会话信息
+ *
+ * @param username      用户名
+ * @param token         访问 token，签名模式下为 token ID
+ * @param refreshToken  刷新 token
+ * @param user          会话中的用户信息，为 {@code null} 时只保存刷新 token
+ * @param expire        token 有效期(秒)
+ * @param refreshExpire 刷新 token 与会话有效期(秒)
+ * @param maxSessions   同一用户最多保留的 token 数，小于 1 时按 1 处理
+ * @param <T>           用户信息类型
+ * @author youta
+ */
+public record LoginSession<T>(String username, String token, String refreshToken, @Nullable T user,
+                              long expire, long refreshExpire, int maxSessions) {
+
+    /**
+     * Instantiates a new Login session.
+     */
+    public LoginSession {
+        maxSessions = Math.max(1, maxSessions);
+    }
+}
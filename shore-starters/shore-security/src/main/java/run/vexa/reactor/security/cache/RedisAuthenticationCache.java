@@ -2,12 +2,22 @@ package run.vexa.reactor.security.cache;
 
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
+import org.springframework.data.redis.connection.ReactiveKeyCommands;
 import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 import run.vexa.reactor.redis.util.ReactiveRedisUtil;
+import run.vexa.reactor.security.constants.TokenConstants;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Redis authentication cache
@@ -18,8 +28,33 @@ import java.util.List;
 @NullMarked
 public class RedisAuthenticationCache<T> implements AuthenticationCache<T> {
 
+    /**
+     * 登录脚本: 以 Redis 服务器时刻(毫秒)为分值加入用户 token 有序集合，移除超出并发数的最早 token 并返回.
+     * 分值取自 {@code TIME}，各应用实例的时钟偏差不会打乱 token 的签发顺序.
+     * KEYS[1] 有序集合，ARGV: token、最大并发数、集合有效期(秒)，
+     * 之后是旧版 token 列表中的 token(按签发顺序)，以 0 起的序号为分值并入集合，已存在的不覆盖.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> LOGIN_SCRIPT = RedisScript.of("""
+            for i = 4, #ARGV do
+                redis.call('ZADD', KEYS[1], 'NX', i - 4, ARGV[i])
+            end
+            local time = redis.call('TIME')
+            local now = time[1] * 1000 + math.floor(time[2] / 1000)
+            redis.call('ZADD', KEYS[1], now, ARGV[1])
+            local overflow = redis.call('ZCARD', KEYS[1]) - tonumber(ARGV[2])
+            local evicted = {}
+            if overflow > 0 then
+                evicted = redis.call('ZRANGE', KEYS[1], 0, overflow - 1)
+                redis.call('ZREMRANGEBYRANK', KEYS[1], 0, overflow - 1)
+            end
+            redis.call('EXPIRE', KEYS[1], ARGV[3])
+            return evicted
+            """, List.class);
+
     private final ReactiveRedisUtil reactiveRedisUtil;
     private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+    private final @Nullable SessionRenewalCoalescer renewalCoalescer;
 
     /**
      * Default constructor.
@@ -29,8 +64,37 @@ public class RedisAuthenticationCache<T> implements AuthenticationCache<T> {
      * @param reactiveStringRedisTemplate the reactive string redis template
      */
     public RedisAuthenticationCache(ReactiveRedisUtil reactiveRedisUtil, ReactiveStringRedisTemplate reactiveStringRedisTemplate) {
+        this(reactiveRedisUtil, reactiveStringRedisTemplate, null);
+    }
+
+    /**
+     * Creates a Redis authentication cache whose token renewals are coalesced.
+     *
+     * @param reactiveRedisUtil           the reactive redis util
+     * @param reactiveStringRedisTemplate the reactive string redis template
+     * @param renewalCoalescer            the renewal coalescer, renews immediately when {@code null}
+     */
+    public RedisAuthenticationCache(ReactiveRedisUtil reactiveRedisUtil, ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+                                    @Nullable SessionRenewalCoalescer renewalCoalescer) {
         this.reactiveRedisUtil = reactiveRedisUtil;
         this.reactiveStringRedisTemplate = reactiveStringRedisTemplate;
+        this.renewalCoalescer = renewalCoalescer;
+    }
+
+    /**
+     * 批量设置过期时刻，所有 PEXPIREAT 在同一连接上以一个命令流发送.
+     *
+     * @param reactiveStringRedisTemplate the reactive string redis template
+     * @param deadlines                   key 到过期时刻的映射
+     * @return 完成信号
+     */
+    public static Mono<Void> expireAt(ReactiveStringRedisTemplate reactiveStringRedisTemplate, Map<String, Instant> deadlines) {
+        return reactiveStringRedisTemplate.execute(connection -> connection.keyCommands()
+                        .pExpireAt(Flux.fromIterable(deadlines.entrySet())
+                                .map(deadline -> ReactiveKeyCommands.ExpireAtCommand
+                                        .key(ByteBuffer.wrap(deadline.getKey().getBytes(StandardCharsets.UTF_8)))
+                                        .timeout(deadline.getValue()))))
+                .then();
     }
 
     @Override
@@ -87,6 +151,92 @@ public class RedisAuthenticationCache<T> implements AuthenticationCache<T> {
         return this.reactiveRedisUtil.del(key);
     }
 
+    /**
+     * 四条命令同时发出，在共享连接上流水线执行，只需一次往返；续期不再先查询 TTL，
+     * 配置了合并器时交给合并器批量续期，否则追加一条 EXPIRE.
+     * 不使用 Lua 脚本，因为 token 与 session 的 key 在集群模式下不在同一个槽.
+     */
+    @Override
+    public Mono<CachedSession<T>> session(String tokenKey, String sessionKey, long renewTime) {
+        Mono<String> username = this.reactiveStringRedisTemplate.opsForValue().get(tokenKey);
+        Mono<Duration> sessionExpire = this.reactiveStringRedisTemplate.getExpire(sessionKey);
+        Mono<T> user = this.reactiveRedisUtil.get(sessionKey);
+        Mono<Duration> tokenExpire = this.reactiveStringRedisTemplate.getExpire(tokenKey);
+        return Mono.zip(username, sessionExpire, user, tokenExpire)
+                .filter(tuple -> !tuple.getT2().isNegative())
+                .map(tuple -> {
+                    long expire = tuple.getT2().getSeconds();
+                    long renewExpire = expire - renewTime > 0 ? renewTime : expire;
+                    long tokenTtl = tuple.getT4().getSeconds();
+                    if (tokenTtl > 0 && renewExpire > 0) {
+                        renew(tokenKey, Duration.ofSeconds(tokenTtl + renewExpire));
+                    }
+                    return new CachedSession<>(tuple.getT1(), tuple.getT2(), tuple.getT4(), tuple.getT3());
+                });
+    }
+
+    /**
+     * 用户 token 集合的增加与淘汰由单 key 的 Lua 脚本原子完成，并发登录不会相互覆盖；
+     * token、刷新 token、会话的写入与读取旧版 token 列表同时发出，随后执行脚本，淘汰 token 的删除紧随脚本结果.
+     * token、session 等 key 在集群模式下不在同一个槽，因此不放进同一个脚本.
+     * <p>
+     * 升级前登录的会话记录在旧版 token 列表({@link TokenConstants#tokenList(String)})中，
+     * 首次登录时并入有序集合并删除旧列表，这些会话同样计入并发数；旧列表全部过期后读取只返回空.
+     */
+    @Override
+    public Mono<List<String>> login(LoginSession<T> session) {
+        String legacyKey = TokenConstants.tokenList(session.username());
+        Mono<List<String>> evicted = this.getTokenList(legacyKey)
+                .defaultIfEmpty(List.of())
+                .flatMap(legacy -> {
+                    List<String> args = new ArrayList<>(3 + legacy.size());
+                    args.add(session.token());
+                    args.add(String.valueOf(session.maxSessions()));
+                    args.add(String.valueOf(session.refreshExpire()));
+                    args.addAll(legacy);
+                    Mono<List<String>> tokens = this.reactiveStringRedisTemplate
+                            .execute(LOGIN_SCRIPT, List.of(TokenConstants.tokenSet(session.username())), args)
+                            .flatMapIterable(result -> (List<?>) result)
+                            .map(String::valueOf)
+                            .collectList();
+                    return legacy.isEmpty() ? tokens : tokens.flatMap(list -> this.reactiveRedisUtil.del(legacyKey).thenReturn(list));
+                })
+                .flatMap(tokens -> tokens.isEmpty() ? Mono.just(tokens) : this.deleteSessions(tokens).thenReturn(tokens));
+        return Mono.zip(evicted, this.store(session))
+                .filter(tuple -> Boolean.TRUE.equals(tuple.getT2()))
+                .map(Tuple2::getT1);
+    }
+
+    /**
+     * 写入刷新 token，以及(非签名模式下的)token 与会话.
+     *
+     * @param session the login session
+     * @return 是否全部写入成功
+     */
+    private Mono<Boolean> store(LoginSession<T> session) {
+        Duration refreshExpire = Duration.ofSeconds(session.refreshExpire());
+        Mono<Boolean> refreshToken = this.reactiveRedisUtil.set(TokenConstants.refresh(session.refreshToken()),
+                session.username(), refreshExpire);
+        T user = session.user();
+        if (user == null) {
+            return refreshToken;
+        }
+        return Mono.zip(this.reactiveStringRedisTemplate.opsForValue()
+                                .set(TokenConstants.token(session.token()), session.username(), Duration.ofSeconds(session.expire())),
+                        refreshToken,
+                        this.reactiveRedisUtil.set(TokenConstants.session(session.token()), user, refreshExpire))
+                .map(tuple -> tuple.getT1() && tuple.getT2() && tuple.getT3());
+    }
+
+    private Mono<Long> deleteSessions(List<String> tokens) {
+        List<String> keys = new ArrayList<>(tokens.size() * 2);
+        for (String token : tokens) {
+            keys.add(TokenConstants.token(token));
+            keys.add(TokenConstants.session(token));
+        }
+        return this.reactiveStringRedisTemplate.delete(keys.toArray(String[]::new));
+    }
+
     @Override
     public Mono<Boolean> renew(@Nullable String tokenKey, long expire) {
         return this.reactiveRedisUtil.getExpire(tokenKey)
@@ -94,4 +244,12 @@ public class RedisAuthenticationCache<T> implements AuthenticationCache<T> {
                 .map(expireTime -> expireTime + expire)
                 .flatMap(expireTime -> this.reactiveRedisUtil.expire(tokenKey, Duration.ofSeconds(expireTime)));
     }
+
+    private void renew(String tokenKey, Duration expire) {
+        if (renewalCoalescer != null) {
+            renewalCoalescer.touch(tokenKey, Instant.now().plus(expire));
+        } else {
+            this.reactiveStringRedisTemplate.expire(tokenKey, expire).subscribe();
+        }
+    }
 }
@@ -0,0 +1,71 @@
+package run.vexa.reactor.security.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * 跨节点失效的会话近端缓存
+ * <p>
+ * 失效时通过 Redis pub/sub 广播 token，各节点订阅后清除本地条目. 订阅断开时按退避重连，
+ * 断开期间漏掉的通知由条目 TTL 兜底.
+ *
+ * @author youta
+ **/
+@Slf4j
+public class RedisSessionNearCache extends SessionNearCache implements InitializingBean, DisposableBean {
+
+    /**
+     * 失效通知频道.
+     */
+    public static final String INVALIDATION_CHANNEL = "shore:security:session-invalidation";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    private @Nullable Disposable subscription;
+
+    /**
+     * Instantiates a new Redis session near cache.
+     *
+     * @param maximumSize   最大条目数
+     * @param ttl           最长缓存时间
+     * @param redisTemplate the reactive string redis template
+     */
+    public RedisSessionNearCache(long maximumSize, Duration ttl, ReactiveStringRedisTemplate redisTemplate) {
+        super(maximumSize, ttl);
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        this.subscription = redisTemplate.listenToChannel(INVALIDATION_CHANNEL)
+                .map(ReactiveSubscription.Message::getMessage)
+                .doOnError(e -> log.warn("Session invalidation subscription failed, resubscribing", e))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe(this::invalidateLocal);
+    }
+
+    @Override
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    @Override
+    public Mono<Void> invalidate(String token) {
+        invalidateLocal(token);
+        return redisTemplate.convertAndSend(INVALIDATION_CHANNEL, token)
+                .doOnError(e -> log.warn("Failed to publish session invalidation", e))
+                .onErrorComplete()
+                .then();
+    }
+}
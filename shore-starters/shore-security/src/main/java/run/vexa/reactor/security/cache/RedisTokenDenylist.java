@@ -0,0 +1,111 @@
+package run.vexa.reactor.security.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * 跨节点同步的签名 token 撤销名单
+ * <p>
+ * 撤销记录写入 Redis 有序集合(成员为 token ID，分值为过期时刻毫秒数)并通过 pub/sub 广播.
+ * 各节点订阅通知更新本地名单，每次(重新)订阅时从有序集合加载未过期的记录，补上断开期间漏掉的撤销.
+ * 请求路径上只查询本地名单.
+ *
+ * @author youta
+ **/
+@Slf4j
+public class RedisTokenDenylist extends TokenDenylist implements InitializingBean, DisposableBean {
+
+    /**
+     * 撤销记录有序集合.
+     */
+    public static final String DENYLIST_KEY = "shore:security:token-denylist";
+
+    /**
+     * 撤销通知频道.
+     */
+    public static final String REVOCATION_CHANNEL = "shore:security:token-revocation";
+
+    private static final char SEPARATOR = ':';
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    private @Nullable Disposable subscription;
+
+    /**
+     * Instantiates a new Redis token denylist.
+     *
+     * @param redisTemplate the reactive string redis template
+     */
+    public RedisTokenDenylist(ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        this.subscription = Flux.defer(() -> redisTemplate.listenToChannel(REVOCATION_CHANNEL)
+                        .map(ReactiveSubscription.Message::getMessage)
+                        .mergeWith(load()))
+                .doOnError(e -> log.warn("Token revocation subscription failed, resubscribing", e))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe(this::apply);
+    }
+
+    @Override
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    @Override
+    public Mono<Void> revoke(String tokenId, Instant expiresAt) {
+        revokeLocal(tokenId, expiresAt);
+        long now = System.currentTimeMillis();
+        ZSetOperations<String, String> zSet = redisTemplate.opsForZSet();
+        return zSet.add(DENYLIST_KEY, tokenId, expiresAt.toEpochMilli())
+                .then(zSet.removeRangeByScore(DENYLIST_KEY, Range.closed(0D, (double) now)))
+                .then(redisTemplate.convertAndSend(REVOCATION_CHANNEL, tokenId + SEPARATOR + expiresAt.toEpochMilli()))
+                .doOnError(e -> log.warn("Failed to publish token revocation", e))
+                .onErrorComplete()
+                .then();
+    }
+
+    /**
+     * 加载未过期的撤销记录.
+     *
+     * @return 撤销记录
+     */
+    private Flux<String> load() {
+        Range<Double> unexpired = Range.rightUnbounded(Range.Bound.inclusive((double) System.currentTimeMillis()));
+        return redisTemplate.opsForZSet()
+                .rangeByScoreWithScores(DENYLIST_KEY, unexpired)
+                .filter(tuple -> tuple.getValue() != null && tuple.getScore() != null)
+                .map(tuple -> tuple.getValue() + SEPARATOR + tuple.getScore().longValue());
+    }
+
+    private void apply(String message) {
+        int index = message.lastIndexOf(SEPARATOR);
+        if (index <= 0) {
+            return;
+        }
+        try {
+            long expiresAt = Long.parseLong(message, index + 1, message.length(), 10);
+            revokeLocal(message.substring(0, index), Instant.ofEpochMilli(expiresAt));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed token revocation: {}", message);
+        }
+    }
+}
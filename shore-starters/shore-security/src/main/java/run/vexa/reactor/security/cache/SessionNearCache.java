@@ -0,0 +1,116 @@
+package run.vexa.reactor.security.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.jspecify.annotations.Nullable;
+import org.springframework.security.core.context.SecurityContext;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * 会话近端缓存
+ * <p>
+ * 在 {@link AuthenticationCache} 之前缓存已构建好的 {@link SecurityContext}，命中时认证只是一次内存查找.
+ * 条目存活时间取配置的 TTL 与 token 剩余时间的较小值，命中不会晚于 token 过期. 退出登录、并发登录挤下线时调用
+ * {@link #invalidate(String)}.
+ * 本类只在当前节点失效，多节点部署使用 {@link RedisSessionNearCache}.
+ *
+ * @author youta
+ **/
+public class SessionNearCache {
+
+    private final Cache<String, Entry> cache;
+
+    private final Duration ttl;
+
+    /**
+     * Instantiates a new Session near cache.
+     *
+     * @param maximumSize 最大条目数
+     * @param ttl         最长缓存时间
+     */
+    public SessionNearCache(long maximumSize, Duration ttl) {
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new EntryExpiry())
+                .build();
+    }
+
+    /**
+     * 获取缓存的安全上下文.
+     *
+     * @param token token
+     * @return 安全上下文，未命中时为 {@code null}
+     */
+    public @Nullable SecurityContext get(String token) {
+        Entry entry = cache.getIfPresent(token);
+        return entry == null ? null : entry.context();
+    }
+
+    /**
+     * 缓存安全上下文.
+     *
+     * @param token       token
+     * @param context     安全上下文
+     * @param tokenExpire token 剩余时间
+     */
+    public void put(String token, SecurityContext context, Duration tokenExpire) {
+        Duration expire = tokenExpire.compareTo(ttl) < 0 ? tokenExpire : ttl;
+        if (!expire.isNegative() && !expire.isZero()) {
+            cache.put(token, new Entry(context, expire.toNanos()));
+        }
+    }
+
+    /**
+     * 使 token 失效.
+     *
+     * @param token token
+     * @return 通知完成
+     */
+    public Mono<Void> invalidate(String token) {
+        invalidateLocal(token);
+        return Mono.empty();
+    }
+
+    /**
+     * 使 token 在当前节点失效.
+     *
+     * @param token token
+     */
+    public void invalidateLocal(String token) {
+        cache.invalidate(token);
+    }
+
+    /**
+     * 缓存条目
+     *
+     * @param context     安全上下文
+     * @param expireNanos 存活时间
+     */
+    private record Entry(SecurityContext context, long expireNanos) {
+    }
+
+    /**
+     * 按条目自身存活时间过期，读取不延长.
+     */
+    private static final class EntryExpiry implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String key, Entry value, long currentTime) {
+            return value.expireNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry value, long currentTime, long currentDuration) {
+            return value.expireNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package run.vexa.reactor.security.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 会话续期合并器
+ * <p>
+ * 请求只记录需要续期的 token 及其新的过期时刻，同一 token 在一个刷新周期内只保留最后一次记录；
+ * 后台按固定周期把记录整批交给 flusher(如一次流水线发送的 EXPIREAT). 刚续期过的 token 在
+ * 最小间隔内不再记录，高频访问的客户端每个间隔只产生一次写操作.
+ *
+ * @author youta
+ **/
+@Slf4j
+public class SessionRenewalCoalescer implements InitializingBean, DisposableBean {
+
+    private static final Duration SHUTDOWN_FLUSH_TIMEOUT = Duration.ofSeconds(5);
+
+    private final Map<String, Instant> pending = new ConcurrentHashMap<>();
+
+    private final Cache<String, Boolean> recentlyRenewed;
+
+    private final Duration flushInterval;
+
+    private final Function<Map<String, Instant>, Mono<Void>> flusher;
+
+    private @Nullable Disposable task;
+
+    /**
+     * Instantiates a new Session renewal coalescer.
+     *
+     * @param flushInterval 刷新周期
+     * @param minInterval   同一 token 两次续期的最小间隔
+     * @param maximumSize   记录最近续期 token 的最大个数
+     * @param flusher       批量续期，参数为 token key 到新过期时刻的映射
+     */
+    public SessionRenewalCoalescer(Duration flushInterval, Duration minInterval, long maximumSize,
+                                   Function<Map<String, Instant>, Mono<Void>> flusher) {
+        this.flushInterval = flushInterval;
+        this.flusher = flusher;
+        this.recentlyRenewed = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(minInterval)
+                .build();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        this.task = Flux.interval(flushInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> flush())
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        if (task != null) {
+            task.dispose();
+        }
+        try {
+            flush().block(SHUTDOWN_FLUSH_TIMEOUT);
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush pending session renewals on shutdown", e);
+        }
+    }
+
+    /**
+     * 记录需要续期的 token.
+     *
+     * @param tokenKey token key
+     * @param expireAt 新的过期时刻
+     */
+    public void touch(String tokenKey, Instant expireAt) {
+        if (recentlyRenewed.getIfPresent(tokenKey) == null) {
+            pending.put(tokenKey, expireAt);
+        }
+    }
+
+    /**
+     * 立即刷新已记录的续期.
+     *
+     * @return 完成信号
+     */
+    public Mono<Void> flush() {
+        return Mono.defer(() -> {
+            if (pending.isEmpty()) {
+                return Mono.empty();
+            }
+            Map<String, Instant> batch = new HashMap<>();
+            for (String tokenKey : pending.keySet()) {
+                Instant expireAt = pending.remove(tokenKey);
+                if (expireAt != null) {
+                    batch.put(tokenKey, expireAt);
+                    recentlyRenewed.put(tokenKey, Boolean.TRUE);
+                }
+            }
+            return flusher.apply(batch)
+                    .doOnError(e -> log.warn("Failed to renew {} sessions", batch.size(), e))
+                    .onErrorComplete();
+        });
+    }
+}
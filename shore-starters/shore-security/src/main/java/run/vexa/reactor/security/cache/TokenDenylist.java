@@ -0,0 +1,87 @@
+package run.vexa.reactor.security.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * 签名 token 撤销名单
+ * <p>
+ * 以 token ID 为键保存已撤销的签名 token，条目在 token 本身过期时移除，名单大小只与有效期内的撤销数量有关.
+ * 本类只在当前节点生效，多节点部署使用 {@link RedisTokenDenylist}.
+ *
+ * @author youta
+ **/
+public class TokenDenylist {
+
+    private final Cache<String, Instant> cache = Caffeine.newBuilder()
+            .expireAfter(new UntilExpiry())
+            .build();
+
+    /**
+     * Default constructor.
+     * This constructor is used for serialization and other reflective operations.
+     */
+    public TokenDenylist() {
+        // This constructor is intentionally empty.
+    }
+
+    /**
+     * token 是否已撤销.
+     *
+     * @param tokenId token ID
+     * @return 是否已撤销
+     */
+    public boolean isRevoked(String tokenId) {
+        return cache.getIfPresent(tokenId) != null;
+    }
+
+    /**
+     * 撤销 token.
+     *
+     * @param tokenId   token ID
+     * @param expiresAt token 过期时刻
+     * @return 通知完成
+     */
+    public Mono<Void> revoke(String tokenId, Instant expiresAt) {
+        revokeLocal(tokenId, expiresAt);
+        return Mono.empty();
+    }
+
+    /**
+     * 在当前节点撤销 token.
+     *
+     * @param tokenId   token ID
+     * @param expiresAt token 过期时刻
+     */
+    public void revokeLocal(String tokenId, Instant expiresAt) {
+        if (expiresAt.isAfter(Instant.now())) {
+            cache.put(tokenId, expiresAt);
+        }
+    }
+
+    /**
+     * 在 token 过期时刻移除，读取不延长.
+     */
+    private static final class UntilExpiry implements Expiry<String, Instant> {
+
+        @Override
+        public long expireAfterCreate(String key, Instant value, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), value).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Instant value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Instant value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -38,6 +38,11 @@ public class TokenConstants {
      */
     public static final String CACHE_TOKEN_LIST = "user";
 
+    /**
+     * 用户 token 有序集合缓存名称
+     */
+    public static final String CACHE_TOKEN_SET = "user-tokens";
+
     /**
      * token session缓存名称
      */
@@ -74,6 +79,16 @@ public class TokenConstants {
         return String.join(StrPool.COLON, CACHE_PREFIX, CACHE_TYPE, CACHE_TOKEN_LIST, username);
     }
 
+    /**
+     * 获取用户 token 有序集合缓存key，成员为 token，分值为签发时刻
+     *
+     * @param username 用户名
+     * @return 缓存key
+     */
+    public static String tokenSet(String username) {
+        return String.join(StrPool.COLON, CACHE_PREFIX, CACHE_TYPE, CACHE_TOKEN_SET, username);
+    }
+
     /**
      * 获取token session缓存key
      *
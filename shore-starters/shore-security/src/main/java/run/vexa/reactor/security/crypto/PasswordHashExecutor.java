@@ -0,0 +1,131 @@
+package run.vexa.reactor.security.crypto;
+
+import org.springframework.beans.factory.DisposableBean;
+import reactor.core.publisher.Mono;
+import run.vexa.reactor.commons.exception.ServerException;
+import run.vexa.reactor.security.domain.SecurityExceptionEnum;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+
+/**
+ * 密码校验执行器
+ * <p>
+ * BCrypt 等哈希算法单次耗时可达百毫秒，在 Netty 事件循环线程上执行会阻塞该线程上的所有连接.
+ * 校验在固定大小的线程池中执行，等待队列有界，队列已满时立即拒绝而不是无限排队.
+ *
+ * @author youta
+ **/
+public class PasswordHashExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+
+    private volatile LongConsumer latencyRecorder = nanos -> {
+    };
+
+    private volatile Runnable rejectionRecorder = () -> {
+    };
+
+    /**
+     * Instantiates a new Password hash executor.
+     *
+     * @param poolSize      线程数
+     * @param queueCapacity 等待队列长度
+     */
+    public PasswordHashExecutor(int poolSize, int queueCapacity) {
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 在线程池中执行校验.
+     *
+     * @param check 校验逻辑
+     * @return 是否通过，线程池饱和时返回错误
+     */
+    public Mono<Boolean> verify(BooleanSupplier check) {
+        return Mono.create(sink -> {
+            Future<?> future;
+            try {
+                future = executor.submit(() -> {
+                    long start = System.nanoTime();
+                    try {
+                        sink.success(check.getAsBoolean());
+                    } catch (Throwable e) {
+                        sink.error(e);
+                    } finally {
+                        latencyRecorder.accept(System.nanoTime() - start);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                rejectionRecorder.run();
+                sink.error(new ServerException(SecurityExceptionEnum.PASSWORD_VERIFY_BUSY));
+                return;
+            }
+            sink.onCancel(() -> future.cancel(false));
+        });
+    }
+
+    /**
+     * 等待队列中的任务数.
+     *
+     * @return 等待中的任务数
+     */
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * 执行中的任务数.
+     *
+     * @return 执行中的任务数
+     */
+    public int activeCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * 设置校验耗时记录.
+     *
+     * @param latencyRecorder 耗时(纳秒)记录
+     */
+    public void setLatencyRecorder(LongConsumer latencyRecorder) {
+        this.latencyRecorder = latencyRecorder;
+    }
+
+    /**
+     * 设置拒绝次数记录.
+     *
+     * @param rejectionRecorder 拒绝次数记录
+     */
+    public void setRejectionRecorder(Runnable rejectionRecorder) {
+        this.rejectionRecorder = rejectionRecorder;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * 校验线程工厂
+     */
+    private static final class HashThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger index = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "shore-password-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package run.vexa.reactor.security.crypto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 密码校验指标
+ * <p>
+ * 记录单次校验耗时、等待队列长度、执行中的任务数与饱和拒绝次数.
+ *
+ * @author youta
+ **/
+public class PasswordHashMetrics implements MeterBinder {
+
+    /**
+     * 校验耗时.
+     */
+    public static final String HASH_TIMER = "shore.security.password.hash";
+
+    /**
+     * 等待队列长度.
+     */
+    public static final String QUEUE_GAUGE = "shore.security.password.queue";
+
+    /**
+     * 执行中的任务数.
+     */
+    public static final String ACTIVE_GAUGE = "shore.security.password.active";
+
+    /**
+     * 饱和拒绝次数.
+     */
+    public static final String REJECTED_COUNTER = "shore.security.password.rejected";
+
+    private final PasswordHashExecutor executor;
+
+    /**
+     * Instantiates a new Password hash metrics.
+     *
+     * @param executor the password hash executor
+     */
+    public PasswordHashMetrics(PasswordHashExecutor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Timer timer = Timer.builder(HASH_TIMER)
+                .description("Time spent verifying a password hash")
+                .register(registry);
+        Counter rejected = Counter.builder(REJECTED_COUNTER)
+                .description("Password verifications rejected because the pool was saturated")
+                .register(registry);
+        Gauge.builder(QUEUE_GAUGE, executor, PasswordHashExecutor::queueDepth)
+                .description("Password verifications waiting for a thread")
+                .register(registry);
+        Gauge.builder(ACTIVE_GAUGE, executor, PasswordHashExecutor::activeCount)
+                .description("Password verifications in progress")
+                .register(registry);
+        executor.setLatencyRecorder(nanos -> timer.record(nanos, TimeUnit.NANOSECONDS));
+        executor.setRejectionRecorder(rejected::increment);
+    }
+}
@@ -0,0 +1,177 @@
+package run.vexa.reactor.security.crypto;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.springframework.util.StringUtils;
+import run.vexa.reactor.security.domain.CurrentUser;
+import run.vexa.reactor.security.domain.RoleEnum;
+import run.vexa.reactor.security.domain.RoleInfo;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 签名 token 编解码
+ * <p>
+ * 签发 HS256 签名的 JWT，载荷包含用户名、用户ID、登录类型与角色. 密钥与解析器在构造时创建一次，
+ * 校验只做一次 HMAC 计算，不访问会话缓存. 实例线程安全.
+ *
+ * @author youta
+ **/
+@Slf4j
+public class SignedTokenCodec {
+
+    /**
+     * 用户ID声明.
+     */
+    public static final String USER_ID_CLAIM = "uid";
+
+    /**
+     * 登录类型声明.
+     */
+    public static final String TYPE_CLAIM = "type";
+
+    /**
+     * 角色声明.
+     */
+    public static final String ROLES_CLAIM = "roles";
+
+    private final SecretKey key;
+
+    private final String issuer;
+
+    private final JwtParser parser;
+
+    /**
+     * Instantiates a new Signed token codec.
+     *
+     * @param secret    HMAC 密钥，至少 32 字节
+     * @param issuer    签发者
+     * @param clockSkew 允许的时钟偏差
+     */
+    public SignedTokenCodec(String secret, String issuer, Duration clockSkew) {
+        if (!StringUtils.hasText(secret)) {
+            throw new IllegalArgumentException("shore.security.stateless.secret must not be empty");
+        }
+        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.issuer = issuer;
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .requireIssuer(issuer)
+                .clockSkewSeconds(clockSkew.toSeconds())
+                .build();
+    }
+
+    /**
+     * 是否为签名 token(三段式)，用于与缓存 token 区分.
+     *
+     * @param token token
+     * @return 是否为签名 token
+     */
+    public static boolean isSignedToken(String token) {
+        int first = token.indexOf('.');
+        return first > 0 && token.indexOf('.', first + 1) > first + 1;
+    }
+
+    /**
+     * 签发 token.
+     *
+     * @param tokenId token ID，撤销时使用
+     * @param user    用户
+     * @param expire  有效期
+     * @return token
+     */
+    public String issue(String tokenId, CurrentUser user, Duration expire) {
+        Instant now = Instant.now();
+        List<String> roles = new ArrayList<>();
+        if (user.getRoleInfos() != null) {
+            for (RoleInfo roleInfo : user.getRoleInfos()) {
+                if (roleInfo.getRole() != null) {
+                    roles.add(roleInfo.getRole().name());
+                }
+            }
+        }
+        return Jwts.builder()
+                .id(tokenId)
+                .issuer(issuer)
+                .subject(user.getUsername())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(TYPE_CLAIM, user.getType())
+                .claim(ROLES_CLAIM, roles)
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(expire)))
+                .signWith(key)
+                .compact();
+    }
+
+    /**
+     * 校验并解析 token.
+     *
+     * @param token token
+     * @return 解析结果
+     * @throws JwtException 签名无效、已过期或格式错误
+     */
+    public VerifiedToken parse(String token) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        CurrentUser user = new CurrentUser();
+        user.setUsername(claims.getSubject());
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        user.setId(userId);
+        user.setUserId(userId);
+        Integer type = claims.get(TYPE_CLAIM, Integer.class);
+        user.setType(type == null ? 0 : type);
+        user.setRoleInfos(roleInfos(claims.get(ROLES_CLAIM, List.class)));
+        user.setAccessToken(token);
+        return new VerifiedToken(claims.getId(), claims.getExpiration().toInstant(), user);
+    }
+
+    /**
+     * 校验并解析 token，无效时返回 {@code null}.
+     *
+     * @param token token
+     * @return 解析结果
+     */
+    public @Nullable VerifiedToken verify(String token) {
+        try {
+            return parse(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.trace("Invalid signed token", e);
+            return null;
+        }
+    }
+
+    private static List<RoleInfo> roleInfos(List<?> roles) {
+        if (roles == null || roles.isEmpty()) {
+            return CurrentUser.defaultRoleInfos();
+        }
+        List<RoleInfo> roleInfos = new ArrayList<>(roles.size());
+        for (Object role : roles) {
+            for (RoleEnum roleEnum : RoleEnum.values()) {
+                if (roleEnum.name().equals(role)) {
+                    roleInfos.add(RoleInfo.builder().role(roleEnum).build());
+                }
+            }
+        }
+        return roleInfos.isEmpty() ? CurrentUser.defaultRoleInfos() : roleInfos;
+    }
+
+    /**
+     * 校验通过的 token
+     *
+     * @param id        token ID
+     * @param expiresAt 过期时刻
+     * @param user      用户
+     */
+    public record VerifiedToken(String id, Instant expiresAt, CurrentUser user) {
+    }
+}
@@ -19,7 +19,12 @@ public enum SecurityExceptionEnum implements ServerFailure {
     /**
      * password not match
      */
-    PASSWORD_NOT_MATCH(1002, "Password not match");
+    PASSWORD_NOT_MATCH(1002, "Password not match"),
+
+    /**
+     * password verification pool saturated
+     */
+    PASSWORD_VERIFY_BUSY(1003, "Too many login attempts, please try again later");
 
 
     private final int code;
@@ -1,34 +1,82 @@
 package run.vexa.reactor.security.filter;
 
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 import org.springframework.core.Ordered;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
-import org.jspecify.annotations.NullMarked;
+import org.springframework.web.server.PayloadTooLargeException;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import run.vexa.reactor.core.properties.AuthProperties;
+import run.vexa.reactor.core.util.ExcludePathMatcher;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 
 /**
  * CacheBodyGlobalFilter is a WebFilter that caches the body content.
+ * <p>
+ * 只缓存登录路径及 {@code shore.security.body-cache.paths} 配置的路径. 请求体块按原样保留(池化内存不复制)，
+ * 每次 {@code getBody()} 返回指向同一内存的新视图，重放不复制字节. 超过
+ * {@code shore.security.body-cache.max-size} 时按配置返回 413 或写入临时文件.
+ * 缓存的内存与临时文件在过滤器链结束后释放，下游不能在请求处理结束后继续持有请求体.
  *
  * @author youta
  **/
+@Slf4j
 @NullMarked
 public class CacheBodyGlobalFilter implements WebFilter, Ordered {
 
+    private static final int SPILL_CHUNK_SIZE = 8 * 1024;
+
+    private final ExcludePathMatcher pathMatcher;
+
+    private final long maxSize;
+
+    private final AuthProperties.BodyCache.Overflow overflow;
+
     /**
      * Default constructor.
      * This constructor is used for serialization and other reflective operations.
+     * 使用默认的 {@link AuthProperties}，只缓存默认登录路径.
      */
     public CacheBodyGlobalFilter() {
+        this(new AuthProperties());
+    }
+
+    /**
+     * Instantiates a new Cache body global filter.
+     *
+     * @param properties the auth properties
+     */
+    public CacheBodyGlobalFilter(AuthProperties properties) {
+        AuthProperties.BodyCache bodyCache = properties.getBodyCache();
+        Set<String> paths = new HashSet<>(bodyCache.getPaths());
+        paths.add(properties.getLoginPattern());
+        this.pathMatcher = ExcludePathMatcher.compile(paths);
+        this.maxSize = bodyCache.getMaxSize().toBytes();
+        this.overflow = bodyCache.getOverflow();
     }
 
     @Override
@@ -52,23 +100,232 @@ public class CacheBodyGlobalFilter implements WebFilter, Ordered {
         if (contentType != null && contentType.getType().contains(MediaType.MULTIPART_FORM_DATA.getType())) {
             return chain.filter(exchange);
         }
-        if (contentLength <= 0) {
+        if (contentLength <= 0 || !pathMatcher.matches(request.getPath().pathWithinApplication().value())) {
             return chain.filter(exchange);
         }
-        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        if (contentLength > maxSize && overflow == AuthProperties.BodyCache.Overflow.REJECT) {
+            return Mono.error(tooLarge());
+        }
+        final DataBufferFactory bufferFactory = exchange.getResponse().bufferFactory();
 
-        return Mono.create(sink -> DataBufferUtils.write(request.getBody(), outputStream).subscribe(DataBufferUtils::release, sink::error, sink::success))
-                .then(Mono.just(request))
-                .flatMap(req -> {
-                    final ServerHttpRequestDecorator decorator = new ServerHttpRequestDecorator(req) {
+        return Mono.usingWhen(cache(request.getBody()),
+                body -> {
+                    final ServerHttpRequestDecorator decorator = new ServerHttpRequestDecorator(request) {
                         @Override
                         public Flux<DataBuffer> getBody() {
-                            return DataBufferUtils.read(new ByteArrayResource(outputStream.toByteArray()), exchange.getResponse().bufferFactory(), 1024 * 8);
+                            return body.replay(bufferFactory);
                         }
                     };
-
                     return chain.filter(exchange.mutate().request(decorator).build());
-                });
+                },
+                CachedBody::release,
+                (body, e) -> body.release(),
+                CachedBody::release);
+    }
+
+    private Mono<CachedBody> cache(Flux<DataBuffer> body) {
+        return Mono.defer(() -> {
+            BodyCollector collector = new BodyCollector();
+            return body.concatMap(collector::add)
+                    .then(Mono.fromCallable(collector::finish))
+                    .doOnError(e -> collector.discard())
+                    .doOnCancel(collector::discard);
+        });
+    }
+
+    private PayloadTooLargeException tooLarge() {
+        return new PayloadTooLargeException(new IllegalStateException("Request body exceeds " + maxSize + " bytes"));
+    }
+
+    /**
+     * 收集请求体，未超限时保留原始块，超限后按配置拒绝或写入临时文件. 由 {@code concatMap} 串行调用.
+     * {@code buffers} 始终只包含仍由本收集器持有的块：写入临时文件的块写完即移出并释放，
+     * 出错或取消时只释放剩余的块，不会重复释放.
+     */
+    private final class BodyCollector {
+
+        private final ArrayDeque<DataBuffer> buffers = new ArrayDeque<>();
+
+        private long size;
+
+        private long written;
+
+        private @Nullable Path file;
+
+        private @Nullable AsynchronousFileChannel channel;
+
+        private Mono<Void> add(DataBuffer buffer) {
+            size += buffer.readableByteCount();
+            if (file == null && size <= maxSize) {
+                buffers.add(buffer);
+                return Mono.empty();
+            }
+            if (overflow == AuthProperties.BodyCache.Overflow.REJECT) {
+                DataBufferUtils.release(buffer);
+                return Mono.error(tooLarge());
+            }
+            buffers.add(buffer);
+            if (file == null) {
+                List<DataBuffer> pending = List.copyOf(buffers);
+                return Mono.fromRunnable(this::open)
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .then(Mono.defer(() -> write(Flux.fromIterable(pending))));
+            }
+            return write(Flux.just(buffer));
+        }
+
+        private void open() {
+            try {
+                Path tempFile = Files.createTempFile("shore-body-", ".tmp");
+                file = tempFile;
+                channel = AsynchronousFileChannel.open(tempFile, StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private Mono<Void> write(Flux<DataBuffer> source) {
+            AsynchronousFileChannel target = channel;
+            if (target == null) {
+                return Mono.error(new IllegalStateException("Spill file is not open"));
+            }
+            long position = written;
+            return DataBufferUtils.write(source, target, position)
+                    .doOnNext(buffer -> {
+                        written += buffer.readableByteCount();
+                        disown(buffer);
+                        DataBufferUtils.release(buffer);
+                    })
+                    .then();
+        }
+
+        // 块按写入顺序返回，通常就是队首；按引用比较，内容相同的块互不影响
+        private void disown(DataBuffer buffer) {
+            Iterator<DataBuffer> iterator = buffers.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next() == buffer) {
+                    iterator.remove();
+                    return;
+                }
+            }
+        }
+
+        private CachedBody finish() throws IOException {
+            if (file == null) {
+                return MemoryBody.of(List.copyOf(buffers));
+            }
+            closeChannel();
+            return new FileBody(file);
+        }
+
+        private void discard() {
+            buffers.forEach(DataBufferUtils::release);
+            buffers.clear();
+            try {
+                closeChannel();
+                if (file != null) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                log.warn("Failed to delete request body spill file {}", file, e);
+            }
+        }
+
+        private void closeChannel() throws IOException {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    /**
+     * 已缓存的请求体
+     */
+    private sealed interface CachedBody permits MemoryBody, FileBody {
+
+        /**
+         * 重放请求体.
+         *
+         * @param bufferFactory buffer factory
+         * @return 请求体
+         */
+        Flux<DataBuffer> replay(DataBufferFactory bufferFactory);
+
+        /**
+         * 释放缓存.
+         *
+         * @return 完成信号
+         */
+        Mono<Void> release();
+    }
+
+    /**
+     * 内存中的请求体. {@link ByteBuffer} 只在取得它的迭代器关闭前有效，因此缓存期间迭代器保持打开，
+     * 释放时先关闭迭代器再释放原始块. 重放时包装这些 ByteBuffer 的副本，视图释放不影响原始块.
+     *
+     * @param buffers   原始请求体块
+     * @param iterators 原始块的 ByteBuffer 迭代器
+     * @param chunks    原始块的可读内容
+     */
+    private record MemoryBody(List<DataBuffer> buffers, List<DataBuffer.ByteBufferIterator> iterators,
+                              List<ByteBuffer> chunks) implements CachedBody {
+
+        private static MemoryBody of(List<DataBuffer> buffers) {
+            List<DataBuffer.ByteBufferIterator> iterators = new ArrayList<>(buffers.size());
+            List<ByteBuffer> chunks = new ArrayList<>(buffers.size());
+            for (DataBuffer buffer : buffers) {
+                DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers();
+                iterators.add(iterator);
+                while (iterator.hasNext()) {
+                    chunks.add(iterator.next());
+                }
+            }
+            return new MemoryBody(buffers, List.copyOf(iterators), List.copyOf(chunks));
+        }
+
+        @Override
+        public Flux<DataBuffer> replay(DataBufferFactory bufferFactory) {
+            return Flux.defer(() -> {
+                List<DataBuffer> views = new ArrayList<>(chunks.size());
+                for (ByteBuffer chunk : chunks) {
+                    views.add(bufferFactory.wrap(chunk.duplicate()));
+                }
+                return Flux.fromIterable(views);
+            });
+        }
+
+        @Override
+        public Mono<Void> release() {
+            return Mono.fromRunnable(() -> {
+                iterators.forEach(DataBuffer.ByteBufferIterator::close);
+                buffers.forEach(DataBufferUtils::release);
+            });
+        }
+    }
+
+    /**
+     * 写入临时文件的请求体.
+     *
+     * @param file 临时文件
+     */
+    private record FileBody(Path file) implements CachedBody {
+
+        @Override
+        public Flux<DataBuffer> replay(DataBufferFactory bufferFactory) {
+            return DataBufferUtils.read(file, bufferFactory, SPILL_CHUNK_SIZE);
+        }
+
+        @Override
+        public Mono<Void> release() {
+            return Mono.<Void>fromCallable(() -> {
+                        Files.deleteIfExists(file);
+                        return null;
+                    })
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .doOnError(e -> log.warn("Failed to delete request body spill file {}", file, e))
+                    .onErrorComplete();
+        }
     }
 
 }
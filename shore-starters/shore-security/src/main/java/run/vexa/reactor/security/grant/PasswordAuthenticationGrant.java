@@ -2,6 +2,7 @@ package run.vexa.reactor.security.grant;
 
 import run.vexa.reactor.commons.bean.R;
 import run.vexa.reactor.core.util.OptionalBean;
+import run.vexa.reactor.security.crypto.PasswordHashExecutor;
 import run.vexa.reactor.security.domain.CurrentUser;
 import run.vexa.reactor.security.domain.LoginRequest;
 import run.vexa.reactor.security.domain.SecurityExceptionEnum;
@@ -14,6 +15,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.util.function.BooleanSupplier;
+
 
 /**
  * PasswordAuthenticationGrant is a class that represents the password authentication grant.
@@ -25,17 +28,21 @@ public class PasswordAuthenticationGrant implements AuthenticationGrant {
 
     private final PasswordEncoder passwordEncoder;
     private final ObjectProvider<UserDetailService> userDetailServices;
+    private final ObjectProvider<PasswordHashExecutor> passwordHashExecutor;
 
     /**
      * Default constructor.
      * This constructor is used for serialization and other reflective operations.
      *
-     * @param passwordEncoder    the password encoder
-     * @param userDetailServices the user detail services
+     * @param passwordEncoder      the password encoder
+     * @param userDetailServices   the user detail services
+     * @param passwordHashExecutor the password hash executor
      */
-    public PasswordAuthenticationGrant(PasswordEncoder passwordEncoder, ObjectProvider<UserDetailService> userDetailServices) {
+    public PasswordAuthenticationGrant(PasswordEncoder passwordEncoder, ObjectProvider<UserDetailService> userDetailServices,
+                                       ObjectProvider<PasswordHashExecutor> passwordHashExecutor) {
         this.passwordEncoder = passwordEncoder;
         this.userDetailServices = userDetailServices;
+        this.passwordHashExecutor = passwordHashExecutor;
     }
 
     @Override
@@ -54,10 +61,21 @@ public class PasswordAuthenticationGrant implements AuthenticationGrant {
         return userDetailService
                 .loadByUsername(request.getUsername())
                 .switchIfEmpty(Mono.defer(() -> R.error(SecurityExceptionEnum.USERNAME_NOT_FOUND)))
-                .filter(user -> userDetailService.customMatcher()
+                .filterWhen(user -> verify(() -> userDetailService.customMatcher()
                         ? userDetailService.matches(user, request.getPassword(), request.getType())
-                        : passwordEncoder.matches(request.getPassword(), user.getPassword()))
+                        : passwordEncoder.matches(request.getPassword(), user.getPassword())))
                 .switchIfEmpty(Mono.defer(() -> R.error(SecurityExceptionEnum.PASSWORD_NOT_MATCH)));
     }
 
+    /**
+     * 校验密码，配置了执行器时在执行器线程上校验，避免阻塞事件循环线程.
+     *
+     * @param check 校验逻辑
+     * @return 是否通过
+     */
+    private Mono<Boolean> verify(BooleanSupplier check) {
+        PasswordHashExecutor executor = passwordHashExecutor.getIfAvailable();
+        return executor == null ? Mono.fromSupplier(check::getAsBoolean) : executor.verify(check);
+    }
+
 }
@@ -11,19 +11,24 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.web.server.WebFilterExchange;
 import org.springframework.security.web.server.authentication.ServerAuthenticationSuccessHandler;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import run.vexa.reactor.commons.bean.R;
 import run.vexa.reactor.commons.bean.Result;
 import run.vexa.reactor.core.util.BeanUtil;
 import run.vexa.reactor.security.cache.AuthenticationCache;
-import run.vexa.reactor.security.constants.TokenConstants;
+import run.vexa.reactor.security.cache.LoginSession;
+import run.vexa.reactor.security.cache.SessionNearCache;
+import run.vexa.reactor.security.cache.TokenDenylist;
+import run.vexa.reactor.security.crypto.SignedTokenCodec;
 import run.vexa.reactor.security.domain.ClientInfo;
 import run.vexa.reactor.security.domain.CurrentUser;
 import run.vexa.reactor.security.domain.TokenInfo;
 import run.vexa.reactor.security.service.ClientInfoService;
 import run.vexa.reactor.security.util.ResponseUtils;
 
-import java.util.ArrayList;
+import java.time.Duration;
+import java.time.Instant;
 
 import static run.vexa.reactor.commons.enums.CommonExceptionEnum.LOGIN_TOKEN_CACHE_ERROR;
 
@@ -39,6 +44,9 @@ public class TokenServerAuthenticationSuccessHandler implements ServerAuthentica
 
     private final AuthenticationCache<CurrentUser> authenticationCache;
     private final ObjectProvider<ClientInfoService> clientProvider;
+    private final ObjectProvider<SessionNearCache> nearCacheProvider;
+    private final ObjectProvider<SignedTokenCodec> tokenCodecProvider;
+    private final ObjectProvider<TokenDenylist> denylistProvider;
 
     /**
      * Default constructor.
@@ -46,10 +54,19 @@ public class TokenServerAuthenticationSuccessHandler implements ServerAuthentica
      *
      * @param authenticationCache the authentication cache
      * @param clientProvider           the client provider
+     * @param nearCacheProvider        the session near cache provider
+     * @param tokenCodecProvider       the signed token codec provider
+     * @param denylistProvider         the token denylist provider
      */
-    public TokenServerAuthenticationSuccessHandler(AuthenticationCache<CurrentUser> authenticationCache, ObjectProvider<ClientInfoService> clientProvider) {
+    public TokenServerAuthenticationSuccessHandler(AuthenticationCache<CurrentUser> authenticationCache, ObjectProvider<ClientInfoService> clientProvider,
+                                                   ObjectProvider<SessionNearCache> nearCacheProvider,
+                                                   ObjectProvider<SignedTokenCodec> tokenCodecProvider,
+                                                   ObjectProvider<TokenDenylist> denylistProvider) {
         this.authenticationCache = authenticationCache;
         this.clientProvider = clientProvider;
+        this.nearCacheProvider = nearCacheProvider;
+        this.tokenCodecProvider = tokenCodecProvider;
+        this.denylistProvider = denylistProvider;
     }
 
     @Override
@@ -81,9 +98,11 @@ public class TokenServerAuthenticationSuccessHandler implements ServerAuthentica
             userDetails.setUserId(userDetails.getId());
         }
         ClientInfo clientInfo = tokens._3;
+        SignedTokenCodec tokenCodec = tokenCodecProvider.getIfAvailable();
+        boolean signed = tokenCodec != null;
         var tokenInfo = BeanUtil.copy(userDetails, TokenInfo.class);
         tokenInfo
-                .setAccessToken(tokens._1)
+                .setAccessToken(signed ? tokenCodec.issue(tokens._1, userDetails, Duration.ofSeconds(clientInfo.getExpire())) : tokens._1)
                 .setRefreshToken(tokens._2)
                 .setExpiresIn(clientInfo.getExpire())
                 .setUserId(userDetails.getId())
@@ -91,29 +110,33 @@ public class TokenServerAuthenticationSuccessHandler implements ServerAuthentica
                         .stream()
                         .map(SimpleGrantedAuthority::getAuthority)
                         .toList());
-        return this.authenticationCache.getTokenList(TokenConstants.tokenList(tokenInfo.getUsername()))
-                .defaultIfEmpty(new ArrayList<>())
-                .flatMap(tokensList -> {
-                    if (tokensList.size() >= clientInfo.getConcurrentLoginCount()) {
-                        String firstToken = tokensList.getFirst();
-                        tokensList.removeFirst();
-                        tokensList.add(tokens._1);
-                        return this.authenticationCache.delete(TokenConstants.token(firstToken))
-                                .thenReturn(tokensList);
-                    }
-                    tokensList.add(tokens._1);
-                    return Mono.just(tokensList);
-                })
-                .flatMap(tokensList -> authenticationCache.tokenList(TokenConstants.tokenList(tokenInfo.getUsername()), tokensList, clientInfo.getRefreshExpire())
-                        .then(
-                                authenticationCache.token(TokenConstants.token(tokens._1), userDetails.getUsername(), clientInfo.getExpire())
-                                        .filter(Boolean.TRUE::equals)
-                                        .flatMap(x -> authenticationCache.refreshToken(TokenConstants.refresh(tokens._2), userDetails.getUsername(), clientInfo.getRefreshExpire()))
-                                        .filter(Boolean.TRUE::equals)
-                                        .flatMap(x -> authenticationCache.user(TokenConstants.session(tokens._1), userDetails, clientInfo.getRefreshExpire()))
-                                        .filter(Boolean.TRUE::equals)
-                                        .switchIfEmpty(Mono.defer(() -> R.error(LOGIN_TOKEN_CACHE_ERROR)))
-                                        .map(x -> tokenInfo)
-                        ));
+        LoginSession<CurrentUser> session = new LoginSession<>(userDetails.getUsername(), tokens._1, tokens._2,
+                signed ? null : userDetails, clientInfo.getExpire(), clientInfo.getRefreshExpire(),
+                clientInfo.getConcurrentLoginCount());
+        return this.authenticationCache.login(session)
+                .switchIfEmpty(Mono.defer(() -> R.error(LOGIN_TOKEN_CACHE_ERROR)))
+                .flatMapMany(Flux::fromIterable)
+                .concatMap(evicted -> evict(evicted, clientInfo, signed))
+                .then(Mono.just(tokenInfo));
+    }
+
+    /**
+     * 挤下线.
+     * <p>
+     * 被淘汰 token 的缓存已由 {@link AuthenticationCache#login(LoginSession)} 删除，这里清除近端缓存；
+     * 签名 token 无法删除，按 token ID 加入撤销名单，保留到其最长有效期结束.
+     *
+     * @param token      token，签名模式下为 token ID
+     * @param clientInfo the client info
+     * @param signed     是否为签名 token
+     * @return 完成信号
+     */
+    private Mono<Void> evict(String token, ClientInfo clientInfo, boolean signed) {
+        if (signed) {
+            TokenDenylist denylist = denylistProvider.getIfAvailable();
+            return denylist == null ? Mono.empty() : denylist.revoke(token, Instant.now().plusSeconds(clientInfo.getExpire()));
+        }
+        SessionNearCache nearCache = nearCacheProvider.getIfAvailable();
+        return nearCache == null ? Mono.empty() : nearCache.invalidate(token);
     }
 }
@@ -1,5 +1,6 @@
 package run.vexa.reactor.security.handler;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.web.server.WebFilterExchange;
@@ -10,7 +11,10 @@ import run.vexa.reactor.commons.bean.R;
 import run.vexa.reactor.commons.bean.Result;
 import run.vexa.reactor.commons.constants.Constants;
 import run.vexa.reactor.security.cache.AuthenticationCache;
+import run.vexa.reactor.security.cache.SessionNearCache;
+import run.vexa.reactor.security.cache.TokenDenylist;
 import run.vexa.reactor.security.constants.TokenConstants;
+import run.vexa.reactor.security.crypto.SignedTokenCodec;
 import run.vexa.reactor.security.domain.CurrentUser;
 import run.vexa.reactor.security.util.ResponseUtils;
 
@@ -26,15 +30,27 @@ import static run.vexa.reactor.commons.enums.CommonExceptionEnum.LOGOUT_TOKEN_ER
 public class TokenServerLogoutSuccessHandler implements ServerLogoutSuccessHandler {
 
     private final AuthenticationCache<CurrentUser> authenticationCache;
+    private final ObjectProvider<SessionNearCache> nearCacheProvider;
+    private final ObjectProvider<SignedTokenCodec> tokenCodecProvider;
+    private final ObjectProvider<TokenDenylist> denylistProvider;
 
     /**
      * Default constructor.
      * This constructor is used for serialization and other reflective operations.
      *
      * @param authenticationCache the authentication cache
+     * @param nearCacheProvider   the session near cache provider
+     * @param tokenCodecProvider  the signed token codec provider
+     * @param denylistProvider    the token denylist provider
      */
-    public TokenServerLogoutSuccessHandler(AuthenticationCache<CurrentUser> authenticationCache) {
+    public TokenServerLogoutSuccessHandler(AuthenticationCache<CurrentUser> authenticationCache,
+                                           ObjectProvider<SessionNearCache> nearCacheProvider,
+                                           ObjectProvider<SignedTokenCodec> tokenCodecProvider,
+                                           ObjectProvider<TokenDenylist> denylistProvider) {
         this.authenticationCache = authenticationCache;
+        this.nearCacheProvider = nearCacheProvider;
+        this.tokenCodecProvider = tokenCodecProvider;
+        this.denylistProvider = denylistProvider;
     }
 
     @Override
@@ -42,11 +58,39 @@ public class TokenServerLogoutSuccessHandler implements ServerLogoutSuccessHandl
         return Mono.justOrEmpty(exchange.getExchange().getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION))
                 .filter(authHeader -> authHeader.startsWith(Constants.TOKEN_TYPE))
                 .map(authHeader -> authHeader.substring(Constants.TOKEN_TYPE.length()))
-                .flatMap(bearerToken -> authenticationCache.delete(TokenConstants.token(bearerToken))
-                        .onErrorResume(ex -> R.error(LOGOUT_TOKEN_ERROR))
-                        .then(authenticationCache.delete(TokenConstants.session(bearerToken)))
-                        .onErrorResume(ex -> R.error(LOGOUT_TOKEN_ERROR))
-                        .then(authenticationCache.delete(TokenConstants.tokenSession(bearerToken))))
+                .flatMap(bearerToken -> logout(bearerToken).thenReturn(bearerToken))
                 .flatMap(x -> ResponseUtils.build(exchange.getExchange().getResponse(), Result.ok()));
     }
+
+    /**
+     * 注销 token，签名 token 加入撤销名单，其余 token 删除缓存.
+     *
+     * @param bearerToken token
+     * @return 完成信号
+     */
+    private Mono<Void> logout(String bearerToken) {
+        SignedTokenCodec tokenCodec = tokenCodecProvider.getIfAvailable();
+        if (tokenCodec != null && SignedTokenCodec.isSignedToken(bearerToken)) {
+            SignedTokenCodec.VerifiedToken verified = tokenCodec.verify(bearerToken);
+            TokenDenylist denylist = denylistProvider.getIfAvailable();
+            return verified == null || denylist == null ? Mono.empty() : denylist.revoke(verified.id(), verified.expiresAt());
+        }
+        return authenticationCache.delete(TokenConstants.token(bearerToken))
+                .onErrorResume(ex -> R.error(LOGOUT_TOKEN_ERROR))
+                .then(authenticationCache.delete(TokenConstants.session(bearerToken)))
+                .onErrorResume(ex -> R.error(LOGOUT_TOKEN_ERROR))
+                .then(authenticationCache.delete(TokenConstants.tokenSession(bearerToken)))
+                .then(invalidate(bearerToken));
+    }
+
+    /**
+     * 使近端缓存中的会话失效.
+     *
+     * @param token token
+     * @return 完成信号
+     */
+    private Mono<Void> invalidate(String token) {
+        SessionNearCache nearCache = nearCacheProvider.getIfAvailable();
+        return nearCache == null ? Mono.empty() : nearCache.invalidate(token);
+    }
 }
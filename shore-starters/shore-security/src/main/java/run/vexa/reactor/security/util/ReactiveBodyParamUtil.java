@@ -1,32 +1,38 @@
 package run.vexa.reactor.security.util;
 
-import cn.hutool.core.text.CharPool;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.web.server.context.SecurityContextServerWebExchange;
+import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.server.PayloadTooLargeException;
 import org.springframework.web.server.ServerWebExchange;
-import reactor.core.publisher.Flux;
+import org.springframework.web.server.ServerWebInputException;
 import reactor.core.publisher.Mono;
 
-import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
 
 /**
  * ReactiveBodyParamUtil is a utility class that provides methods for parsing body parameters.
+ * <p>
+ * 请求体按块聚合(超过上限返回 413)，拼接后只解码一次；表单按 {@code application/x-www-form-urlencoded}
+ * 规则单次扫描解析并做百分号解码.
  *
  * @author youta
  **/
 public class ReactiveBodyParamUtil {
 
-    private static final String EQ = "=";
+    /**
+     * 默认请求体最大字节数.
+     */
+    public static final int DEFAULT_MAX_SIZE = 256 * 1024;
 
     /**
      * Default constructor.
@@ -39,42 +45,98 @@ public class ReactiveBodyParamUtil {
      * 从request中获取body
      *
      * @param request request
-     * @return body
+     * @return body，无请求体时为空字符串
      */
-    public static String parseBodyFromRequest(ServerHttpRequest request) {
-        Flux<DataBuffer> body = request.getBody();
-        AtomicReference<String> atomRef = new AtomicReference<>();
-        body.subscribe(buffer -> {
-            ByteBuffer byteBuffer = ByteBuffer.allocate(buffer.readableByteCount());
-            buffer.toByteBuffer(byteBuffer);
-            CharBuffer charBuffer = StandardCharsets.UTF_8.decode(byteBuffer);
-            DataBufferUtils.release(buffer);
-            atomRef.set(charBuffer.toString());
-        });
-        return atomRef.get();
+    public static Mono<String> parseBodyFromRequest(ServerHttpRequest request) {
+        return parseBodyFromRequest(request, DEFAULT_MAX_SIZE);
     }
 
     /**
      * 从request中获取body
      *
      * @param request request
+     * @param maxSize 请求体最大字节数
+     * @return body，无请求体时为空字符串
+     */
+    public static Mono<String> parseBodyFromRequest(ServerHttpRequest request, int maxSize) {
+        Charset charset = charset(request);
+        return DataBufferUtils.join(request.getBody(), maxSize)
+                .map(buffer -> {
+                    try {
+                        return buffer.toString(charset);
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                })
+                .onErrorMap(DataBufferLimitException.class, PayloadTooLargeException::new)
+                .defaultIfEmpty("");
+    }
+
+    /**
+     * 解析 {@code application/x-www-form-urlencoded} 内容.
+     *
+     * @param body    body
+     * @param charset 百分号解码字符集
+     * @return 表单参数
+     * @throws ServerWebInputException 百分号编码不合法时抛出，对应 400
+     */
+    public static MultiValueMap<String, String> parseForm(String body, Charset charset) {
+        MultiValueMap<String, String> result = new LinkedMultiValueMap<>();
+        int length = body.length();
+        int start = 0;
+        while (start < length) {
+            int end = body.indexOf('&', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                // 只在当前参数内查找，避免每个无 '=' 的参数都扫描到末尾
+                int eq = start;
+                while (eq < end && body.charAt(eq) != '=') {
+                    eq++;
+                }
+                if (eq == end) {
+                    result.add(decode(body, start, end, charset), "");
+                } else if (eq > start) {
+                    result.add(decode(body, start, eq, charset), decode(body, eq + 1, end, charset));
+                }
+            }
+            start = end + 1;
+        }
+        return result;
+    }
+
+    private static String decode(String body, int from, int to, Charset charset) {
+        try {
+            return URLDecoder.decode(body.substring(from, to), charset);
+        } catch (IllegalArgumentException e) {
+            throw new ServerWebInputException("Malformed form data", null, e);
+        }
+    }
+
+    /**
+     * 从request中获取表单
+     *
+     * @param request request
+     * @return 表单参数
+     */
+    public static Mono<MultiValueMap<String, String>> getFormData(ServerRequest request) {
+        ServerHttpRequest httpRequest = delegateRequest(request);
+        if (httpRequest == null) {
+            return request.formData();
+        }
+        Charset charset = charset(httpRequest);
+        return parseBodyFromRequest(httpRequest).map(body -> parseForm(body, charset));
+    }
+
+    /**
+     * 从request中获取表单，同名参数取第一个值
+     *
+     * @param request request
      * @return body
      */
     public static Mono<Map<String, String>> getFormBodyMap(ServerRequest request) {
-        ServerWebExchange exchange = request.exchange();
-        if (exchange instanceof SecurityContextServerWebExchange securityContextServerWebExchange) {
-            ServerWebExchange delegate = securityContextServerWebExchange.getDelegate();
-            ServerHttpRequest httpRequest = delegate.getRequest();
-            String body = parseBodyFromRequest(httpRequest);
-            Map<String, String> paramMap = Arrays.stream(body.split(String.valueOf(CharPool.AMP)))
-                    .map(pair -> pair.split(EQ))
-                    .filter(keyValue -> keyValue.length == 2)
-                    .collect(Collectors.toMap(keyValue -> keyValue[0], keyValue -> keyValue[1]));
-            return Mono.just(paramMap);
-        } else {
-            return request.formData()
-                    .map(MultiValueMap::toSingleValueMap);
-        }
+        return getFormData(request).map(MultiValueMap::toSingleValueMap);
     }
 
     /**
@@ -84,16 +146,25 @@ public class ReactiveBodyParamUtil {
      * @return body
      */
     public static Mono<String> getBody(ServerRequest request) {
+        ServerHttpRequest httpRequest = delegateRequest(request);
+        if (httpRequest == null) {
+            return request.bodyToMono(String.class);
+        }
+        return parseBodyFromRequest(httpRequest);
+    }
+
+    private static ServerHttpRequest delegateRequest(ServerRequest request) {
         ServerWebExchange exchange = request.exchange();
         if (exchange instanceof SecurityContextServerWebExchange securityContextServerWebExchange) {
-            ServerWebExchange delegate = securityContextServerWebExchange.getDelegate();
-            ServerHttpRequest httpRequest = delegate.getRequest();
-            String body = parseBodyFromRequest(httpRequest);
-            return Mono.just(body);
-        } else {
-            return request.bodyToMono(String.class);
+            return securityContextServerWebExchange.getDelegate().getRequest();
         }
+        return null;
     }
 
+    private static Charset charset(ServerHttpRequest request) {
+        MediaType contentType = request.getHeaders().getContentType();
+        Charset charset = contentType == null ? null : contentType.getCharset();
+        return charset == null ? StandardCharsets.UTF_8 : charset;
+    }
 
 }
@@ -0,0 +1,120 @@
+package run.vexa.reactor.security.authentication;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.server.PayloadTooLargeException;
+import org.springframework.web.server.ServerWebInputException;
+import run.vexa.reactor.security.domain.LoginRequest;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginBodyParserTest {
+
+    private static final String BODY = "{\"type\":\"password\",\"profile\":{\"username\":\"nested\",\"tags\":[1,2]},"
+            + "\"username\":\"张三\",\"password\":\"p@ss\",\"code\":1234}";
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    private final DefaultDataBufferFactory heap = new DefaultDataBufferFactory();
+
+    private final DefaultDataBufferFactory direct = new DefaultDataBufferFactory(true);
+
+    private static void assertParsed(LoginRequest request) {
+        assertThat(request.getType()).isEqualTo("password");
+        assertThat(request.getUsername()).isEqualTo("张三");
+        assertThat(request.getPassword()).isEqualTo("p@ss");
+        assertThat(request.getCode()).isEqualTo("1234");
+    }
+
+    private LoginRequest parseInChunks(DefaultDataBufferFactory factory, String body, int chunkSize) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        try (LoginBodyParser parser = new LoginBodyParser(objectMapper, 1024)) {
+            for (int from = 0; from < bytes.length; from += chunkSize) {
+                DataBuffer buffer = factory.wrap(Arrays.copyOfRange(bytes, from, Math.min(bytes.length, from + chunkSize)));
+                if (parser.feed(buffer)) {
+                    return parser.request();
+                }
+            }
+            return parser.finish();
+        }
+    }
+
+    @Test
+    void parsesBodySplitAtEveryByte() {
+        assertParsed(parseInChunks(heap, BODY, 1));
+        assertParsed(parseInChunks(direct, BODY, 1));
+    }
+
+    @Test
+    void parsesBodySplitAcrossLargerChunks() {
+        for (int chunkSize : new int[]{3, 7, 16, 1024}) {
+            assertParsed(parseInChunks(heap, BODY, chunkSize));
+            assertParsed(parseInChunks(direct, BODY, chunkSize));
+        }
+    }
+
+    @Test
+    void completesAtEndOfTopLevelObjectAndIgnoresTrailingChunks() {
+        try (LoginBodyParser parser = new LoginBodyParser(objectMapper, 1024)) {
+            assertThat(parser.feed(heap.wrap("{\"username\":\"a\"}".getBytes(StandardCharsets.UTF_8)))).isTrue();
+            assertThat(parser.feed(heap.wrap("{\"username\":\"b\"}".getBytes(StandardCharsets.UTF_8)))).isTrue();
+
+            assertThat(parser.finish().getUsername()).isEqualTo("a");
+        }
+    }
+
+    @Test
+    void rejectsBodyOverLimit() {
+        try (LoginBodyParser parser = new LoginBodyParser(objectMapper, 8)) {
+            parser.feed(heap.wrap("{\"user".getBytes(StandardCharsets.UTF_8)));
+
+            assertThatThrownBy(() -> parser.feed(heap.wrap("name\":\"a\"}".getBytes(StandardCharsets.UTF_8))))
+                    .isInstanceOf(PayloadTooLargeException.class);
+        }
+    }
+
+    @Test
+    void rejectsMissingAndIncompleteBodies() {
+        try (LoginBodyParser parser = new LoginBodyParser(objectMapper, 1024)) {
+            assertThatThrownBy(parser::finish).isInstanceOf(ServerWebInputException.class);
+        }
+        try (LoginBodyParser parser = new LoginBodyParser(objectMapper, 1024)) {
+            parser.feed(heap.wrap("  ".getBytes(StandardCharsets.UTF_8)));
+
+            assertThatThrownBy(parser::finish).isInstanceOf(ServerWebInputException.class);
+        }
+    }
+
+    @Test
+    void truncatedObjectFailsAtEndOfInput() {
+        try (LoginBodyParser parser = new LoginBodyParser(objectMapper, 1024)) {
+            assertThat(parser.feed(heap.wrap("{\"username\":{\"a\":1}".getBytes(StandardCharsets.UTF_8)))).isFalse();
+
+            assertThatThrownBy(parser::finish).isInstanceOf(JacksonException.class);
+        }
+    }
+
+    @Test
+    void rejectsNonObjectBody() {
+        try (LoginBodyParser parser = new LoginBodyParser(objectMapper, 1024)) {
+            assertThatThrownBy(() -> parser.feed(heap.wrap("[1]".getBytes(StandardCharsets.UTF_8))))
+                    .isInstanceOf(ServerWebInputException.class);
+        }
+    }
+
+    @Test
+    void malformedJsonFailsWithJacksonException() {
+        try (LoginBodyParser parser = new LoginBodyParser(objectMapper, 1024)) {
+            assertThatThrownBy(() -> parser.feed(heap.wrap("{\"username\" \"a\"}".getBytes(StandardCharsets.UTF_8))))
+                    .isInstanceOf(JacksonException.class);
+        }
+    }
+}
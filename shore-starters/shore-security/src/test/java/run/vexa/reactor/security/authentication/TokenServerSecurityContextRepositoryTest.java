@@ -0,0 +1,124 @@
+package run.vexa.reactor.security.authentication;
+
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.web.server.WebFilterExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import run.vexa.reactor.commons.constants.Constants;
+import run.vexa.reactor.commons.exception.ServerException;
+import run.vexa.reactor.core.properties.AuthProperties;
+import run.vexa.reactor.security.cache.AuthenticationCache;
+import run.vexa.reactor.security.cache.CachedSession;
+import run.vexa.reactor.security.cache.SessionNearCache;
+import run.vexa.reactor.security.cache.TokenDenylist;
+import run.vexa.reactor.security.constants.TokenConstants;
+import run.vexa.reactor.security.crypto.SignedTokenCodec;
+import run.vexa.reactor.security.domain.CurrentUser;
+import run.vexa.reactor.security.handler.TokenServerLogoutSuccessHandler;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenServerSecurityContextRepositoryTest {
+
+    private static final String TOKEN = "t1";
+
+    @SuppressWarnings("unchecked")
+    private final AuthenticationCache<CurrentUser> authenticationCache = mock(AuthenticationCache.class);
+
+    private final AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+
+    private final SessionNearCache nearCache = new SessionNearCache(100, Duration.ofMinutes(1));
+
+    private final CurrentUser user = new CurrentUser();
+
+    private TokenServerSecurityContextRepository repository;
+
+    @SuppressWarnings("unchecked")
+    private static <T> ObjectProvider<T> provider(@Nullable T value) {
+        ObjectProvider<T> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(value);
+        return provider;
+    }
+
+    private static MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api")
+                .header(HttpHeaders.AUTHORIZATION, Constants.TOKEN_TYPE + TOKEN));
+    }
+
+    private void stubSession(Duration tokenExpire) {
+        when(authenticationCache.session(any(), any(), anyLong())).thenReturn(
+                Mono.just(new CachedSession<>("alice", Duration.ofHours(1), tokenExpire, user)));
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(authenticationManager.authenticate(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        repository = new TokenServerSecurityContextRepository(authenticationCache, authenticationManager,
+                new AuthProperties(), provider(nearCache), provider((SignedTokenCodec) null),
+                provider((TokenDenylist) null));
+    }
+
+    @Test
+    void repeatedLoadIsServedFromNearCache() {
+        stubSession(Duration.ofMinutes(10));
+
+        SecurityContext first = repository.load(exchange()).block();
+        SecurityContext second = repository.load(exchange()).block();
+
+        assertThat(first).isNotNull();
+        assertThat(second).isSameAs(first);
+        assertThat(second.getAuthentication().getPrincipal()).isSameAs(user);
+        verify(authenticationCache, times(1)).session(any(), any(), anyLong());
+    }
+
+    @Test
+    void nearCacheEntryExpiresWithTokenEvenWhenSessionLivesLonger() throws InterruptedException {
+        stubSession(Duration.ofMillis(50));
+
+        repository.load(exchange()).block();
+        assertThat(nearCache.get(TOKEN)).isNotNull();
+
+        Thread.sleep(100);
+        assertThat(nearCache.get(TOKEN)).isNull();
+        repository.load(exchange()).block();
+
+        verify(authenticationCache, times(2)).session(any(), any(), anyLong());
+    }
+
+    @Test
+    void logoutInvalidatesNearCache() {
+        stubSession(Duration.ofMinutes(10));
+        repository.load(exchange()).block();
+        assertThat(nearCache.get(TOKEN)).isNotNull();
+
+        when(authenticationCache.delete(any())).thenReturn(Mono.just(1L));
+        TokenServerLogoutSuccessHandler logoutHandler = new TokenServerLogoutSuccessHandler(authenticationCache,
+                provider(nearCache), provider((SignedTokenCodec) null), provider((TokenDenylist) null));
+        MockServerWebExchange logout = exchange();
+        StepVerifier.create(logoutHandler.onLogoutSuccess(new WebFilterExchange(logout, mock(WebFilterChain.class)), null))
+                .verifyComplete();
+
+        assertThat(nearCache.get(TOKEN)).isNull();
+        verify(authenticationCache).delete(TokenConstants.token(TOKEN));
+        when(authenticationCache.session(any(), any(), anyLong())).thenReturn(Mono.empty());
+        StepVerifier.create(repository.load(exchange()))
+                .expectError(ServerException.class)
+                .verify();
+    }
+}
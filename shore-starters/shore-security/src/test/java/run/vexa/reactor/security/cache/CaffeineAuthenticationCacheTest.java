@@ -0,0 +1,116 @@
+package run.vexa.reactor.security.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+import run.vexa.reactor.core.properties.AuthProperties;
+import run.vexa.reactor.security.constants.TokenConstants;
+import run.vexa.reactor.security.domain.CurrentUser;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CaffeineAuthenticationCacheTest {
+
+    private final CaffeineAuthenticationCache cache = new CaffeineAuthenticationCache();
+
+    private static CurrentUser user(String username) {
+        return CurrentUser.builder().username(username).build();
+    }
+
+    private Duration expireOf(String key) {
+        Duration expire = cache.getExpire(key).block();
+        assertThat(expire).isNotNull();
+        return expire;
+    }
+
+    @Test
+    void entriesExpireWithTheTtlPassedToEachWrite() {
+        cache.token("token:a", "alice", 120).block();
+        cache.user("session:a", user("alice"), 30).block();
+
+        assertThat(expireOf("token:a")).isBetween(Duration.ofSeconds(115), Duration.ofSeconds(120));
+        assertThat(expireOf("session:a")).isBetween(Duration.ofSeconds(25), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void readsDoNotExtendTheTtl() {
+        cache.token("token:a", "alice", 120).block();
+        Duration before = expireOf("token:a");
+
+        StepVerifier.create(cache.token("token:a")).expectNext("alice").verifyComplete();
+
+        assertThat(expireOf("token:a")).isLessThanOrEqualTo(before);
+    }
+
+    @Test
+    void zeroTtlEntryIsNotReturned() {
+        cache.token("token:a", "alice", 0).block();
+
+        StepVerifier.create(cache.token("token:a")).verifyComplete();
+    }
+
+    @Test
+    void missingKeyReportsMinusTwoSeconds() {
+        assertThat(expireOf("token:missing")).isEqualTo(Duration.ofSeconds(-2));
+    }
+
+    @Test
+    void renewExtendsRemainingTokenTtlByRenewTime() {
+        cache.token("token:a", "alice", 60).block();
+
+        cache.renew("token:a", 3600, 600);
+
+        assertThat(expireOf("token:a")).isBetween(Duration.ofSeconds(655), Duration.ofSeconds(660));
+    }
+
+    @Test
+    void renewIsCappedBySessionRemainingTime() {
+        cache.token("token:a", "alice", 60).block();
+
+        cache.renew("token:a", 100, 600);
+
+        assertThat(expireOf("token:a")).isBetween(Duration.ofSeconds(155), Duration.ofSeconds(160));
+    }
+
+    @Test
+    void renewIgnoresMissingToken() {
+        cache.renew("token:missing", 3600, 600);
+
+        StepVerifier.create(cache.renew("token:missing", 600)).expectNext(false).verifyComplete();
+        assertThat(expireOf("token:missing")).isEqualTo(Duration.ofSeconds(-2));
+    }
+
+    @Test
+    void loginEvictsOldestTokensBeyondMaxSessions() {
+        for (String token : List.of("t1", "t2", "t3")) {
+            List<String> evicted = cache.login(new LoginSession<>("alice", token, "r-" + token, user("alice"), 60, 120, 2))
+                    .block();
+            assertThat(evicted).isEqualTo("t3".equals(token) ? List.of("t1") : List.of());
+        }
+
+        StepVerifier.create(cache.token(TokenConstants.token("t1"))).verifyComplete();
+        StepVerifier.create(cache.user(TokenConstants.session("t1"))).verifyComplete();
+        StepVerifier.create(cache.token(TokenConstants.token("t3"))).expectNext("alice").verifyComplete();
+        StepVerifier.create(cache.token(TokenConstants.refresh("r-t1"))).expectNext("alice").verifyComplete();
+        assertThat(expireOf(TokenConstants.token("t3"))).isBetween(Duration.ofSeconds(55), Duration.ofSeconds(60));
+        assertThat(expireOf(TokenConstants.session("t3"))).isBetween(Duration.ofSeconds(115), Duration.ofSeconds(120));
+    }
+
+    @Test
+    void tokenCacheIsBoundedByWeight() {
+        AuthProperties.LocalCache properties = new AuthProperties.LocalCache();
+        properties.setTokenMaximumWeight(2);
+        CaffeineAuthenticationCache bounded = new CaffeineAuthenticationCache(properties);
+
+        for (int i = 0; i < 10; i++) {
+            bounded.token("token:" + i, "alice", 60).block();
+        }
+        Cache<String, ?> tokens = bounded.caches().get("token");
+        tokens.cleanUp();
+
+        assertThat(tokens.estimatedSize()).isLessThanOrEqualTo(2);
+    }
+}
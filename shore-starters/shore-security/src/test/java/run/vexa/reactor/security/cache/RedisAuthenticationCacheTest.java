@@ -0,0 +1,160 @@
+package run.vexa.reactor.security.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import run.vexa.reactor.redis.util.ReactiveRedisUtil;
+import run.vexa.reactor.security.constants.TokenConstants;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedisAuthenticationCacheTest {
+
+    private ReactiveRedisUtil redisUtil;
+    private ReactiveStringRedisTemplate template;
+    private ReactiveValueOperations<String, String> values;
+    private RedisAuthenticationCache<String> cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisUtil = Mockito.mock(ReactiveRedisUtil.class);
+        template = Mockito.mock(ReactiveStringRedisTemplate.class);
+        values = Mockito.mock(ReactiveValueOperations.class);
+        when(template.opsForValue()).thenReturn(values);
+        when(values.set(anyString(), anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+        when(redisUtil.set(anyString(), any(), any(Duration.class))).thenReturn(Mono.just(true));
+        when(redisUtil.del(anyString())).thenReturn(Mono.just(1L));
+        when(template.delete(any(String[].class))).thenReturn(Mono.just(2L));
+        cache = new RedisAuthenticationCache<>(redisUtil, template);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private ArgumentCaptor<List<String>> stubScript(List<String> evicted) {
+        ArgumentCaptor<List<String>> args = ArgumentCaptor.forClass(List.class);
+        when(template.execute(any(RedisScript.class), anyList(), args.capture())).thenReturn(Flux.just((List) evicted));
+        return args;
+    }
+
+    private LoginSession<String> session(String token) {
+        return new LoginSession<>("alice", token, "r-" + token, "user", 60, 120, 2);
+    }
+
+    @Test
+    void loginMergesLegacyTokenListIntoSortedSetAndDeletesIt() {
+        String legacyKey = TokenConstants.tokenList("alice");
+        when(redisUtil.<List<String>>get(legacyKey)).thenReturn(Mono.just(List.of("old1", "old2")));
+        ArgumentCaptor<List<String>> args = stubScript(List.of("old1"));
+
+        StepVerifier.create(cache.login(session("t1")))
+                .expectNext(List.of("old1"))
+                .verifyComplete();
+
+        assertThat(args.getValue()).hasSize(5);
+        assertThat(args.getValue().get(0)).isEqualTo("t1");
+        assertThat(args.getValue().subList(3, 5)).containsExactly("old1", "old2");
+        verify(redisUtil).del(legacyKey);
+        verify(template).delete(TokenConstants.token("old1"), TokenConstants.session("old1"));
+    }
+
+    @Test
+    void loginWithoutLegacyTokenListRunsScriptOnly() {
+        when(redisUtil.<List<String>>get(TokenConstants.tokenList("alice"))).thenReturn(Mono.empty());
+        ArgumentCaptor<List<String>> args = stubScript(List.of());
+
+        StepVerifier.create(cache.login(session("t1")))
+                .expectNext(List.of())
+                .verifyComplete();
+
+        assertThat(args.getValue()).containsExactly("t1", "2", "120");
+        verify(redisUtil, never()).del(anyString());
+        verify(template, never()).delete(any(String[].class));
+        verify(template).execute(any(RedisScript.class), eq(List.of(TokenConstants.tokenSet("alice"))), anyList());
+    }
+
+    @Test
+    void sessionRenewalIsHandedToCoalescerInsteadOfSendingExpire() {
+        SessionRenewalCoalescer coalescer = Mockito.mock(SessionRenewalCoalescer.class);
+        RedisAuthenticationCache<String> coalesced = new RedisAuthenticationCache<>(redisUtil, template, coalescer);
+        when(values.get("token:t1")).thenReturn(Mono.just("alice"));
+        when(template.getExpire("session:t1")).thenReturn(Mono.just(Duration.ofSeconds(100)));
+        when(redisUtil.<String>get("session:t1")).thenReturn(Mono.just("user"));
+        when(template.getExpire("token:t1")).thenReturn(Mono.just(Duration.ofSeconds(60)));
+        Instant before = Instant.now();
+
+        StepVerifier.create(coalesced.session("token:t1", "session:t1", 600))
+                .assertNext(session -> assertThat(session.user()).isEqualTo("user"))
+                .verifyComplete();
+
+        ArgumentCaptor<Instant> deadline = ArgumentCaptor.forClass(Instant.class);
+        verify(coalescer).touch(eq("token:t1"), deadline.capture());
+        // token 剩余 60 秒，加上不超过会话剩余时间的续期 100 秒
+        assertThat(deadline.getValue()).isBetween(before.plusSeconds(160), Instant.now().plusSeconds(160));
+        verify(template, never()).expire(anyString(), any(Duration.class));
+    }
+
+    @Test
+    void expiredSessionIsNotResolvedOrRenewed() {
+        SessionRenewalCoalescer coalescer = Mockito.mock(SessionRenewalCoalescer.class);
+        RedisAuthenticationCache<String> coalesced = new RedisAuthenticationCache<>(redisUtil, template, coalescer);
+        when(values.get("token:t1")).thenReturn(Mono.just("alice"));
+        when(template.getExpire("session:t1")).thenReturn(Mono.just(Duration.ofSeconds(-2)));
+        when(redisUtil.<String>get("session:t1")).thenReturn(Mono.just("user"));
+        when(template.getExpire("token:t1")).thenReturn(Mono.just(Duration.ofSeconds(60)));
+
+        StepVerifier.create(coalesced.session("token:t1", "session:t1", 600)).verifyComplete();
+
+        verifyNoInteractions(coalescer);
+    }
+
+    @Test
+    void sessionResolvesOwnerExpireAndUserAndRenewsTokenWithoutCoalescer() {
+        when(values.get("token:t1")).thenReturn(Mono.just("alice"));
+        when(template.getExpire("session:t1")).thenReturn(Mono.just(Duration.ofSeconds(3600)));
+        when(redisUtil.<String>get("session:t1")).thenReturn(Mono.just("user"));
+        when(template.getExpire("token:t1")).thenReturn(Mono.just(Duration.ofSeconds(60)));
+        when(template.expire(anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+
+        StepVerifier.create(cache.session("token:t1", "session:t1", 600))
+                .assertNext(session -> {
+                    assertThat(session.username()).isEqualTo("alice");
+                    assertThat(session.expire()).isEqualTo(Duration.ofSeconds(3600));
+                    assertThat(session.tokenExpire()).isEqualTo(Duration.ofSeconds(60));
+                    assertThat(session.user()).isEqualTo("user");
+                })
+                .verifyComplete();
+
+        verify(template).expire("token:t1", Duration.ofSeconds(660));
+    }
+
+    @Test
+    void sessionIsEmptyWhenTokenIsMissing() {
+        when(values.get("token:t1")).thenReturn(Mono.empty());
+        when(template.getExpire("session:t1")).thenReturn(Mono.just(Duration.ofSeconds(3600)));
+        when(redisUtil.<String>get("session:t1")).thenReturn(Mono.just("user"));
+        when(template.getExpire("token:t1")).thenReturn(Mono.just(Duration.ofSeconds(-2)));
+
+        StepVerifier.create(cache.session("token:t1", "session:t1", 600)).verifyComplete();
+
+        verify(template, never()).expire(anyString(), any(Duration.class));
+    }
+}
@@ -0,0 +1,87 @@
+package run.vexa.reactor.security.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedisSessionNearCacheTest {
+
+    private final SecurityContext context = new SecurityContextImpl();
+
+    private final Sinks.Many<ReactiveSubscription.Message<String, String>> messages =
+            Sinks.many().multicast().onBackpressureBuffer();
+
+    private ReactiveStringRedisTemplate template;
+    private RedisSessionNearCache cache;
+
+    @BeforeEach
+    void setUp() {
+        template = Mockito.mock(ReactiveStringRedisTemplate.class);
+        doReturn(messages.asFlux()).when(template).listenToChannel(RedisSessionNearCache.INVALIDATION_CHANNEL);
+        cache = new RedisSessionNearCache(100, Duration.ofSeconds(30), template);
+        cache.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.destroy();
+    }
+
+    @Test
+    void invalidationPublishedByAnotherNodeEvictsLocalEntry() {
+        cache.put("t1", context, Duration.ofMinutes(10));
+        cache.put("t2", context, Duration.ofMinutes(10));
+
+        messages.tryEmitNext(new ReactiveSubscription.ChannelMessage<>(RedisSessionNearCache.INVALIDATION_CHANNEL, "t1"));
+
+        assertThat(cache.get("t1")).isNull();
+        assertThat(cache.get("t2")).isSameAs(context);
+    }
+
+    @Test
+    void invalidateEvictsLocallyAndPublishesToken() {
+        when(template.convertAndSend(RedisSessionNearCache.INVALIDATION_CHANNEL, "t1")).thenReturn(Mono.just(1L));
+        cache.put("t1", context, Duration.ofMinutes(10));
+
+        StepVerifier.create(cache.invalidate("t1")).verifyComplete();
+
+        assertThat(cache.get("t1")).isNull();
+        verify(template).convertAndSend(RedisSessionNearCache.INVALIDATION_CHANNEL, "t1");
+    }
+
+    @Test
+    void publishFailureDoesNotFailInvalidate() {
+        when(template.convertAndSend(RedisSessionNearCache.INVALIDATION_CHANNEL, "t1"))
+                .thenReturn(Mono.error(new IllegalStateException("redis down")));
+        cache.put("t1", context, Duration.ofMinutes(10));
+
+        StepVerifier.create(cache.invalidate("t1")).verifyComplete();
+
+        assertThat(cache.get("t1")).isNull();
+    }
+
+    @Test
+    void destroyStopsListening() {
+        cache.destroy();
+        cache.put("t1", context, Duration.ofMinutes(10));
+
+        messages.tryEmitNext(new ReactiveSubscription.ChannelMessage<>(RedisSessionNearCache.INVALIDATION_CHANNEL, "t1"));
+
+        assertThat(cache.get("t1")).isSameAs(context);
+    }
+}
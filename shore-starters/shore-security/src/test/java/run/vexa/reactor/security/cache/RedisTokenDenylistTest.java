@@ -0,0 +1,111 @@
+package run.vexa.reactor.security.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveZSetOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedisTokenDenylistTest {
+
+    private final Sinks.Many<ReactiveSubscription.Message<String, String>> messages =
+            Sinks.many().multicast().onBackpressureBuffer();
+
+    private final long expiresAt = Instant.now().plusSeconds(600).toEpochMilli();
+
+    private ReactiveStringRedisTemplate template;
+    private ReactiveZSetOperations<String, String> zSet;
+    private RedisTokenDenylist denylist;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        template = Mockito.mock(ReactiveStringRedisTemplate.class);
+        zSet = Mockito.mock(ReactiveZSetOperations.class);
+        when(template.opsForZSet()).thenReturn(zSet);
+        doReturn(messages.asFlux()).when(template).listenToChannel(RedisTokenDenylist.REVOCATION_CHANNEL);
+        when(zSet.rangeByScoreWithScores(eq(RedisTokenDenylist.DENYLIST_KEY), any()))
+                .thenReturn(Flux.just(ZSetOperations.TypedTuple.of("jti-stored", (double) expiresAt)));
+        denylist = new RedisTokenDenylist(template);
+        denylist.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        denylist.destroy();
+    }
+
+    private void publish(String message) {
+        messages.tryEmitNext(new ReactiveSubscription.ChannelMessage<>(RedisTokenDenylist.REVOCATION_CHANNEL, message));
+    }
+
+    @Test
+    void revocationsStoredBeforeSubscribingAreLoaded() {
+        assertThat(denylist.isRevoked("jti-stored")).isTrue();
+    }
+
+    @Test
+    void revocationPublishedByAnotherNodeIsApplied() {
+        publish("jti-remote:" + expiresAt);
+
+        assertThat(denylist.isRevoked("jti-remote")).isTrue();
+    }
+
+    @Test
+    void malformedOrExpiredNotificationsAreIgnored() {
+        publish("jti-bad:soon");
+        publish("no-expiry");
+        publish("jti-old:" + Instant.now().minusSeconds(1).toEpochMilli());
+        publish("jti-next:" + expiresAt);
+
+        assertThat(denylist.isRevoked("jti-bad")).isFalse();
+        assertThat(denylist.isRevoked("jti-old")).isFalse();
+        assertThat(denylist.isRevoked("jti-next")).isTrue();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void revokeStoresPrunesAndPublishes() {
+        when(zSet.add(anyString(), anyString(), anyDouble())).thenReturn(Mono.just(true));
+        when(zSet.removeRangeByScore(anyString(), any(Range.class))).thenReturn(Mono.just(0L));
+        when(template.convertAndSend(anyString(), anyString())).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(denylist.revoke("jti-1", Instant.ofEpochMilli(expiresAt))).verifyComplete();
+
+        assertThat(denylist.isRevoked("jti-1")).isTrue();
+        verify(zSet).add(RedisTokenDenylist.DENYLIST_KEY, "jti-1", (double) expiresAt);
+        verify(zSet).removeRangeByScore(eq(RedisTokenDenylist.DENYLIST_KEY), any(Range.class));
+        verify(template).convertAndSend(RedisTokenDenylist.REVOCATION_CHANNEL, "jti-1:" + expiresAt);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void revokeStillAppliesLocallyWhenRedisFails() {
+        when(zSet.add(anyString(), anyString(), anyDouble())).thenReturn(Mono.error(new IllegalStateException("redis down")));
+        when(zSet.removeRangeByScore(anyString(), any(Range.class))).thenReturn(Mono.just(0L));
+        when(template.convertAndSend(anyString(), anyString())).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(denylist.revoke("jti-1", Instant.ofEpochMilli(expiresAt))).verifyComplete();
+
+        assertThat(denylist.isRevoked("jti-1")).isTrue();
+    }
+}
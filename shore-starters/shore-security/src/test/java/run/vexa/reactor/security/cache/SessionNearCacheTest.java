@@ -0,0 +1,59 @@
+package run.vexa.reactor.security.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionNearCacheTest {
+
+    private final SecurityContext context = new SecurityContextImpl();
+
+    @Test
+    void cachedContextIsReturnedUntilInvalidated() {
+        SessionNearCache cache = new SessionNearCache(100, Duration.ofSeconds(30));
+
+        cache.put("t1", context, Duration.ofMinutes(10));
+
+        assertThat(cache.get("t1")).isSameAs(context);
+        cache.invalidate("t1").block();
+        assertThat(cache.get("t1")).isNull();
+    }
+
+    @Test
+    void sessionAboutToExpireIsNotCachedPastItsRemainingTime() throws InterruptedException {
+        SessionNearCache cache = new SessionNearCache(100, Duration.ofMinutes(1));
+
+        cache.put("t1", context, Duration.ofMillis(50));
+        assertThat(cache.get("t1")).isSameAs(context);
+
+        Thread.sleep(100);
+        assertThat(cache.get("t1")).isNull();
+    }
+
+    @Test
+    void expiredSessionIsNotCached() {
+        SessionNearCache cache = new SessionNearCache(100, Duration.ofSeconds(30));
+
+        cache.put("t1", context, Duration.ZERO);
+        cache.put("t2", context, Duration.ofSeconds(-2));
+
+        assertThat(cache.get("t1")).isNull();
+        assertThat(cache.get("t2")).isNull();
+    }
+
+    @Test
+    void invalidateLocalOnlyRemovesThatToken() {
+        SessionNearCache cache = new SessionNearCache(100, Duration.ofSeconds(30));
+        cache.put("t1", context, Duration.ofMinutes(10));
+        cache.put("t2", context, Duration.ofMinutes(10));
+
+        cache.invalidateLocal("t1");
+
+        assertThat(cache.get("t1")).isNull();
+        assertThat(cache.get("t2")).isSameAs(context);
+    }
+}
@@ -0,0 +1,95 @@
+package run.vexa.reactor.security.cache;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionRenewalCoalescerTest {
+
+    private final List<Map<String, Instant>> batches = new CopyOnWriteArrayList<>();
+
+    private SessionRenewalCoalescer coalescer(Duration minInterval) {
+        return new SessionRenewalCoalescer(Duration.ofHours(1), minInterval, 100, batch -> {
+            batches.add(batch);
+            return Mono.empty();
+        });
+    }
+
+    @Test
+    void touchesWithinOnePeriodAreFlushedAsOneBatchWithLastDeadline() {
+        SessionRenewalCoalescer coalescer = coalescer(Duration.ZERO);
+        Instant first = Instant.parse("2026-01-01T00:00:00Z");
+        Instant last = first.plusSeconds(60);
+
+        coalescer.touch("token:a", first);
+        coalescer.touch("token:b", first);
+        coalescer.touch("token:a", last);
+        StepVerifier.create(coalescer.flush()).verifyComplete();
+
+        assertThat(batches).containsExactly(Map.of("token:a", last, "token:b", first));
+    }
+
+    @Test
+    void emptyFlushDoesNotCallFlusher() {
+        SessionRenewalCoalescer coalescer = coalescer(Duration.ZERO);
+
+        StepVerifier.create(coalescer.flush()).verifyComplete();
+
+        assertThat(batches).isEmpty();
+    }
+
+    @Test
+    void recentlyRenewedTokenIsSkippedUntilMinInterval() {
+        SessionRenewalCoalescer coalescer = coalescer(Duration.ofMinutes(1));
+        Instant expireAt = Instant.now().plusSeconds(600);
+
+        coalescer.touch("token:a", expireAt);
+        coalescer.flush().block();
+        coalescer.touch("token:a", expireAt.plusSeconds(1));
+        coalescer.touch("token:b", expireAt);
+        coalescer.flush().block();
+
+        assertThat(batches).containsExactly(Map.of("token:a", expireAt), Map.of("token:b", expireAt));
+    }
+
+    @Test
+    void flusherErrorIsSwallowed() {
+        SessionRenewalCoalescer coalescer = new SessionRenewalCoalescer(Duration.ofHours(1), Duration.ZERO, 100,
+                batch -> Mono.error(new IllegalStateException("redis down")));
+        coalescer.touch("token:a", Instant.now());
+
+        StepVerifier.create(coalescer.flush()).verifyComplete();
+    }
+
+    @Test
+    void pendingRenewalsAreFlushedPeriodicallyAndOnDestroy() throws InterruptedException {
+        CountDownLatch flushed = new CountDownLatch(1);
+        SessionRenewalCoalescer coalescer = new SessionRenewalCoalescer(Duration.ofMillis(20), Duration.ZERO, 100, batch -> {
+            batches.add(batch);
+            flushed.countDown();
+            return Mono.empty();
+        });
+        Instant expireAt = Instant.now().plusSeconds(600);
+        coalescer.afterPropertiesSet();
+
+        coalescer.touch("token:a", expireAt);
+        assertThat(flushed.await(5, TimeUnit.SECONDS)).isTrue();
+        coalescer.destroy();
+        int periodic = batches.size();
+        coalescer.touch("token:b", expireAt);
+        coalescer.destroy();
+
+        assertThat(batches.get(0)).isEqualTo(Map.of("token:a", expireAt));
+        assertThat(batches).hasSize(periodic + 1).last().isEqualTo(Map.of("token:b", expireAt));
+    }
+}
@@ -0,0 +1,30 @@
+package run.vexa.reactor.security.cache;
+
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenDenylistTest {
+
+    private final TokenDenylist denylist = new TokenDenylist();
+
+    @Test
+    void revokedTokenIsDeniedUntilItExpires() throws InterruptedException {
+        StepVerifier.create(denylist.revoke("jti-1", Instant.now().plusMillis(100))).verifyComplete();
+
+        assertThat(denylist.isRevoked("jti-1")).isTrue();
+        assertThat(denylist.isRevoked("jti-2")).isFalse();
+        Thread.sleep(200);
+        assertThat(denylist.isRevoked("jti-1")).isFalse();
+    }
+
+    @Test
+    void alreadyExpiredTokenIsNotRecorded() {
+        denylist.revokeLocal("jti-1", Instant.now().minusSeconds(1));
+
+        assertThat(denylist.isRevoked("jti-1")).isFalse();
+    }
+}
@@ -0,0 +1,105 @@
+package run.vexa.reactor.security.crypto;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import run.vexa.reactor.commons.exception.ServerException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordHashExecutorTest {
+
+    private final PasswordHashExecutor executor = new PasswordHashExecutor(1, 1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.destroy();
+    }
+
+    private Disposable occupyWorker(CountDownLatch started) {
+        return executor.verify(() -> {
+            started.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }).subscribe();
+    }
+
+    @Test
+    void verifiesOnHashThreadAndRecordsLatency() {
+        AtomicReference<String> thread = new AtomicReference<>();
+        AtomicLong latency = new AtomicLong(-1);
+        executor.setLatencyRecorder(latency::set);
+
+        StepVerifier.create(executor.verify(() -> {
+                    thread.set(Thread.currentThread().getName());
+                    return true;
+                }))
+                .expectNext(true)
+                .verifyComplete();
+
+        assertThat(thread.get()).startsWith("shore-password-");
+        assertThat(latency.get()).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    void checkFailureIsSignalledAsError() {
+        StepVerifier.create(executor.verify(() -> {
+                    throw new IllegalStateException("bad hash");
+                }))
+                .verifyErrorMessage("bad hash");
+    }
+
+    @Test
+    void saturatedExecutorRejectsImmediately() throws InterruptedException {
+        AtomicInteger rejections = new AtomicInteger();
+        executor.setRejectionRecorder(rejections::incrementAndGet);
+        CountDownLatch started = new CountDownLatch(1);
+        occupyWorker(started);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Mono<Boolean> queued = executor.verify(() -> true).cache();
+        queued.subscribe();
+
+        assertThat(executor.activeCount()).isEqualTo(1);
+        assertThat(executor.queueDepth()).isEqualTo(1);
+        StepVerifier.create(executor.verify(() -> true))
+                .expectError(ServerException.class)
+                .verify();
+        assertThat(rejections).hasValue(1);
+
+        release.countDown();
+        StepVerifier.create(queued).expectNext(true).verifyComplete();
+    }
+
+    @Test
+    void cancelledQueuedCheckIsNotRun() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        occupyWorker(started);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        AtomicInteger runs = new AtomicInteger();
+
+        executor.verify(() -> runs.incrementAndGet() > 0).subscribe().dispose();
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((executor.queueDepth() > 0 || executor.activeCount() > 0) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(executor.queueDepth()).isZero();
+        assertThat(runs).hasValue(0);
+    }
+}
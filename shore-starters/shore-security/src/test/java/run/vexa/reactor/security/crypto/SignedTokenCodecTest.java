@@ -0,0 +1,109 @@
+package run.vexa.reactor.security.crypto;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import run.vexa.reactor.security.domain.CurrentUser;
+import run.vexa.reactor.security.domain.RoleEnum;
+import run.vexa.reactor.security.domain.RoleInfo;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SignedTokenCodecTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private final SignedTokenCodec codec = new SignedTokenCodec(SECRET, "shore", Duration.ZERO);
+
+    private static CurrentUser user(String username) {
+        CurrentUser user = new CurrentUser();
+        user.setUsername(username);
+        user.setId("42");
+        user.setType(2);
+        user.setRoleInfos(List.of(RoleInfo.builder().role(RoleEnum.ROLE_ADMIN).build()));
+        return user;
+    }
+
+    @Test
+    void issuedTokenRoundTrips() {
+        Instant before = Instant.now();
+        String token = codec.issue("jti-1", user("alice"), Duration.ofMinutes(5));
+
+        SignedTokenCodec.VerifiedToken verified = codec.parse(token);
+
+        assertThat(SignedTokenCodec.isSignedToken(token)).isTrue();
+        assertThat(verified.id()).isEqualTo("jti-1");
+        assertThat(verified.expiresAt()).isBetween(before.plusSeconds(299), Instant.now().plusSeconds(300));
+        assertThat(verified.user().getUsername()).isEqualTo("alice");
+        assertThat(verified.user().getId()).isEqualTo("42");
+        assertThat(verified.user().getUserId()).isEqualTo("42");
+        assertThat(verified.user().getType()).isEqualTo(2);
+        assertThat(verified.user().getAccessToken()).isEqualTo(token);
+        assertThat(verified.user().getRoleInfos()).extracting(RoleInfo::getRole).containsExactly(RoleEnum.ROLE_ADMIN);
+    }
+
+    @Test
+    void tamperedPayloadIsRejected() {
+        String alice = codec.issue("jti-1", user("alice"), Duration.ofMinutes(5));
+        String admin = codec.issue("jti-2", user("admin"), Duration.ofMinutes(5));
+        String[] aliceParts = alice.split("\\.");
+        String[] adminParts = admin.split("\\.");
+        String forged = aliceParts[0] + "." + adminParts[1] + "." + aliceParts[2];
+
+        assertThat(codec.verify(forged)).isNull();
+        assertThatThrownBy(() -> codec.parse(forged)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyOrIssuerIsRejected() {
+        SignedTokenCodec otherKey = new SignedTokenCodec("fedcba9876543210fedcba9876543210", "shore", Duration.ZERO);
+        SignedTokenCodec otherIssuer = new SignedTokenCodec(SECRET, "other", Duration.ZERO);
+
+        assertThat(codec.verify(otherKey.issue("jti-1", user("alice"), Duration.ofMinutes(5)))).isNull();
+        assertThat(codec.verify(otherIssuer.issue("jti-1", user("alice"), Duration.ofMinutes(5)))).isNull();
+    }
+
+    @Test
+    void expiredTokenIsRejectedUnlessWithinClockSkew() {
+        String token = codec.issue("jti-1", user("alice"), Duration.ofSeconds(-10));
+        SignedTokenCodec lenient = new SignedTokenCodec(SECRET, "shore", Duration.ofMinutes(1));
+
+        assertThat(codec.verify(token)).isNull();
+        assertThat(lenient.verify(token)).isNotNull();
+    }
+
+    @Test
+    void garbageIsRejected() {
+        assertThat(codec.verify("a.b.c")).isNull();
+        assertThat(codec.verify("")).isNull();
+    }
+
+    @Test
+    void missingRolesFallBackToDefaultRoles() {
+        CurrentUser user = user("alice");
+        user.setRoleInfos(List.of());
+
+        SignedTokenCodec.VerifiedToken verified = codec.parse(codec.issue("jti-1", user, Duration.ofMinutes(5)));
+
+        assertThat(verified.user().getRoleInfos()).extracting(RoleInfo::getRole)
+                .containsExactlyElementsOf(CurrentUser.defaultRoleInfos().stream().map(RoleInfo::getRole).toList());
+    }
+
+    @Test
+    void signedTokensAreDistinguishedFromCacheTokens() {
+        assertThat(SignedTokenCodec.isSignedToken("a.b.c")).isTrue();
+        assertThat(SignedTokenCodec.isSignedToken("0f8fad5b-d9cb-469f-a165-70867728950e")).isFalse();
+        assertThat(SignedTokenCodec.isSignedToken(".b.c")).isFalse();
+        assertThat(SignedTokenCodec.isSignedToken("a..c")).isFalse();
+    }
+
+    @Test
+    void emptySecretIsRejected() {
+        assertThatThrownBy(() -> new SignedTokenCodec("", "shore", Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,148 @@
+package run.vexa.reactor.security.filter;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.PayloadTooLargeException;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import run.vexa.reactor.core.properties.AuthProperties;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheBodyGlobalFilterTest {
+
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+
+    @Test
+    void replaysCachedBodyToEveryReaderAndReleasesChunksAfterChain() {
+        CacheBodyGlobalFilter filter = new CacheBodyGlobalFilter(new AuthProperties());
+        List<NettyDataBuffer> chunks = chunks("{\"username\":", "\"admin\",", "\"password\":\"secret\"}");
+        List<String> reads = new ArrayList<>();
+        WebFilterChain chain = exchange -> read(exchange.getRequest().getBody()).doOnNext(reads::add)
+                .then(read(exchange.getRequest().getBody()).doOnNext(reads::add))
+                .then(Mono.fromRunnable(() -> assertThat(chunks).allSatisfy(chunk ->
+                        assertThat(chunk.getNativeBuffer().refCnt()).isEqualTo(1))));
+
+        StepVerifier.create(filter.filter(exchange("/login", chunks), chain)).verifyComplete();
+
+        String body = "{\"username\":\"admin\",\"password\":\"secret\"}";
+        assertThat(reads).containsExactly(body, body);
+        assertReleased(chunks);
+    }
+
+    @Test
+    void rejectsDeclaredLengthOverLimitWithoutReadingBody() {
+        CacheBodyGlobalFilter filter = new CacheBodyGlobalFilter(properties(AuthProperties.BodyCache.Overflow.REJECT));
+        List<NettyDataBuffer> chunks = chunks("0123456789", "abcdefghij");
+        AtomicBoolean chained = new AtomicBoolean();
+
+        StepVerifier.create(filter.filter(exchange("/login", chunks), exchange -> {
+                    chained.set(true);
+                    return Mono.empty();
+                }))
+                .verifyError(PayloadTooLargeException.class);
+
+        assertThat(chained).isFalse();
+        chunks.forEach(DataBufferUtils::release);
+    }
+
+    @Test
+    void rejectsBodyGrowingPastLimitAndReleasesEveryChunk() {
+        CacheBodyGlobalFilter filter = new CacheBodyGlobalFilter(properties(AuthProperties.BodyCache.Overflow.REJECT));
+        List<NettyDataBuffer> chunks = chunks("0123", "4567", "89ab");
+        AtomicBoolean chained = new AtomicBoolean();
+
+        // the declared length is within the limit, the actual body is not
+        StepVerifier.create(filter.filter(exchange("/login", 4, chunks), exchange -> {
+                    chained.set(true);
+                    return Mono.empty();
+                }))
+                .verifyError(PayloadTooLargeException.class);
+
+        assertThat(chained).isFalse();
+        assertReleased(chunks);
+    }
+
+    @Test
+    void spillsLargeBodyToFileReplaysItAndCleansUp() throws IOException {
+        CacheBodyGlobalFilter filter = new CacheBodyGlobalFilter(properties(AuthProperties.BodyCache.Overflow.SPILL));
+        List<NettyDataBuffer> chunks = chunks("0123456789", "abcdefghij", "KLMNOPQRST");
+        long spillFiles = spillFiles();
+        List<String> reads = new ArrayList<>();
+        WebFilterChain chain = exchange -> read(exchange.getRequest().getBody()).doOnNext(reads::add)
+                .then(read(exchange.getRequest().getBody()).doOnNext(reads::add))
+                .then();
+
+        StepVerifier.create(filter.filter(exchange("/login", chunks), chain)).verifyComplete();
+
+        assertThat(reads).containsExactly("0123456789abcdefghijKLMNOPQRST", "0123456789abcdefghijKLMNOPQRST");
+        assertReleased(chunks);
+        assertThat(spillFiles()).isEqualTo(spillFiles);
+    }
+
+    private static AuthProperties properties(AuthProperties.BodyCache.Overflow overflow) {
+        AuthProperties properties = new AuthProperties();
+        properties.getBodyCache().setMaxSize(DataSize.ofBytes(8));
+        properties.getBodyCache().setOverflow(overflow);
+        return properties;
+    }
+
+    private static long spillFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(file -> file.getFileName().toString().startsWith("shore-body-")).count();
+        }
+    }
+
+    private MockServerWebExchange exchange(String path, List<? extends DataBuffer> chunks) {
+        return exchange(path, chunks.stream().mapToLong(DataBuffer::readableByteCount).sum(), chunks);
+    }
+
+    private MockServerWebExchange exchange(String path, long length, List<? extends DataBuffer> chunks) {
+        return MockServerWebExchange.from(MockServerHttpRequest.post(path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(length)
+                .body(Flux.fromIterable(chunks)));
+    }
+
+    private List<NettyDataBuffer> chunks(String... parts) {
+        List<NettyDataBuffer> chunks = new ArrayList<>(parts.length);
+        for (String part : parts) {
+            ByteBuf byteBuf = PooledByteBufAllocator.DEFAULT.buffer();
+            byteBuf.writeCharSequence(part, StandardCharsets.UTF_8);
+            chunks.add(bufferFactory.wrap(byteBuf));
+        }
+        return chunks;
+    }
+
+    private static Mono<String> read(Flux<DataBuffer> body) {
+        return DataBufferUtils.join(body).map(buffer -> {
+            String text = buffer.toString(StandardCharsets.UTF_8);
+            DataBufferUtils.release(buffer);
+            return text;
+        });
+    }
+
+    private static void assertReleased(List<NettyDataBuffer> chunks) {
+        assertThat(chunks).allSatisfy(chunk -> assertThat(chunk.getNativeBuffer().refCnt()).isZero());
+    }
+}
@@ -0,0 +1,98 @@
+package run.vexa.reactor.security.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.PayloadTooLargeException;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReactiveBodyParamUtilTest {
+
+    private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    @Test
+    void parseFormDecodesPairsAndKeepsRepeatedKeys() {
+        MultiValueMap<String, String> form = ReactiveBodyParamUtil.parseForm(
+                "username=admin&tag=a&tag=b+c&flag&=ignored&&name=%E5%BC%A0%E4%B8%89", StandardCharsets.UTF_8);
+
+        assertThat(form.get("username")).containsExactly("admin");
+        assertThat(form.get("tag")).containsExactly("a", "b c");
+        assertThat(form.get("flag")).containsExactly("");
+        assertThat(form.get("name")).containsExactly("张三");
+        assertThat(form).hasSize(4);
+    }
+
+    @Test
+    void parseFormHandlesEmptyValuesAndEqualsInValue() {
+        MultiValueMap<String, String> form = ReactiveBodyParamUtil.parseForm("a=&b=x=y", StandardCharsets.UTF_8);
+
+        assertThat(form.get("a")).containsExactly("");
+        assertThat(form.get("b")).containsExactly("x=y");
+    }
+
+    @Test
+    void parseFormParsesManyKeyOnlyPairs() {
+        String body = String.join("&", Collections.nCopies(50_000, "k")) + "&last=1";
+
+        MultiValueMap<String, String> form = ReactiveBodyParamUtil.parseForm(body, StandardCharsets.UTF_8);
+
+        assertThat(form.get("k")).hasSize(50_000);
+        assertThat(form.getFirst("last")).isEqualTo("1");
+    }
+
+    @Test
+    void parseFormRejectsMalformedPercentEncodingAsBadRequest() {
+        assertThatThrownBy(() -> ReactiveBodyParamUtil.parseForm("name=%zz", StandardCharsets.UTF_8))
+                .isInstanceOf(ServerWebInputException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class)
+                .satisfies(e -> assertThat(((ServerWebInputException) e).getStatusCode().value()).isEqualTo(400));
+    }
+
+    @Test
+    void parseBodyFromRequestJoinsChunksBeforeDecoding() {
+        byte[] bytes = "{\"name\":\"张三\"}".getBytes(StandardCharsets.UTF_8);
+        // split inside the multi-byte characters
+        List<DataBuffer> chunks = List.of(
+                bufferFactory.wrap(Arrays.copyOfRange(bytes, 0, 10)),
+                bufferFactory.wrap(Arrays.copyOfRange(bytes, 10, 13)),
+                bufferFactory.wrap(Arrays.copyOfRange(bytes, 13, bytes.length)));
+        MockServerHttpRequest request = MockServerHttpRequest.post("/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Flux.fromIterable(chunks));
+
+        StepVerifier.create(ReactiveBodyParamUtil.parseBodyFromRequest(request))
+                .expectNext("{\"name\":\"张三\"}")
+                .verifyComplete();
+    }
+
+    @Test
+    void parseBodyFromRequestRejectsBodyOverLimit() {
+        MockServerHttpRequest request = MockServerHttpRequest.post("/login")
+                .body(Flux.just(bufferFactory.wrap(new byte[8]), bufferFactory.wrap(new byte[8])));
+
+        StepVerifier.create(ReactiveBodyParamUtil.parseBodyFromRequest(request, 12))
+                .verifyError(PayloadTooLargeException.class);
+    }
+
+    @Test
+    void parseBodyFromRequestReturnsEmptyStringWithoutBody() {
+        MockServerHttpRequest request = MockServerHttpRequest.post("/login").build();
+
+        StepVerifier.create(ReactiveBodyParamUtil.parseBodyFromRequest(request))
+                .expectNext("")
+                .verifyComplete();
+    }
+}